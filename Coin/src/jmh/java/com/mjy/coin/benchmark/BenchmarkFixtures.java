@@ -0,0 +1,131 @@
+package com.mjy.coin.benchmark;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.enums.OrderStatus;
+import com.mjy.coin.enums.OrderType;
+import com.mjy.coin.service.CoinInfoService;
+import com.mjy.coin.service.RedisOrderBatch;
+import com.mjy.coin.service.RedisService;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+
+/**
+ * 벤치마크 공통 준비물.
+ * Redis/Kafka는 아무것도 하지 않는 구현으로 바꿔 체결 엔진 자체 비용만 잰다.
+ *
+ * 호가 모양 : 중간가 100000을 기준으로 매수 99999부터 아래로, 매도 100001부터 위로 LEVELS개 레벨에
+ * 대기 주문 depth개를 고르게 나눠 둔다. (주문 하나 수량 1)
+ */
+final class BenchmarkFixtures {
+    static final String KEY = "BTC-KRW";
+    static final long MID_PRICE = 100_000;
+    static final int LEVELS = 1_000;
+    static final MarketScale ARRAY_SCALE = new MarketScale(0, 8, 1); // 호가 단위 있음 -> 배열 기반
+    static final MarketScale TREE_SCALE = new MarketScale(0, 8);     // 호가 단위 없음 -> TreeMap 기반
+
+    private BenchmarkFixtures() {
+    }
+
+    static MarketScale scale(String bookType) {
+        return "tree".equals(bookType) ? TREE_SCALE : ARRAY_SCALE;
+    }
+
+    static CoinOrderDTO order(MarketScale scale, String uuid, OrderType type, long price, String amount) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(uuid);
+        order.setMemberUuid("bench-member");
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        order.setOrderType(type);
+        order.setOrderPrice(BigDecimal.valueOf(price));
+        order.setCoinAmount(new BigDecimal(amount));
+        order.setOrderStatus(OrderStatus.PENDING);
+        scale.applyTo(order);
+        return order;
+    }
+
+    // 양쪽 호가에 대기 주문 depth개 (한쪽에 depth / 2개)
+    static void fill(OrderBook orderBook, int depth) {
+        MarketScale scale = orderBook.getScale();
+        for (int i = 0; i < depth; i++) {
+            boolean buy = (i & 1) == 0;
+            long level = (i >> 1) % LEVELS;
+            long price = buy ? MID_PRICE - 1 - level : MID_PRICE + 1 + level;
+            orderBook.add(order(scale, "Resting-" + i, buy ? BUY : SELL, price, "1"));
+        }
+    }
+
+    // System.out을 버리는 스트림 (V1 체결의 체결 로그 출력이 결과를 덮지 않도록), 이전 스트림 반환
+    static PrintStream silenceStdout() {
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return previous;
+    }
+
+    // 마켓 자릿수를 DB 대신 고정값으로
+    static class FixedScaleCoinInfoService extends CoinInfoService {
+        private final MarketScale scale;
+
+        FixedScaleCoinInfoService(MarketScale scale) {
+            super(null, null);
+            this.scale = scale;
+        }
+
+        @Override
+        public MarketScale getMarketScale(String key) {
+            return scale;
+        }
+    }
+
+    // Redis 반영 없음
+    static class NoopRedisService extends RedisService {
+        NoopRedisService() {
+            super(null, null);
+        }
+
+        @Override
+        public void commitOrderBatch(String key, RedisOrderBatch batch) {
+        }
+
+        @Override
+        public void insertOrderInRedis(String key, OrderStatus orderStatus, CoinOrderDTO order) {
+        }
+
+        @Override
+        public void updateOrderInRedis(CoinOrderDTO order) {
+        }
+
+        @Override
+        public void deleteHashOps(String key, String hashKey) {
+        }
+    }
+
+    // Kafka 전송 없음 (바로 완료된 Future)
+    static class NoopKafkaTemplate<V> extends KafkaTemplate<String, V> {
+        NoopKafkaTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, V>> send(String topic, V data) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, V>> send(String topic, String key, V data) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mjy.coin.benchmark;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.OrderBookDepthDTO;
+import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.mjy.coin.benchmark.BenchmarkFixtures.*;
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+
+/**
+ * 체결 서비스 주문 하나 처리 비용 (V1 BigDecimal 큐 체결 vs V2 오더북 코어 + 배치 반영).
+ * Redis/Kafka/저널/복제/L2 전송/지표는 끄거나 아무것도 하지 않는 구현이라 서비스 계층의 체결 비용만 남는다.
+ *   crossing : 최우선 매도가로 수량 1 매수 (매도 하나 모두 체결), 같은 가격에 매도를 다시 등록해 깊이 유지
+ *   resting  : 체결되지 않는 매수 등록 후 취소
+ * 서비스가 주문 객체를 체결 기록으로 들고 있으므로 주문은 매번 새로 만든다. (두 버전 같은 조건)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MatcherBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    @Param({"v1", "v2"})
+    public String matcher;
+
+    @Param({"crossing", "resting"})
+    public String mix;
+
+    private OrderService orderService;
+    private PendingOrderMatcherServiceV1 matcherV1;
+    private PendingOrderMatcherServiceV2 matcherV2;
+    private SplittableRandom random;
+    private PrintStream stdout;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CoinInfoService coinInfoService = new FixedScaleCoinInfoService(ARRAY_SCALE);
+        RedisService redisService = new NoopRedisService();
+        orderService = new OrderService(coinInfoService, 4096);
+        fill(orderService.getOrderBook(KEY), depth);
+
+        NoopKafkaTemplate<Map<String, List<TradeDTO>>> matchListKafkaTemplate = new NoopKafkaTemplate<>();
+        NoopKafkaTemplate<Map<String, List<PriceVolumeDTO>>> priceVolumeKafkaTemplate = new NoopKafkaTemplate<>();
+        JournalService journalService = new JournalService(false, "./journal", 1 << 20, "batch", 256, 5, 1024, 0);
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, false, "bench", 3000, 1000, 4096, 10000);
+        KafkaTransactionService kafkaTransactionService = new KafkaTransactionService(null, replicaService, journalService, false);
+        DepthStreamService depthStreamService = new DepthStreamService(false, "Order-Book-L2", journalService, replicaService,
+                kafkaTransactionService, new NoopKafkaTemplate<OrderBookDepthDTO>());
+
+        matcherV1 = new PendingOrderMatcherServiceV1(null, orderService, redisService, matchListKafkaTemplate, priceVolumeKafkaTemplate);
+        matcherV2 = new PendingOrderMatcherServiceV2(null, orderService, redisService, journalService, replicaService,
+                kafkaTransactionService, depthStreamService, new MatchMetricsService(new SimpleMeterRegistry(), false, false, 60000),
+                new OrderIdService(replicaService, kafkaTransactionService, redisService, 0, "bench"),
+                matchListKafkaTemplate, priceVolumeKafkaTemplate);
+        random = new SplittableRandom(42);
+        stdout = silenceStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Object match() {
+        if ("crossing".equals(mix)) {
+            long bestAsk = orderService.getSellOrderQueue(KEY).getBestPrice();
+            CoinOrderDTO taker = submit(bestAsk);
+            orderService.getOrderBook(KEY).add(order(ARRAY_SCALE, "Maker-" + sequence++, SELL, bestAsk, "1"));
+            return taker;
+        }
+        CoinOrderDTO order = submit(MID_PRICE - 1 - random.nextInt(LEVELS));
+        return orderService.cancelOrder(KEY, order.getUuid(), order.getMemberUuid());
+    }
+
+    // 수량 1 매수 주문 처리
+    private CoinOrderDTO submit(long price) {
+        CoinOrderDTO order = order(ARRAY_SCALE, "Order-" + sequence++, BUY, price, "1");
+        if ("v1".equals(matcher)) {
+            // V1은 큐에 먼저 넣고 양쪽 최우선 주문을 비교해 체결
+            orderService.addBuyOrder(KEY, order);
+            matcherV1.matchOrders(order);
+        } else {
+            matcherV2.matchBatch(KEY, List.of(order));
+        }
+        return order;
+    }
+}
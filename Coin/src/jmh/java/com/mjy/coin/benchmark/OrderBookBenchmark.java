@@ -0,0 +1,77 @@
+package com.mjy.coin.benchmark;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.FillBuffer;
+import com.mjy.coin.engine.OrderBook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.mjy.coin.benchmark.BenchmarkFixtures.*;
+import static com.mjy.coin.enums.OrderType.BUY;
+
+/**
+ * 오더북 코어(OrderBook.match) 주문 하나 처리 비용.
+ *   crossing : 최우선 매도가로 수량 1 매수 -> 최우선 매도 주문 하나가 모두 체결, 체결된 주문을 같은 가격에 다시 등록해 깊이 유지
+ *   resting  : 호가 안쪽 임의 레벨에 체결되지 않는 매수 등록 후 취소
+ * 주문 객체는 재사용하므로 할당 없이 자료구조 비용만 잰다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    @Param({"array", "tree"})
+    public String bookType;
+
+    @Param({"crossing", "resting"})
+    public String mix;
+
+    private OrderBook orderBook;
+    private CoinOrderDTO taker;
+    private CoinOrderDTO resting;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderBook = new OrderBook(KEY, scale(bookType));
+        fill(orderBook, depth);
+        taker = order(orderBook.getScale(), "Taker", BUY, MID_PRICE + 1, "1");
+        resting = order(orderBook.getScale(), "Resting", BUY, MID_PRICE - 1, "1");
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void match(Blackhole blackhole) {
+        if ("crossing".equals(mix)) {
+            cross(blackhole);
+        } else {
+            rest(blackhole);
+        }
+    }
+
+    private void cross(Blackhole blackhole) {
+        long bestAsk = orderBook.getSellSide().getBestPrice();
+        taker.setPriceTicks(bestAsk);
+        taker.setQuantityLots(orderBook.getScale().toQuantityLots(taker.getCoinAmount()));
+        FillBuffer fills = orderBook.match(taker);
+        blackhole.consume(fills.size());
+
+        // 체결된 매도 주문을 같은 가격 대기열 맨 뒤에 다시 등록
+        CoinOrderDTO maker = fills.get(0).getMakerOrder();
+        maker.setQuantityLots(fills.get(0).getQuantityLots());
+        orderBook.add(maker);
+    }
+
+    private void rest(Blackhole blackhole) {
+        resting.setPriceTicks(MID_PRICE - 1 - random.nextInt(LEVELS));
+        resting.setQuantityLots(orderBook.getScale().toQuantityLots(resting.getCoinAmount()));
+        blackhole.consume(orderBook.match(resting).size());
+        blackhole.consume(orderBook.cancel(resting.getUuid()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.mjy.coin.benchmark;
+
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.service.OrderBookService;
+import com.mjy.coin.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.mjy.coin.benchmark.BenchmarkFixtures.*;
+
+/**
+ * 호가 조회 비용.
+ *   publishDepth : 레인이 주문 묶음마다 상위 top-n 레벨 읽기 전용 호가를 만드는 비용
+ *   getDepth     : /orderBook 요청 스레드가 공개된 호가를 읽는 비용 (재계산 없음)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class OrderBookServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    @Param({"10", "50"})
+    public int topN;
+
+    private OrderBookService orderBookService;
+    private OrderBook orderBook;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderService orderService = new OrderService(new FixedScaleCoinInfoService(ARRAY_SCALE), 4096);
+        orderBook = orderService.getOrderBook(KEY);
+        fill(orderBook, depth);
+        orderBookService = new OrderBookService(orderService, topN);
+        orderBookService.publishDepth(KEY, orderBook);
+    }
+
+    @Benchmark
+    public void publishDepth() {
+        orderBookService.publishDepth(KEY, orderBook);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Map<String, Map<BigDecimal, BigDecimal>> getDepth() {
+        return orderBookService.getDepth(KEY);
+    }
+}
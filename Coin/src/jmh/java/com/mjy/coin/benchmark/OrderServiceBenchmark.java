@@ -0,0 +1,47 @@
+package com.mjy.coin.benchmark;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.mjy.coin.benchmark.BenchmarkFixtures.*;
+import static com.mjy.coin.enums.OrderType.BUY;
+
+/**
+ * OrderService 매수 큐 등록(addBuyOrder) + 최우선 주문 꺼내기(poll) 비용.
+ * 꺼낸 주문을 호가 안쪽 임의 레벨에 다시 등록하므로 대기 주문 수는 그대로다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OrderServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    @Param({"array", "tree"})
+    public String bookType;
+
+    private OrderService orderService;
+    private CoinOrderDTO next;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderService = new OrderService(new FixedScaleCoinInfoService(scale(bookType)), 4096);
+        fill(orderService.getOrderBook(KEY), depth);
+        next = order(scale(bookType), "Queued", BUY, MID_PRICE - 1, "1");
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public CoinOrderDTO addAndPoll() {
+        next.setPriceTicks(MID_PRICE - 1 - random.nextInt(LEVELS));
+        orderService.addBuyOrder(KEY, next);
+        next = orderService.getBuyOrderQueue(KEY).poll();
+        return next;
+    }
+}
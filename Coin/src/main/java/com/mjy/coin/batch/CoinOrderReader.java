@@ -1,8 +1,6 @@
 package com.mjy.coin.batch;
 
 import com.mjy.coin.dto.CoinOrderDTO;
-import com.mjy.coin.enums.OrderStatus;
-import com.mjy.coin.enums.OrderType;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,8 +24,9 @@ import java.util.List;
 public class CoinOrderReader implements ItemReader<CoinOrderDTO> {
 
     private final JdbcTemplate jdbcTemplate;
-    private final Long chunkIdx;
+    private final String chunkTradeId;
     private final String coinName;
+    private final String marketName;
     private final LocalDate yesterday;
     private PreparedStatement preparedStatement;
     private ResultSet resultSet;
@@ -35,12 +34,14 @@ public class CoinOrderReader implements ItemReader<CoinOrderDTO> {
 
 
     public CoinOrderReader(JdbcTemplate jdbcTemplate,
-                           @Value("#{stepExecutionContext['chunkIdx']}") Long chunkIdx,
+                           @Value("#{stepExecutionContext['chunkTradeId']}") String chunkTradeId,
                            @Value("#{stepExecutionContext['coinName']}") String coinName,
+                           @Value("#{stepExecutionContext['marketName']}") String marketName,
                            @Value("#{stepExecutionContext['yesterday']}") LocalDate yesterday) {
         this.jdbcTemplate = jdbcTemplate;
-        this.chunkIdx = chunkIdx;
+        this.chunkTradeId = chunkTradeId;
         this.coinName = coinName;
+        this.marketName = marketName;
         this.yesterday = yesterday;
     }
 
@@ -48,18 +49,21 @@ public class CoinOrderReader implements ItemReader<CoinOrderDTO> {
     public CoinOrderDTO read() throws SQLException {
 //        if (!initialized) {
 //            String sql = """
-//                SELECT * FROM CoinOrder
+//                SELECT price, quantity FROM CoinTrade
 //                WHERE coinName = ?
-//                  AND idx >= ?
+//                  AND marketName = ?
+//                  AND tradeId >= ?
 //                  AND DATE(matchedAt) = ?
+//                ORDER BY tradeId
 //            """;
 //
 //            Connection connection = jdbcTemplate.getDataSource().getConnection();
 //            preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 //
 //            preparedStatement.setString(1, coinName);
-//            preparedStatement.setLong(2, chunkIdx);
-//            preparedStatement.setObject(3, yesterday);
+//            preparedStatement.setString(2, marketName);
+//            preparedStatement.setString(3, chunkTradeId);
+//            preparedStatement.setObject(4, yesterday);
 //
 //            resultSet = preparedStatement.executeQuery();
 //            initialized = true;
@@ -82,24 +86,14 @@ public class CoinOrderReader implements ItemReader<CoinOrderDTO> {
         return coinOrderDTO;
     }
 
+    // 체결 한 건을 체결가, 체결 수량만 채운 주문으로 (CoinOrderWriter가 거래대금과 거래량을 합산)
     private CoinOrderDTO mapRow(ResultSet rs) throws SQLException {
         CoinOrderDTO coinOrderDTO = new CoinOrderDTO();  // 매번 새 객체를 생성하여 반환
 
-        coinOrderDTO.setIdx(rs.getLong("idx"));
-        coinOrderDTO.setMemberIdx(rs.getLong("memberIdx"));
-        coinOrderDTO.setMemberUuid(rs.getString("memberUuid"));
-        coinOrderDTO.setMarketName(rs.getString("marketName"));
-        coinOrderDTO.setCoinName(rs.getString("coinName"));
-        coinOrderDTO.setCoinAmount(rs.getBigDecimal("coinAmount"));
-        coinOrderDTO.setOrderPrice(rs.getBigDecimal("orderPrice"));
-        coinOrderDTO.setExecutionPrice(rs.getBigDecimal("executionPrice"));
-        coinOrderDTO.setOrderType(OrderType.valueOf(rs.getString("orderType"))); // Enum 매핑
-        coinOrderDTO.setOrderStatus(OrderStatus.valueOf(rs.getString("orderStatus"))); // Enum 매핑
-        coinOrderDTO.setFee(rs.getBigDecimal("fee"));
-        coinOrderDTO.setCreatedAt(rs.getTimestamp("createdAt").toLocalDateTime());
-        coinOrderDTO.setMatchedAt(rs.getTimestamp("matchedAt") != null ? rs.getTimestamp("matchedAt").toLocalDateTime() : null);
-        coinOrderDTO.setMatchIdx(rs.getString("matchIdx"));
-        coinOrderDTO.setUuid(rs.getString("uuid"));
+        coinOrderDTO.setCoinName(coinName);
+        coinOrderDTO.setMarketName(marketName);
+        coinOrderDTO.setExecutionPrice(rs.getBigDecimal("price"));
+        coinOrderDTO.setCoinAmount(rs.getBigDecimal("quantity"));
 
         return coinOrderDTO;
     }
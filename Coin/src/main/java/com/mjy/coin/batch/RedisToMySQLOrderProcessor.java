@@ -1,6 +1,6 @@
 package com.mjy.coin.batch;
 
-import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.TradeDTO;
 import com.mjy.coin.service.ConvertService;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
@@ -8,7 +8,7 @@ import org.springframework.stereotype.Component;
 import java.util.Map;
 
 @Component
-public class RedisToMySQLOrderProcessor implements ItemProcessor<Map.Entry<String, String>, CoinOrderDTO> {
+public class RedisToMySQLOrderProcessor implements ItemProcessor<Map.Entry<String, String>, TradeDTO> {
 
     private final ConvertService convertService;
 
@@ -17,9 +17,9 @@ public class RedisToMySQLOrderProcessor implements ItemProcessor<Map.Entry<Strin
     }
 
     @Override
-    public CoinOrderDTO process(Map.Entry<String, String> entry){
+    public TradeDTO process(Map.Entry<String, String> entry){
         String jsonValue = entry.getValue();
 
-        return convertService.convertStringToObject(jsonValue, CoinOrderDTO.class);
+        return convertService.convertStringToObject(jsonValue, TradeDTO.class);
     }
 }
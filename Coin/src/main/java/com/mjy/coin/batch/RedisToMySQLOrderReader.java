@@ -26,8 +26,8 @@ public class RedisToMySQLOrderReader implements ItemReader<Map.Entry<String, Str
     @Override
     public Map.Entry<String, String> read(){
         if (cursor == null) {
-            // Cursor가 null인 경우, 새로운 Cursor를 생성하여 스캔 시작
-            cursor = redisService.scanCursor("COMPLETED:ORDER:" + redisKey);
+            // Cursor가 null인 경우, 새로운 Cursor를 생성하여 체결 스캔 시작
+            cursor = redisService.scanCursor("COMPLETED:TRADE:" + redisKey);
         }
 
         if (cursor.hasNext()) {
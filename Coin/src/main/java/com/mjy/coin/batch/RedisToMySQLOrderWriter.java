@@ -1,8 +1,8 @@
 package com.mjy.coin.batch;
 
-import com.mjy.coin.dto.CoinOrderDTO;
-import com.mjy.coin.dto.CoinOrderMapper;
-import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.dto.TradeMapper;
+import com.mjy.coin.repository.coin.master.MasterCoinTradeRepository;
 import com.mjy.coin.service.RedisService;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.Chunk;
@@ -15,32 +15,33 @@ import java.util.List;
 
 @Component
 @StepScope
-public class RedisToMySQLOrderWriter implements ItemWriter<CoinOrderDTO> {
+public class RedisToMySQLOrderWriter implements ItemWriter<TradeDTO> {
 
-    private final MasterCoinOrderRepository masterCoinOrderRepository;
+    private final MasterCoinTradeRepository masterCoinTradeRepository;
     private final String redisKey;
     private final RedisService redisService;
 
     public RedisToMySQLOrderWriter(RedisService redisService,
-                                   MasterCoinOrderRepository masterCoinOrderRepository,
+                                   MasterCoinTradeRepository masterCoinTradeRepository,
                                    @Value("#{jobParameters['redisKey']}") String redisKey) {
-        this.masterCoinOrderRepository = masterCoinOrderRepository;
+        this.masterCoinTradeRepository = masterCoinTradeRepository;
         this.redisKey = redisKey;
         this.redisService = redisService;
     }
 
     @Override
-    public void write(Chunk<? extends CoinOrderDTO> items){
-        List<CoinOrderDTO> itemList = new ArrayList<>();
+    public void write(Chunk<? extends TradeDTO> items){
+        List<TradeDTO> itemList = new ArrayList<>();
 
-        for (CoinOrderDTO item : items) {
+        for (TradeDTO item : items) {
             itemList.add(item);
         }
 
-        masterCoinOrderRepository.saveAll(CoinOrderMapper.toEntityList(itemList));
+        // 체결마다 한 행 (매수/매도 주문 두 행이 아니다), 체결 ID가 키라 다시 실행해도 중복 저장되지 않는다
+        masterCoinTradeRepository.saveAll(TradeMapper.toEntityList(itemList));
 
-        for (CoinOrderDTO item : items) {
-            redisService.deleteHashOps("COMPLETED:ORDER:" + redisKey, item.getUuid());
+        for (TradeDTO item : items) {
+            redisService.deleteHashOps("COMPLETED:TRADE:" + redisKey, item.getTradeId());
         }
     }
 }
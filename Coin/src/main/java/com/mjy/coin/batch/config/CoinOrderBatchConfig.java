@@ -152,8 +152,9 @@ public class CoinOrderBatchConfig {
             for (Map.Entry<String, List<CoinOrderSimpleDTO>> entry : coinOrderPartitions.entrySet()) {
                 for (CoinOrderSimpleDTO coinOrderSimpleDTO : entry.getValue()) {
                     ExecutionContext context = new ExecutionContext();
-                    context.put("chunkIdx", coinOrderSimpleDTO.getIdx());
+                    context.put("chunkTradeId", coinOrderSimpleDTO.getTradeId());
                     context.put("coinName", coinOrderSimpleDTO.getCoinName());
+                    context.put("marketName", coinOrderSimpleDTO.getMarketName());
                     context.put("yesterday", yesterday);
                     partitions.put("partition" + partitionCounter.getAndIncrement(), context);
                 }
@@ -183,6 +184,7 @@ public class CoinOrderBatchConfig {
             for (String key : keys) {
                 String[] parts = key.split("-");
                 String coinName = parts[0];  // BTC, ETH..
+                String marketName = parts[1]; // KRW, USDT..
 
                 Set<String> redisKeys = redisService.getKeys(yesterday + ":" + coinName + ":partition:*");
                 BigDecimal totalPrice = BigDecimal.ZERO;
@@ -199,11 +201,11 @@ public class CoinOrderBatchConfig {
                 BigDecimal averagePrice = totalPrice.divide(totalVolume, RoundingMode.HALF_UP);
 
                 //마지막 idx를 종가로 설정
-                BigDecimal closingPrice = coinOrderService.getLatestExecutionPriceByDate(coinName, yesterday);
+                BigDecimal closingPrice = coinOrderService.getLatestExecutionPriceByDate(coinName, marketName, yesterday);
 
                 //최종 결과를 DB에 저장
                 CoinOrderDayHistoryDTO history = new CoinOrderDayHistoryDTO();
-                history.setMarketName("KRW");
+                history.setMarketName(marketName);
                 history.setCoinName(coinName);
                 history.setAveragePrice(averagePrice);
                 history.setTradingVolume(totalVolume);
@@ -1,8 +1,8 @@
 package com.mjy.coin.batch.config;
 
 import com.mjy.coin.batch.*;
-import com.mjy.coin.dto.CoinOrderDTO;
-import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.repository.coin.master.MasterCoinTradeRepository;
 import com.mjy.coin.service.CoinInfoService;
 import com.mjy.coin.service.ConvertService;
 import com.mjy.coin.service.RedisService;
@@ -30,7 +30,7 @@ public class RedisToMySQLOrderBatchConfig {
                                PlatformTransactionManager transactionManager,
                                CoinInfoService coinInfoService,
                                RedisService redisService,
-                               MasterCoinOrderRepository masterCoinOrderRepository,
+                               MasterCoinTradeRepository masterCoinTradeRepository,
                                ConvertService convertService){
 
         List<String> keys = coinInfoService.getCoinMarketKeys();
@@ -42,10 +42,10 @@ public class RedisToMySQLOrderBatchConfig {
 
         for (String key : keys) {
             Step step = new StepBuilder("redisToMysqlStep" + key, jobRepository)
-                    .<Map.Entry<String, String>, CoinOrderDTO>chunk(1000, transactionManager)
+                    .<Map.Entry<String, String>, TradeDTO>chunk(1000, transactionManager)
                     .reader(new RedisToMySQLOrderReader(redisService, key))
                     .processor(new RedisToMySQLOrderProcessor(convertService))
-                    .writer(new RedisToMySQLOrderWriter(redisService, masterCoinOrderRepository, key))
+                    .writer(new RedisToMySQLOrderWriter(redisService, masterCoinTradeRepository, key))
                     .build();
 
 
@@ -1,66 +1,209 @@
 package com.mjy.coin.component;
 
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderBookSnapshot;
 import com.mjy.coin.enums.OrderType;
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.service.*;
 import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.*;
 
 @Component
 public class CoinInfoInitializer {
 
     private final OrderService orderService;
-    private final OrderBookService orderBookService;
     private final CoinInfoService coinInfoService;
     private final RedisService redisService;
     private final ConvertService convertService;
+    private final SnapshotService snapshotService;
+    private final MarketLaneService marketLaneService;
+    private final JournalService journalService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final OrderDedupeService orderDedupeService;
+    private final OrderBookService orderBookService;
+    private final ReplicaService replicaService;
+    private final PendingOrderMatcherServiceV2 pendingOrderMatcherServiceV2;
 
     public CoinInfoInitializer(OrderService orderService,
-                               OrderBookService orderBookService,
                                CoinInfoService coinInfoService,
                                RedisService redisService,
-                               ConvertService convertService) {
+                               ConvertService convertService,
+                               SnapshotService snapshotService,
+                               MarketLaneService marketLaneService,
+                               JournalService journalService,
+                               KafkaTransactionService kafkaTransactionService,
+                               OrderDedupeService orderDedupeService,
+                               OrderBookService orderBookService,
+                               ReplicaService replicaService,
+                               PendingOrderMatcherServiceV2 pendingOrderMatcherServiceV2) {
         this.orderService = orderService;
-        this.orderBookService = orderBookService;
         this.coinInfoService = coinInfoService;
         this.redisService = redisService;
         this.convertService = convertService;
+        this.snapshotService = snapshotService;
+        this.marketLaneService = marketLaneService;
+        this.journalService = journalService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.orderDedupeService = orderDedupeService;
+        this.orderBookService = orderBookService;
+        this.replicaService = replicaService;
+        this.pendingOrderMatcherServiceV2 = pendingOrderMatcherServiceV2;
     }
 
+    // 동적 배정(coin.engine.ownership.enabled)이면 시작 시 맡은 마켓이 없고 MarketOwnershipCoordinator가 배정받을 때마다 적재한다
     @PostConstruct
     public void init() {
         List<String> keys = coinInfoService.getCoinMarketKeys();
 
         for (String key : keys) {
-            // 주문 우선순위큐, 호가 트리 자료구조 생성
-            orderService.initializeBuyOrder(key);
-            orderService.initializeSellOrder(key);
-            orderBookService.initializeBuyOrderBook(key);
-            orderBookService.initializeSellOrderBook(key);
-
-            // Redis에서 해당 코인-마켓 조합의 모든 데이터를 조회
-            Map<String, String> redisOrders = redisService.getAllHashOps("PENDING:ORDER:" + key);
-
-            // Redis에서 가져온 데이터를 CoinOrderDTO로 변환 후 처리
-            for (String orderData : redisOrders.values()) {
-                // JSON 문자열을 CoinOrderDTO 객체로 변환
-                CoinOrderDTO orderDTO = convertService.convertStringToObject(orderData, CoinOrderDTO.class);
-
-                // 매수 주문일 경우
-                if (orderDTO.getOrderType() == OrderType.BUY) {
-                    orderService.addBuyOrder(key, orderDTO);
-                    orderBookService.addBuyOrderBook(key,orderDTO);
-                }
-                // 매도 주문일 경우
-                else if (orderDTO.getOrderType() == OrderType.SELL) {
-                    orderService.addSellOrder(key, orderDTO);
-                    orderBookService.addSellOrderBook(key,orderDTO);
-                }
-            }
+            loadMarket(key, true);
         }
 
         System.out.println("Buy/Sell queues initialized with Redis keys and DB pending orders.");
     }
+
+    // 마켓 오더북 적재, restoreLocal이면 이 인스턴스의 스냅샷 + 저널을 먼저 사용하고 아니면 Redis 미체결/스탑 주문으로 적재
+    public void loadMarket(String key, boolean restoreLocal) {
+        // 마켓별 오더북(가격 레벨 + 레벨별 주문 대기열) 생성
+        orderService.initializeOrderBook(key);
+
+        // 스냅샷 + 이후 저널 재생으로 복구 (대기 주문 수와 관계없이 마지막 스냅샷 이후 이벤트만 처리)
+        // Kafka 트랜잭션 모드는 커밋된 오프셋 이전까지만 복구하고 나머지는 다시 전달받는다
+        if (restoreLocal && restoreFromJournal(key)) {
+            orderBookService.publishDepth(key, orderService.getOrderBook(key));
+            return;
+        }
+
+        MarketScale scale = coinInfoService.getMarketScale(key);
+
+        // Redis에서 해당 코인-마켓 조합의 모든 데이터를 조회 (접수 순서대로 넣어야 같은 가격의 시간 우선순위가 유지된다)
+        for (CoinOrderDTO orderDTO : readOrdersByArrival("PENDING:ORDER:" + key, scale)) {
+            // 매수 주문일 경우
+            if (orderDTO.getOrderType() == OrderType.BUY) {
+                orderService.addBuyOrder(key, orderDTO);
+            }
+            // 매도 주문일 경우
+            else if (orderDTO.getOrderType() == OrderType.SELL) {
+                orderService.addSellOrder(key, orderDTO);
+            }
+        }
+
+        // 발동 전 스탑 주문은 스탑 목록으로
+        List<CoinOrderDTO> redisStopOrders = readOrdersByArrival("STOP:ORDER:" + key, scale);
+        for (CoinOrderDTO orderDTO : redisStopOrders) {
+            orderService.getOrderBook(key).addStop(orderDTO);
+        }
+
+        // 마지막 체결가 : 없으면 다음 체결 전까지 스탑 주문이 발동하지 않는다
+        BigDecimal lastPrice = redisService.getLastPrice(key);
+        if (lastPrice != null) {
+            orderService.getOrderBook(key).setLastPriceTicks(scale.toPriceTicks(lastPrice));
+        } else if (!redisStopOrders.isEmpty()) {
+            System.err.println("No last trade price for " + key + ", " + redisStopOrders.size() + " stop orders wait for the next trade");
+        }
+
+        // Redis에서 읽은 오더북을 기준 스냅샷으로 저장해 다음 재시작부터는 스냅샷으로 복구
+        snapshotService.saveBaseline(key);
+        markApplied(key);
+        orderBookService.publishDepth(key, orderService.getOrderBook(key));
+    }
+
+    // Redis 해시의 주문을 접수 순서(등록일자, 같으면 uuid)로 정렬, HGETALL은 필드 순서를 보장하지 않는다
+    private List<CoinOrderDTO> readOrdersByArrival(String redisKey, MarketScale scale) {
+        List<CoinOrderDTO> orders = new ArrayList<>();
+        for (String orderData : redisService.getAllHashOps(redisKey).values()) {
+            // JSON 문자열을 CoinOrderDTO 객체로 변환
+            CoinOrderDTO orderDTO = convertService.convertStringToObject(orderData, CoinOrderDTO.class);
+            scale.applyTo(orderDTO);
+            orders.add(orderDTO);
+        }
+        orders.sort(Comparator.comparing(CoinOrderDTO::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(CoinOrderDTO::getUuid, Comparator.nullsLast(Comparator.naturalOrder())));
+        return orders;
+    }
+
+    // Kafka 트랜잭션이 중단된 마켓의 오더북을 커밋된 오프셋 시점으로 다시 적재 (배치 리스너 스레드에서 호출)
+    public void rollbackMarket(String key) throws Exception {
+        // 중단된 배치의 Redis 반영과 모아 둔 전송을 정리한 뒤 레인에서 다시 적재 (다음 주문과 겹치지 않게)
+        journalService.awaitDownstream(key);
+        kafkaTransactionService.discard(key);
+        marketLaneService.callOnLane(key, () -> {
+            orderService.removeOrderBook(key);
+            orderDedupeService.reset(key);
+            loadMarket(key, true);
+            return null;
+        });
+    }
+
+    // 이전 소유 인스턴스가 넘겨준 스냅샷으로 오더북 적재 (마켓 소유권 이전)
+    public void loadMarket(String key, OrderBookSnapshot snapshot) {
+        orderService.initializeOrderBook(key);
+        snapshot.restore(orderService.getOrderBook(key));
+
+        // 이 인스턴스 저널 기준의 새 기준 스냅샷 (이전에 맡았을 때 남은 저널 기록은 재생되지 않는다)
+        snapshotService.saveBaseline(key);
+        markApplied(key);
+        orderBookService.publishDepth(key, orderService.getOrderBook(key));
+    }
+
+    // 스냅샷 + 저널로 복구하고, Redis에 반영되지 않은 저널 구간(APPLIED:SEQUENCE 이후)의 체결/미체결/스탑 주문을 다시 반영
+    // 대기(standby) 인스턴스는 Redis를 건드리지 않는다 (반영은 승격 시 보관분으로)
+    private boolean restoreFromJournal(String key) {
+        long committedOffset = kafkaTransactionService.getCommittedOffset(key);
+        MarketJournal journal = journalService.getJournal(key);
+        long appliedSequence = journal != null && replicaService.isPrimary() ? redisService.getAppliedSequence(key) : -1;
+        if (appliedSequence < 0 || appliedSequence >= journal.getLastSequence()) {
+            // 반영 기록이 없거나(처음 기동) 모두 반영된 상태
+            if (!snapshotService.restore(key, committedOffset)) {
+                return false;
+            }
+            markApplied(key);
+            return true;
+        }
+
+        OrderBook orderBook = orderService.getOrderBook(key);
+        RedisOrderBatch batch = new RedisOrderBatch();
+        if (!snapshotService.restore(key, committedOffset, appliedSequence,
+                pendingOrderMatcherServiceV2.replayListener(orderBook, appliedSequence, batch))) {
+            return false;
+        }
+
+        if (snapshotService.getSnapshotSequence(key) > appliedSequence) {
+            // 반영 sequence 이전 스냅샷이 남아 있지 않아 그 사이 체결은 다시 만들 수 없다, 미체결/스탑 주문은 오더북으로 교체
+            System.err.println("Order book " + key + " has no snapshot at or before applied sequence " + appliedSequence
+                    + ", trades up to " + snapshotService.getSnapshotSequence(key) + " are not replayed into Redis");
+            RedisOrderBatch resync = new RedisOrderBatch();
+            batch.getTrades().forEach(resync::addTrade);
+            resync.replaceOpenOrders();
+            orderBook.getBuySide().forEachOrder(resync::addPending);
+            orderBook.getSellSide().forEachOrder(resync::addPending);
+            orderBook.getStopOrders().forEachOrder(resync::addStop);
+            batch = resync;
+        }
+
+        if (batch.isEmpty()) {
+            markApplied(key);
+            return true;
+        }
+        batch.setAppliedSequence(journal.getLastSequence());
+        pendingOrderMatcherServiceV2.commitReplayed(key, batch);
+        System.out.println("Order book " + key + " replayed journal " + (appliedSequence + 1) + "~" + journal.getLastSequence()
+                + " into Redis, " + batch.getTrades().size() + " trades");
+        return true;
+    }
+
+    // Redis가 오더북과 같은 상태일 때 반영 sequence를 저널 끝으로 맞춘다 (운영 인스턴스만)
+    private void markApplied(String key) {
+        MarketJournal journal = journalService.getJournal(key);
+        if (journal == null || !replicaService.isPrimary()) {
+            return;
+        }
+        redisService.setAppliedSequence(key, journal.getLastSequence());
+        journalService.setAppliedSequence(key, journal.getLastSequence());
+    }
 }
\ No newline at end of file
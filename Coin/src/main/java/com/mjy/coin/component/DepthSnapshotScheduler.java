@@ -0,0 +1,51 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.service.DepthStreamService;
+import com.mjy.coin.service.MarketLaneService;
+import com.mjy.coin.service.OrderService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * L2 호가 전체 메시지 주기 전송 (coin.engine.depth.snapshot-millis).
+ * 증분을 놓쳤거나 새로 구독한 쪽이 다음 전체 호가부터 다시 맞출 수 있게 한다.
+ * 레인에서 만들고 persist 레인에 넘기므로 앞뒤 증분과 sequence 순서가 같다.
+ * (Kafka 트랜잭션 모드에서는 그 마켓의 다음 배치 트랜잭션과 함께 나간다)
+ */
+@Component
+public class DepthSnapshotScheduler {
+    private final DepthStreamService depthStreamService;
+    private final MarketLaneService marketLaneService;
+    private final OrderService orderService;
+
+    public DepthSnapshotScheduler(DepthStreamService depthStreamService, MarketLaneService marketLaneService,
+                                  OrderService orderService) {
+        this.depthStreamService = depthStreamService;
+        this.marketLaneService = marketLaneService;
+        this.orderService = orderService;
+    }
+
+    @Scheduled(fixedDelayString = "${coin.engine.depth.snapshot-millis:5000}",
+            initialDelayString = "${coin.engine.depth.snapshot-millis:5000}")
+    public void publishSnapshots() {
+        if (!depthStreamService.isEnabled()) {
+            return;
+        }
+        for (String key : orderService.getMarketKeys()) {
+            try {
+                marketLaneService.callOnLane(key, () -> {
+                    // 그 사이 다른 인스턴스로 넘겨준 마켓은 다시 만들지 않는다
+                    if (orderService.getMarketKeys().contains(key)) {
+                        OrderBook orderBook = orderService.getOrderBook(key);
+                        depthStreamService.publishOnDownstream(key, orderBook.getSourceOffset(),
+                                depthStreamService.captureSnapshot(key, orderBook));
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                System.err.println("Failed to publish order book depth " + key + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.engine.ConsistentHashRing;
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderBookSnapshot;
+import com.mjy.coin.service.*;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 마켓 -> 체결 엔진 인스턴스 동적 배정 (COIN_TYPE MAJOR/MINOR 고정 배정 대신 사용).
+ * 인스턴스는 ENGINE:INSTANCE:{id}에 가중치를 남겨 두고(TTL로 생존 확인) 주기마다 가중치 일관성 해시 링을 계산한다.
+ * MARKET:OWNER 해시가 마켓별 실제 소유 인스턴스이고 compare-and-set으로만 바꾼다.
+ *
+ *   넘겨주기 : 리스너 중지(오프셋 커밋) -> 레인에 남은 주문 처리 후 스냅샷 -> Redis 반영 대기
+ *             -> MARKET:HANDOFF:{key}에 스냅샷 저장 -> 오더북 제거 -> 소유권 해제
+ *   가져오기 : 소유권 획득 -> 넘겨받은 스냅샷(없으면 로컬 스냅샷/저널 또는 Redis 미체결 주문)으로 적재 -> 리스너 시작
+ * 응답이 없는 인스턴스의 마켓은 스냅샷 없이 Redis 미체결 주문으로 가져온다.
+ * 가중치는 ENGINE:WEIGHT 해시로 운영 중에 바꿀 수 있어 거래가 몰린 인스턴스의 마켓을 다른 인스턴스로 옮길 수 있다.
+ */
+@Component
+public class MarketOwnershipCoordinator {
+    private static final String INSTANCE_KEY_PREFIX = "ENGINE:INSTANCE:";
+    private static final String WEIGHT_KEY = "ENGINE:WEIGHT";
+    private static final String OWNER_KEY = "MARKET:OWNER";
+    private static final String HANDOFF_KEY_PREFIX = "MARKET:HANDOFF:";
+
+    private final CoinInfoService coinInfoService;
+    private final CoinInfoInitializer coinInfoInitializer;
+    private final PendingOrderKafkaListenerCreator listenerCreator;
+    private final OrderService orderService;
+    private final MarketLaneService marketLaneService;
+    private final JournalService journalService;
+    private final RedisService redisService;
+    private final OrderBookService orderBookService;
+    private final boolean enabled;
+    private final String instanceId;
+    private final int weight;
+    private final int virtualNodes;
+    private final Duration heartbeatTtl;
+
+    public MarketOwnershipCoordinator(CoinInfoService coinInfoService, CoinInfoInitializer coinInfoInitializer,
+                                      PendingOrderKafkaListenerCreator listenerCreator, OrderService orderService,
+                                      MarketLaneService marketLaneService, JournalService journalService, RedisService redisService,
+                                      OrderBookService orderBookService,
+                                      @Value("${coin.engine.ownership.enabled:false}") boolean enabled,
+                                      @Value("${coin.engine.ownership.instance-id:${HOSTNAME:coin}}") String instanceId,
+                                      @Value("${coin.engine.ownership.weight:1}") int weight,
+                                      @Value("${coin.engine.ownership.virtual-nodes:128}") int virtualNodes,
+                                      @Value("${coin.engine.ownership.heartbeat-ttl-millis:5000}") long heartbeatTtlMillis) {
+        this.coinInfoService = coinInfoService;
+        this.coinInfoInitializer = coinInfoInitializer;
+        this.listenerCreator = listenerCreator;
+        this.orderService = orderService;
+        this.marketLaneService = marketLaneService;
+        this.journalService = journalService;
+        this.redisService = redisService;
+        this.orderBookService = orderBookService;
+        this.enabled = enabled;
+        this.instanceId = instanceId;
+        this.weight = weight;
+        this.virtualNodes = virtualNodes;
+        this.heartbeatTtl = Duration.ofMillis(heartbeatTtlMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${coin.engine.ownership.rebalance-millis:1000}")
+    public synchronized void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            heartbeat();
+            ConsistentHashRing ring = new ConsistentHashRing(loadMembers(), virtualNodes);
+            Set<String> members = ring.getMembers();
+            Map<String, String> owners = redisService.getAllHashOps(OWNER_KEY);
+
+            for (String key : coinInfoService.getAllCoinMarketKeys()) {
+                String target = ring.ownerOf(key);
+                String owner = owners.getOrDefault(key, "");
+                boolean local = coinInfoService.isOwnedMarket(key);
+
+                if (local && !owner.equals(instanceId)) {
+                    // 응답이 없다고 판단한 다른 인스턴스가 이미 가져갔다, 넘겨주지 않고 바로 중지
+                    System.err.println("Market " + key + " was taken over by " + owner + ", stopping without handoff");
+                    stopMarket(key);
+                } else if (instanceId.equals(target)) {
+                    // 다른 인스턴스가 살아서 맡고 있으면 그 인스턴스가 넘겨줄 때까지 기다린다
+                    if (!local && (owner.isEmpty() || owner.equals(instanceId) || !members.contains(owner))) {
+                        acquire(key, owner);
+                    }
+                } else if (local) {
+                    release(key);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to rebalance markets: " + e.getMessage());
+        }
+    }
+
+    // 종료 시 인스턴스 등록을 지우고 맡은 마켓을 모두 넘겨 다음 소유 인스턴스가 바로 이어받게 한다
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        redisService.deleteValues(INSTANCE_KEY_PREFIX + instanceId);
+        for (String key : coinInfoService.getCoinMarketKeys()) {
+            release(key);
+        }
+    }
+
+    private void heartbeat() {
+        String override = redisService.getHashOps(WEIGHT_KEY, instanceId);
+        String currentWeight = override.isEmpty() ? String.valueOf(weight) : override;
+        redisService.setValues(INSTANCE_KEY_PREFIX + instanceId, currentWeight, heartbeatTtl);
+    }
+
+    // TTL이 남아 있는 인스턴스와 가중치 (가중치 0이면 마켓을 맡지 않는다)
+    private Map<String, Integer> loadMembers() {
+        Map<String, Integer> members = new HashMap<>();
+        for (String instanceKey : redisService.getKeys(INSTANCE_KEY_PREFIX + "*")) {
+            String value = redisService.getValues(instanceKey);
+            if (!"false".equals(value)) {
+                members.put(instanceKey.substring(INSTANCE_KEY_PREFIX.length()), Integer.parseInt(value));
+            }
+        }
+        return members;
+    }
+
+    private void acquire(String key, String previousOwner) {
+        if (!redisService.compareAndSetHashOps(OWNER_KEY, key, previousOwner, instanceId)) {
+            return; // 다른 인스턴스가 먼저 가져갔다
+        }
+
+        long startedAt = System.currentTimeMillis();
+        String handoffKey = HANDOFF_KEY_PREFIX + key;
+        String handoff = redisService.getValues(handoffKey);
+        OrderBookSnapshot snapshot = null;
+        if (previousOwner.isEmpty() && !"false".equals(handoff)) {
+            try {
+                snapshot = OrderBookSnapshot.fromBytes(Base64.getDecoder().decode(handoff), key, coinInfoService.getMarketScale(key));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring unreadable handoff snapshot " + key + ": " + e.getMessage());
+            }
+        }
+        // 응답 없는 인스턴스에서 가져올 때 남아 있는 넘겨주기 스냅샷은 오래된 것이므로 버린다
+        redisService.deleteValues(handoffKey);
+
+        if (snapshot != null) {
+            coinInfoInitializer.loadMarket(key, snapshot);
+        } else {
+            // 재시작한 소유 인스턴스면 로컬 스냅샷 + 저널, 처음 배정이거나 응답 없는 인스턴스에서 가져오면 Redis 미체결 주문
+            coinInfoInitializer.loadMarket(key, previousOwner.equals(instanceId));
+        }
+        coinInfoService.addOwnedMarket(key);
+        listenerCreator.createAndRegisterListener(key);
+
+        System.out.println("Market " + key + " acquired from " + (previousOwner.isEmpty() ? "-" : previousOwner)
+                + (snapshot != null ? " with handoff snapshot" : "") + ", " + orderService.getOrderBook(key).getOrderCount()
+                + " orders in " + (System.currentTimeMillis() - startedAt) + "ms");
+    }
+
+    private void release(String key) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            // 1. 리스너 중지 : 이후 주문은 새 소유 인스턴스가 커밋된 오프셋부터 읽는다
+            listenerCreator.removeListener(key);
+
+            // 2. 레인에 남은 주문을 모두 처리한 뒤 대기 주문 복사
+            OrderBook orderBook = orderService.getOrderBook(key);
+            MarketJournal journal = journalService.getJournal(key);
+            OrderBookSnapshot snapshot = marketLaneService.callOnLane(key,
+                    () -> OrderBookSnapshot.capture(orderBook, journal == null ? 0 : journal.getLastSequence()));
+
+            // 3. Redis 반영까지 끝난 뒤 넘겨준다 (새 소유 인스턴스가 Redis와 같은 상태에서 시작)
+            journalService.awaitDownstream(key);
+            redisService.setValues(HANDOFF_KEY_PREFIX + key, Base64.getEncoder().encodeToString(snapshot.toBytes()));
+
+            coinInfoService.removeOwnedMarket(key);
+            orderService.removeOrderBook(key);
+            orderBookService.removeDepth(key);
+            redisService.compareAndSetHashOps(OWNER_KEY, key, instanceId, "");
+
+            System.out.println("Market " + key + " handed off with " + snapshot.getOrders().size() + " orders in "
+                    + (System.currentTimeMillis() - startedAt) + "ms");
+        } catch (Exception e) {
+            // 소유권은 그대로이므로 다시 주문을 받고 다음 주기에 재시도
+            System.err.println("Failed to hand off market " + key + ": " + e.getMessage());
+            if (coinInfoService.isOwnedMarket(key)) {
+                listenerCreator.createAndRegisterListener(key);
+            }
+        }
+    }
+
+    private void stopMarket(String key) {
+        listenerCreator.removeListener(key);
+        coinInfoService.removeOwnedMarket(key);
+        orderService.removeOrderBook(key);
+        orderBookService.removeDepth(key);
+    }
+}
@@ -0,0 +1,81 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.service.KafkaTransactionService;
+import com.mjy.coin.service.MarketLaneService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+
+@Component
+public class PendingOrderBatchKafkaListener implements BatchMessageListener<String, CoinOrderDTO> {
+
+    private final MarketLaneService marketLaneService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final CoinInfoInitializer coinInfoInitializer;
+
+    @Autowired
+    public PendingOrderBatchKafkaListener(MarketLaneService marketLaneService, KafkaTransactionService kafkaTransactionService,
+                                          CoinInfoInitializer coinInfoInitializer) {
+        this.marketLaneService = marketLaneService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.coinInfoInitializer = coinInfoInitializer;
+    }
+
+    // poll 한 번의 주문을 마켓 레인에서 한 번에 체결하고, Redis/Kafka 반영이 끝난 뒤 반환해 오프셋이 그 다음에 커밋되게 한다.
+    // Kafka 트랜잭션 모드에서는 모아 둔 체결 전송을 여기서(트랜잭션 안에서) 보내고, 실패하면 오더북을 되돌린 뒤 예외를 던져 트랜잭션을 중단한다.
+    @Override
+    public void onMessage(List<ConsumerRecord<String, CoinOrderDTO>> records) {
+        List<CoinOrderDTO> orders = new ArrayList<>(records.size());
+        Set<String> keys = new LinkedHashSet<>();
+        for (ConsumerRecord<String, CoinOrderDTO> record : records) {
+            CoinOrderDTO order = record.value();
+            order.setSourceOffset(record.offset());
+            order.setSourceTimestamp(record.timestamp());
+            orders.add(order);
+            keys.add(order.getCoinName() + "-" + order.getMarketName());
+        }
+
+        try {
+            marketLaneService.dispatchBatch(orders);
+            kafkaTransactionService.publish(keys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (kafkaTransactionService.isTransactional()) {
+                throw rollback(keys, e);
+            }
+            throw new IllegalStateException("Interrupted while matching order batch of " + records.size() + " records", e);
+        } catch (ExecutionException e) {
+            if (kafkaTransactionService.isTransactional()) {
+                throw rollback(keys, e.getCause());
+            }
+            // 반영이 끝나지 않았으므로 오프셋을 커밋하지 않도록 던진다 (재전달된 주문은 반영한 오프셋으로 걸러져 다시 체결되지 않는다)
+            throw new IllegalStateException("Failed to flush order batch of " + records.size() + " records", e.getCause());
+        } catch (RuntimeException e) {
+            if (kafkaTransactionService.isTransactional()) {
+                throw rollback(keys, e);
+            }
+            throw e;
+        }
+    }
+
+    // 트랜잭션이 중단되면 배치의 주문이 다시 전달되므로 배치에 포함된 마켓을 커밋된 오프셋 시점으로 되돌린다
+    private IllegalStateException rollback(Set<String> keys, Throwable cause) {
+        for (String key : keys) {
+            try {
+                coinInfoInitializer.rollbackMarket(key);
+            } catch (Exception e) {
+                System.err.println("Failed to roll back order book " + key + ": " + e.getMessage());
+            }
+        }
+        return new IllegalStateException("Order batch rolled back for " + keys, cause);
+    }
+}
@@ -1,25 +1,40 @@
 package com.mjy.coin.component;
 
 import com.mjy.coin.dto.CoinOrderDTO;
-import com.mjy.coin.service.PendingOrderProcessorService;
+import com.mjy.coin.service.MarketLaneService;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.listener.MessageListener;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ExecutionException;
+
 
 @Component
 public class PendingOrderKafkaListener implements MessageListener<String, CoinOrderDTO> {
 
-    private final PendingOrderProcessorService pendingOrderProcessorService;
+    private final MarketLaneService marketLaneService;
 
     @Autowired
-    public PendingOrderKafkaListener(PendingOrderProcessorService pendingOrderProcessorService) {
-        this.pendingOrderProcessorService = pendingOrderProcessorService;
+    public PendingOrderKafkaListener(MarketLaneService marketLaneService) {
+        this.marketLaneService = marketLaneService;
     }
 
+    // 주문을 해당 마켓의 레인으로 넘기고 체결 결과 반영이 끝난 뒤 반환해 오프셋이 그 다음에 커밋되게 한다.
     @Override
     public void onMessage(ConsumerRecord<String, CoinOrderDTO> record) {
-        pendingOrderProcessorService.processOrder(record.value());
+        CoinOrderDTO order = record.value();
+        // 마켓 토픽은 파티션 1개라 오프셋이 마켓 안의 주문 순서 (복제 모드 uuid, 체크섬 기준)
+        order.setSourceOffset(record.offset());
+        order.setSourceTimestamp(record.timestamp());
+        try {
+            marketLaneService.dispatch(order);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching order at offset " + record.offset(), e);
+        } catch (ExecutionException e) {
+            // 반영이 끝나지 않았으므로 오프셋을 커밋하지 않도록 던진다 (재전달된 주문은 반영한 오프셋으로 걸러져 다시 체결되지 않는다)
+            throw new IllegalStateException("Failed to flush order at offset " + record.offset(), e.getCause());
+        }
     }
 }
\ No newline at end of file
@@ -2,47 +2,89 @@ package com.mjy.coin.component;
 
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.service.CoinInfoService;
-import com.mjy.coin.service.PendingOrderProcessorService;
+import com.mjy.coin.service.KafkaTransactionService;
+import com.mjy.coin.service.MarketLaneService;
+import com.mjy.coin.service.ReplicaService;
 import jakarta.annotation.PostConstruct;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @DependsOn("kafkaAdmin")
 public class PendingOrderKafkaListenerCreator {
 
     private static final String KAFKA_GROUP_ID = "coinOrderGroup";
-    private static final AtomicLong endpointIdIndex = new AtomicLong(1);
 
     private final CoinInfoService coinInfoService;
     private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
     private final KafkaListenerContainerFactory<?> coinOrderKafkaListenerContainerFactory;
-    private final PendingOrderProcessorService pendingOrderProcessorService;
+    private final KafkaListenerContainerFactory<?> coinOrderBatchKafkaListenerContainerFactory;
+    private final MarketLaneService marketLaneService;
+    private final ReplicaService replicaService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final CoinInfoInitializer coinInfoInitializer;
+    private final boolean batchListener;
+    private final boolean multiplexed;
+    private final String orderTopic;
+    private final int concurrency;
 
     public PendingOrderKafkaListenerCreator(
-            PendingOrderProcessorService pendingOrderProcessorService,
+            MarketLaneService marketLaneService,
             CoinInfoService coinInfoService,
+            ReplicaService replicaService,
+            KafkaTransactionService kafkaTransactionService,
+            CoinInfoInitializer coinInfoInitializer,
             @Qualifier("kafkaListenerEndpointRegistry") KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
-            @Qualifier("coinOrderKafkaListenerContainerFactory") KafkaListenerContainerFactory<?> coinOrderKafkaListenerContainerFactory) {
-        this.pendingOrderProcessorService = pendingOrderProcessorService;
+            @Qualifier("coinOrderKafkaListenerContainerFactory") KafkaListenerContainerFactory<?> coinOrderKafkaListenerContainerFactory,
+            @Qualifier("coinOrderBatchKafkaListenerContainerFactory") KafkaListenerContainerFactory<?> coinOrderBatchKafkaListenerContainerFactory,
+            @Value("${coin.engine.kafka.batch-listener:false}") boolean batchListener,
+            @Value("${coin.engine.kafka.topology:per-market}") String topology,
+            @Value("${coin.engine.kafka.order-topic:Coin-Order}") String orderTopic,
+            @Value("${coin.engine.kafka.concurrency:0}") int concurrency) {
+        this.marketLaneService = marketLaneService;
         this.coinInfoService = coinInfoService;
+        this.replicaService = replicaService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.coinInfoInitializer = coinInfoInitializer;
         this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
         this.coinOrderKafkaListenerContainerFactory = coinOrderKafkaListenerContainerFactory;
+        this.coinOrderBatchKafkaListenerContainerFactory = coinOrderBatchKafkaListenerContainerFactory;
+        this.batchListener = batchListener;
+        this.multiplexed = "multiplexed".equalsIgnoreCase(topology);
+        this.orderTopic = orderTopic;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+
+        // 트랜잭션은 poll(배치) 단위로 커밋되고, 되돌릴 때 마켓별 커밋 오프셋이 필요하다
+        if (kafkaTransactionService.isTransactional() && (!batchListener || multiplexed)) {
+            throw new IllegalStateException("coin.engine.kafka.transactional requires batch-listener and per-market topology");
+        }
+        // 통합 토픽 컨슈머 그룹은 COIN_TYPE 단위라 인스턴스마다 바뀌는 동적 배정 마켓을 나눌 수 없다
+        if (multiplexed && coinInfoService.isDynamicOwnership()) {
+            throw new IllegalStateException("coin.engine.kafka.topology=multiplexed cannot be combined with coin.engine.ownership.enabled");
+        }
     }
 
     @PostConstruct
     public void init() {
         List<String> keys = coinInfoService.getCoinMarketKeys();
 
+        if (multiplexed) {
+            createAndRegisterMultiplexedListener(keys);
+            return;
+        }
+
         for (String key : keys) {
             createAndRegisterListener(key);
         }
@@ -50,17 +92,23 @@ public class PendingOrderKafkaListenerCreator {
 
     private MethodKafkaListenerEndpoint<String, CoinOrderDTO> createKafkaListenerEndpoint(String topic) {
         MethodKafkaListenerEndpoint<String, CoinOrderDTO> kafkaListenerEndpoint = new MethodKafkaListenerEndpoint<>();
-        kafkaListenerEndpoint.setId(generateListenerId());
-        kafkaListenerEndpoint.setGroupId(KAFKA_GROUP_ID);
+        kafkaListenerEndpoint.setId(generateListenerId(topic));
+        // 복제 모드에서는 인스턴스별 컨슈머 그룹 (운영/대기 인스턴스가 같은 주문을 모두 받는다)
+        kafkaListenerEndpoint.setGroupId(replicaService.getConsumerGroupId());
         kafkaListenerEndpoint.setAutoStartup(true);
         kafkaListenerEndpoint.setTopics(topic);
         kafkaListenerEndpoint.setMessageHandlerMethodFactory(new DefaultMessageHandlerMethodFactory());
 
-        PendingOrderKafkaListener listener = new PendingOrderKafkaListener(pendingOrderProcessorService);
-        kafkaListenerEndpoint.setBean(listener);
-
         try {
-            kafkaListenerEndpoint.setMethod(PendingOrderKafkaListener.class.getMethod("onMessage", ConsumerRecord.class));
+            if (batchListener) {
+                // poll 단위로 묶어서 체결 (Redis 반영, Kafka 전송, 오프셋 커밋이 배치당 한 번)
+                kafkaListenerEndpoint.setBatchListener(true);
+                kafkaListenerEndpoint.setBean(new PendingOrderBatchKafkaListener(marketLaneService, kafkaTransactionService, coinInfoInitializer));
+                kafkaListenerEndpoint.setMethod(PendingOrderBatchKafkaListener.class.getMethod("onMessage", List.class));
+            } else {
+                kafkaListenerEndpoint.setBean(new PendingOrderKafkaListener(marketLaneService));
+                kafkaListenerEndpoint.setMethod(PendingOrderKafkaListener.class.getMethod("onMessage", ConsumerRecord.class));
+            }
         } catch (NoSuchMethodException e) {
             throw new RuntimeException("Attempt to call a non-existent method " + e);
         }
@@ -68,16 +116,79 @@ public class PendingOrderKafkaListenerCreator {
         return kafkaListenerEndpoint;
     }
 
-    private String generateListenerId() {
-        return KAFKA_GROUP_ID + "-" + endpointIdIndex.getAndIncrement();
+    // 마켓 토픽당 리스너 하나 (등록 여부 확인, 소유권 이전 시 중지에 사용)
+    private String generateListenerId(String topic) {
+        return KAFKA_GROUP_ID + "-" + topic;
     }
 
     public void createAndRegisterListener(String topic) {
-        if (kafkaListenerEndpointRegistry.getListenerContainers().stream().noneMatch(container -> container.getListenerId().equals(topic))) {
-            MethodKafkaListenerEndpoint<String, CoinOrderDTO> listener = createKafkaListenerEndpoint(topic);
-            kafkaListenerEndpointRegistry.registerListenerContainer(listener, coinOrderKafkaListenerContainerFactory, true);
+        if (kafkaListenerEndpointRegistry.getListenerContainer(generateListenerId(topic)) == null) {
+            register(createKafkaListenerEndpoint(topic));
         } else {
             System.out.println("Listener for topic " + topic + " already exists.");
         }
     }
-}
\ No newline at end of file
+
+    // 마켓 키로 파티션을 나눈 통합 주문 토픽 하나를 concurrency개 컨슈머가 읽고 주문은 마켓 레인으로 나눈다
+    // 컨슈머 스레드 수는 마켓 수가 아닌 코어 수(파티션 수 이하)를 따른다
+    private void createAndRegisterMultiplexedListener(List<String> keys) {
+        Set<String> markets = ConcurrentHashMap.newKeySet();
+        markets.addAll(keys);
+        Set<String> otherMarkets = ConcurrentHashMap.newKeySet();
+        MethodKafkaListenerEndpoint<String, CoinOrderDTO> listener = createKafkaListenerEndpoint(orderTopic);
+        // COIN_TYPE별 컨슈머 그룹으로 모든 파티션을 읽고 다른 COIN_TYPE 마켓의 주문만 버린다 (그 COIN_TYPE 그룹이 처리)
+        listener.setGroupId(replicaService.getConsumerGroupId() + "-" + coinInfoService.getCoinType());
+        listener.setConcurrency(concurrency);
+        listener.setRecordFilterStrategy(record -> record.value() == null
+                || !serves(record.value().getCoinName() + "-" + record.value().getMarketName(), markets, otherMarkets));
+        register(listener);
+        System.out.println("Multiplexed order listener on " + orderTopic + " with " + concurrency + " consumers for "
+                + markets.size() + " markets");
+    }
+
+    // 시작 후 상장된 마켓은 처음 주문이 들어올 때 COIN_TYPE을 확인해 이 인스턴스 마켓이면 적재하고 처리한다
+    // (버린 레코드도 오프셋이 커밋되므로 이 COIN_TYPE 마켓의 주문은 버리지 않는다)
+    private boolean serves(String key, Set<String> markets, Set<String> otherMarkets) {
+        if (markets.contains(key)) {
+            return true;
+        }
+        if (otherMarkets.contains(key)) {
+            return false;
+        }
+
+        synchronized (markets) {
+            if (markets.contains(key)) {
+                return true;
+            }
+            String coinType = coinInfoService.getCoinTypeOf(key);
+            if (coinType == null) {
+                System.err.println("Order for unlisted market " + key + " on " + orderTopic + " dropped");
+                return false;
+            }
+            if (!coinType.equals(coinInfoService.getCoinType())) {
+                otherMarkets.add(key);
+                return false;
+            }
+            coinInfoInitializer.loadMarket(key, true);
+            markets.add(key);
+            System.out.println("Market " + key + " listed after startup, now served by the multiplexed listener");
+            return true;
+        }
+    }
+
+    private void register(MethodKafkaListenerEndpoint<String, CoinOrderDTO> listener) {
+        kafkaListenerEndpointRegistry.registerListenerContainer(listener,
+                batchListener ? coinOrderBatchKafkaListenerContainerFactory : coinOrderKafkaListenerContainerFactory, true);
+    }
+
+    // 마켓 리스너 중지 후 등록 해제, 처리 중이던 poll이 끝나고 오프셋이 커밋된 뒤 반환된다 (마켓 소유권 이전)
+    public void removeListener(String topic) {
+        String id = generateListenerId(topic);
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(id);
+        if (container == null) {
+            return;
+        }
+        container.stop();
+        kafkaListenerEndpointRegistry.unregisterListenerContainer(id);
+    }
+}
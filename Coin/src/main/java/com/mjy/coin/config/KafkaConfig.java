@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mjy.coin.service.CoinInfoService;
 import org.apache.kafka.clients.admin.NewTopic;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -32,9 +34,18 @@ public class KafkaConfig {
         return new NewTopic("Order-Completed", 4, (short) 1);
     }
 
+    // 통합 주문 토픽 (coin.engine.kafka.topology=multiplexed), 마켓 키로 파티션이 정해지므로 마켓 안의 주문 순서는 유지된다
+    @Bean
+    @ConditionalOnProperty(name = "coin.engine.kafka.topology", havingValue = "multiplexed")
+    public NewTopic coinOrderTopic(@Value("${coin.engine.kafka.order-topic:Coin-Order}") String orderTopic,
+                                   @Value("${coin.engine.kafka.order-topic-partitions:32}") int partitions) {
+        return new NewTopic(orderTopic, partitions, (short) 1);
+    }
+
     @Bean
     public KafkaAdmin.NewTopics dynamicCoinMarketTopics() throws JsonProcessingException {
-        List<String> keys = coinInfoService.getCoinMarketKeys();
+        // 동적 배정에서는 어느 마켓이든 맡을 수 있으므로 COIN_TYPE과 관계없이 모든 마켓 토픽 생성
+        List<String> keys = coinInfoService.isDynamicOwnership() ? coinInfoService.getAllCoinMarketKeys() : coinInfoService.getCoinMarketKeys();
         // BTC-KRW, ETH-KRW 토픽을 1개의 파티션과 1개의 복제본으로 생성
         NewTopic[] topics = keys.stream()
                 .map(key -> new NewTopic(key, 1, (short) 1))
@@ -4,13 +4,19 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.util.CustomJsonDeserializer;
+import com.mjy.coin.util.WireMapper;
+import com.mjy.wire.WireDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
@@ -19,14 +25,22 @@ import java.util.Map;
 @Configuration
 public class KafkaConsumerConfig {
     private final ObjectMapper objectMapper;
-    public KafkaConsumerConfig(ObjectMapper objectMapper) {
+    private final int maxPollRecords;
+    private final boolean transactional;
+
+    public KafkaConsumerConfig(ObjectMapper objectMapper,
+                               @Value("${coin.engine.kafka.max-poll-records:500}") int maxPollRecords,
+                               @Value("${coin.engine.kafka.transactional:false}") boolean transactional) {
         this.objectMapper = objectMapper;
+        this.maxPollRecords = maxPollRecords;
+        this.transactional = transactional;
     }
 
     @Bean
     public ConsumerFactory<String, CoinOrderDTO> coinOrderConsumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 //        config.put(ConsumerConfig.GROUP_ID_CONFIG, "coinOrderGroup");
 //        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
 //        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
@@ -35,10 +49,11 @@ public class KafkaConsumerConfig {
 
 //        return new DefaultKafkaConsumerFactory<>(config);
 
+        // Exchange 주문 형식(coin.order.codec)과 관계없이 JSON/바이너리를 모두 읽는다
         return new DefaultKafkaConsumerFactory<>(config,
                 new StringDeserializer(),
-                new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
-                }));
+                new WireDeserializer<>(new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
+                }), WireMapper::decodeOrder));
     }
 
 
@@ -48,4 +63,19 @@ public class KafkaConsumerConfig {
         factory.setConsumerFactory(coinOrderConsumerFactory());
         return factory;
     }
+
+    // poll 한 번의 레코드를 리스트로 받는 배치 리스너용, 리스너가 반환되면 (AckMode.BATCH) 오프셋 커밋
+    // Kafka 트랜잭션 모드는 poll마다 트랜잭션을 열고, 리스너가 반환되면 체결 전송과 오프셋을 함께 커밋 (예외면 함께 중단)
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CoinOrderDTO> coinOrderBatchKafkaListenerContainerFactory(
+            ProducerFactory<String, Object> engineProducerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, CoinOrderDTO> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(coinOrderConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (transactional) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(new KafkaTransactionManager<>(engineProducerFactory));
+        }
+        return factory;
+    }
 }
@@ -2,11 +2,15 @@ package com.mjy.coin.config;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.OrderBookDepthDTO;
 import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
 import com.mjy.coin.util.CustomJsonSerializer;
+import com.mjy.coin.util.WireMapper;
+import com.mjy.wire.WireSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -21,20 +25,45 @@ import java.util.Map;
 public class KafkaProducerConfig {
 
     private final ObjectMapper objectMapper;
+    private final boolean transactional;
+    private final String transactionIdPrefix;
+    private final String matchListCodec;
+    private final String priceVolumeCodec;
 
-    public KafkaProducerConfig(ObjectMapper objectMapper) {
+    public KafkaProducerConfig(ObjectMapper objectMapper,
+                               @Value("${coin.engine.kafka.transactional:false}") boolean transactional,
+                               @Value("${coin.engine.kafka.transaction-id-prefix:coin-tx-${HOSTNAME:coin}-}") String transactionIdPrefix,
+                               @Value("${coin.engine.kafka.codec.match-list:json}") String matchListCodec,
+                               @Value("${coin.engine.kafka.codec.price-volume:json}") String priceVolumeCodec) {
         this.objectMapper = objectMapper;
+        this.transactional = transactional;
+        this.transactionIdPrefix = transactionIdPrefix;
+        this.matchListCodec = matchListCodec;
+        this.priceVolumeCodec = priceVolumeCodec;
     }
 
+    // 체결 목록(Match-List)과 가격/거래량(Price-Volume)이 같은 트랜잭션에 들어가도록 프로듀서 팩토리 하나를 같이 쓴다
+    // (JSON 직렬화는 값의 실제 타입 기준, 토픽별 codec이 binary면 토픽에 맞는 바이너리 형식)
     @Bean
-    public ProducerFactory<String, Map<String, List<CoinOrderDTO>>> matchListProducerFactory() {
+    public ProducerFactory<String, Object> engineProducerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
 
-        // List<CoinOrderDTO> 타입의 직렬화 설정
-        return new DefaultKafkaProducerFactory<>(config,
-                new StringSerializer(),
-                new CustomJsonSerializer<>(objectMapper, new TypeReference<>() {}));
+        WireSerializer<Object> valueSerializer = new WireSerializer<>(new CustomJsonSerializer<>(objectMapper, new TypeReference<>() {}));
+        if ("binary".equals(matchListCodec)) {
+            valueSerializer.binary("Match-List", value -> WireMapper.encodeTradeList(cast(value)));
+        }
+        if ("binary".equals(priceVolumeCodec)) {
+            valueSerializer.binary("Price-Volume", value -> WireMapper.encodePriceVolume(cast(value)));
+        }
+
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config,
+                new StringSerializer(), valueSerializer);
+        if (transactional) {
+            // 인스턴스마다 다른 prefix (같으면 다른 인스턴스의 프로듀서를 펜싱한다)
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
 
 //        key-value 방식
 //        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -45,23 +74,28 @@ public class KafkaProducerConfig {
     }
 
     @Bean(name = "matchListKafkaTemplate")
-    public KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate() {
-        return new KafkaTemplate<>(matchListProducerFactory());
+    public KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate() {
+        return new KafkaTemplate<>(sharedProducerFactory());
     }
 
+    @Bean(name = "priceVolumeMapKafkaTemplate")
+    public KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate() {
+        return new KafkaTemplate<>(sharedProducerFactory());
+    }
 
-    @Bean
-    public ProducerFactory<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapProducerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+    // L2 호가 증분/전체 호가 (Order-Book-L2), 체결 목록과 같은 트랜잭션에 들어간다
+    @Bean(name = "depthKafkaTemplate")
+    public KafkaTemplate<String, OrderBookDepthDTO> depthKafkaTemplate() {
+        return new KafkaTemplate<>(sharedProducerFactory());
+    }
 
-        return new DefaultKafkaProducerFactory<>(config,
-                new StringSerializer(),
-                new CustomJsonSerializer<>(objectMapper, new TypeReference<>() {}));
+    @SuppressWarnings("unchecked")
+    private <V> ProducerFactory<String, V> sharedProducerFactory() {
+        return (ProducerFactory<String, V>) (ProducerFactory<String, ?>) engineProducerFactory();
     }
 
-    @Bean(name = "priceVolumeMapKafkaTemplate")
-    public KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate() {
-        return new KafkaTemplate<>(priceVolumeMapProducerFactory());
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
     }
 }
@@ -0,0 +1,11 @@
+package com.mjy.coin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 체결 엔진 주기 작업(스냅샷, 호가 스냅샷, 마켓 배정)은 프로필과 관계없이 실행한다
+// 저널 그룹 커밋과 엔진 임대 연장은 배치 작업에 밀리지 않도록 각 서비스의 전용 스레드에서 실행한다
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
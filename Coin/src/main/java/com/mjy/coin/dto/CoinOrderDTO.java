@@ -1,8 +1,10 @@
 package com.mjy.coin.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mjy.coin.entity.coin.CoinOrder;
+import com.mjy.coin.enums.ExecutionType;
 import com.mjy.coin.enums.OrderStatus;
 import com.mjy.coin.enums.OrderType;
 import lombok.Getter;
@@ -23,20 +25,45 @@ public class CoinOrderDTO {
     private String coinName; // 예: BTC
     private BigDecimal coinAmount; // 매수/매도 코인 개수
     private BigDecimal orderPrice; // 주문가 (사용자가 입력한 가격)
+    private BigDecimal triggerPrice; // 스탑 주문 발동가 (마지막 체결가가 도달하면 주문 접수, 없으면 일반 주문)
     private BigDecimal executionPrice; // 체결가 (실제로 거래된 가격)
     private OrderType orderType; // 매수/매도 타입(enum)
+    private ExecutionType executionType; // 체결 조건 (지정가/시장가/IOC/FOK/POST_ONLY, 없으면 지정가)
     private OrderStatus orderStatus; // 거래 상태 (체결/미체결/취소)
     private BigDecimal fee; //수수료
     private LocalDateTime createdAt; // 등록일자
 //    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
     private LocalDateTime matchedAt;
 //    private LocalDateTime matchedAt; // 체결일자
-    private String matchIdx; // 매수 idx와 매도 idx를 결합한 매치 ID
+    private String matchIdx; // 매치 ID (V2 : 체결 양쪽 주문이 같은 WireId, V1 : 매수/매도 idx 결합)
     private String uuid; //redis 전용 uuid
+    private String clientOrderId; // Exchange 주문 요청 ID (다시 전달된 주문 중복 확인용)
+    @JsonIgnore
+    private long priceTicks; // 체결 엔진 전용, 주문가를 마켓 priceScale로 정수화한 값
+    @JsonIgnore
+    private long quantityLots; // 체결 엔진 전용, 남은 수량을 마켓 quantityScale로 정수화한 값
+    @JsonIgnore
+    private long triggerPriceTicks; // 체결 엔진 전용, 스탑 발동가를 마켓 priceScale로 정수화한 값
+    @JsonIgnore
+    private long sourceOffset = -1; // 체결 엔진 전용, 주문을 읽은 마켓 토픽의 Kafka 오프셋 (Kafka 외 경로는 -1)
+    @JsonIgnore
+    private long sourceTimestamp; // 체결 엔진 전용, 마켓 토픽 레코드 타임스탬프 epoch millis (Kafka 외 경로는 0), 대기 시간 지표와 복제/트랜잭션 모드 주문 id용
 
     public CoinOrderDTO() {
     }
 
+    // 발동가가 있는 스탑 주문인지
+    @JsonIgnore
+    public boolean isStopOrder() {
+        return triggerPrice != null;
+    }
+
+    // 체결 엔진 전용, 체결 조건이 없는 주문(기존 주문 포함)은 지정가로 처리
+    @JsonIgnore
+    public ExecutionType getExecutionTypeOrLimit() {
+        return executionType == null ? ExecutionType.LIMIT : executionType;
+    }
+
     @JsonCreator // JSON 역직렬화를 위한 생성자
     public CoinOrderDTO(
             @JsonProperty("idx") Long idx,
@@ -81,13 +108,21 @@ public class CoinOrderDTO {
         this.coinName = order.coinName;
         this.coinAmount = order.coinAmount;
         this.orderPrice = order.orderPrice;
+        this.triggerPrice = order.triggerPrice;
         this.executionPrice = order.executionPrice;
         this.orderType = order.orderType;
+        this.executionType = order.executionType;
         this.orderStatus = order.orderStatus;
         this.fee = order.fee;
         this.createdAt = order.createdAt;
         this.matchedAt = order.matchedAt;
         this.matchIdx = order.matchIdx;
         this.uuid = order.uuid;
+        this.clientOrderId = order.clientOrderId;
+        this.priceTicks = order.priceTicks;
+        this.quantityLots = order.quantityLots;
+        this.triggerPriceTicks = order.triggerPriceTicks;
+        this.sourceOffset = order.sourceOffset;
+        this.sourceTimestamp = order.sourceTimestamp;
     }
 }
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public class CoinOrderSimpleDTO implements Serializable {
-    private Long idx;
+    private String tradeId; // 묶음의 첫 체결 ID (CoinTrade)
     private String coinName;
+    private String marketName;
     private LocalDateTime matchedAt;
 }
@@ -0,0 +1,24 @@
+package com.mjy.coin.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * L2 호가 메시지 (Order-Book-L2 토픽, 키는 마켓).
+ *   snapshot = true  : 전체 호가, 받은 쪽은 가지고 있던 호가를 버리고 이 내용으로 바꾼다
+ *   snapshot = false : 이전 메시지 이후 잔량이 바뀐 레벨만, 잔량 0은 레벨 삭제
+ * sequence는 마켓별로 메시지마다 1씩 늘어난다. 증분은 마지막으로 반영한 sequence + 1일 때만 적용하고,
+ * 건너뛴 번호가 있으면 다음 전체 호가까지 기다린다.
+ */
+@Getter
+@Setter
+public class OrderBookDepthDTO {
+    private String market;
+    private long sequence;
+    private boolean snapshot;
+    private List<OrderBookLevelDTO> buy = new ArrayList<>();  // 최우선(높은 가격)부터
+    private List<OrderBookLevelDTO> sell = new ArrayList<>(); // 최우선(낮은 가격)부터
+}
@@ -0,0 +1,24 @@
+package com.mjy.coin.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// 호가 레벨 하나 (가격, 레벨 잔량 합계), 증분 메시지에서 잔량 0은 레벨 삭제
+@Getter
+@Setter
+public class OrderBookLevelDTO {
+    private BigDecimal price;
+    private BigDecimal quantity;
+
+    @JsonCreator
+    public OrderBookLevelDTO(
+            @JsonProperty("price") BigDecimal price,
+            @JsonProperty("quantity") BigDecimal quantity) {
+        this.price = price;
+        this.quantity = quantity;
+    }
+}
@@ -27,4 +27,10 @@ public class PriceVolumeDTO {
         this.price = order.getExecutionPrice();
         this.volume = order.getCoinAmount();
     }
+
+    // 체결 한 건의 체결가와 수량
+    public PriceVolumeDTO(TradeDTO trade) {
+        this.price = trade.getPrice();
+        this.volume = trade.getQuantity();
+    }
 }
\ No newline at end of file
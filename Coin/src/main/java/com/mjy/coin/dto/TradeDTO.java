@@ -0,0 +1,55 @@
+package com.mjy.coin.dto;
+
+import com.mjy.coin.enums.OrderType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 체결 한 건 (체결 목록 Match-List, COMPLETED:TRADE, CoinTrade 테이블).
+ * 매수/매도 주문을 따로 복사하지 않고 체결마다 한 번만 만들며, 주문별 체결 내역은 taker/maker 필드로 나눠 본다.
+ * maker 주문은 항상 taker 반대 방향이고 체결가로 호가에 있던 주문이다.
+ */
+@Getter
+@Setter
+@ToString
+public class TradeDTO {
+    private String tradeId; // 체결 ID (WireId, 양쪽 주문의 matchIdx)
+    private String marketName; // 예: KRW
+    private String coinName; // 예: BTC
+    private BigDecimal price; // 체결가
+    private BigDecimal quantity; // 체결 수량
+    private OrderType takerOrderType; // taker 주문 매수/매도 (maker는 반대)
+    private String takerOrderUuid; // taker 주문 uuid (부분 체결이어도 원래 주문 uuid)
+    private Long takerMemberIdx;
+    private String takerMemberUuid;
+    private String makerOrderUuid; // maker 주문 uuid
+    private Long makerMemberIdx;
+    private String makerMemberUuid;
+    private LocalDateTime matchedAt; // 체결일자
+    private String takerClientOrderId; // taker 주문 요청 ID (Exchange/부하 생성기가 주문 전송과 체결을 맞춰 본다)
+
+    public TradeDTO() {
+    }
+
+    public TradeDTO(String tradeId, CoinOrderDTO taker, CoinOrderDTO maker, BigDecimal price, BigDecimal quantity,
+                    LocalDateTime matchedAt) {
+        this.tradeId = tradeId;
+        this.marketName = taker.getMarketName();
+        this.coinName = taker.getCoinName();
+        this.price = price;
+        this.quantity = quantity;
+        this.takerOrderType = taker.getOrderType();
+        this.takerOrderUuid = taker.getUuid();
+        this.takerMemberIdx = taker.getMemberIdx();
+        this.takerMemberUuid = taker.getMemberUuid();
+        this.makerOrderUuid = maker.getUuid();
+        this.makerMemberIdx = maker.getMemberIdx();
+        this.makerMemberUuid = maker.getMemberUuid();
+        this.matchedAt = matchedAt;
+        this.takerClientOrderId = taker.getClientOrderId();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mjy.coin.dto;
+
+import com.mjy.coin.entity.coin.CoinTrade;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TradeMapper {
+    public static CoinTrade toEntity(TradeDTO dto) {
+        CoinTrade entity = new CoinTrade();
+
+        entity.setTradeId(dto.getTradeId());
+        entity.setMarketName(dto.getMarketName());
+        entity.setCoinName(dto.getCoinName());
+        entity.setPrice(dto.getPrice());
+        entity.setQuantity(dto.getQuantity());
+        entity.setTakerOrderType(dto.getTakerOrderType());
+        entity.setTakerOrderUuid(dto.getTakerOrderUuid());
+        entity.setTakerMemberIdx(dto.getTakerMemberIdx());
+        entity.setTakerMemberUuid(dto.getTakerMemberUuid());
+        entity.setMakerOrderUuid(dto.getMakerOrderUuid());
+        entity.setMakerMemberIdx(dto.getMakerMemberIdx());
+        entity.setMakerMemberUuid(dto.getMakerMemberUuid());
+        entity.setMatchedAt(dto.getMatchedAt());
+        return entity;
+    }
+
+    public static List<CoinTrade> toEntityList(List<TradeDTO> tradeDTOList) {
+        return tradeDTOList.stream()
+                .map(TradeMapper::toEntity)
+                .collect(Collectors.toList());
+    }
+}
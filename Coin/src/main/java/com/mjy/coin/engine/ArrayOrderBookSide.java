@@ -0,0 +1,254 @@
+package com.mjy.coin.engine;
+
+import java.util.*;
+
+/**
+ * 호가 단위(tick)로 인덱싱한 원형 배열에 가격 레벨을 보관하는 오더북 한쪽.
+ * 좁은 가격대에서 고정 호가 단위로 거래되는 메이저 마켓용으로, 레벨 조회/추가는 배열 접근 한 번이고
+ * 비어 있지 않은 레벨을 비트맵으로 관리해 다음 최우선 호가를 64칸 단위로 건너뛰며 찾는다.
+ * 창(window) 밖의 가격은 TreeMap(overflow)에 보관하고, 배열이 비면 새 가격을 중심으로 창을 다시 잡는다.
+ * 가격이 한 방향으로 움직여 최우선 호가가 창 밖으로 나가거나 창의 나쁜 쪽 절반으로 밀리면
+ * 최우선 호가가 좋은 쪽 가장자리에서 1/4 위치에 오도록 창을 옮긴다 (창 밖으로 나간 레벨은 overflow로, 들어온 레벨은 배열로).
+ * 한 번 옮기면 최우선 호가가 창의 1/4 이상 움직여야 다시 옮기므로 옮기는 비용은 체결 수에 나눠진다.
+ */
+public class ArrayOrderBookSide extends OrderBookSide {
+    private static final long NONE = -1;
+
+    private final long tickSize;    // 호가 단위 (가격 틱 기준)
+    private final int capacity;     // 창 크기 (2의 거듭제곱, 64 이상)
+    private final int mask;
+    private final PriceLevel[] slots;
+    private final long[] occupied;  // 레벨이 있는 슬롯 비트맵
+    private final TreeMap<Long, PriceLevel> overflow;
+    private long baseIndex;         // 창의 첫 호가 인덱스 (price / tickSize)
+    private int levelCount;         // 배열 안의 레벨 수
+
+    public ArrayOrderBookSide(boolean buySide, long tickSize, int capacity) {
+        this(buySide, new OrderIndex(16), new OrderPool(), tickSize, capacity);
+    }
+
+    ArrayOrderBookSide(boolean buySide, OrderIndex orderIndex, OrderPool pool, long tickSize, int capacity) {
+        super(buySide, orderIndex, pool);
+        if (tickSize <= 0) {
+            throw new IllegalArgumentException("tickSize must be positive: " + tickSize);
+        }
+        if (capacity < 64 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 64: " + capacity);
+        }
+        this.tickSize = tickSize;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new PriceLevel[capacity];
+        this.occupied = new long[capacity >>> 6];
+        this.overflow = buySide ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>();
+    }
+
+    @Override
+    protected PriceLevel findLevel(long price) {
+        long index = price / tickSize;
+        return inWindow(index) ? slots[slot(index)] : overflow.get(price);
+    }
+
+    @Override
+    protected void insertLevel(PriceLevel level) {
+        long index = level.getPrice() / tickSize;
+        if (!inWindow(index)) {
+            if (levelCount == 0) {
+                recenter(index);
+            } else if (isBetterThanWindow(index)) {
+                // 창보다 좋은 가격 = 새 최우선 호가 (추세가 이어지면 이후 가격도 창 안에 들어오도록 창을 옮긴다)
+                slideTo(index);
+            }
+        }
+        if (inWindow(index)) {
+            int slot = slot(index);
+            slots[slot] = level;
+            occupied[slot >>> 6] |= 1L << slot;
+            levelCount++;
+        } else {
+            overflow.put(level.getPrice(), level);
+        }
+    }
+
+    @Override
+    protected void removeLevel(PriceLevel level) {
+        long index = level.getPrice() / tickSize;
+        if (inWindow(index)) {
+            int slot = slot(index);
+            slots[slot] = null;
+            occupied[slot >>> 6] &= ~(1L << slot);
+            levelCount--;
+        } else {
+            overflow.remove(level.getPrice());
+        }
+    }
+
+    @Override
+    protected PriceLevel nextBestLevel(PriceLevel removed) {
+        // 제거된 레벨이 최우선이었으므로 남은 배열 레벨은 모두 그보다 나쁜 가격 -> 그 위치부터 탐색
+        long index = levelCount == 0 ? NONE : scanBest(removed.getPrice() / tickSize);
+        PriceLevel arrayBest = index == NONE ? null : slots[slot(index)];
+        PriceLevel overflowBest = overflow.isEmpty() ? null : overflow.firstEntry().getValue();
+
+        if (arrayBest == null && overflowBest != null) {
+            // 배열이 비었으면 overflow의 최우선 호가를 기준으로 창을 다시 잡는다.
+            slideTo(overflowBest.getPrice() / tickSize);
+            return overflowBest;
+        }
+        if (overflowBest != null && isBetter(overflowBest.getPrice(), arrayBest.getPrice())) {
+            slideTo(overflowBest.getPrice() / tickSize);
+            return overflowBest;
+        }
+        if (arrayBest != null && isInWorseHalf(index)) {
+            // 호가가 소진되며 최우선 호가가 창의 나쁜 쪽으로 밀려났으면 그 너머 가격이 창에 들어오도록 옮긴다
+            slideTo(index);
+        }
+        return arrayBest;
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levelCount + overflow.size();
+    }
+
+    @Override
+    public Collection<PriceLevel> getLevels() {
+        List<PriceLevel> levels = new ArrayList<>(levelCount + overflow.size());
+        forEachLevel(levels::add);
+        return levels;
+    }
+
+    @Override
+    public void forEachLevel(LevelVisitor visitor) {
+        // 창보다 좋은 가격의 overflow 레벨 -> 배열 레벨 -> 창보다 나쁜 가격의 overflow 레벨 순
+        long low = baseIndex * tickSize;
+        long high = (baseIndex + capacity) * tickSize;
+        for (PriceLevel level : (isBuySide() ? overflow.headMap(high, true) : overflow.headMap(low, false)).values()) {
+            if (!visitor.visit(level)) {
+                return;
+            }
+        }
+        long from = isBuySide() ? baseIndex + capacity - 1 : baseIndex;
+        for (long index = scanBest(from); index != NONE; index = scanBest(isBuySide() ? index - 1 : index + 1)) {
+            if (!visitor.visit(slots[slot(index)])) {
+                return;
+            }
+        }
+        for (PriceLevel level : (isBuySide() ? overflow.tailMap(low, false) : overflow.tailMap(high, true)).values()) {
+            if (!visitor.visit(level)) {
+                return;
+            }
+        }
+    }
+
+    private boolean inWindow(long index) {
+        return index >= baseIndex && index < baseIndex + capacity;
+    }
+
+    private boolean isBetterThanWindow(long index) {
+        return isBuySide() ? index >= baseIndex + capacity : index < baseIndex;
+    }
+
+    // 최우선 호가가 창의 나쁜 쪽 절반에 있는지 (매수: 아래쪽 절반, 매도: 위쪽 절반)
+    private boolean isInWorseHalf(long index) {
+        long offset = index - baseIndex;
+        return isBuySide() ? offset < capacity / 2 : offset >= capacity / 2;
+    }
+
+    // 창 밖(TreeMap)에 있는 레벨 수
+    int getOverflowLevelCount() {
+        return overflow.size();
+    }
+
+    private int slot(long index) {
+        return (int) (index & mask);
+    }
+
+    // index부터 나쁜 가격 방향으로 레벨이 있는 첫 인덱스 (매수: 아래로, 매도: 위로)
+    private long scanBest(long index) {
+        return isBuySide() ? scanDown(index) : scanUp(index);
+    }
+
+    private long scanDown(long index) {
+        index = Math.min(index, baseIndex + capacity - 1);
+        while (index >= baseIndex) {
+            int slot = slot(index);
+            int bit = slot & 63;
+            long bits = occupied[slot >>> 6] & (-1L >>> (63 - bit));
+            if (bits != 0) {
+                long found = index - (bit - (63 - Long.numberOfLeadingZeros(bits)));
+                return found >= baseIndex ? found : NONE;
+            }
+            index -= bit + 1;
+        }
+        return NONE;
+    }
+
+    private long scanUp(long index) {
+        index = Math.max(index, baseIndex);
+        long end = baseIndex + capacity;
+        while (index < end) {
+            int slot = slot(index);
+            int bit = slot & 63;
+            long bits = occupied[slot >>> 6] & (-1L << bit);
+            if (bits != 0) {
+                long found = index + (Long.numberOfTrailingZeros(bits) - bit);
+                return found < end ? found : NONE;
+            }
+            index += 64 - bit;
+        }
+        return NONE;
+    }
+
+    // 배열이 비어 있을 때 center를 중심으로 창을 옮긴다.
+    private void recenter(long center) {
+        moveWindow(center - capacity / 2);
+    }
+
+    // 최우선 호가(bestIndex)가 창의 좋은 쪽 가장자리에서 capacity / 4 위치에 오도록 창을 옮긴다.
+    private void slideTo(long bestIndex) {
+        moveWindow(isBuySide() ? bestIndex - capacity + capacity / 4 + 1 : bestIndex - capacity / 4);
+    }
+
+    // 창의 시작을 newBase로 옮기고, 새 창 밖으로 나가는 배열 레벨은 overflow로, 새 창에 들어오는 overflow 레벨은 배열로 옮긴다.
+    // 비트맵 한 번(capacity / 64 word)과 옮겨지는 레벨 수만큼만 든다.
+    private void moveWindow(long newBase) {
+        newBase = Math.max(0, newBase);
+        if (newBase == baseIndex) {
+            return;
+        }
+        long newEnd = newBase + capacity;
+        if (levelCount > 0) {
+            for (int word = 0; word < occupied.length; word++) {
+                long bits = occupied[word];
+                while (bits != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    PriceLevel level = slots[slot];
+                    long index = level.getPrice() / tickSize;
+                    if (index < newBase || index >= newEnd) {
+                        slots[slot] = null;
+                        occupied[word] &= ~(1L << slot);
+                        levelCount--;
+                        overflow.put(level.getPrice(), level);
+                    }
+                }
+            }
+        }
+        baseIndex = newBase;
+
+        // 새 창의 가격 범위 [newBase * tickSize, newEnd * tickSize) 에 있는 overflow 레벨만 꺼낸다
+        long low = newBase * tickSize;
+        long high = newEnd * tickSize;
+        NavigableMap<Long, PriceLevel> entering = isBuySide() ? overflow.subMap(high, false, low, true) : overflow.subMap(low, true, high, false);
+        Iterator<PriceLevel> iterator = entering.values().iterator();
+        while (iterator.hasNext()) {
+            PriceLevel level = iterator.next();
+            int slot = slot(level.getPrice() / tickSize);
+            slots[slot] = level;
+            occupied[slot >>> 6] |= 1L << slot;
+            levelCount++;
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mjy.coin.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 가중치 일관성 해시 링 (마켓 -> 체결 엔진 인스턴스 배정).
+ * 인스턴스마다 가중치 x virtualNodes개의 점을 링에 올리고, 마켓 키는 해시 값 이상인 첫 점의 인스턴스가 맡는다.
+ * 인스턴스가 추가/제거되거나 가중치가 바뀌면 그 인스턴스 점 근처의 마켓만 옮겨지고 나머지 배정은 유지된다.
+ * 같은 인스턴스 목록과 가중치로 만든 링은 어느 인스턴스에서 계산해도 같은 결과를 낸다.
+ */
+public class ConsistentHashRing {
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> members;
+
+    public ConsistentHashRing(Map<String, Integer> weights, int virtualNodes) {
+        weights.forEach((member, weight) -> {
+            for (int i = 0; i < weight * virtualNodes; i++) {
+                // 점이 겹치면 이름이 앞선 인스턴스 (Map 순회 순서와 관계없이 같은 링)
+                ring.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        });
+        this.members = Collections.unmodifiableSet(new TreeMap<>(weights).keySet());
+    }
+
+    // 마켓 키를 맡을 인스턴스 (인스턴스가 없으면 null)
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return (entry == null ? ring.firstEntry() : entry).getValue();
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    // 64비트 FNV-1a 후 murmur3 finalizer로 섞는다 (BTC-KRW, ETH-KRW처럼 비슷한 키도 링에 고르게 퍼지도록)
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+/**
+ * 체결 한 건. FillBuffer가 미리 만들어 둔 객체를 매 체결마다 덮어써서 재사용한다.
+ * 값은 다음 match 호출 전까지만 유효하므로 체결 반영(Redis/Kafka) 단계에서 바로 소비해야 한다.
+ */
+public class Fill {
+    private CoinOrderDTO makerOrder;   // 호가에 대기 중이던 주문
+    private long priceTicks;           // 체결가 (maker 주문 가격)
+    private long quantityLots;         // 체결 수량
+    private long makerRemainingLots;   // 체결 후 maker 잔량
+    private long takerRemainingLots;   // 체결 후 taker(들어온 주문) 잔량
+    private long matchedAt;            // 체결 시각 (epoch millis)
+
+    void set(CoinOrderDTO makerOrder, long priceTicks, long quantityLots,
+             long makerRemainingLots, long takerRemainingLots, long matchedAt) {
+        this.makerOrder = makerOrder;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+        this.makerRemainingLots = makerRemainingLots;
+        this.takerRemainingLots = takerRemainingLots;
+        this.matchedAt = matchedAt;
+    }
+
+    void clear() {
+        this.makerOrder = null;
+    }
+
+    public CoinOrderDTO getMakerOrder() {
+        return makerOrder;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public long getMakerRemainingLots() {
+        return makerRemainingLots;
+    }
+
+    public long getTakerRemainingLots() {
+        return takerRemainingLots;
+    }
+
+    public long getMatchedAt() {
+        return matchedAt;
+    }
+
+    public boolean isMakerCompleted() {
+        return makerRemainingLots == 0;
+    }
+
+    public boolean isTakerCompleted() {
+        return takerRemainingLots == 0;
+    }
+}
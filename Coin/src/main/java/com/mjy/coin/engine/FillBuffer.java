@@ -0,0 +1,52 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+import java.util.Arrays;
+
+/**
+ * 주문 한 건을 처리하는 동안 발생한 체결 목록. 마켓별로 하나를 만들어 두고 match 호출마다 비워서 재사용한다.
+ * 용량을 넘으면 두 배로 늘리며, 워밍업 이후에는 새로 할당하지 않는다.
+ */
+public class FillBuffer {
+    private Fill[] fills;
+    private int size;
+
+    public FillBuffer(int initialCapacity) {
+        fills = new Fill[Math.max(1, initialCapacity)];
+        for (int i = 0; i < fills.length; i++) {
+            fills[i] = new Fill();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Fill get(int i) {
+        return fills[i];
+    }
+
+    void add(CoinOrderDTO makerOrder, long priceTicks, long quantityLots,
+             long makerRemainingLots, long takerRemainingLots, long matchedAt) {
+        if (size == fills.length) {
+            int capacity = fills.length;
+            fills = Arrays.copyOf(fills, capacity << 1);
+            for (int i = capacity; i < fills.length; i++) {
+                fills[i] = new Fill();
+            }
+        }
+        fills[size++].set(makerOrder, priceTicks, quantityLots, makerRemainingLots, takerRemainingLots, matchedAt);
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            fills[i].clear();
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.mjy.coin.engine;
+
+// 저널 디스크 동기화(fsync) 정책
+public enum JournalFsyncPolicy {
+    NONE,   // 페이지 캐시에만 기록, 디스크 반영은 OS에 맡김 (프로세스 장애에는 안전, 서버 장애 시 유실 가능)
+    BATCH,  // 그룹 커밋 : 일정 건수 또는 시간마다 한 번에 fsync
+    ALWAYS  // 커밋마다 fsync
+}
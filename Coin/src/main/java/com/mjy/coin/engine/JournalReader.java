@@ -0,0 +1,162 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.enums.ExecutionType;
+import com.mjy.coin.enums.OrderType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static com.mjy.coin.engine.MarketJournal.*;
+
+/**
+ * MarketJournal 세그먼트를 순서대로 읽는다. 레코드 포맷은 MarketJournal 참고.
+ * 하위 저장소 반영(Redis/MySQL)이나 재시작 복구에서 특정 sequence 이후 이벤트를 다시 읽을 때 사용한다.
+ */
+public class JournalReader {
+    private static final ExecutionType[] EXECUTION_TYPES = ExecutionType.values();
+
+    private final Path directory;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    // fromSequence 이상의 레코드를 순서대로 전달하고 마지막으로 읽은 sequence 반환 (없으면 fromSequence - 1)
+    public long read(long fromSequence, Consumer<JournalRecord> consumer) {
+        List<Path> segments = listSegments(directory);
+        JournalRecord record = new JournalRecord();
+        CRC32C crc = new CRC32C();
+        long lastSequence = fromSequence - 1;
+
+        for (int i = 0; i < segments.size(); i++) {
+            // 다음 세그먼트가 fromSequence 이전에 시작하면 이 세그먼트는 건너뛴다
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                checkHeader(buffer, segments.get(i));
+
+                int position = SEGMENT_HEADER_SIZE;
+                while ((position = readRecord(buffer, position, crc, record)) > 0) {
+                    if (record.getSequence() >= fromSequence) {
+                        consumer.accept(record);
+                        lastSequence = record.getSequence();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal segment " + segments.get(i), e);
+            }
+        }
+        return lastSequence;
+    }
+
+    // 남아 있는 가장 오래된 세그먼트의 첫 sequence (세그먼트가 없으면 1)
+    public long getFirstSequence() {
+        List<Path> segments = listSegments(directory);
+        return segments.isEmpty() ? 1 : firstSequence(segments.get(0));
+    }
+
+    // 세그먼트 파일 목록 (첫 sequence 순)
+    public static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal segments in " + directory, e);
+        }
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static void checkHeader(ByteBuffer buffer, Path segment) {
+        if (buffer.capacity() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a journal segment: " + segment);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported journal version " + buffer.getInt(4) + ": " + segment);
+        }
+    }
+
+    // position의 레코드를 record에 읽고 다음 레코드 위치 반환, 저널의 끝(길이 0, CRC 불일치)이면 -1
+    static int readRecord(ByteBuffer buffer, int position, CRC32C crc, JournalRecord record) {
+        int capacity = buffer.capacity();
+        buffer.clear();
+        if (position + RECORD_HEADER_SIZE > capacity) {
+            return -1;
+        }
+        int bodyLength = buffer.getInt(position);
+        int bodyStart = position + RECORD_HEADER_SIZE;
+        if (bodyLength < BODY_HEADER_SIZE || bodyLength > capacity - bodyStart) {
+            return -1;
+        }
+
+        int checksum = buffer.getInt(position + 4);
+        crc.reset();
+        buffer.clear().position(bodyStart).limit(bodyStart + bodyLength);
+        crc.update(buffer);
+        if ((int) crc.getValue() != checksum) {
+            return -1;
+        }
+
+        buffer.position(bodyStart);
+        byte type = buffer.get();
+        record.reset(type, buffer.getLong(), buffer.getLong());
+        switch (type) {
+            case ORDER -> {
+                String uuid = getString(buffer);
+                String memberUuid = getString(buffer);
+                long memberIdx = buffer.getLong();
+                byte flags = buffer.get();
+                long priceTicks = buffer.getLong();
+                long quantityLots = buffer.getLong();
+                long createdAt = buffer.getLong();
+                long triggerPriceTicks = (flags & STOP_FLAG) != 0 ? buffer.getLong() : 0;
+                record.setOrder(uuid, memberUuid, memberIdx, (flags & 1) == 0 ? OrderType.BUY : OrderType.SELL,
+                        EXECUTION_TYPES[(flags >> 1) & 0x1F], priceTicks, quantityLots, createdAt, triggerPriceTicks,
+                        (flags & OFFSET_FLAG) != 0 ? buffer.getLong() : -1);
+            }
+            case FILL -> record.setFill(getString(buffer), getString(buffer),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            case CANCEL -> {
+                String uuid = getString(buffer);
+                // 오프셋은 본문에 남은 바이트가 있을 때만 (이전 레코드는 uuid만 있다)
+                record.setCancel(uuid, buffer.position() < bodyStart + bodyLength ? buffer.getLong() : -1);
+            }
+            default -> {
+                return -1;
+            }
+        }
+        return bodyStart + bodyLength;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,189 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+import com.mjy.coin.enums.OrderType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static com.mjy.coin.enums.OrderStatus.PENDING;
+
+/**
+ * 저널에서 읽은 레코드 한 건. JournalReader가 하나의 객체를 매 레코드마다 덮어써서 재사용하므로
+ * 콜백 안에서만 유효하다.
+ */
+public class JournalRecord {
+    private byte type;
+    private long sequence;
+    private long timestamp;            // 기록 시각 (FILL은 체결 시각), epoch millis
+
+    // ORDER / CANCEL : 주문 uuid, FILL : taker 주문 uuid
+    private String uuid;
+    // FILL : maker 주문 uuid
+    private String makerUuid;
+    // ORDER
+    private String memberUuid;
+    private long memberIdx;
+    private OrderType orderType;
+    private ExecutionType executionType;
+    private long createdAt;
+    private long triggerPriceTicks;    // 스탑 주문 발동가 (일반 주문은 0)
+    private long sourceOffset;         // ORDER/CANCEL : 마켓 토픽 Kafka 오프셋 (없으면 -1)
+    // ORDER : 주문 가격/수량, FILL : 체결 가격/수량
+    private long priceTicks;
+    private long quantityLots;
+    // FILL
+    private long makerRemainingLots;
+    private long takerRemainingLots;
+
+    void reset(byte type, long sequence, long timestamp) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.uuid = null;
+        this.makerUuid = null;
+        this.memberUuid = null;
+        this.memberIdx = -1;
+        this.orderType = null;
+        this.executionType = null;
+        this.createdAt = -1;
+        this.triggerPriceTicks = 0;
+        this.sourceOffset = -1;
+        this.priceTicks = 0;
+        this.quantityLots = 0;
+        this.makerRemainingLots = 0;
+        this.takerRemainingLots = 0;
+    }
+
+    void setOrder(String uuid, String memberUuid, long memberIdx, OrderType orderType, ExecutionType executionType,
+                  long priceTicks, long quantityLots, long createdAt, long triggerPriceTicks, long sourceOffset) {
+        this.uuid = uuid;
+        this.memberUuid = memberUuid;
+        this.memberIdx = memberIdx;
+        this.orderType = orderType;
+        this.executionType = executionType;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+        this.createdAt = createdAt;
+        this.triggerPriceTicks = triggerPriceTicks;
+        this.sourceOffset = sourceOffset;
+    }
+
+    void setFill(String takerUuid, String makerUuid, long priceTicks, long quantityLots,
+                 long makerRemainingLots, long takerRemainingLots) {
+        this.uuid = takerUuid;
+        this.makerUuid = makerUuid;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+        this.makerRemainingLots = makerRemainingLots;
+        this.takerRemainingLots = takerRemainingLots;
+    }
+
+    void setCancel(String uuid, long sourceOffset) {
+        this.uuid = uuid;
+        this.sourceOffset = sourceOffset;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public boolean isOrder() {
+        return type == MarketJournal.ORDER;
+    }
+
+    public boolean isFill() {
+        return type == MarketJournal.FILL;
+    }
+
+    public boolean isCancel() {
+        return type == MarketJournal.CANCEL;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getMakerUuid() {
+        return makerUuid;
+    }
+
+    public String getMemberUuid() {
+        return memberUuid;
+    }
+
+    public long getMemberIdx() {
+        return memberIdx;
+    }
+
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    public ExecutionType getExecutionType() {
+        return executionType;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getTriggerPriceTicks() {
+        return triggerPriceTicks;
+    }
+
+    public long getSourceOffset() {
+        return sourceOffset;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public long getMakerRemainingLots() {
+        return makerRemainingLots;
+    }
+
+    public long getTakerRemainingLots() {
+        return takerRemainingLots;
+    }
+
+    // ORDER 레코드를 체결 전 주문으로 복원 (key : BTC-KRW)
+    public CoinOrderDTO toOrder(String key, MarketScale scale) {
+        String[] market = key.split("-");
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(uuid);
+        order.setMemberUuid(memberUuid);
+        order.setMemberIdx(memberIdx < 0 ? null : memberIdx);
+        order.setCoinName(market[0]);
+        order.setMarketName(market[1]);
+        order.setOrderType(orderType);
+        order.setExecutionType(executionType);
+        order.setOrderStatus(PENDING);
+        order.setPriceTicks(priceTicks);
+        order.setQuantityLots(quantityLots);
+        order.setOrderPrice(scale.toPrice(priceTicks));
+        order.setCoinAmount(scale.toQuantity(quantityLots));
+        if (triggerPriceTicks > 0) {
+            order.setTriggerPriceTicks(triggerPriceTicks);
+            order.setTriggerPrice(scale.toPrice(triggerPriceTicks));
+        }
+        order.setCreatedAt(createdAt < 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault()));
+        order.setSourceOffset(sourceOffset);
+        return order;
+    }
+}
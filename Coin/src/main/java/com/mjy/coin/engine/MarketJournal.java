@@ -0,0 +1,421 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.OrderType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * 마켓 하나의 체결 엔진 이벤트(주문 접수, 체결, 취소)를 순서대로 남기는 추가 전용 저널.
+ * 세그먼트 파일을 메모리 매핑해서 기록하므로 append는 메모리 복사 비용만 들고,
+ * 디스크 동기화는 JournalFsyncPolicy에 따라 커밋 시점에 묶어서(그룹 커밋) 수행한다.
+ * 저널 기록을 전제로 하는 외부 반영(Redis, Kafka)은 whenDurable로 넘겨 그룹이 디스크에 동기화된 뒤 실행한다.
+ *
+ * 세그먼트 파일 : {첫 sequence 20자리}.journal
+ *   [int magic][int version] 다음에 레코드가 이어진다.
+ * 레코드 : [int 본문 길이][int 본문 CRC32C][본문]
+ *   본문 = [byte type][long sequence][long timestamp][payload]
+ *   길이는 본문과 CRC를 쓴 뒤 마지막에 기록하므로 길이가 0이거나 CRC가 맞지 않는 곳이 저널의 끝이다.
+ *
+ * 레인 스레드가 기록하고 주기적인 flush는 다른 스레드에서 호출될 수 있어 공개 메서드는 synchronized로 보호한다.
+ */
+public class MarketJournal implements AutoCloseable {
+    public static final byte ORDER = 1;
+    public static final byte FILL = 2;
+    public static final byte CANCEL = 3;
+
+    static final int STOP_FLAG = 0x40; // ORDER 레코드 플래그 : 스탑 주문
+    static final int OFFSET_FLAG = 0x80; // ORDER 레코드 플래그 : 마켓 토픽 Kafka 오프셋 (끝에 붙는다)
+    static final int MAGIC = 0x4D4A594A; // "MJYJ"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int BODY_HEADER_SIZE = 1 + 8 + 8;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final String key;
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalFsyncPolicy fsyncPolicy;
+    private final int groupCommitRecords;
+    private final long groupCommitMillis;
+    private final CRC32C crc = new CRC32C();
+    private final ArrayDeque<Runnable> durableActions = new ArrayDeque<>(); // fsync를 기다리는 외부 반영
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private ByteBuffer crcView;
+    private int position;
+    private int forcedPosition;
+    private long sequence;          // 마지막으로 기록한 sequence
+    private int unforcedRecords;    // 마지막 fsync 이후 기록한 레코드 수
+    private long lastForcedAt;
+
+    public MarketJournal(String key, Path directory, int segmentSize, JournalFsyncPolicy fsyncPolicy,
+                         int groupCommitRecords, long groupCommitMillis) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + BODY_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal segment size too small: " + segmentSize);
+        }
+        this.key = key;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitRecords = groupCommitRecords;
+        this.groupCommitMillis = groupCommitMillis;
+        this.lastForcedAt = System.currentTimeMillis();
+
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = JournalReader.listSegments(directory);
+            if (segments.isEmpty()) {
+                openSegment(1);
+            } else {
+                reopenSegment(segments.get(segments.size() - 1), Long.MAX_VALUE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal " + key + " at " + directory, e);
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // 마지막으로 기록한 sequence (기록이 없으면 0)
+    public synchronized long getLastSequence() {
+        return sequence;
+    }
+
+    // 주문 접수 기록, 체결 전 원래 수량으로 남긴다
+    public synchronized long appendOrder(CoinOrderDTO order) {
+        String uuid = order.getUuid();
+        String memberUuid = order.getMemberUuid();
+        boolean stop = order.isStopOrder();
+        boolean hasOffset = order.getSourceOffset() >= 0;
+        int bodyLength = BODY_HEADER_SIZE + encodedLength(uuid) + encodedLength(memberUuid) + 8 + 1 + 8 + 8 + 8
+                + (stop ? 8 : 0) + (hasOffset ? 8 : 0);
+
+        int start = begin(ORDER, bodyLength, System.currentTimeMillis());
+        putString(uuid);
+        putString(memberUuid);
+        buffer.putLong(order.getMemberIdx() == null ? -1 : order.getMemberIdx());
+        // 비트 0 매수(0)/매도(1), 비트 1~5 체결 조건 (이전 레코드는 0 = 지정가), 비트 6 스탑 주문 (발동가가 끝에 붙는다)
+        // 비트 7 Kafka 오프셋 (발동가 다음에 붙는다)
+        buffer.put((byte) ((order.getOrderType() == OrderType.BUY ? 0 : 1) | order.getExecutionTypeOrLimit().ordinal() << 1
+                | (stop ? STOP_FLAG : 0) | (hasOffset ? OFFSET_FLAG : 0)));
+        buffer.putLong(order.getPriceTicks());
+        buffer.putLong(order.getQuantityLots());
+        buffer.putLong(order.getCreatedAt() == null ? -1 : order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        if (stop) {
+            buffer.putLong(order.getTriggerPriceTicks());
+        }
+        if (hasOffset) {
+            buffer.putLong(order.getSourceOffset());
+        }
+        return end(start, bodyLength);
+    }
+
+    // 체결 기록 (taker = 들어온 주문, maker = 호가에 대기 중이던 주문)
+    public synchronized long appendFill(CoinOrderDTO takerOrder, Fill fill) {
+        String takerUuid = takerOrder.getUuid();
+        String makerUuid = fill.getMakerOrder().getUuid();
+        int bodyLength = BODY_HEADER_SIZE + encodedLength(takerUuid) + encodedLength(makerUuid) + 8 * 4;
+
+        int start = begin(FILL, bodyLength, fill.getMatchedAt());
+        putString(takerUuid);
+        putString(makerUuid);
+        buffer.putLong(fill.getPriceTicks());
+        buffer.putLong(fill.getQuantityLots());
+        buffer.putLong(fill.getMakerRemainingLots());
+        buffer.putLong(fill.getTakerRemainingLots());
+        return end(start, bodyLength);
+    }
+
+    // 주문 취소 기록
+    public synchronized long appendCancel(String uuid) {
+        return appendCancel(uuid, -1);
+    }
+
+    // 주문 취소 기록, 취소 요청의 Kafka 오프셋이 있으면 uuid 뒤에 붙인다
+    public synchronized long appendCancel(String uuid, long sourceOffset) {
+        int bodyLength = BODY_HEADER_SIZE + encodedLength(uuid) + (sourceOffset >= 0 ? 8 : 0);
+
+        int start = begin(CANCEL, bodyLength, System.currentTimeMillis());
+        putString(uuid);
+        if (sourceOffset >= 0) {
+            buffer.putLong(sourceOffset);
+        }
+        return end(start, bodyLength);
+    }
+
+    // 주문 하나의 처리(접수 + 체결)를 마칠 때 호출, 정책에 따라 fsync
+    public synchronized void commit() {
+        switch (fsyncPolicy) {
+            case ALWAYS -> force();
+            case BATCH -> {
+                if (unforcedRecords >= groupCommitRecords || System.currentTimeMillis() - lastForcedAt >= groupCommitMillis) {
+                    force();
+                }
+            }
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * 지금까지 기록한 레코드가 디스크에 동기화된 뒤 action 실행.
+     * 이미 동기화되었거나 fsync 정책이 NONE이면 바로 실행하고, 아니면 다음 fsync(그룹 커밋, flushIfDue, flush) 직후 등록 순서대로 실행한다.
+     * 재시작 시 저널에 없는 체결이 Redis/Kafka에 먼저 나가지 않게 하려는 것이므로 action은 짧게(다른 레인에 넘기기) 유지한다.
+     */
+    public synchronized void whenDurable(Runnable action) {
+        if (fsyncPolicy == JournalFsyncPolicy.NONE || unforcedRecords == 0) {
+            action.run();
+            return;
+        }
+        durableActions.add(action);
+    }
+
+    // 주문이 끊겨 커밋이 오지 않을 때 남은 그룹을 내보내기 위해 주기적으로 호출
+    public synchronized void flushIfDue() {
+        if (fsyncPolicy == JournalFsyncPolicy.BATCH && unforcedRecords > 0
+                && System.currentTimeMillis() - lastForcedAt >= groupCommitMillis) {
+            force();
+        }
+    }
+
+    // 기록한 내용을 모두 디스크에 동기화
+    public synchronized void flush() {
+        if (unforcedRecords > 0) {
+            force();
+        }
+    }
+
+    // sequence 이전 레코드만 담긴 세그먼트 삭제 (스냅샷에 반영된 구간), 기록 중인 세그먼트는 남긴다
+    public synchronized int deleteSegmentsBefore(long sequence) {
+        List<Path> segments = JournalReader.listSegments(directory);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (JournalReader.firstSequence(segments.get(i + 1)) > sequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segments.get(i));
+                deleted++;
+            } catch (IOException e) {
+                System.err.println("Failed to delete journal segment " + segments.get(i) + ": " + e.getMessage());
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * lastSequence 이후 레코드 삭제 (Kafka 트랜잭션 모드에서 커밋되지 않은 오프셋 구간 되돌리기).
+     * 되돌린 주문은 다시 전달되어 같은 sequence로 다시 기록된다. 재시작 복구 중 기록 전에만 호출한다.
+     */
+    public synchronized void truncateAfter(long lastSequence) {
+        if (lastSequence >= sequence) {
+            return;
+        }
+        try {
+            channel.close();
+            List<Path> segments = JournalReader.listSegments(directory);
+            Path tail = null;
+            for (Path segment : segments) {
+                if (JournalReader.firstSequence(segment) > lastSequence) {
+                    Files.deleteIfExists(segment);
+                } else {
+                    tail = segment;
+                }
+            }
+            if (tail == null) {
+                sequence = lastSequence;
+                openSegment(lastSequence + 1);
+            } else {
+                reopenSegment(tail, lastSequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate journal " + key + " after " + lastSequence, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close journal " + key + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private int begin(byte type, int bodyLength, long timestamp) {
+        if (channel == null) {
+            throw new IllegalStateException("Journal " + key + " is closed");
+        }
+        int recordLength = RECORD_HEADER_SIZE + bodyLength;
+        if (recordLength > segmentSize - SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal record too large: " + recordLength);
+        }
+        if (position + recordLength > buffer.capacity()) {
+            rollSegment();
+        }
+
+        int start = position;
+        buffer.position(start + RECORD_HEADER_SIZE);
+        buffer.put(type);
+        buffer.putLong(sequence + 1);
+        buffer.putLong(timestamp);
+        return start;
+    }
+
+    private long end(int start, int bodyLength) {
+        int bodyStart = start + RECORD_HEADER_SIZE;
+        crc.reset();
+        crcView.clear().position(bodyStart).limit(bodyStart + bodyLength);
+        crc.update(crcView);
+
+        // 길이를 마지막에 기록해 읽는 쪽이 덜 쓰인 레코드를 보지 않게 한다
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, bodyLength);
+
+        position = bodyStart + bodyLength;
+        unforcedRecords++;
+        return ++sequence;
+    }
+
+    private void force() {
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+        }
+        forcedPosition = position;
+        unforcedRecords = 0;
+        lastForcedAt = System.currentTimeMillis();
+
+        Runnable action;
+        while ((action = durableActions.poll()) != null) {
+            action.run();
+        }
+    }
+
+    private void rollSegment() {
+        // 현재 세그먼트는 정책과 관계없이 동기화한 뒤 닫는다
+        force();
+        try {
+            channel.close();
+            openSegment(sequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal " + key, e);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(segmentName(firstSequence));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        crcView = buffer.duplicate();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        position = SEGMENT_HEADER_SIZE;
+        forcedPosition = 0;
+        force();
+    }
+
+    // 재시작 시 마지막 세그먼트를 다시 열고 끝(마지막 온전한 레코드 다음, maxSequence 이하)부터 이어서 기록
+    private void reopenSegment(Path path, long maxSequence) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        crcView = buffer.duplicate();
+        JournalReader.checkHeader(buffer, path);
+
+        sequence = JournalReader.firstSequence(path) - 1;
+        JournalRecord record = new JournalRecord();
+        ByteBuffer view = buffer.duplicate();
+        int next = SEGMENT_HEADER_SIZE;
+        int end = next;
+        while ((next = JournalReader.readRecord(view, end, crc, record)) > 0 && record.getSequence() <= maxSequence) {
+            sequence = record.getSequence();
+            end = next;
+        }
+
+        // 중간에 끊긴 레코드(또는 되돌린 레코드)가 남아 있으면 지워서 이후 기록과 섞이지 않게 한다
+        if (end + 4 <= buffer.capacity() && buffer.getInt(end) != 0) {
+            System.err.println("Journal " + key + " truncated " + (maxSequence == Long.MAX_VALUE ? "torn record" : "records after " + maxSequence)
+                    + " at " + path.getFileName() + ":" + end);
+            for (int i = end; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        position = end;
+        forcedPosition = end;
+        force();
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%020d", firstSequence) + SEGMENT_SUFFIX;
+    }
+
+    // [short 길이][UTF-8 바이트], null은 길이 -1
+    private static int encodedLength(String value) {
+        if (value == null) {
+            return 2;
+        }
+        return 2 + (isAscii(value) ? value.length() : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        if (isAscii(value)) {
+            // uuid 등 ASCII 문자열은 byte[] 생성 없이 바로 기록
+            checkStringLength(value.length());
+            buffer.putShort((short) value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        checkStringLength(bytes.length);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void checkStringLength(int length) {
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal string too long: " + length);
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mjy.coin.engine;
+
+import java.util.concurrent.*;
+
+/**
+ * 마켓 하나(예: BTC-KRW)의 작업을 단일 스레드에서 순서대로 처리하는 레인.
+ * 같은 마켓의 주문은 항상 같은 스레드에서 실행되므로 체결 로직은 락 없이 호가/큐 상태를 변경할 수 있다.
+ * 마켓이 많으면 laneKey로 여러 마켓이 레인 하나를 나눠 쓸 수 있다 (마켓별 단일 스레드 보장은 그대로).
+ */
+public class MarketLane {
+    private final String key;
+    private final ThreadPoolExecutor executor;
+
+    public MarketLane(String key, int capacity) {
+        this(key, capacity, "match-lane-");
+    }
+
+    // threadNamePrefix : 용도별 레인 구분 (체결 match-lane-, 하위 저장소 반영 persist-lane- 등)
+    public MarketLane(String key, int capacity, String threadNamePrefix) {
+        this.key = key;
+        this.executor = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + key);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 큐가 가득 차면 버리지 않고 자리가 날 때까지 호출 스레드(Kafka 리스너)를 대기시킨다.
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Market lane " + key + " is shut down");
+                    }
+                    try {
+                        pool.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for market lane " + key, e);
+                    }
+                });
+    }
+
+    // lanes > 0 이면 마켓을 고정 개수의 공유 레인 중 하나에 배정 (같은 마켓은 항상 같은 레인), 0이면 마켓마다 레인 하나
+    public static String laneKey(String key, int lanes) {
+        return lanes > 0 ? "shared-" + Math.floorMod(key.hashCode(), lanes) : key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // 레인 스레드에 작업 위임
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    // 레인 스레드에 작업을 위임하고 완료 시점을 확인할 수 있는 Future 반환
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    // 대기 중인 작업 수
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    // 남은 작업을 모두 처리한 뒤 종료
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                System.err.println("Market lane " + key + " did not drain within " + timeoutMillis + "ms");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+
+import java.math.BigDecimal;
+
+/**
+ * 마켓별 가격/수량의 소수 자릿수.
+ * 주문이 들어올 때 한 번만 BigDecimal을 long(가격 틱, 수량 랏)으로 변환하고,
+ * 체결 루프는 long 연산만 사용한다. BigDecimal 변환은 Redis/Kafka/JPA로 내보낼 때만 수행한다.
+ */
+public final class MarketScale {
+    // CoinOrder 엔티티의 scale(8)과 동일한 기본값
+    public static final MarketScale DEFAULT = new MarketScale(8, 8);
+
+    private final int priceScale;
+    private final int quantityScale;
+    private final long tickSize; // 호가 단위 (가격 틱 기준), 0이면 호가 단위 없음
+
+    public MarketScale(int priceScale, int quantityScale) {
+        this(priceScale, quantityScale, 0);
+    }
+
+    public MarketScale(int priceScale, int quantityScale, long tickSize) {
+        this.priceScale = priceScale;
+        this.quantityScale = quantityScale;
+        this.tickSize = tickSize;
+    }
+
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    public int getQuantityScale() {
+        return quantityScale;
+    }
+
+    public long getTickSize() {
+        return tickSize;
+    }
+
+    // 허용 자릿수를 넘거나 호가 단위에 맞지 않는 가격/수량은 반올림하지 않고 ArithmeticException 발생
+    public long toPriceTicks(BigDecimal price) {
+        long priceTicks = price.movePointRight(priceScale).longValueExact();
+        if (tickSize > 0 && priceTicks % tickSize != 0) {
+            throw new ArithmeticException("Price " + price + " is not a multiple of tick size " + toPrice(tickSize));
+        }
+        return priceTicks;
+    }
+
+    public long toQuantityLots(BigDecimal quantity) {
+        return quantity.movePointRight(quantityScale).longValueExact();
+    }
+
+    public BigDecimal toPrice(long priceTicks) {
+        return BigDecimal.valueOf(priceTicks, priceScale);
+    }
+
+    public BigDecimal toQuantity(long quantityLots) {
+        return BigDecimal.valueOf(quantityLots, quantityScale);
+    }
+
+    // 주문의 가격/수량을 틱/랏으로 변환해 주문에 기록
+    public void applyTo(CoinOrderDTO order) {
+        // 시장가 주문은 주문가를 사용하지 않는다
+        order.setPriceTicks(order.getExecutionType() == ExecutionType.MARKET ? 0 : toPriceTicks(order.getOrderPrice()));
+        order.setQuantityLots(toQuantityLots(order.getCoinAmount()));
+        if (order.getTriggerPrice() != null) {
+            order.setTriggerPriceTicks(toPriceTicks(order.getTriggerPrice()));
+        }
+    }
+}
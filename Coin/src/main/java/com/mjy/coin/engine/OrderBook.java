@@ -0,0 +1,265 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+
+/**
+ * 마켓 하나(예: BTC-KRW)의 오더북.
+ * 체결 대기열과 호가 잔량을 하나의 자료구조로 관리하므로 두 정보가 어긋나지 않는다.
+ * 호가 단위(tickSize)가 있는 마켓은 배열 기반, 없는 마켓은 TreeMap 기반으로 가격 레벨을 보관한다.
+ * 발동 전 스탑 주문은 호가와 별도로 StopOrderIndex에 두고 마지막 체결가로 발동시킨다.
+ *
+ * 주문 노드, 가격 레벨, uuid 인덱스, 체결 버퍼는 마켓별로 재사용되므로
+ * 워밍업 이후 match 호출은 힙 할당 없이 동작한다. (배열 기반 오더북 기준, TreeMap은 새 가격 레벨 등록 시 할당)
+ * 레인 스레드 하나에서만 사용해야 한다.
+ */
+public class OrderBook {
+    public static final int DEFAULT_LADDER_SIZE = 4096;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 16;
+    private static final int INITIAL_FILL_CAPACITY = 256;
+
+    private final String key;
+    private final MarketScale scale;
+    private final OrderIndex orderIndex = new OrderIndex(INITIAL_INDEX_CAPACITY);
+    private final OrderPool pool = new OrderPool();
+    private final FillBuffer fills = new FillBuffer(INITIAL_FILL_CAPACITY);
+    private final OrderBookSide buySide;
+    private final OrderBookSide sellSide;
+    private final StopOrderIndex stopOrders = new StopOrderIndex();
+    private long lastPriceTicks; // 마지막 체결가 (체결 이력이 없으면 0), 스탑 주문 발동 기준
+    private long sourceOffset = -1; // 마지막으로 반영한 마켓 토픽 Kafka 오프셋 (없으면 -1), 스냅샷에 함께 남긴다
+
+    public OrderBook(String key, MarketScale scale) {
+        this(key, scale, DEFAULT_LADDER_SIZE);
+    }
+
+    public OrderBook(String key, MarketScale scale, int ladderSize) {
+        this.key = key;
+        this.scale = scale;
+        if (scale.getTickSize() > 0) {
+            this.buySide = new ArrayOrderBookSide(true, orderIndex, pool, scale.getTickSize(), ladderSize);
+            this.sellSide = new ArrayOrderBookSide(false, orderIndex, pool, scale.getTickSize(), ladderSize);
+        } else {
+            this.buySide = new TreeOrderBookSide(true, orderIndex, pool);
+            this.sellSide = new TreeOrderBookSide(false, orderIndex, pool);
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public MarketScale getScale() {
+        return scale;
+    }
+
+    public OrderBookSide getBuySide() {
+        return buySide;
+    }
+
+    public OrderBookSide getSellSide() {
+        return sellSide;
+    }
+
+    public StopOrderIndex getStopOrders() {
+        return stopOrders;
+    }
+
+    public long getLastPriceTicks() {
+        return lastPriceTicks;
+    }
+
+    // 스냅샷 복구 시 마지막 체결가 설정
+    public void setLastPriceTicks(long lastPriceTicks) {
+        this.lastPriceTicks = lastPriceTicks;
+    }
+
+    public long getSourceOffset() {
+        return sourceOffset;
+    }
+
+    // 주문/취소 요청을 반영한 뒤 호출, Kafka 외 경로(오프셋 -1)는 무시
+    public void setSourceOffset(long sourceOffset) {
+        if (sourceOffset >= 0) {
+            this.sourceOffset = sourceOffset;
+        }
+    }
+
+    // 주문과 같은 쪽
+    public OrderBookSide getSide(CoinOrderDTO order) {
+        return order.getOrderType() == BUY ? buySide : sellSide;
+    }
+
+    // 주문의 반대쪽 (매수 주문이면 매도 호가)
+    public OrderBookSide getOppositeSide(CoinOrderDTO order) {
+        return order.getOrderType() == BUY ? sellSide : buySide;
+    }
+
+    public void add(CoinOrderDTO order) {
+        getSide(order).add(order);
+    }
+
+    /**
+     * 체결 코어 : 반대편 최우선 호가부터 가격이 맞는 동안 체결하고, 남은 수량은 같은 쪽 호가에 등록한다.
+     * 가격/수량은 틱/랏(long)만 사용하고, 체결 결과는 재사용 버퍼에 기록한다.
+     * 주문 객체는 수량 랏(quantityLots)만 갱신하며 BigDecimal/상태/uuid 반영은 호출하는 쪽에서 한다.
+     *
+     * 체결 조건(ExecutionType)별 동작
+     *   LIMIT : 지정가까지 체결, 남은 수량은 호가 등록
+     *   MARKET : 가격 제한 없이 체결, IOC : 지정가까지 체결 -> 남은 수량은 등록하지 않는다
+     *   FOK : 호가 레벨 잔량 합계로 전량 체결 가능한지 먼저 확인하고, 안 되면 체결 없이 반환
+     *   POST_ONLY : 바로 체결될 가격이면 체결/등록 없이 반환
+     * 등록되지 않은 남은 수량은 quantityLots에 남으므로 호출하는 쪽에서 취소 처리한다.
+     */
+    public FillBuffer match(CoinOrderDTO order) {
+        fills.clear();
+
+        OrderBookSide opposite = getOppositeSide(order);
+        ExecutionType executionType = order.getExecutionTypeOrLimit();
+        boolean buy = order.getOrderType() == BUY;
+        boolean market = executionType == ExecutionType.MARKET;
+        long price = order.getPriceTicks();
+        long remaining = order.getQuantityLots();
+        long matchedAt = System.currentTimeMillis();
+
+        if (executionType == ExecutionType.POST_ONLY && !opposite.isEmpty() && crosses(buy, price, opposite.getBestPrice())) {
+            return fills;
+        }
+        if (executionType == ExecutionType.FOK && opposite.getCrossingQuantity(price, remaining) < remaining) {
+            return fills;
+        }
+
+        while (remaining > 0 && !opposite.isEmpty()) {
+            long bestPrice = opposite.getBestPrice();
+            // 매수는 최우선 매도가 이상, 매도는 최우선 매수가 이하일 때만 체결 (시장가는 가격 제한 없음)
+            if (!market && !crosses(buy, price, bestPrice)) {
+                break;
+            }
+
+            CoinOrderDTO maker = opposite.peek();
+            long makerQuantity = opposite.getPeekQuantity();
+            long quantity = Math.min(remaining, makerQuantity);
+            remaining -= quantity;
+
+            fills.add(maker, bestPrice, quantity, makerQuantity - quantity, remaining, matchedAt);
+            lastPriceTicks = bestPrice;
+
+            if (quantity == makerQuantity) {
+                maker.setQuantityLots(0);
+                opposite.poll();
+            } else {
+                opposite.reducePeek(quantity);
+            }
+        }
+
+        order.setQuantityLots(remaining);
+
+        // 남은 수량은 미체결로 호가에 등록 (지정가/메이커 전용 주문만)
+        if (remaining > 0 && price > 0 && executionType.restsOnBook()) {
+            getSide(order).add(order);
+        }
+        return fills;
+    }
+
+    private static boolean crosses(boolean buy, long price, long bestOppositePrice) {
+        return buy ? price >= bestOppositePrice : price <= bestOppositePrice;
+    }
+
+    // 발동 전 스탑 주문 등록, 이미 발동 조건을 만족하면 다음 pollTriggeredStop에서 바로 꺼내진다
+    public void addStop(CoinOrderDTO order) {
+        stopOrders.add(order);
+    }
+
+    /**
+     * 마지막 체결가로 발동된 스탑 주문을 하나 꺼낸다. (없으면 null)
+     * 호출하는 쪽은 꺼낸 주문을 match로 체결하고, 그 체결로 바뀐 체결가로 다시 호출해 null이 나올 때까지 반복한다.
+     * 체결 서비스와 저널 재생이 같은 순서로 호출하므로 발동 순서가 항상 같다.
+     */
+    public CoinOrderDTO pollTriggeredStop() {
+        return stopOrders.pollTriggered(lastPriceTicks);
+    }
+
+    // 오더북에 대기 중인 주문 조회, 발동 전 스탑 주문 포함 (없으면 null)
+    public CoinOrderDTO getOrder(String uuid) {
+        OrderNode node = orderIndex.get(uuid);
+        return node == null ? stopOrders.get(uuid) : node.order;
+    }
+
+    // 주문 취소 : 인덱스로 노드를 찾아 호가 레벨에서 바로 분리한다. (대기열 탐색 없음) 발동 전 스탑 주문도 취소
+    public CoinOrderDTO cancel(String uuid) {
+        OrderNode node = orderIndex.get(uuid);
+        if (node == null) {
+            return stopOrders.remove(uuid);
+        }
+        return getSide(node.order).remove(node);
+    }
+
+    /**
+     * 대기 주문(양쪽 호가, 발동 전 스탑 주문)과 마지막 체결가로 계산한 CRC32C.
+     * 같은 주문 흐름을 처리한 두 오더북(예: 운영 인스턴스와 대기 인스턴스)은 같은 값이 나온다. 레인 스레드에서만 호출
+     */
+    public long checksum() {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(25);
+        buySide.forEachOrder(order -> updateChecksum(crc, buffer, (byte) 0, order, order.getPriceTicks()));
+        sellSide.forEachOrder(order -> updateChecksum(crc, buffer, (byte) 1, order, order.getPriceTicks()));
+        stopOrders.forEachOrder(order -> updateChecksum(crc, buffer, (byte) 2, order, order.getTriggerPriceTicks()));
+        buffer.clear();
+        buffer.putLong(lastPriceTicks).flip();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    private static void updateChecksum(CRC32C crc, ByteBuffer buffer, byte kind, CoinOrderDTO order, long priceTicks) {
+        crc.update(order.getUuid().getBytes(StandardCharsets.UTF_8));
+        buffer.clear();
+        buffer.put(kind).putLong(priceTicks).putLong(order.getQuantityLots()).putLong(order.getPriceTicks()).flip();
+        crc.update(buffer);
+    }
+
+    /**
+     * L2 호가 변경 추적 시작. 이후 잔량이 바뀐 가격 레벨을 drainDepthChanges로 꺼낼 수 있다.
+     * 추적을 켜기 전의 호가는 drainDepth로 전체를 한 번 보내야 한다.
+     */
+    public void trackDepthChanges() {
+        buySide.trackTouchedPrices();
+        sellSide.trackTouchedPrices();
+    }
+
+    public boolean isTrackingDepthChanges() {
+        return buySide.isTrackingTouchedPrices();
+    }
+
+    // 마지막으로 꺼낸 이후 잔량이 바뀐 가격 레벨을 매수, 매도 순으로 (각각 최우선 호가부터) 전달, 바뀐 레벨이 없으면 false
+    public boolean drainDepthChanges(DepthVisitor visitor) {
+        if (!buySide.hasTouchedPrices() && !sellSide.hasTouchedPrices()) {
+            return false;
+        }
+        buySide.drainTouchedPrices(visitor);
+        sellSide.drainTouchedPrices(visitor);
+        return true;
+    }
+
+    // 전체 호가를 매수, 매도 순으로 (각각 최우선 호가부터) 전달하고 쌓인 변경은 비운다
+    public void drainDepth(DepthVisitor visitor) {
+        buySide.drainAllLevels(visitor);
+        sellSide.drainAllLevels(visitor);
+    }
+
+    // 호가 레벨 하나 (가격 틱, 잔량 랏)
+    @FunctionalInterface
+    public interface DepthVisitor {
+        void accept(boolean buySide, long priceTicks, long quantityLots);
+    }
+
+    // 호가에 대기 중인 주문 수 (발동 전 스탑 주문 제외)
+    public int getOrderCount() {
+        return orderIndex.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+/**
+ * 재시작 시 오더북 복구 : 스냅샷으로 대기 주문을 채운 뒤 스냅샷 이후 저널만 재생한다.
+ * 체결은 결정적이므로 주문/취소 레코드를 같은 순서로 다시 적용하면 같은 오더북이 된다. (FILL 레코드는 결과라 건너뜀)
+ * Kafka 트랜잭션 모드에서는 커밋된 오프셋 이전 주문까지만 재생해, 다시 전달될 주문이 두 번 체결되지 않게 한다.
+ * Listener를 넘기면 재생 중 체결/스탑/취소를 알려 주므로 Redis에 반영되지 않은 저널 구간을 다시 반영할 수 있다.
+ */
+public final class OrderBookRecovery {
+
+    private OrderBookRecovery() {
+    }
+
+    /**
+     * 재생 중 오더북 변경 통지. sequence/timestamp는 재생 중인 주문/취소 레코드의 값이다.
+     * 체결 버퍼는 다음 체결에서 재사용되므로 호출 안에서만 읽는다.
+     */
+    public interface Listener {
+        // 주문(발동된 스탑 주문 포함) 체결 후, 호가에 남았으면 orderBook.getOrder(uuid) == order
+        void onMatched(long sequence, long timestamp, CoinOrderDTO order, FillBuffer fills);
+
+        // 발동 전 스탑 주문 등록
+        void onStopAdded(long sequence, CoinOrderDTO order);
+
+        // 스탑 주문 발동, 이어서 onMatched가 호출된다
+        void onStopTriggered(long sequence, CoinOrderDTO order);
+
+        // 주문 취소 (호가에도 스탑 목록에도 없던 주문이면 호출하지 않는다)
+        void onCanceled(long sequence, CoinOrderDTO order);
+    }
+
+    // 복구 후 오더북에 반영된 마지막 저널 sequence 반환
+    public static long recover(OrderBook orderBook, OrderBookSnapshot snapshot, JournalReader journalReader) {
+        return recover(orderBook, snapshot, journalReader, Long.MAX_VALUE);
+    }
+
+    // committedOffset 이상의 오프셋을 가진 첫 주문/취소 레코드 직전까지만 복구 (그 이후 저널은 호출하는 쪽에서 잘라낸다)
+    public static long recover(OrderBook orderBook, OrderBookSnapshot snapshot, JournalReader journalReader, long committedOffset) {
+        return recover(orderBook, snapshot, journalReader, committedOffset, null);
+    }
+
+    // 재생 중 변경을 listener에 알리며 복구 (listener가 null이면 알리지 않는다)
+    public static long recover(OrderBook orderBook, OrderBookSnapshot snapshot, JournalReader journalReader, long committedOffset,
+                               Listener listener) {
+        long sequence = snapshot == null ? 0 : snapshot.getSequence();
+
+        // 스냅샷 이후 구간이 저널에 남아 있어야 한다 (오더북을 건드리기 전에 확인)
+        if (journalReader.getFirstSequence() > sequence + 1) {
+            throw new IllegalStateException("Journal for " + orderBook.getKey() + " starts at " + journalReader.getFirstSequence()
+                    + " but snapshot covers only up to " + sequence);
+        }
+
+        if (snapshot != null) {
+            snapshot.restore(orderBook);
+        }
+        return replay(orderBook, journalReader, sequence + 1, committedOffset, listener);
+    }
+
+    // fromSequence부터 저널 재생
+    public static long replay(OrderBook orderBook, JournalReader journalReader, long fromSequence) {
+        return replay(orderBook, journalReader, fromSequence, Long.MAX_VALUE);
+    }
+
+    // fromSequence부터 committedOffset 이전 오프셋까지 재생하고 마지막으로 반영한 sequence 반환
+    public static long replay(OrderBook orderBook, JournalReader journalReader, long fromSequence, long committedOffset) {
+        return replay(orderBook, journalReader, fromSequence, committedOffset, null);
+    }
+
+    private static long replay(OrderBook orderBook, JournalReader journalReader, long fromSequence, long committedOffset,
+                               Listener listener) {
+        MarketScale scale = orderBook.getScale();
+        long[] applied = {fromSequence - 1};
+        boolean[] stopped = {false};
+        journalReader.read(fromSequence, record -> {
+            if (stopped[0] || record.getSourceOffset() >= committedOffset) {
+                stopped[0] = true;
+                return;
+            }
+            applied[0] = record.getSequence();
+            orderBook.setSourceOffset(record.getSourceOffset());
+            if (record.isOrder()) {
+                CoinOrderDTO order = record.toOrder(orderBook.getKey(), scale);
+                if (order.isStopOrder()) {
+                    orderBook.addStop(order);
+                    if (listener != null) {
+                        listener.onStopAdded(record.getSequence(), order);
+                    }
+                } else {
+                    match(orderBook, order, record, listener);
+                }
+
+                // 체결 서비스와 같은 순서로 발동된 스탑 주문 체결
+                CoinOrderDTO triggered;
+                while ((triggered = orderBook.pollTriggeredStop()) != null) {
+                    if (listener != null) {
+                        listener.onStopTriggered(record.getSequence(), triggered);
+                    }
+                    match(orderBook, triggered, record, listener);
+                }
+            } else if (record.isCancel()) {
+                CoinOrderDTO canceled = orderBook.cancel(record.getUuid());
+                if (canceled != null && listener != null) {
+                    listener.onCanceled(record.getSequence(), canceled);
+                }
+            }
+        });
+        return applied[0];
+    }
+
+    private static void match(OrderBook orderBook, CoinOrderDTO order, JournalRecord record, Listener listener) {
+        MarketScale scale = orderBook.getScale();
+        FillBuffer fills = orderBook.match(order);
+
+        // 체결 서비스와 같이 호가에 남은 주문의 수량(coinAmount)을 잔량으로 맞춘다
+        for (int i = 0; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            if (!fill.isMakerCompleted()) {
+                fill.getMakerOrder().setCoinAmount(scale.toQuantity(fill.getMakerRemainingLots()));
+            }
+        }
+        order.setCoinAmount(scale.toQuantity(order.getQuantityLots()));
+        if (listener != null) {
+            listener.onMatched(record.getSequence(), record.getTimestamp(), order, fills);
+        }
+    }
+}
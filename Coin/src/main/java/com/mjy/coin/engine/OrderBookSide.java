@@ -0,0 +1,217 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 오더북의 한쪽(매수 또는 매도).
+ * 가격 레벨마다 FIFO 주문 대기열과 잔량 합계를 함께 가지며,
+ * 체결(peek/poll)과 호가 조회(forEachLevel/getLevels)가 같은 자료구조를 사용한다.
+ * 가격 레벨을 어떻게 보관할지는 구현체가 정한다. (TreeOrderBookSide, ArrayOrderBookSide)
+ */
+public abstract class OrderBookSide {
+    private final boolean buySide;
+    private final OrderIndex orderIndex; // uuid -> 주문 노드 (취소 시 상수 시간 조회)
+    private final OrderPool pool;        // 주문 노드/가격 레벨 재사용 풀
+    private PriceLevel bestLevel; // 최우선 호가 캐시
+    private TouchedPrices touchedPrices; // 잔량이 바뀐 가격 (L2 증분 전송을 켠 경우만)
+
+    OrderBookSide(boolean buySide, OrderIndex orderIndex, OrderPool pool) {
+        this.buySide = buySide;
+        this.orderIndex = orderIndex;
+        this.pool = pool;
+    }
+
+    // 가격에 해당하는 레벨 조회 (없으면 null)
+    protected abstract PriceLevel findLevel(long price);
+
+    // 새 가격 레벨 등록
+    protected abstract void insertLevel(PriceLevel level);
+
+    // 비어 있는 가격 레벨 제거
+    protected abstract void removeLevel(PriceLevel level);
+
+    // 최우선 레벨(removed)이 제거된 뒤 다음 최우선 레벨 (없으면 null)
+    protected abstract PriceLevel nextBestLevel(PriceLevel removed);
+
+    // 최우선 호가부터 정렬된 호가 레벨
+    public abstract Collection<PriceLevel> getLevels();
+
+    // 최우선 호가부터 레벨 순회 (할당 없음), visitor가 false를 반환하면 멈춘다
+    public abstract void forEachLevel(LevelVisitor visitor);
+
+    // 호가 레벨 수 (getLevels와 달리 할당 없음)
+    public abstract int getLevelCount();
+
+    // 최우선 호가부터 최대 limit개 레벨 (상위 호가 공개처럼 앞쪽만 필요할 때 전체 호가를 훑지 않는다)
+    public void forEachTopLevel(int limit, Consumer<PriceLevel> action) {
+        if (limit <= 0) {
+            return;
+        }
+        int[] remaining = {limit};
+        forEachLevel(level -> {
+            action.accept(level);
+            return --remaining[0] > 0;
+        });
+    }
+
+    // 최우선 호가부터 레벨 안의 도착 순서대로 대기 주문 순회 (스냅샷 등 레인 스레드에서만 호출)
+    public void forEachOrder(Consumer<CoinOrderDTO> action) {
+        forEachLevel(level -> {
+            for (OrderNode node = level.getHead(); node != null; node = node.next) {
+                action.accept(node.order);
+            }
+            return true;
+        });
+    }
+
+    public boolean isBuySide() {
+        return buySide;
+    }
+
+    public boolean isEmpty() {
+        return bestLevel == null;
+    }
+
+    // 최우선 주문 조회
+    public CoinOrderDTO peek() {
+        return bestLevel == null ? null : bestLevel.getHead().order;
+    }
+
+    // 최우선 주문의 남은 수량 (비어 있으면 0)
+    public long getPeekQuantity() {
+        return bestLevel == null ? 0 : bestLevel.getHead().quantity;
+    }
+
+    // 최우선 주문 제거
+    public CoinOrderDTO poll() {
+        if (bestLevel == null) {
+            return null;
+        }
+        return remove(bestLevel.getHead());
+    }
+
+    // 주문을 가격 레벨 맨 뒤에 추가
+    public void add(CoinOrderDTO order) {
+        OrderNode node = pool.acquireNode(order, order.getQuantityLots());
+        PriceLevel level = findLevel(order.getPriceTicks());
+        if (level == null) {
+            level = pool.acquireLevel(order.getPriceTicks());
+            insertLevel(level);
+            if (bestLevel == null || isBetter(level.getPrice(), bestLevel.getPrice())) {
+                bestLevel = level;
+            }
+        }
+        level.append(node);
+        if (node.uuid != null) {
+            orderIndex.put(node.uuid, node);
+        }
+        touch(level.getPrice());
+    }
+
+    // 최우선 주문이 부분 체결된 경우 잔량만 줄이고 대기열 순서는 유지
+    public void reducePeek(long filledQuantity) {
+        if (bestLevel == null) {
+            return;
+        }
+        bestLevel.reduce(bestLevel.getHead(), filledQuantity);
+        touch(bestLevel.getPrice());
+    }
+
+    // 최우선 호가 가격 (비어 있으면 0)
+    public long getBestPrice() {
+        return bestLevel == null ? 0 : bestLevel.getPrice();
+    }
+
+    // 가격 제한(limitPrice, 0이면 제한 없음)까지 체결 가능한 잔량, wanted 이상이 되면 더 세지 않는다 (FOK 사전 확인)
+    public long getCrossingQuantity(long limitPrice, long wanted) {
+        long[] quantity = {0};
+        forEachLevel(level -> {
+            if (quantity[0] >= wanted || (limitPrice > 0 && isBetter(limitPrice, level.getPrice()))) {
+                return false;
+            }
+            quantity[0] += level.getTotalQuantity();
+            return true;
+        });
+        return quantity[0];
+    }
+
+    // 노드를 호가에서 제거하고 풀로 반환, 제거된 주문 반환
+    CoinOrderDTO remove(OrderNode node) {
+        CoinOrderDTO order = node.order;
+        PriceLevel level = node.level;
+        level.unlink(node);
+        touch(level.getPrice());
+        if (node.uuid != null) {
+            orderIndex.remove(node.uuid);
+        }
+        pool.releaseNode(node);
+        if (level.isEmpty()) {
+            removeLevel(level);
+            if (level == bestLevel) {
+                bestLevel = nextBestLevel(level);
+            }
+            pool.releaseLevel(level);
+        }
+        return order;
+    }
+
+    // 잔량 변경 추적 시작, 이미 추적 중이면 그대로 둔다
+    void trackTouchedPrices() {
+        if (touchedPrices == null) {
+            touchedPrices = new TouchedPrices();
+        }
+    }
+
+    boolean isTrackingTouchedPrices() {
+        return touchedPrices != null;
+    }
+
+    boolean hasTouchedPrices() {
+        return touchedPrices != null && !touchedPrices.isEmpty();
+    }
+
+    // 잔량이 바뀐 가격 레벨을 최우선 호가 쪽부터 현재 잔량으로 전달하고 비운다 (사라진 레벨은 잔량 0)
+    // 같은 배치 안에서 생겼다 사라진 레벨도 잔량 0으로 한 번 전달된다
+    void drainTouchedPrices(OrderBook.DepthVisitor visitor) {
+        if (touchedPrices == null) {
+            return;
+        }
+        int count = touchedPrices.sortDistinct();
+        for (int i = 0; i < count; i++) {
+            long price = touchedPrices.get(buySide ? count - 1 - i : i);
+            PriceLevel level = findLevel(price);
+            visitor.accept(buySide, price, level == null ? 0 : level.getTotalQuantity());
+        }
+        touchedPrices.clear();
+    }
+
+    // 현재 호가 전체를 최우선 호가부터 전달하고 쌓인 변경은 비운다 (전체 호가를 보낸 뒤에는 이전 변경이 필요 없다)
+    void drainAllLevels(OrderBook.DepthVisitor visitor) {
+        forEachLevel(level -> {
+            visitor.accept(buySide, level.getPrice(), level.getTotalQuantity());
+            return true;
+        });
+        if (touchedPrices != null) {
+            touchedPrices.clear();
+        }
+    }
+
+    private void touch(long price) {
+        if (touchedPrices != null) {
+            touchedPrices.add(price);
+        }
+    }
+
+    protected boolean isBetter(long price, long than) {
+        return buySide ? price > than : price < than;
+    }
+
+    // 호가 레벨 순회, false를 반환하면 순회를 멈춘다
+    @FunctionalInterface
+    public interface LevelVisitor {
+        boolean visit(PriceLevel level);
+    }
+}
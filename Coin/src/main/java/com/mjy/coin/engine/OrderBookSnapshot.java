@@ -0,0 +1,326 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+import com.mjy.coin.enums.OrderType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static com.mjy.coin.enums.OrderStatus.PENDING;
+
+/**
+ * 마켓 오더북의 특정 저널 sequence 시점 대기 주문 목록.
+ * 레인 스레드에서 capture로 주문을 복사해 두고, 파일 기록은 다른 스레드에서 한다.
+ * 재시작 시 가장 최근 스냅샷을 읽고 sequence 이후 저널만 재생하면 오더북이 복구된다.
+ *
+ * 파일 : {sequence 20자리}.snapshot
+ *   [int magic][int version][long sequence][long takenAt][int 주문 수][주문...]
+ *   [long 마지막 체결가][int 스탑 주문 수][스탑 주문...][long Kafka 오프셋][int CRC32C]
+ *   (마지막 체결가와 스탑 주문은 version 2, 마지막으로 반영한 마켓 토픽 오프셋은 version 3부터)
+ * 주문은 최우선 호가부터 레벨 안의 도착 순서대로 기록하므로 읽은 순서대로 다시 넣으면 시간 우선순위가 유지된다.
+ * 스탑 주문도 발동가별 도착 순서대로 기록한다.
+ */
+public class OrderBookSnapshot {
+    private static final int MAGIC = 0x4D4A5953; // "MJYS"
+    private static final int VERSION = 3;
+    private static final ExecutionType[] EXECUTION_TYPES = ExecutionType.values();
+    private static final String SUFFIX = ".snapshot";
+
+    private final String key;
+    private final long sequence;
+    private final long takenAt;
+    private final List<CoinOrderDTO> orders;
+    private final long lastPriceTicks;
+    private final List<CoinOrderDTO> stopOrders;
+    private final long sourceOffset;
+
+    private OrderBookSnapshot(String key, long sequence, long takenAt, List<CoinOrderDTO> orders,
+                              long lastPriceTicks, List<CoinOrderDTO> stopOrders, long sourceOffset) {
+        this.key = key;
+        this.sequence = sequence;
+        this.takenAt = takenAt;
+        this.orders = orders;
+        this.lastPriceTicks = lastPriceTicks;
+        this.stopOrders = stopOrders;
+        this.sourceOffset = sourceOffset;
+    }
+
+    // 오더북 대기 주문 복사 (sequence : 이 시점까지 반영된 마지막 저널 sequence), 레인 스레드에서 호출
+    public static OrderBookSnapshot capture(OrderBook orderBook, long sequence) {
+        List<CoinOrderDTO> orders = new ArrayList<>(orderBook.getOrderCount());
+        orderBook.getBuySide().forEachOrder(order -> orders.add(new CoinOrderDTO(order)));
+        orderBook.getSellSide().forEachOrder(order -> orders.add(new CoinOrderDTO(order)));
+        List<CoinOrderDTO> stopOrders = new ArrayList<>(orderBook.getStopOrders().size());
+        orderBook.getStopOrders().forEachOrder(order -> stopOrders.add(new CoinOrderDTO(order)));
+        return new OrderBookSnapshot(orderBook.getKey(), sequence, System.currentTimeMillis(), orders,
+                orderBook.getLastPriceTicks(), stopOrders, orderBook.getSourceOffset());
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTakenAt() {
+        return takenAt;
+    }
+
+    public List<CoinOrderDTO> getOrders() {
+        return orders;
+    }
+
+    public long getLastPriceTicks() {
+        return lastPriceTicks;
+    }
+
+    public List<CoinOrderDTO> getStopOrders() {
+        return stopOrders;
+    }
+
+    public long getSourceOffset() {
+        return sourceOffset;
+    }
+
+    // 오더북에 주문 등록 (비어 있는 오더북 기준)
+    public void restore(OrderBook orderBook) {
+        for (CoinOrderDTO order : orders) {
+            orderBook.add(order);
+        }
+        for (CoinOrderDTO order : stopOrders) {
+            orderBook.addStop(order);
+        }
+        orderBook.setLastPriceTicks(lastPriceTicks);
+        orderBook.setSourceOffset(sourceOffset);
+    }
+
+    // 파일 형식 그대로의 바이트 (마켓 소유권 이전 시 Redis로 넘길 때도 사용)
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + orders.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(sequence);
+        out.writeLong(takenAt);
+        out.writeInt(orders.size());
+        for (CoinOrderDTO order : orders) {
+            writeOrder(out, order);
+        }
+        out.writeLong(lastPriceTicks);
+        out.writeInt(stopOrders.size());
+        for (CoinOrderDTO order : stopOrders) {
+            writeOrder(out, order);
+            out.writeByte(order.getExecutionTypeOrLimit().ordinal());
+            out.writeLong(order.getTriggerPriceTicks());
+        }
+        out.writeLong(sourceOffset);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // 임시 파일에 기록 후 fsync, 이름 변경으로 교체하므로 기록 중 장애가 나도 이전 스냅샷은 온전하다
+    public Path writeTo(Path directory) throws IOException {
+        byte[] bytes = toBytes();
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%020d", sequence) + SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    // 가장 최근의 온전한 스냅샷 (없으면 null), 손상된 파일은 건너뛰고 이전 스냅샷을 사용
+    public static OrderBookSnapshot readLatest(Path directory, String key, MarketScale scale) {
+        return readLatest(directory, key, scale, Long.MAX_VALUE);
+    }
+
+    // committedOffset 이전 오프셋까지만 반영된 가장 최근 스냅샷 (Kafka 트랜잭션 모드에서 커밋되지 않은 구간을 담은 스냅샷은 건너뜀)
+    public static OrderBookSnapshot readLatest(Path directory, String key, MarketScale scale, long committedOffset) {
+        return readLatest(directory, key, scale, committedOffset, Long.MAX_VALUE);
+    }
+
+    // 위 조건에 더해 sequence가 maxSequence 이하인 가장 최근 스냅샷 (Redis에 반영된 저널 구간까지만 담은 스냅샷)
+    public static OrderBookSnapshot readLatest(Path directory, String key, MarketScale scale, long committedOffset, long maxSequence) {
+        List<Path> files = list(directory);
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                OrderBookSnapshot snapshot = read(files.get(i), key, scale);
+                if (snapshot.getSourceOffset() < committedOffset && snapshot.getSequence() <= maxSequence) {
+                    return snapshot;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping unreadable snapshot " + files.get(i) + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // sequence 이후 스냅샷 삭제 (되돌린 저널 구간을 담은 스냅샷), 삭제한 파일 수 반환
+    public static int deleteAfter(Path directory, long sequence) throws IOException {
+        int deleted = 0;
+        for (Path file : list(directory)) {
+            String name = file.getFileName().toString();
+            if (Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) > sequence) {
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // 최근 retain개만 남기고 오래된 스냅샷 삭제, 남은 스냅샷 중 가장 오래된 sequence 반환 (없으면 0)
+    public static long prune(Path directory, int retain) throws IOException {
+        List<Path> files = list(directory);
+        int keepFrom = Math.max(0, files.size() - Math.max(1, retain));
+        for (int i = 0; i < keepFrom; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+        if (keepFrom >= files.size()) {
+            return 0;
+        }
+        String name = files.get(keepFrom).getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static List<Path> list(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            System.err.println("Failed to list snapshots in " + directory + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static OrderBookSnapshot read(Path file, String key, MarketScale scale) throws IOException {
+        return fromBytes(Files.readAllBytes(file), key, scale);
+    }
+
+    // toBytes로 만든 바이트에서 스냅샷 복원, 손상되었으면 IOException
+    public static OrderBookSnapshot fromBytes(byte[] bytes, String key, MarketScale scale) throws IOException {
+        if (bytes.length < 32) {
+            throw new IOException("Snapshot too short");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != buffer.getInt(bytes.length - 4)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        long sequence = buffer.getLong();
+        long takenAt = buffer.getLong();
+        int count = buffer.getInt();
+        String[] market = key.split("-");
+        List<CoinOrderDTO> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(readOrder(buffer, market, scale));
+        }
+
+        long lastPriceTicks = 0;
+        List<CoinOrderDTO> stopOrders = new ArrayList<>();
+        if (version >= 2) {
+            lastPriceTicks = buffer.getLong();
+            int stopCount = buffer.getInt();
+            for (int i = 0; i < stopCount; i++) {
+                CoinOrderDTO order = readOrder(buffer, market, scale);
+                order.setExecutionType(EXECUTION_TYPES[buffer.get()]);
+                order.setTriggerPriceTicks(buffer.getLong());
+                order.setTriggerPrice(scale.toPrice(order.getTriggerPriceTicks()));
+                stopOrders.add(order);
+            }
+        }
+        long sourceOffset = version >= 3 ? buffer.getLong() : -1;
+        return new OrderBookSnapshot(key, sequence, takenAt, orders, lastPriceTicks, stopOrders, sourceOffset);
+    }
+
+    private static void writeOrder(DataOutputStream out, CoinOrderDTO order) throws IOException {
+        writeString(out, order.getUuid());
+        writeString(out, order.getMemberUuid());
+        out.writeLong(order.getMemberIdx() == null ? -1 : order.getMemberIdx());
+        out.writeLong(order.getIdx() == null ? -1 : order.getIdx());
+        out.writeByte(order.getOrderType() == OrderType.BUY ? 0 : 1);
+        out.writeLong(order.getPriceTicks());
+        out.writeLong(order.getQuantityLots());
+        out.writeLong(order.getCreatedAt() == null ? -1 : order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        writeString(out, order.getFee() == null ? null : order.getFee().toPlainString());
+    }
+
+    private static CoinOrderDTO readOrder(ByteBuffer buffer, String[] market, MarketScale scale) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(readString(buffer));
+        order.setMemberUuid(readString(buffer));
+        long memberIdx = buffer.getLong();
+        order.setMemberIdx(memberIdx < 0 ? null : memberIdx);
+        long idx = buffer.getLong();
+        order.setIdx(idx < 0 ? null : idx);
+        order.setOrderType(buffer.get() == 0 ? OrderType.BUY : OrderType.SELL);
+        order.setPriceTicks(buffer.getLong());
+        order.setQuantityLots(buffer.getLong());
+        long createdAt = buffer.getLong();
+        order.setCreatedAt(createdAt < 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault()));
+        String fee = readString(buffer);
+        order.setFee(fee == null ? null : new BigDecimal(fee));
+
+        order.setCoinName(market[0]);
+        order.setMarketName(market[1]);
+        order.setOrderPrice(scale.toPrice(order.getPriceTicks()));
+        order.setCoinAmount(scale.toQuantity(order.getQuantityLots()));
+        order.setOrderStatus(PENDING);
+        return order;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mjy.coin.engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 최근 접수한 주문 요청 ID (Exchange clientOrderId) 중복 확인 창.
+ * 접수 순서대로 ID와 접수 시각, 엔진이 붙인 주문 id를 보관하고, windowMillis가 지났거나 maxEntries를 넘은 가장 오래된 ID부터 지운다.
+ * 마켓 레인 스레드에서만 사용하므로 동기화하지 않는다.
+ */
+public class OrderDedupeWindow {
+    private final long windowMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Accepted> accepted = new LinkedHashMap<>();
+
+    public OrderDedupeWindow(long windowMillis, int maxEntries) {
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    // 처음 보는 ID면 기억하고 true, 창 안에 이미 있는 ID면 false
+    public boolean admit(String id, long nowMillis) {
+        expire(nowMillis);
+        if (accepted.putIfAbsent(id, new Accepted(nowMillis)) != null) {
+            return false;
+        }
+        if (accepted.size() > maxEntries) {
+            Iterator<String> eldest = accepted.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    // 접수한 ID에 엔진 주문 id 연결 (주문 요청 ID로 들어온 취소를 찾을 때 사용), 창에 없는 ID면 무시
+    public void bindOrderId(String id, String orderId) {
+        Accepted entry = accepted.get(id);
+        if (entry != null) {
+            entry.orderId = orderId;
+        }
+    }
+
+    // 창 안에 있는 ID의 엔진 주문 id (없으면 null)
+    public String getOrderId(String id) {
+        Accepted entry = accepted.get(id);
+        return entry == null ? null : entry.orderId;
+    }
+
+    public int size() {
+        return accepted.size();
+    }
+
+    private void expire(long nowMillis) {
+        Iterator<Map.Entry<String, Accepted>> entries = accepted.entrySet().iterator();
+        while (entries.hasNext() && entries.next().getValue().acceptedAt <= nowMillis - windowMillis) {
+            entries.remove();
+        }
+    }
+
+    private static final class Accepted {
+        private final long acceptedAt;
+        private String orderId;
+
+        private Accepted(long acceptedAt) {
+            this.acceptedAt = acceptedAt;
+        }
+    }
+}
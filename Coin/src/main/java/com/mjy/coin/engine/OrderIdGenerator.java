@@ -0,0 +1,43 @@
+package com.mjy.coin.engine;
+
+import com.mjy.wire.WireId;
+
+/**
+ * 마켓 하나의 64비트 주문/체결 id 생성기 (형식은 WireId).
+ * 마켓 레인 스레드에서만 쓰므로 잠금이나 CAS 없이 마지막 밀리초와 순번만 갱신하고 할당이 없다.
+ * 같은 밀리초에 순번(4096개)을 다 쓰면 다음 밀리초를 미리 쓰고, 시계가 뒤로 가면 마지막 밀리초를 계속 써서 id는 항상 커진다.
+ * 노드(인스턴스 id)가 다르면 마켓 소유가 다른 인스턴스로 넘어가도 겹치지 않는다.
+ * 마켓마다 생성기가 따로라 다른 마켓의 id와는 겹칠 수 있다 (저장 키는 마켓 + id).
+ */
+public final class OrderIdGenerator {
+    private final long node;
+    private long lastMillis;
+    private long sequence;
+
+    public OrderIdGenerator(long node) {
+        if (node < 0 || node > WireId.MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + WireId.MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public long nextId(long nowMillis) {
+        if (nowMillis > lastMillis) {
+            lastMillis = nowMillis;
+            sequence = 0;
+        } else if (++sequence > WireId.MAX_SEQUENCE) {
+            lastMillis++;
+            sequence = 0;
+        }
+        return WireId.compose(lastMillis, node, sequence);
+    }
+
+    /**
+     * 레코드로 정해지는 id (Kafka 트랜잭션/복제 모드 : 같은 레코드를 다시 처리해도 같은 id, 형식은 WireId 레코드 id).
+     * 주문 자신은 index 0, 그 주문이 taker로 체결되며 만드는 체결은 1부터.
+     * 마켓 주문은 한 파티션에 쌓이므로 오프셋 전체를 쓰면 마켓 안에서 겹치지 않는다.
+     */
+    public static long recordId(long sourceOffset, int index) {
+        return WireId.composeRecord(sourceOffset, index);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mjy.coin.engine;
+
+/**
+ * uuid -> 주문 노드 인덱스 (선형 탐사 해시 테이블).
+ * HashMap과 달리 항목마다 Entry 객체를 만들지 않으므로 주문 등록/취소 시 할당이 없다.
+ * 레인 스레드 하나에서만 사용하므로 동기화하지 않는다.
+ */
+class OrderIndex {
+    private String[] keys;
+    private OrderNode[] values;
+    private int mask;
+    private int size;
+
+    OrderIndex(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1);
+        this.keys = new String[capacity];
+        this.values = new OrderNode[capacity];
+        this.mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    OrderNode get(String key) {
+        for (int i = hash(key) & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    void put(String key, OrderNode node) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        int i = hash(key) & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                values[i] = node;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = node;
+        size++;
+    }
+
+    OrderNode remove(String key) {
+        int i = hash(key) & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                OrderNode removed = values[i];
+                deleteSlot(i);
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    // 삭제한 칸 뒤의 항목들을 앞으로 당겨 탐사 경로가 끊기지 않게 한다. (tombstone 없음)
+    private void deleteSlot(int hole) {
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                keys[j] = null;
+                values[j] = null;
+                hole = j;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        OrderNode[] oldValues = values;
+        keys = new String[capacity];
+        values = new OrderNode[capacity];
+        mask = capacity - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+/**
+ * 호가 레벨 안에서 주문을 FIFO로 연결하는 노드.
+ * 수량(quantity)은 호가 잔량 집계와 맞추기 위해 주문 객체와 별도로 오더북이 관리한다.
+ * 체결/취소로 빠진 노드는 OrderPool로 반환되어 재사용된다.
+ */
+class OrderNode {
+    String uuid; // 인덱스 키 (체결 중 주문의 uuid가 잠시 바뀌어도 영향 없도록 별도 보관)
+    CoinOrderDTO order;
+    long quantity;
+    PriceLevel level;
+    OrderNode prev;
+    OrderNode next;
+
+    // 풀에서 꺼낼 때 주문 연결
+    void init(CoinOrderDTO order, long quantity) {
+        this.uuid = order.getUuid();
+        this.order = order;
+        this.quantity = quantity;
+    }
+
+    // 풀로 반환할 때 참조 해제
+    void clear() {
+        this.uuid = null;
+        this.order = null;
+        this.quantity = 0;
+        this.level = null;
+        this.prev = null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+/**
+ * 마켓별 주문 노드/가격 레벨 재사용 풀.
+ * 레인 스레드 하나에서만 사용하므로 동기화하지 않는다.
+ * 워밍업 이후에는 체결/취소로 반환된 객체를 다시 쓰므로 주문 등록 시 객체를 새로 만들지 않는다.
+ */
+class OrderPool {
+    private OrderNode freeNodes;    // next 포인터로 연결된 대기 노드
+    private PriceLevel freeLevels;  // nextFree 포인터로 연결된 대기 레벨
+
+    OrderNode acquireNode(CoinOrderDTO order, long quantity) {
+        OrderNode node = freeNodes;
+        if (node == null) {
+            node = new OrderNode();
+        } else {
+            freeNodes = node.next;
+            node.next = null;
+        }
+        node.init(order, quantity);
+        return node;
+    }
+
+    void releaseNode(OrderNode node) {
+        node.clear();
+        node.next = freeNodes;
+        freeNodes = node;
+    }
+
+    PriceLevel acquireLevel(long price) {
+        PriceLevel level = freeLevels;
+        if (level == null) {
+            level = new PriceLevel();
+        } else {
+            freeLevels = level.nextFree;
+            level.nextFree = null;
+        }
+        level.init(price);
+        return level;
+    }
+
+    void releaseLevel(PriceLevel level) {
+        level.init(0);
+        level.nextFree = freeLevels;
+        freeLevels = level;
+    }
+}
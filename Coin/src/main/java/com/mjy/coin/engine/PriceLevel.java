@@ -0,0 +1,85 @@
+package com.mjy.coin.engine;
+
+/**
+ * 같은 가격의 주문들을 도착 순서대로 보관하는 호가 레벨.
+ * 레벨의 총 잔량을 함께 유지하므로 호가 조회 시 주문을 다시 합산할 필요가 없다.
+ * 빈 레벨은 OrderPool로 반환되어 다른 가격으로 재사용된다.
+ */
+public class PriceLevel {
+    private long price;
+    private long totalQuantity;
+    private int orderCount;
+    private OrderNode head;
+    private OrderNode tail;
+    PriceLevel nextFree; // 풀 대기 목록
+
+    // 풀에서 꺼낼 때 가격 설정
+    void init(long price) {
+        this.price = price;
+        this.totalQuantity = 0;
+        this.orderCount = 0;
+        this.head = null;
+        this.tail = null;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    OrderNode getHead() {
+        return head;
+    }
+
+    // 레벨 맨 뒤에 주문 추가 (시간 우선)
+    void append(OrderNode node) {
+        node.level = this;
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        totalQuantity += node.quantity;
+        orderCount++;
+    }
+
+    // 레벨 어디에 있든 상수 시간에 주문 제거
+    void unlink(OrderNode node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        totalQuantity -= node.quantity;
+        orderCount--;
+        node.prev = null;
+        node.next = null;
+        node.level = null;
+    }
+
+    // 부분 체결된 주문의 잔량 감소 (대기열 위치는 유지)
+    void reduce(OrderNode node, long filledQuantity) {
+        node.quantity -= filledQuantity;
+        node.order.setQuantityLots(node.quantity);
+        totalQuantity -= filledQuantity;
+    }
+}
@@ -0,0 +1,146 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+
+/**
+ * 마켓 하나의 스탑 주문(스탑 시장가, 스탑 지정가) 대기 목록.
+ * 발동 가격(triggerPriceTicks)별로 매수/매도를 따로 정렬해 두므로 체결이 일어날 때 전체를 훑지 않고
+ * 마지막 체결가가 넘어선 가장 앞의 주문만 꺼낸다.
+ *
+ *   매수 스탑 : 마지막 체결가 >= 발동가 이면 발동, 낮은 발동가부터
+ *   매도 스탑 : 마지막 체결가 <= 발동가 이면 발동, 높은 발동가부터
+ * 같은 발동가는 도착 순서대로, 매수와 매도가 함께 발동하면 매수를 먼저 꺼낸다.
+ * 발동가별 대기열은 호가 레벨(PriceLevel)처럼 노드를 양방향으로 연결하므로 취소는 대기열 길이와 관계없이 상수 시간이다.
+ * 레인 스레드 하나에서만 사용해야 한다.
+ */
+public class StopOrderIndex {
+    private final TreeMap<Long, StopLevel> buyStops = new TreeMap<>();
+    private final TreeMap<Long, StopLevel> sellStops = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<String, StopNode> orders = new HashMap<>();
+
+    public void add(CoinOrderDTO order) {
+        StopNode node = new StopNode(order);
+        getStops(order).computeIfAbsent(node.triggerPriceTicks, k -> new StopLevel()).append(node);
+        orders.put(order.getUuid(), node);
+    }
+
+    public CoinOrderDTO get(String uuid) {
+        StopNode node = orders.get(uuid);
+        return node == null ? null : node.order;
+    }
+
+    // 발동 전 스탑 주문 취소 (없으면 null), 노드를 대기열에서 바로 분리한다
+    public CoinOrderDTO remove(String uuid) {
+        StopNode node = orders.remove(uuid);
+        if (node == null) {
+            return null;
+        }
+        StopLevel level = node.level;
+        level.unlink(node);
+        if (level.head == null) {
+            getStops(node.order).remove(node.triggerPriceTicks);
+        }
+        return node.order;
+    }
+
+    // 마지막 체결가(lastPriceTicks)로 발동된 스탑 주문 하나를 꺼낸다 (없으면 null, 체결 이력이 없으면 발동하지 않음)
+    public CoinOrderDTO pollTriggered(long lastPriceTicks) {
+        if (orders.isEmpty() || lastPriceTicks <= 0) {
+            return null;
+        }
+        if (!buyStops.isEmpty() && buyStops.firstKey() <= lastPriceTicks) {
+            return poll(buyStops);
+        }
+        if (!sellStops.isEmpty() && sellStops.firstKey() >= lastPriceTicks) {
+            return poll(sellStops);
+        }
+        return null;
+    }
+
+    // 발동가 순서(매수 다음 매도)대로 대기 중인 스탑 주문 순회 (스냅샷 등)
+    public void forEachOrder(Consumer<CoinOrderDTO> action) {
+        buyStops.values().forEach(level -> level.forEach(action));
+        sellStops.values().forEach(level -> level.forEach(action));
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+    private CoinOrderDTO poll(TreeMap<Long, StopLevel> stops) {
+        Map.Entry<Long, StopLevel> first = stops.firstEntry();
+        StopLevel level = first.getValue();
+        StopNode node = level.head;
+        level.unlink(node);
+        if (level.head == null) {
+            stops.remove(first.getKey());
+        }
+        orders.remove(node.order.getUuid());
+        return node.order;
+    }
+
+    private TreeMap<Long, StopLevel> getStops(CoinOrderDTO order) {
+        return order.getOrderType() == BUY ? buyStops : sellStops;
+    }
+
+    // 발동가 하나의 스탑 주문 대기열 (도착 순서)
+    private static final class StopLevel {
+        private StopNode head;
+        private StopNode tail;
+
+        private void append(StopNode node) {
+            node.level = this;
+            node.prev = tail;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        private void unlink(StopNode node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.level = null;
+        }
+
+        private void forEach(Consumer<CoinOrderDTO> action) {
+            for (StopNode node = head; node != null; node = node.next) {
+                action.accept(node.order);
+            }
+        }
+    }
+
+    private static final class StopNode {
+        private final CoinOrderDTO order;
+        private final long triggerPriceTicks; // 등록 시점 발동가 (대기열 키)
+        private StopLevel level;
+        private StopNode prev;
+        private StopNode next;
+
+        private StopNode(CoinOrderDTO order) {
+            this.order = order;
+            this.triggerPriceTicks = order.getTriggerPriceTicks();
+        }
+    }
+}
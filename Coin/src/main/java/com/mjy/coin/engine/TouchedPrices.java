@@ -0,0 +1,45 @@
+package com.mjy.coin.engine;
+
+import java.util.Arrays;
+
+/**
+ * 호가 한쪽에서 마지막 전송 이후 잔량이 바뀐 가격 (L2 증분 전송).
+ * 바뀔 때마다 가격만 덧붙이고(중복 허용) 꺼낼 때 한 번 정렬해 중복을 없앤다.
+ * 배열은 재사용되므로 워밍업 이후 추가에 할당이 없다. 레인 스레드에서만 사용한다.
+ */
+final class TouchedPrices {
+    private long[] prices = new long[64];
+    private int size;
+
+    void add(long price) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        prices[size++] = price;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 오름차순 정렬 후 중복을 없애고 남은 가격 수 (get(0) ~ get(count - 1))
+    int sortDistinct() {
+        Arrays.sort(prices, 0, size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (count == 0 || prices[count - 1] != prices[i]) {
+                prices[count++] = prices[i];
+            }
+        }
+        size = count;
+        return count;
+    }
+
+    long get(int i) {
+        return prices[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mjy.coin.engine;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.TreeMap;
+
+/**
+ * 가격 레벨을 TreeMap으로 보관하는 오더북 한쪽.
+ * 가격대가 넓고 호가가 드문드문한 마켓(마이너 코인)에 사용한다.
+ */
+public class TreeOrderBookSide extends OrderBookSide {
+    private final TreeMap<Long, PriceLevel> levels;
+
+    public TreeOrderBookSide(boolean buySide) {
+        this(buySide, new OrderIndex(16), new OrderPool());
+    }
+
+    TreeOrderBookSide(boolean buySide, OrderIndex orderIndex, OrderPool pool) {
+        super(buySide, orderIndex, pool);
+        // 매수: 높은 가격 우선, 매도: 낮은 가격 우선
+        this.levels = buySide ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>();
+    }
+
+    @Override
+    protected PriceLevel findLevel(long price) {
+        return levels.get(price);
+    }
+
+    @Override
+    protected void insertLevel(PriceLevel level) {
+        levels.put(level.getPrice(), level);
+    }
+
+    @Override
+    protected void removeLevel(PriceLevel level) {
+        levels.remove(level.getPrice());
+    }
+
+    @Override
+    protected PriceLevel nextBestLevel(PriceLevel removed) {
+        return levels.isEmpty() ? null : levels.firstEntry().getValue();
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    @Override
+    public Collection<PriceLevel> getLevels() {
+        return levels.values();
+    }
+
+    @Override
+    public void forEachLevel(LevelVisitor visitor) {
+        for (PriceLevel level : levels.values()) {
+            if (!visitor.visit(level)) {
+                return;
+            }
+        }
+    }
+}
@@ -59,7 +59,7 @@ public class CoinOrder {
     private String uuid; // redis uuid
 
     @Column
-    private String matchIdx; // 매수 idx와 매도 idx를 결합한 매치 ID
+    private String matchIdx; // 매치 ID (V2 : 체결 양쪽 주문이 같은 WireId, V1 : 매수/매도 idx 결합)
 
     @Column
     private LocalDateTime matchedAt; // 체결일자
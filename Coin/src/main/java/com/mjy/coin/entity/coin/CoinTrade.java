@@ -0,0 +1,59 @@
+package com.mjy.coin.entity.coin;
+
+import com.mjy.coin.enums.OrderType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 코인 거래의 체결 내역을 체결마다 한 건 저장합니다.
+ * 매수/매도 주문별 체결 내역은 taker/maker 주문 uuid와 회원으로 조회합니다.
+ * 회원 정보는 주문에 없을 수 있어(RedisService.toTradeData에서 생략) 비어 있을 수 있습니다.
+ * 체결 ID는 마켓마다 따로 만들어지므로 기본 키는 (marketName, coinName, tradeId)입니다.
+ */
+@Getter
+@Setter
+@Entity
+@Table(indexes = @Index(name = "idx_coin_trade_market_matched_at", columnList = "coinName, marketName, matchedAt"))
+@IdClass(CoinTradeId.class)
+public class CoinTrade {
+
+    @Id
+    private String marketName; // 예: KRW
+
+    @Id
+    private String coinName; // 예: BTC
+
+    @Id
+    private String tradeId; // 체결 ID (WireId, 양쪽 주문의 matchIdx, 마켓 안에서만 유일)
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal price; // 체결가
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal quantity; // 체결 수량
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderType takerOrderType; // taker 주문 매수/매도 (maker는 반대)
+
+    @Column(nullable = false)
+    private String takerOrderUuid; // taker 주문 uuid
+
+    private Long takerMemberIdx;
+
+    private String takerMemberUuid;
+
+    @Column(nullable = false)
+    private String makerOrderUuid; // maker 주문 uuid
+
+    private Long makerMemberIdx;
+
+    private String makerMemberUuid;
+
+    @Column(nullable = false)
+    private LocalDateTime matchedAt; // 체결일자
+}
@@ -0,0 +1,22 @@
+package com.mjy.coin.entity.coin;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * CoinTrade 기본 키 (마켓 + 체결 ID).
+ * 체결 ID(WireId)는 마켓 안에서만 유일하므로 마켓과 함께 키로 쓴다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CoinTradeId implements Serializable {
+    private String marketName;
+    private String coinName;
+    private String tradeId;
+}
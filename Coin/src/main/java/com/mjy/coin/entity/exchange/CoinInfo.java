@@ -29,6 +29,15 @@ public class CoinInfo {
     @Column(nullable = false)
     private BigDecimal feeRate; // 거래 수수료율
 
+    @Column
+    private Integer priceScale; // 가격 소수 자릿수 (예: KRW 마켓 0)
+
+    @Column
+    private Integer quantityScale; // 수량 소수 자릿수 (예: BTC 8)
+
+    @Column
+    private BigDecimal priceTickSize; // 호가 단위 (예: 1000 KRW), 있으면 체결 엔진이 배열 기반 오더북 사용
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CoinType coinType; // MAJOR or MINOR
@@ -0,0 +1,15 @@
+package com.mjy.coin.enums;
+
+// 주문 체결 조건 (값이 없으면 LIMIT)
+public enum ExecutionType {
+    LIMIT, // 지정가 : 체결되지 않은 수량은 호가에 등록
+    MARKET, // 시장가 : 가격 제한 없이 즉시 체결, 남은 수량은 취소
+    IOC, // 지정가 즉시 체결 : 지정가까지 체결하고 남은 수량은 취소
+    FOK, // 전량 즉시 체결 : 전량 체결될 수 있을 때만 체결, 아니면 오더북을 건드리지 않고 취소
+    POST_ONLY; // 메이커 전용 : 바로 체결될 가격이면 거부, 아니면 호가에 등록
+
+    // 체결되지 않은 수량을 호가에 남기는지
+    public boolean restsOnBook() {
+        return this == LIMIT || this == POST_ONLY;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mjy.coin.repository.coin.master;
+
+import com.mjy.coin.entity.coin.CoinTrade;
+import com.mjy.coin.entity.coin.CoinTradeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MasterCoinTradeRepository extends JpaRepository<CoinTrade, CoinTradeId> {
+}
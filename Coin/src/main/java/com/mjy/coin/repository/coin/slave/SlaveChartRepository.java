@@ -17,16 +17,17 @@ public class SlaveChartRepository {
         this.slaveJdbcTemplate = slaveJdbcTemplate;
     }
 
+    // 체결마다 한 행인 CoinTrade로 집계 (매수/매도 주문 행을 모두 세면 건수와 거래량이 두 배가 된다)
     public List<CandleDTO> getChartData(String coinName, String marketName, long fromTimestamp, long toTimestamp, String minutes) {
         String sql = """
-            WITH RankedOrders AS (
+            WITH RankedTrades AS (
                 SELECT
                     DATE_FORMAT(TIMESTAMPADD(MINUTE,
                         FLOOR(TIMESTAMPDIFF(MINUTE, '1970-01-01 00:00:00', matchedAt) / ? ) * ?,
                         '1970-01-01 00:00:00'), '%Y-%m-%d %H:%i') AS time_interval,
                     matchedAt,
-                    executionPrice,
-                    coinAmount,
+                    price,
+                    quantity,
                     ROW_NUMBER() OVER (PARTITION BY
                         TIMESTAMPADD(MINUTE,
                             FLOOR(TIMESTAMPDIFF(MINUTE, '1970-01-01 00:00:00', matchedAt) / ?) * ?,
@@ -35,25 +36,24 @@ public class SlaveChartRepository {
                         TIMESTAMPADD(MINUTE,
                             FLOOR(TIMESTAMPDIFF(MINUTE, '1970-01-01 00:00:00', matchedAt) / ?) * ?,
                             '1970-01-01 00:00:00') ORDER BY matchedAt DESC) AS rn_desc
-                FROM CoinOrder
+                FROM CoinTrade
                 WHERE matchedAt BETWEEN FROM_UNIXTIME(?)
                 AND FROM_UNIXTIME(?)
-                AND orderStatus = 'COMPLETED'
                 AND coinName = ?
                 AND marketName = ?
             )
             SELECT
                 time_interval,
                 COUNT(*) AS order_count,
-                SUM(executionPrice * coinAmount) AS total_traded_value,
-                SUM(coinAmount) AS total_volume,
-                MAX(CASE WHEN rn_asc = 1 THEN executionPrice END) AS opening_price,
-                MAX(CASE WHEN rn_desc = 1 THEN executionPrice END) AS closing_price,
-                MAX(executionPrice) AS high_price,
-                MIN(executionPrice) AS low_price,
+                SUM(price * quantity) AS total_traded_value,
+                SUM(quantity) AS total_volume,
+                MAX(CASE WHEN rn_asc = 1 THEN price END) AS opening_price,
+                MAX(CASE WHEN rn_desc = 1 THEN price END) AS closing_price,
+                MAX(price) AS high_price,
+                MIN(price) AS low_price,
                 MIN(CASE WHEN rn_asc = 1 THEN UNIX_TIMESTAMP(matchedAt) END) AS first_matched_at_unix,
                 MAX(CASE WHEN rn_desc = 1 THEN UNIX_TIMESTAMP(matchedAt) END) AS last_matched_at_unix
-            FROM RankedOrders
+            FROM RankedTrades
             GROUP BY time_interval
             ORDER BY time_interval
             """;
@@ -5,8 +5,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SlaveCoinInfoRepository extends JpaRepository<CoinInfo, Long> {
     List<CoinInfo> findByCoinType(CoinInfo.CoinType coinType);
+
+    Optional<CoinInfo> findByCoinNameAndMarketName(String coinName, String marketName);
 }
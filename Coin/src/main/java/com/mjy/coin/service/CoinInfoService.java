@@ -1,26 +1,75 @@
 package com.mjy.coin.service;
 
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.repository.exchange.slave.SlaveCoinInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 public class CoinInfoService {
     private final RedisService redisService;
+    private final SlaveCoinInfoRepository slaveCoinInfoRepository;
+    private final Map<String, MarketScale> marketScales = new ConcurrentHashMap<>();
+    // 동적 배정 : 이 인스턴스가 현재 맡고 있는 마켓 (MarketOwnershipCoordinator가 갱신)
+    private final Set<String> ownedMarkets = ConcurrentHashMap.newKeySet();
 
+    @Value("${coin.engine.ownership.enabled:false}")
+    private boolean dynamicOwnership;
+
+    // 이 인스턴스가 처리하는 마켓, 동적 배정이면 현재 맡은 마켓이고 아니면 COIN_TYPE(MAJOR/MINOR) 마켓
     public List<String> getCoinMarketKeys() {
-        // COIN_TYPE 환경 변수 가져오기
+        if (dynamicOwnership) {
+            return new ArrayList<>(ownedMarkets);
+        }
+
+        return toMarketKeys(redisService.getKeys(getCoinType() + ":COIN:*"));
+    }
+
+    // COIN_TYPE 환경 변수 (MAJOR/MINOR), 없으면 MAJOR
+    public String getCoinType() {
         String coinTypeEnv = System.getenv("COIN_TYPE");
         if (coinTypeEnv == null) {
             coinTypeEnv = "MAJOR"; // 기본값 설정
         }
+        return coinTypeEnv;
+    }
+
+    // COIN_TYPE과 관계없이 등록된 모든 마켓 (토픽 생성, 동적 배정)
+    public List<String> getAllCoinMarketKeys() {
+        return toMarketKeys(redisService.getKeys("*:COIN:*")).stream().distinct().toList();
+    }
+
+    // 마켓이 등록된 COIN_TYPE, 등록되지 않은 마켓이면 null
+    public String getCoinTypeOf(String key) {
+        Set<String> redisKeys = redisService.getKeys("*:COIN:" + key);
+        return redisKeys.isEmpty() ? null : redisKeys.iterator().next().split(":")[0];
+    }
+
+    public boolean isDynamicOwnership() {
+        return dynamicOwnership;
+    }
+
+    public boolean isOwnedMarket(String key) {
+        return ownedMarkets.contains(key);
+    }
 
-        Set<String> redisKeys = redisService.getKeys(coinTypeEnv + ":COIN:*");
+    public void addOwnedMarket(String key) {
+        ownedMarkets.add(key);
+    }
+
+    public void removeOwnedMarket(String key) {
+        ownedMarkets.remove(key);
+    }
 
+    private List<String> toMarketKeys(Set<String> redisKeys) {
         List<String> keys = new ArrayList<>();
 
         for (String redisKey : redisKeys) {
@@ -30,4 +79,20 @@ public class CoinInfoService {
 
         return keys;
     }
+
+    // 마켓(BTC-KRW)별 가격/수량 소수 자릿수와 호가 단위, CoinInfo에서 한 번 조회 후 캐시
+    public MarketScale getMarketScale(String key) {
+        return marketScales.computeIfAbsent(key, this::loadMarketScale);
+    }
+
+    private MarketScale loadMarketScale(String key) {
+        String[] parts = key.split("-");
+
+        return slaveCoinInfoRepository.findByCoinNameAndMarketName(parts[0], parts[1])
+                .filter(coinInfo -> coinInfo.getPriceScale() != null && coinInfo.getQuantityScale() != null)
+                .map(coinInfo -> new MarketScale(coinInfo.getPriceScale(), coinInfo.getQuantityScale(),
+                        coinInfo.getPriceTickSize() == null ? 0
+                                : coinInfo.getPriceTickSize().movePointRight(coinInfo.getPriceScale()).longValueExact()))
+                .orElse(MarketScale.DEFAULT);
+    }
 }
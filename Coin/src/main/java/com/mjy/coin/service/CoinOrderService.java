@@ -2,6 +2,7 @@ package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.dto.CoinOrderSimpleDTO;
+import com.mjy.wire.WireId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -24,56 +25,63 @@ public class CoinOrderService {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    // 일자의 체결 ID(CoinTrade.tradeId) 범위, 체결 ID는 고정 길이 WireId라 문자열 순서가 발급 순서와 같다
     public Long[] getMinMaxIdx(LocalDate today) {
         String sql = """
-                SELECT MIN(idx), MAX(idx) 
-                FROM CoinOrder 
+                SELECT MIN(tradeId), MAX(tradeId)
+                FROM CoinTrade
                 WHERE matchedAt BETWEEN ? AND ?
                 """;
 
         return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new Long[]{
-                rs.getLong(1), // MIN(idx)
-                rs.getLong(2)  // MAX(idx)
+                rs.getString(1) == null ? null : WireId.decode(rs.getString(1)), // MIN(tradeId)
+                rs.getString(2) == null ? null : WireId.decode(rs.getString(2))  // MAX(tradeId)
         }, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
     }
 
-    public BigDecimal getLatestExecutionPriceByDate(String coinName, LocalDate matchedDate){
+    // 마켓의 일자 마지막 체결가 (종가)
+    public BigDecimal getLatestExecutionPriceByDate(String coinName, String marketName, LocalDate matchedDate){
         String sql = """
-                SELECT executionPrice
-                FROM CoinOrder
+                SELECT price
+                FROM CoinTrade
                 WHERE coinName = ?
-                  AND date(matchedAt) = ?
-                ORDER BY matchedAt DESC
+                  AND marketName = ?
+                  AND matchedAt >= ?
+                  AND matchedAt < ?
+                ORDER BY matchedAt DESC, tradeId DESC
                 LIMIT 1
                 """;
 
         return jdbcTemplate.queryForObject(
                 sql,
-                new Object[]{coinName, matchedDate},
-                BigDecimal.class
+                BigDecimal.class,
+                coinName, marketName, matchedDate.atStartOfDay(), matchedDate.plusDays(1).atStartOfDay()
         );
     }
 
+    // 마켓의 일자 체결을 체결 ID 순으로 1000건씩 나눈 각 묶음의 첫 체결
     public List<CoinOrderSimpleDTO> getCoinOrderChunksBy1000(String coinName, String marketName, LocalDate matchedDate) {
         String sql = """
-                WITH OrderedCoinOrders AS (
-                    SELECT idx,
+                WITH OrderedCoinTrades AS (
+                    SELECT tradeId,
                            coinName,
+                           marketName,
                            matchedAt,
-                           ROW_NUMBER() OVER (ORDER BY idx) AS row_num
-                    FROM CoinOrder
-                    WHERE coinName = ? 
-                      AND marketName = ?  
-                      AND DATE(matchedAt) = ? 
+                           ROW_NUMBER() OVER (ORDER BY tradeId) AS row_num
+                    FROM CoinTrade
+                    WHERE coinName = ?
+                      AND marketName = ?
+                      AND matchedAt >= ?
+                      AND matchedAt < ?
                 )
-                SELECT idx, coinName, matchedAt
-                FROM OrderedCoinOrders
+                SELECT tradeId, coinName, marketName, matchedAt
+                FROM OrderedCoinTrades
                 WHERE row_num % 1000 = 1;
                 """;
 
         RowMapper<CoinOrderSimpleDTO> rowMapper = new BeanPropertyRowMapper<>(CoinOrderSimpleDTO.class);
 
-        return jdbcTemplate.query(sql, rowMapper, coinName, marketName, matchedDate);
+        return jdbcTemplate.query(sql, rowMapper, coinName, marketName, matchedDate.atStartOfDay(), matchedDate.plusDays(1).atStartOfDay());
     }
 
     public List<Map<String, Long>> partitionChunks(Long minIdx, Long maxIdx, int chunkSize) {
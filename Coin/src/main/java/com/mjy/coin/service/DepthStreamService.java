@@ -0,0 +1,116 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.OrderBookDepthDTO;
+import com.mjy.coin.dto.OrderBookLevelDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * L2 호가 증분 전송 (coin.engine.depth.enabled).
+ * 레인 스레드가 배치(또는 취소) 처리 뒤 잔량이 바뀐 가격 레벨만 모아 메시지 하나로 만들고,
+ * 체결 목록과 같은 persist 레인 경로(Kafka 트랜잭션 모드면 같은 트랜잭션)로 보낸다.
+ * 오더북이 처음 적재되었거나 다시 적재된 뒤의 첫 메시지와 snapshot-millis마다의 메시지는 전체 호가다.
+ * 구독하는 쪽은 전체 호가로 맞춘 뒤 증분을 sequence 순서대로 적용하므로 /orderBook 전체 조회를 반복하지 않아도 된다.
+ */
+@Service
+public class DepthStreamService {
+    private final boolean enabled;
+    private final String topic;
+    private final JournalService journalService;
+    private final ReplicaService replicaService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final KafkaTemplate<String, OrderBookDepthDTO> depthKafkaTemplate;
+    private final Map<String, Long> sequences = new ConcurrentHashMap<>(); // 마켓별 마지막 sequence (레인 스레드에서만 갱신)
+
+    public DepthStreamService(@Value("${coin.engine.depth.enabled:false}") boolean enabled,
+                              @Value("${coin.engine.depth.topic:Order-Book-L2}") String topic,
+                              JournalService journalService, ReplicaService replicaService,
+                              KafkaTransactionService kafkaTransactionService,
+                              @Qualifier("depthKafkaTemplate") KafkaTemplate<String, OrderBookDepthDTO> depthKafkaTemplate) {
+        this.enabled = enabled;
+        this.topic = topic;
+        this.journalService = journalService;
+        this.replicaService = replicaService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.depthKafkaTemplate = depthKafkaTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 레인 스레드에서 호출, 바뀐 레벨이 없으면 null (추적 전이면 전체 호가를 만들고 추적을 시작한다)
+    public OrderBookDepthDTO captureChanges(String key, OrderBook orderBook) {
+        if (!enabled) {
+            return null;
+        }
+        if (!orderBook.isTrackingDepthChanges()) {
+            return captureSnapshot(key, orderBook);
+        }
+        OrderBookDepthDTO depth = newMessage(key, false);
+        MarketScale scale = orderBook.getScale();
+        if (!orderBook.drainDepthChanges((buySide, priceTicks, quantityLots) -> addLevel(depth, scale, buySide, priceTicks, quantityLots))) {
+            return null;
+        }
+        depth.setSequence(nextSequence(key));
+        return depth;
+    }
+
+    // 레인 스레드에서 호출, 전체 호가 (쌓여 있던 변경은 전체 호가에 포함되므로 비운다)
+    public OrderBookDepthDTO captureSnapshot(String key, OrderBook orderBook) {
+        if (!enabled) {
+            return null;
+        }
+        orderBook.trackDepthChanges();
+        OrderBookDepthDTO depth = newMessage(key, true);
+        MarketScale scale = orderBook.getScale();
+        orderBook.drainDepth((buySide, priceTicks, quantityLots) -> addLevel(depth, scale, buySide, priceTicks, quantityLots));
+        depth.setSequence(nextSequence(key));
+        return depth;
+    }
+
+    // 레인 스레드에서 호출, 체결 배치 밖에서 만든 메시지(취소, 주기적 전체 호가)를 체결 목록과 같은 순서로 보낸다
+    public void publishOnDownstream(String key, long sourceOffset, OrderBookDepthDTO depth) {
+        if (depth == null) {
+            return;
+        }
+        replicaService.executeSideEffects(key, sourceOffset, () -> journalService.executeDownstream(key,
+                () -> kafkaTransactionService.send(key, () -> publish(key, depth))));
+    }
+
+    // persist 레인(또는 트랜잭션 모드의 리스너 스레드)에서 호출
+    public CompletableFuture<?> publish(String key, OrderBookDepthDTO depth) {
+        if (depth == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return depthKafkaTemplate.send(topic, key, depth);
+    }
+
+    private OrderBookDepthDTO newMessage(String key, boolean snapshot) {
+        OrderBookDepthDTO depth = new OrderBookDepthDTO();
+        depth.setMarket(key);
+        depth.setSnapshot(snapshot);
+        return depth;
+    }
+
+    private long nextSequence(String key) {
+        return sequences.merge(key, 1L, Long::sum);
+    }
+
+    private static void addLevel(OrderBookDepthDTO depth, MarketScale scale, boolean buySide, long priceTicks, long quantityLots) {
+        OrderBookLevelDTO level = new OrderBookLevelDTO(scale.toPrice(priceTicks), scale.toQuantity(quantityLots));
+        if (buySide) {
+            depth.getBuy().add(level);
+        } else {
+            depth.getSell().add(level);
+        }
+    }
+}
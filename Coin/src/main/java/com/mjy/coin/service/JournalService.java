@@ -0,0 +1,184 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.engine.JournalFsyncPolicy;
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.MarketLane;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 마켓별 저널과 하위 저장소 반영 레인 관리.
+ * 체결 레인은 저널에 기록/커밋한 뒤 바로 다음 주문으로 넘어가고, Redis 반영은 persist 레인이 저널 순서대로 처리한다.
+ * Redis 반영은 해당 저널 기록이 디스크에 동기화(그룹 커밋)된 뒤에 persist 레인에 넘긴다.
+ * 반영이 실패하면 순서를 지키기 위해 같은 작업을 성공할 때까지 다시 시도하고(그동안 뒤 작업은 대기),
+ * 끝내 반영하지 못하고 종료하면 재시작 시 Redis에 남은 반영 sequence 이후 저널을 다시 반영한다.
+ */
+@Service
+public class JournalService {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private static final long RETRY_INITIAL_MILLIS = 100;
+    private static final long RETRY_MAX_MILLIS = 5_000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalFsyncPolicy fsyncPolicy;
+    private final int groupCommitRecords;
+    private final long groupCommitMillis;
+    private final int laneCapacity;
+    private final int laneThreads;
+    private final Map<String, MarketJournal> journals = new ConcurrentHashMap<>();
+    private final Map<String, MarketLane> persistLanes = new ConcurrentHashMap<>();
+    private final Map<String, Long> appliedSequences = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService groupCommitFlusher; // 그룹 커밋 fsync 전용 스레드 (fsync: batch)
+
+    public JournalService(@Value("${coin.engine.journal.enabled:false}") boolean enabled,
+                          @Value("${coin.engine.journal.dir:./journal}") String directory,
+                          @Value("${coin.engine.journal.segment-size:67108864}") int segmentSize,
+                          @Value("${coin.engine.journal.fsync:batch}") String fsyncPolicy,
+                          @Value("${coin.engine.journal.group-commit-records:256}") int groupCommitRecords,
+                          @Value("${coin.engine.journal.group-commit-millis:5}") long groupCommitMillis,
+                          @Value("${coin.engine.lane-capacity:65536}") int laneCapacity,
+                          @Value("${coin.engine.lane-threads:0}") int laneThreads) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = JournalFsyncPolicy.valueOf(fsyncPolicy.toUpperCase());
+        this.groupCommitRecords = groupCommitRecords;
+        this.groupCommitMillis = groupCommitMillis;
+        this.laneCapacity = laneCapacity;
+        this.laneThreads = laneThreads;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 마켓 키(BTC-KRW)의 저널 조회, 없으면 생성 (저널 비활성화 시 null)
+    public MarketJournal getJournal(String key) {
+        if (!enabled) {
+            return null;
+        }
+        MarketJournal journal = journals.get(key);
+        if (journal != null) {
+            return journal;
+        }
+        startGroupCommitFlusher();
+        return journals.computeIfAbsent(key, k -> new MarketJournal(k, directory.resolve(k), segmentSize,
+                fsyncPolicy, groupCommitRecords, groupCommitMillis));
+    }
+
+    // 주문이 끊겨 커밋이 없을 때도 그룹 커밋 대기 시간 안에 fsync 되도록 전용 데몬 스레드에서 주기적으로 확인
+    // (공용 스케줄러 스레드는 배치 작업이 오래 잡고 있을 수 있어 쓰지 않는다)
+    private void startGroupCommitFlusher() {
+        if (fsyncPolicy != JournalFsyncPolicy.BATCH || groupCommitFlusher != null) {
+            return;
+        }
+        synchronized (this) {
+            if (groupCommitFlusher != null) {
+                return;
+            }
+            ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, groupCommitMillis);
+            flusher.scheduleWithFixedDelay(this::flushDueJournals, interval, interval, TimeUnit.MILLISECONDS);
+            groupCommitFlusher = flusher;
+        }
+    }
+
+    // 저널 커밋 이후의 Redis 반영 작업을 fsync 뒤 마켓별 persist 레인에서 순서대로 실행 (저널 비활성화 시 바로 실행)
+    public void executeDownstream(String key, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return;
+        }
+
+        MarketLane persistLane = getPersistLane(key);
+        getJournal(key).whenDurable(() -> persistLane.execute(() -> runWithRetry(key, task)));
+    }
+
+    // 성공할 때까지 간격을 늘려 가며 다시 시도, 종료(인터럽트)되면 포기하고 재시작 시 저널에서 다시 반영한다
+    private void runWithRetry(String key, Runnable task) {
+        long backoff = RETRY_INITIAL_MILLIS;
+        while (true) {
+            try {
+                task.run();
+                return;
+            } catch (LeaseLostException e) {
+                // 다른 인스턴스가 운영을 이어받았으므로 다시 시도하지 않는다
+                System.err.println("Dropped journaled event for " + key + ": " + e.getMessage());
+                return;
+            } catch (Exception e) {
+                System.err.println("Failed to persist journaled event for " + key + ", retrying in " + backoff + "ms: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Gave up persisting journaled event for " + key + ", it is replayed from the journal on restart");
+                return;
+            }
+            backoff = Math.min(backoff * 2, RETRY_MAX_MILLIS);
+        }
+    }
+
+    // Redis에 반영된 마지막 저널 sequence (persist 레인에서 반영 후 갱신), 모르면 Long.MAX_VALUE
+    public long getAppliedSequence(String key) {
+        return appliedSequences.getOrDefault(key, Long.MAX_VALUE);
+    }
+
+    public void setAppliedSequence(String key, long sequence) {
+        appliedSequences.put(key, sequence);
+    }
+
+    // persist 레인에 쌓인 Redis 반영이 모두 끝날 때까지 대기 (마켓 소유권 이전), 저널 비활성화 시 이미 반영되어 있다
+    public void awaitDownstream(String key) throws ExecutionException, InterruptedException {
+        // fsync를 기다리는 반영을 먼저 persist 레인에 넘긴다
+        MarketJournal journal = journals.get(key);
+        if (journal != null) {
+            journal.flush();
+        }
+        MarketLane lane = persistLanes.get(MarketLane.laneKey(key, laneThreads));
+        if (lane != null) {
+            lane.submit(() -> null).get();
+        }
+    }
+
+    // 마켓의 persist 레인, 체결 레인과 같은 방식으로 lane-threads > 0 이면 공유 레인
+    private MarketLane getPersistLane(String key) {
+        return persistLanes.computeIfAbsent(MarketLane.laneKey(key, laneThreads), k -> new MarketLane(k, laneCapacity, "persist-lane-"));
+    }
+
+    // 한 마켓의 fsync 실패가 스레드를 멈추지 않도록 마켓마다 따로 처리한다 (다음 주기에 다시 시도)
+    void flushDueJournals() {
+        for (MarketJournal journal : journals.values()) {
+            try {
+                journal.flushIfDue();
+            } catch (Exception e) {
+                System.err.println("Failed to flush journal group commit: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (groupCommitFlusher != null) {
+            groupCommitFlusher.shutdownNow();
+        }
+        journals.values().forEach(MarketJournal::close);
+        persistLanes.values().forEach(lane -> lane.shutdown(SHUTDOWN_TIMEOUT_MILLIS));
+    }
+}
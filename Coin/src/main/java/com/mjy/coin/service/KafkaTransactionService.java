@@ -0,0 +1,101 @@
+package com.mjy.coin.service;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka 트랜잭션 모드 (coin.engine.kafka.transactional).
+ * 마켓 토픽 주문 소비, 체결 목록(Match-List)/가격·거래량(Price-Volume) 전송, 컨슈머 오프셋 커밋을 Kafka 트랜잭션 하나로 묶는다.
+ * 컨테이너가 poll마다 트랜잭션을 시작하고 배치 리스너가 반환되면 오프셋을 보낸 뒤 커밋하므로,
+ * persist 레인에서 만든 전송은 바로 보내지 않고 마켓별로 모아 두었다가 리스너 스레드(트랜잭션 안)에서 보낸다.
+ *
+ * 트랜잭션이 중단되면 전송과 오프셋이 함께 취소되고 주문이 다시 전달된다. 오더북은 커밋된 오프셋 시점으로 되돌려
+ * (스냅샷 + 저널 재생 후 이후 저널 삭제) 같은 주문을 같은 uuid로 다시 체결하고, Redis 반영은 uuid 키라 다시 써도 결과가 같다.
+ * 되돌리려면 저널이 필요하고 커밋 오프셋을 마켓별로 알아야 하므로 배치 리스너 + 마켓별 토픽(per-market)에서만 쓴다.
+ */
+@Service
+public class KafkaTransactionService {
+    private final KafkaAdmin kafkaAdmin;
+    private final ReplicaService replicaService;
+    private final boolean transactional;
+    private final Map<String, Queue<Runnable>> outbox = new ConcurrentHashMap<>();
+
+    public KafkaTransactionService(KafkaAdmin kafkaAdmin, ReplicaService replicaService, JournalService journalService,
+                                   @Value("${coin.engine.kafka.transactional:false}") boolean transactional) {
+        if (transactional && !journalService.isEnabled()) {
+            throw new IllegalStateException("coin.engine.kafka.transactional requires coin.engine.journal.enabled");
+        }
+        this.kafkaAdmin = kafkaAdmin;
+        this.replicaService = replicaService;
+        this.transactional = transactional;
+    }
+
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    // 체결 결과 Kafka 전송 (persist 레인에서 호출), 트랜잭션 모드면 마켓별로 모아 두고 아니면 바로 보낸다
+    public void send(String key, Runnable send) {
+        if (!transactional) {
+            send.run();
+            return;
+        }
+        Queue<Runnable> sends = outbox.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (sends) {
+            sends.add(send);
+        }
+    }
+
+    // 배치 처리가 끝난 뒤 리스너 스레드에서 호출, 모아 둔 전송을 마켓별 순서대로 보낸다 (컨테이너 트랜잭션에 포함)
+    public void publish(Collection<String> keys) {
+        for (String key : keys) {
+            Queue<Runnable> sends = outbox.get(key);
+            if (sends == null) {
+                continue;
+            }
+            synchronized (sends) {
+                Runnable send;
+                while ((send = sends.poll()) != null) {
+                    send.run();
+                }
+            }
+        }
+    }
+
+    // 중단된 트랜잭션에서 모아 둔 전송 버리기 (다시 전달된 주문이 같은 전송을 다시 만든다)
+    public void discard(String key) {
+        Queue<Runnable> sends = outbox.get(key);
+        if (sends != null) {
+            synchronized (sends) {
+                sends.clear();
+            }
+        }
+    }
+
+    // 마켓 토픽의 커밋된 오프셋 (마켓 토픽은 파티션 1개), 트랜잭션 모드가 아니거나 커밋 기록이 없으면 Long.MAX_VALUE (되돌리지 않음)
+    public long getCommittedOffset(String key) {
+        if (!transactional) {
+            return Long.MAX_VALUE;
+        }
+        String groupId = replicaService.getConsumerGroupId();
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+            OffsetAndMetadata offset = offsets.get(new TopicPartition(key, 0));
+            return offset == null ? Long.MAX_VALUE : offset.offset();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read committed offset of " + key + " in " + groupId, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mjy.coin.service;
+
+/**
+ * Redis 반영 스크립트가 임대를 잃은 인스턴스의 쓰기를 거부했을 때.
+ * 다른 인스턴스가 이미 운영을 이어받았으므로 다시 시도하지 않는다.
+ */
+public class LeaseLostException extends IllegalStateException {
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketLane;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+@Service
+public class MarketLaneService {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final PendingOrderProcessorService pendingOrderProcessorService;
+    private final Map<String, MarketLane> lanes = new ConcurrentHashMap<>();
+    private final boolean laneMode;
+    private final int laneCapacity;
+    private final int laneThreads;
+
+    public MarketLaneService(PendingOrderProcessorService pendingOrderProcessorService,
+                             @Value("${coin.engine.mode:synchronized}") String engineMode,
+                             @Value("${coin.engine.lane-capacity:65536}") int laneCapacity,
+                             @Value("${coin.engine.lane-threads:0}") int laneThreads) {
+        this.pendingOrderProcessorService = pendingOrderProcessorService;
+        this.laneMode = "lane".equalsIgnoreCase(engineMode);
+        this.laneCapacity = laneCapacity;
+        this.laneThreads = laneThreads;
+    }
+
+    // 주문을 마켓별 레인으로 전달하고 체결 결과 반영이 끝날 때까지 기다린다. lane 모드가 아니면 기존처럼 전역 동기화 처리
+    // 레코드 리스너도 반환된 뒤에 오프셋이 커밋되므로 레인 큐에만 있던 주문의 오프셋이 먼저 커밋되지 않는다
+    public void dispatch(CoinOrderDTO order) throws ExecutionException, InterruptedException {
+        if (!laneMode) {
+            pendingOrderProcessorService.processOrder(order);
+            return;
+        }
+        dispatchBatch(List.of(order));
+    }
+
+    // 한 번의 poll로 받은 주문을 마켓별로 묶어 레인에 한 번씩 전달하고, 체결 결과 반영(Redis, Kafka)이 끝날 때까지 기다린다
+    // 호출한 리스너가 반환된 뒤에 오프셋이 커밋되므로 반영이 끝난 주문만 커밋된다
+    public void dispatchBatch(List<CoinOrderDTO> orders) throws ExecutionException, InterruptedException {
+        Map<String, List<CoinOrderDTO>> ordersByMarket = new LinkedHashMap<>();
+        for (CoinOrderDTO order : orders) {
+            String key = order.getCoinName() + "-" + order.getMarketName();
+            ordersByMarket.computeIfAbsent(key, k -> new ArrayList<>()).add(order);
+        }
+
+        List<CompletableFuture<Void>> flushes = new ArrayList<>(ordersByMarket.size());
+        ordersByMarket.forEach((key, marketOrders) -> {
+            if (!laneMode) {
+                flushes.add(pendingOrderProcessorService.processOrders(key, marketOrders));
+                return;
+            }
+            flushes.add(CompletableFuture.supplyAsync(() -> pendingOrderProcessorService.processOrdersOnLane(key, marketOrders),
+                    getLane(key)::execute).thenCompose(flushed -> flushed));
+        });
+        CompletableFuture.allOf(flushes.toArray(new CompletableFuture<?>[0])).get();
+    }
+
+    // 해당 마켓의 주문 처리와 겹치지 않는 시점에 작업을 실행하고 결과 반환 (lane 모드는 레인 스레드, 아니면 전역 락)
+    public <T> T callOnLane(String key, Callable<T> task) throws Exception {
+        if (!laneMode) {
+            return pendingOrderProcessorService.callWithOrderLock(task);
+        }
+        return getLane(key).submit(task).get();
+    }
+
+    // 마켓 키(BTC-KRW)에 해당하는 레인 조회, 없으면 생성 (lane-threads > 0 이면 마켓 수와 관계없이 레인 수 고정)
+    public MarketLane getLane(String key) {
+        return lanes.computeIfAbsent(MarketLane.laneKey(key, laneThreads), k -> new MarketLane(k, laneCapacity));
+    }
+
+    public boolean isLaneMode() {
+        return laneMode;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.shutdown(SHUTDOWN_TIMEOUT_MILLIS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.engine.OrderBook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 체결 경로 마켓별 지표 (/actuator/prometheus, 태그 market=BTC-KRW).
+ *   coin.engine.queue.time   : Kafka 레코드 타임스탬프 -> 체결 시작 (주문 토픽 + 레인 대기)
+ *   coin.engine.match.time   : 배치 체결 루프
+ *   coin.engine.redis.time   : Redis 배치 반영 (Lua 한 번)
+ *   coin.engine.publish.time : Match-List/Price-Volume/L2 전송 완료까지
+ *   coin.engine.fills        : 체결 건수 (type=complete 양쪽 모두 체결, oversize 주문이 남음, undersized 상대 주문이 남음)
+ *   coin.engine.book.levels / book.orders : 배치 처리 뒤 호가 레벨 수(side 태그)와 대기 주문 수
+ * 백분위(p50/p99/p99.9)는 Micrometer가 타이머마다 HdrHistogram 기반으로 계산해 바로 내보낸다.
+ * 미터는 마켓을 처음 처리할 때 한 번 등록하고, 이후 기록은 long 값만 넘기므로 체결 경로에서 할당이 없다.
+ * coin.engine.metrics.enabled=false면 아무 레지스트리에도 연결되지 않은 미터를 돌려줘 기록이 무시된다.
+ */
+@Service
+public class MatchMetricsService {
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final Duration expiry;
+    private final Map<String, MarketMetrics> markets = new ConcurrentHashMap<>();
+
+    public MatchMetricsService(MeterRegistry meterRegistry,
+                               @Value("${coin.engine.metrics.enabled:true}") boolean enabled,
+                               @Value("${coin.engine.metrics.percentile-histogram:false}") boolean percentileHistogram,
+                               @Value("${coin.engine.metrics.expiry-millis:60000}") long expiryMillis) {
+        this.meterRegistry = enabled ? meterRegistry : new CompositeMeterRegistry();
+        this.percentileHistogram = percentileHistogram;
+        this.expiry = Duration.ofMillis(expiryMillis);
+    }
+
+    public MarketMetrics forMarket(String key) {
+        MarketMetrics metrics = markets.get(key);
+        return metrics != null ? metrics : markets.computeIfAbsent(key, MarketMetrics::new);
+    }
+
+    private Timer timer(String name, String key) {
+        return Timer.builder(name)
+                .tag("market", key)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram(percentileHistogram)
+                .distributionStatisticExpiry(expiry)
+                .register(meterRegistry);
+    }
+
+    private Counter fills(String key, String type) {
+        return Counter.builder("coin.engine.fills").tag("market", key).tag("type", type).register(meterRegistry);
+    }
+
+    public class MarketMetrics {
+        private final Timer queueTime;
+        private final Timer matchTime;
+        private final Timer redisTime;
+        private final Timer publishTime;
+        private final Counter completeFills;
+        private final Counter oversizeFills;
+        private final Counter undersizedFills;
+        private final AtomicLong buyLevels = new AtomicLong();
+        private final AtomicLong sellLevels = new AtomicLong();
+        private final AtomicLong orders = new AtomicLong();
+
+        private MarketMetrics(String key) {
+            this.queueTime = timer("coin.engine.queue.time", key);
+            this.matchTime = timer("coin.engine.match.time", key);
+            this.redisTime = timer("coin.engine.redis.time", key);
+            this.publishTime = timer("coin.engine.publish.time", key);
+            this.completeFills = fills(key, "complete");
+            this.oversizeFills = fills(key, "oversize");
+            this.undersizedFills = fills(key, "undersized");
+            Gauge.builder("coin.engine.book.levels", buyLevels, AtomicLong::get).tag("market", key).tag("side", "buy").register(meterRegistry);
+            Gauge.builder("coin.engine.book.levels", sellLevels, AtomicLong::get).tag("market", key).tag("side", "sell").register(meterRegistry);
+            Gauge.builder("coin.engine.book.orders", orders, AtomicLong::get).tag("market", key).register(meterRegistry);
+        }
+
+        // Kafka 레코드 타임스탬프(epoch millis, 모르면 0)부터 체결 시작까지
+        public void recordQueueTime(long sourceTimestamp, long nowMillis) {
+            if (sourceTimestamp > 0) {
+                queueTime.record(Math.max(0, nowMillis - sourceTimestamp), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        public void recordMatchTime(long nanos) {
+            matchTime.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordRedisTime(long nanos) {
+            redisTime.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordPublishTime(long nanos) {
+            publishTime.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordFill(boolean takerCompleted, boolean makerCompleted) {
+            if (takerCompleted && makerCompleted) {
+                completeFills.increment();
+            } else if (makerCompleted) {
+                oversizeFills.increment();
+            } else {
+                undersizedFills.increment();
+            }
+        }
+
+        // 레인 스레드에서 호출 (스크레이프 스레드는 오더북 대신 이 값을 읽는다)
+        public void updateBook(OrderBook orderBook) {
+            buyLevels.set(orderBook.getBuySide().getLevelCount());
+            sellLevels.set(orderBook.getSellSide().getLevelCount());
+            orders.set(orderBook.getOrderCount());
+        }
+    }
+}
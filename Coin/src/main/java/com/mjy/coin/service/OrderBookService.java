@@ -1,84 +1,74 @@
 package com.mjy.coin.service;
 
-import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderBookSide;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 호가 조회 서비스 : 체결에 사용하는 오더북의 가격 레벨 잔량을 그대로 읽는다.
+ * 오더북은 레인 스레드 전용이므로 HTTP 요청 스레드는 오더북을 직접 읽지 않고,
+ * 레인이 주문 묶음을 처리할 때마다 만들어 두는 상위 top-n 레벨 읽기 전용 호가(publishDepth)를 그대로 돌려준다. (락/재계산 없음)
+ */
 @Service
 public class OrderBookService {
-    private final Map<String, TreeMap<BigDecimal, BigDecimal>> buyOrderBooks = new HashMap<>();  // 매수: 높은 가격 우선
-    private final Map<String, TreeMap<BigDecimal, BigDecimal>> sellOrderBooks = new HashMap<>(); // 매도: 낮은 가격 우선
+    private static final Map<String, Map<BigDecimal, BigDecimal>> EMPTY_DEPTH = createDepth(Map.of(), Map.of());
 
-    // 초기 매수 주문 호가 트리 생성 메서드
-    public void initializeBuyOrderBook(String key) {
-        buyOrderBooks.putIfAbsent(key, new TreeMap<>(Comparator.reverseOrder()));
-    }
-
-    // 초기 매도 주문 호가 트리 생성 메서드
-    public void initializeSellOrderBook(String key) {
-        sellOrderBooks.putIfAbsent(key, new TreeMap<>());
-    }
+    private final OrderService orderService;
+    private final int topN;
+    private final Map<String, Map<String, Map<BigDecimal, BigDecimal>>> publishedDepths = new ConcurrentHashMap<>();
 
-    // 초기 매수 주문 호가 추가
-    public void addBuyOrderBook(String key, CoinOrderDTO order){
-        BigDecimal price = processBigDecimal(order.getOrderPrice());
-        BigDecimal amount = processBigDecimal(order.getCoinAmount());
-        addOrderToBook(buyOrderBooks.get(key), price, amount);
+    public OrderBookService(OrderService orderService,
+                            @Value("${coin.engine.depth.top-n:10}") int topN) {
+        this.orderService = orderService;
+        this.topN = topN;
     }
 
-    // 초기 매도 주문 호가 추가
-    public void addSellOrderBook(String key, CoinOrderDTO order){
-        BigDecimal price = processBigDecimal(order.getOrderPrice());
-        BigDecimal amount = processBigDecimal(order.getCoinAmount());
-        addOrderToBook(sellOrderBooks.get(key), price, amount);
+    // 레인 스레드에서 호출 : 현재 상위 호가를 읽기 전용으로 만들어 교체 (ConcurrentHashMap 저장으로 조회 스레드에 안전하게 공개)
+    public void publishDepth(String key, OrderBook orderBook) {
+        publishedDepths.put(key, createDepth(getTopNLevels(orderBook.getBuySide(), orderBook.getScale(), topN),
+                getTopNLevels(orderBook.getSellSide(), orderBook.getScale(), topN)));
     }
 
-    // 주문을 추가/업데이트하는 메서드
-    private void addOrderToBook(TreeMap<BigDecimal, BigDecimal> orderBook, BigDecimal price, BigDecimal amount) {
-        orderBook.merge(price, amount, BigDecimal::add);
+    // 다른 인스턴스로 넘겨주거나 중지한 마켓
+    public void removeDepth(String key) {
+        publishedDepths.remove(key);
     }
 
-    // 주문이 체결되거나 취소될 때 수량을 감소시키는 메서드
-    private void subtractOrderFromBook(TreeMap<BigDecimal, BigDecimal> orderBook, BigDecimal price, BigDecimal amount) {
-        orderBook.merge(price, amount.negate(), BigDecimal::add);
-
-        // 수량이 0인 경우 해당 가격대를 제거
-        if (orderBook.get(price).compareTo(BigDecimal.ZERO) <= 0) {
-            orderBook.remove(price);
-        }
+    // 마지막으로 공개된 호가 {"buy": 높은 가격부터, "sell": 낮은 가격부터}, 맡지 않은 마켓이면 빈 호가 (아무 스레드에서 호출)
+    public Map<String, Map<BigDecimal, BigDecimal>> getDepth(String key) {
+        return publishedDepths.getOrDefault(key, EMPTY_DEPTH);
     }
 
-    // 주문 체결 시 수량 업데이트
-    public void updateOrderBook(String key, CoinOrderDTO order, boolean isBuy, boolean isAdd) {
-        if (isBuy) {
-            if (isAdd) {
-                addOrderToBook(buyOrderBooks.get(key), order.getOrderPrice(), order.getCoinAmount());
-            } else {
-                subtractOrderFromBook(buyOrderBooks.get(key), order.getOrderPrice(), order.getCoinAmount());
-            }
-        } else {
-            if (isAdd) {
-                addOrderToBook(sellOrderBooks.get(key), order.getOrderPrice(), order.getCoinAmount());
-            } else {
-                subtractOrderFromBook(sellOrderBooks.get(key), order.getOrderPrice(), order.getCoinAmount());
-            }
-        }
+    private static Map<String, Map<BigDecimal, BigDecimal>> createDepth(Map<BigDecimal, BigDecimal> buy, Map<BigDecimal, BigDecimal> sell) {
+        Map<String, Map<BigDecimal, BigDecimal>> depth = new LinkedHashMap<>();
+        depth.put("buy", Collections.unmodifiableMap(buy));
+        depth.put("sell", Collections.unmodifiableMap(sell));
+        return Collections.unmodifiableMap(depth);
     }
 
-    // 호가 리스트 조회 (예: 상위 10개)
+    // 호가 리스트 조회 (예: 상위 10개), 레인 스레드에서만 호출
     public Map<BigDecimal, BigDecimal> getTopNBuyOrders(String key, int n) {
-        return buyOrderBooks.getOrDefault(key, new TreeMap<>()).entrySet().stream()
-                .limit(n)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        OrderBook orderBook = orderService.getOrderBook(key);
+        return getTopNLevels(orderBook.getBuySide(), orderBook.getScale(), n);
     }
 
     public Map<BigDecimal, BigDecimal> getTopNSellOrders(String key, int n) {
-        return sellOrderBooks.getOrDefault(key, new TreeMap<>()).entrySet().stream()
-                .limit(n)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        OrderBook orderBook = orderService.getOrderBook(key);
+        return getTopNLevels(orderBook.getSellSide(), orderBook.getScale(), n);
+    }
+
+    // 최우선 호가부터 n개 레벨의 가격/잔량 (틱/랏 -> BigDecimal 변환), n개 뒤의 레벨은 보지 않는다
+    private Map<BigDecimal, BigDecimal> getTopNLevels(OrderBookSide side, MarketScale scale, int n) {
+        Map<BigDecimal, BigDecimal> levels = new LinkedHashMap<>();
+        side.forEachTopLevel(n, level -> levels.put(processBigDecimal(scale.toPrice(level.getPrice())),
+                processBigDecimal(scale.toQuantity(level.getTotalQuantity()))));
+        return levels;
     }
 
     // BigDecimal 처리 메서드
@@ -92,25 +82,11 @@ public class OrderBookService {
         }
     }
 
-    public Map<String, Map<BigDecimal, BigDecimal>> getTopNOrders(String key, int n) {
-        Map<String, Map<BigDecimal, BigDecimal>> topOrders = new HashMap<>();
-
-        // 매수 주문
-        Map<BigDecimal, BigDecimal> topBuyOrders = getTopNBuyOrders(key, n);
-        // 매도 주문
-        Map<BigDecimal, BigDecimal> topSellOrders = getTopNSellOrders(key, n);
-
-        topOrders.put("buy", topBuyOrders);  // 매수 주문을 "buy" 키로 저장
-        topOrders.put("sell", topSellOrders);  // 매도 주문을 "sell" 키로 저장
-
-        return topOrders;  // 매수/매도 주문을 담은 Map 반환
-    }
-
     public void printOrderBook(String key) {
         Map<BigDecimal, BigDecimal> topBuyOrders = getTopNBuyOrders(key, 10);
         Map<BigDecimal, BigDecimal> topSellOrders = getTopNSellOrders(key, 10);
 
-        // Sell Orders: 작은 값이 아래로, 큰 값이 위로 (기본적으로 TreeMap은 오름차순이므로 그대로 사용)
+        // Sell Orders: 작은 값이 아래로, 큰 값이 위로
         System.out.println("------- Sell Orders (Top 10) -------");
         System.out.printf("%-15s | %-15s%n", "Price", "Quantity");
         System.out.println("-----------------------------------");
@@ -127,4 +103,3 @@ public class OrderBookService {
                 .forEach(entry -> System.out.printf("%-15s | %-15s%n", entry.getKey(), entry.getValue()));
     }
 }
-
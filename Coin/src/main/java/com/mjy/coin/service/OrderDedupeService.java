@@ -0,0 +1,76 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderDedupeWindow;
+import com.mjy.coin.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 다시 전달된 주문 거르기 (Redis 조회 없이 레인 스레드 메모리에서 확인).
+ *   1. 오프셋 : 오더북이 이미 반영한 마켓 토픽 오프셋(스냅샷 + 저널 재생으로 복구) 이하인 주문/취소 요청
+ *              -> 리밸런스, 재시작, 마켓 소유권 이전 후 커밋되지 않은 오프셋부터 다시 읽은 경우
+ *   2. 주문 요청 ID : window-millis 안에 같은 회원의 같은 clientOrderId로 접수한 주문
+ *              -> Exchange 재전송이나 클라이언트 재시도로 다른 오프셋에 같은 주문이 다시 들어온 경우
+ * 접수한 주문 요청 ID마다 엔진 주문 id도 기억해 두어 uuid 없이 clientOrderId로 들어온 취소 요청을 처리한다
+ * (window-millis 안에 접수한 주문만, 재시작 전에 접수한 주문은 uuid로 취소해야 한다).
+ * 오프셋 비교는 마켓 주문이 한 파티션에 순서대로 쌓인다는 전제이므로 주문 토픽/토폴로지를 바꿀 때는 스냅샷과 저널을 비운다.
+ */
+@Service
+public class OrderDedupeService {
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxEntries;
+    private final Map<String, OrderDedupeWindow> windows = new ConcurrentHashMap<>();
+
+    public OrderDedupeService(@Value("${coin.engine.dedupe.enabled:true}") boolean enabled,
+                              @Value("${coin.engine.dedupe.window-millis:600000}") long windowMillis,
+                              @Value("${coin.engine.dedupe.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    // 레인 스레드에서 호출, 이미 접수한 주문이면 true (처음 보는 주문 요청 ID는 이때 기억한다)
+    public boolean isDuplicate(String key, OrderBook orderBook, CoinOrderDTO order) {
+        if (!enabled) {
+            return false;
+        }
+        if (order.getSourceOffset() >= 0 && order.getSourceOffset() <= orderBook.getSourceOffset()) {
+            return true;
+        }
+        // 취소 요청의 clientOrderId는 취소할 주문을 가리킨다 (다시 와도 한 번만 취소되므로 오프셋만 본다)
+        if (order.getClientOrderId() == null || order.getOrderStatus() == OrderStatus.CANCELED) {
+            return false;
+        }
+        OrderDedupeWindow window = windows.computeIfAbsent(key, k -> new OrderDedupeWindow(windowMillis, maxEntries));
+        return !window.admit(clientKey(order.getMemberUuid(), order.getClientOrderId()), System.currentTimeMillis());
+    }
+
+    // 접수한 주문에 엔진 주문 id가 붙은 뒤 호출 (레인 스레드)
+    public void recordOrderId(String key, CoinOrderDTO order) {
+        OrderDedupeWindow window = enabled && order.getClientOrderId() != null ? windows.get(key) : null;
+        if (window != null) {
+            window.bindOrderId(clientKey(order.getMemberUuid(), order.getClientOrderId()), order.getUuid());
+        }
+    }
+
+    // 회원이 clientOrderId로 접수한 주문의 엔진 주문 id, 창 밖이거나 모르는 ID면 null (레인 스레드)
+    public String findOrderId(String key, String memberUuid, String clientOrderId) {
+        OrderDedupeWindow window = windows.get(key);
+        return window == null ? null : window.getOrderId(clientKey(memberUuid, clientOrderId));
+    }
+
+    private static String clientKey(String memberUuid, String clientOrderId) {
+        return memberUuid + ":" + clientOrderId;
+    }
+
+    // 오더북을 이전 시점으로 되돌릴 때 (되돌린 뒤 다시 전달되는 주문을 중복으로 보지 않도록)
+    public void reset(String key) {
+        windows.remove(key);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.OrderIdGenerator;
+import com.mjy.wire.WireId;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 주문과 체결(matchIdx)의 id (13자리 WireId 문자열, UUID 대신).
+ * 마켓마다 생성기 하나를 레인 스레드에서만 쓴다. 노드는 coin.engine.id.node (0 ~ 1023, 인스턴스마다 다르게, 기본 0)이고
+ * 시작 시 Redis(ENGINE:NODE:{node})에 인스턴스 이름으로 등록해 다른 인스턴스가 이미 쓰는 노드면 시작하지 않는다.
+ * 복제/Kafka 트랜잭션 모드에서는 같은 주문을 다시 처리해도 같은 id가 나와야 하므로 마켓 토픽 레코드 오프셋으로 정한다.
+ * id는 마켓 안에서만 유일하다.
+ */
+@Slf4j
+@Service
+public class OrderIdService {
+    private static final String NODE_KEY_PREFIX = "ENGINE:NODE:";
+    private static final Duration NODE_CLAIM_DURATION = Duration.ofSeconds(30);
+    private static final long NODE_RENEW_MILLIS = 10_000;
+
+    private final ReplicaService replicaService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final RedisService redisService;
+    private final long node;
+    private final String instanceId;
+    private final Map<String, OrderIdGenerator> generators = new ConcurrentHashMap<>();
+    private ScheduledExecutorService nodeRenewer; // 노드 등록 연장 전용 스레드
+
+    public OrderIdService(ReplicaService replicaService, KafkaTransactionService kafkaTransactionService, RedisService redisService,
+                          @Value("${coin.engine.id.node:0}") long node,
+                          @Value("${coin.engine.replica.instance-id:${HOSTNAME:coin}}") String instanceId) {
+        if (node < 0 || node > WireId.MAX_NODE) {
+            throw new IllegalArgumentException("coin.engine.id.node must be 0 ~ " + WireId.MAX_NODE + ": " + node);
+        }
+        this.replicaService = replicaService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.redisService = redisService;
+        this.node = node;
+        this.instanceId = instanceId;
+    }
+
+    // 노드를 쓰는 모드면 노드를 등록하고, 다른 인스턴스가 이미 등록한 노드면 같은 id가 나오지 않도록 시작을 멈춘다
+    @PostConstruct
+    public void init() {
+        if (replicaService.isEnabled() || kafkaTransactionService.isTransactional()) {
+            return;
+        }
+        String nodeKey = NODE_KEY_PREFIX + node;
+        if (!redisService.tryAcquireLease(nodeKey, instanceId, NODE_CLAIM_DURATION)
+                && !redisService.renewLease(nodeKey, instanceId, NODE_CLAIM_DURATION)) {
+            throw new IllegalStateException("Engine id node " + node + " is already used by " + redisService.getValues(nodeKey)
+                    + ", set a different coin.engine.id.node for " + instanceId);
+        }
+
+        nodeRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-id-node");
+            thread.setDaemon(true);
+            return thread;
+        });
+        nodeRenewer.scheduleWithFixedDelay(() -> renewNode(nodeKey), NODE_RENEW_MILLIS, NODE_RENEW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void renewNode(String nodeKey) {
+        try {
+            if (!redisService.renewLease(nodeKey, instanceId, NODE_CLAIM_DURATION)
+                    && !redisService.tryAcquireLease(nodeKey, instanceId, NODE_CLAIM_DURATION)) {
+                log.error("Engine id node {} was taken by {} while in use by {}, ids may collide",
+                        node, redisService.getValues(nodeKey), instanceId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to renew engine id node {}", node, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (nodeRenewer != null) {
+            nodeRenewer.shutdownNow();
+        }
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    // 레인 스레드에서 호출, 새 주문 id
+    public String newOrderId(String key, CoinOrderDTO order) {
+        return WireId.encode(nextId(key, order, 0));
+    }
+
+    // 레인 스레드에서 호출, taker 주문의 index번째(1부터) 체결 id
+    public String newMatchId(String key, CoinOrderDTO taker, int index) {
+        return WireId.encode(nextId(key, taker, index));
+    }
+
+    private long nextId(String key, CoinOrderDTO order, int index) {
+        if ((replicaService.isEnabled() || kafkaTransactionService.isTransactional()) && order.getSourceOffset() >= 0) {
+            return OrderIdGenerator.recordId(order.getSourceOffset(), index);
+        }
+        return forMarket(key).nextId(System.currentTimeMillis());
+    }
+
+    private OrderIdGenerator forMarket(String key) {
+        OrderIdGenerator generator = generators.get(key);
+        return generator != null ? generator : generators.computeIfAbsent(key, k -> new OrderIdGenerator(node));
+    }
+}
@@ -1,48 +1,73 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderBookSide;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class OrderService {
-    private final Map<String, PriorityQueue<CoinOrderDTO>> buyOrderQueues = new HashMap<>();
-    private final Map<String, PriorityQueue<CoinOrderDTO>> sellOrderQueues = new HashMap<>();
+    private final CoinInfoService coinInfoService;
+    private final Map<String, OrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final int ladderSize;
 
-    // 초기 매수 주문 큐 생성 메서드
-    public void initializeBuyOrder(String key) {
-        buyOrderQueues.putIfAbsent(key, new PriorityQueue<>(
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt)
-        ));
+    public OrderService(CoinInfoService coinInfoService,
+                        @Value("${coin.engine.ladder-size:4096}") int ladderSize) {
+        this.coinInfoService = coinInfoService;
+        this.ladderSize = ladderSize;
     }
 
-    // 초기 매도 주문 큐 생성 메서드
-    public void initializeSellOrder(String key) {
-        sellOrderQueues.putIfAbsent(key, new PriorityQueue<>(
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt)
-        ));
+    // 마켓별 오더북 생성 메서드
+    public void initializeOrderBook(String key) {
+        getOrderBook(key);
+    }
+
+    // 마켓별 오더북 조회, 없으면 마켓의 가격/수량 자릿수와 호가 단위로 생성
+    public OrderBook getOrderBook(String key) {
+        return orderBooks.computeIfAbsent(key, k -> new OrderBook(k, coinInfoService.getMarketScale(k), ladderSize));
+    }
+
+    // 다른 인스턴스로 넘긴 마켓의 오더북 제거
+    public void removeOrderBook(String key) {
+        orderBooks.remove(key);
+    }
+
+    // 오더북이 생성된 마켓 키 목록
+    public Set<String> getMarketKeys() {
+        return orderBooks.keySet();
     }
 
     // 매수 주문 추가
     public void addBuyOrder(String key, CoinOrderDTO order) {
-        buyOrderQueues.get(key).add(order);
+        getOrderBook(key).getBuySide().add(order);
     }
 
     // 매도 주문 추가
     public void addSellOrder(String key, CoinOrderDTO order) {
-        sellOrderQueues.get(key).add(order);
+        getOrderBook(key).getSellSide().add(order);
+    }
+
+    // 미체결 주문 취소, 본인 주문이 아니거나 이미 체결/취소된 주문이면 null 반환
+    public CoinOrderDTO cancelOrder(String key, String uuid, String memberUuid) {
+        OrderBook orderBook = getOrderBook(key);
+        CoinOrderDTO order = orderBook.getOrder(uuid);
+        if (order == null || !Objects.equals(order.getMemberUuid(), memberUuid)) {
+            return null;
+        }
+        return orderBook.cancel(uuid);
     }
 
-    // 매수 주문 큐 조회 메서드
-    public PriorityQueue<CoinOrderDTO> getBuyOrderQueue(String key) {
-        return buyOrderQueues.getOrDefault(key, new PriorityQueue<>());
+    // 매수 주문 큐(호가 레벨별 FIFO) 조회 메서드
+    public OrderBookSide getBuyOrderQueue(String key) {
+        return getOrderBook(key).getBuySide();
     }
 
-    // 매도 주문 큐 조회 메서드
-    public PriorityQueue<CoinOrderDTO> getSellOrderQueue(String key) {
-        return sellOrderQueues.getOrDefault(key, new PriorityQueue<>());
+    // 매도 주문 큐(호가 레벨별 FIFO) 조회 메서드
+    public OrderBookSide getSellOrderQueue(String key) {
+        return getOrderBook(key).getSellSide();
     }
 }
@@ -2,6 +2,15 @@ package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface PendingOrderMatcherService {
     public void matchOrders(CoinOrderDTO order);
+
+    // 같은 마켓 주문 여러 건 체결, 반환된 Future는 Redis 반영과 Kafka 전송까지 끝나면 완료된다
+    public default CompletableFuture<Void> matchBatch(String key, List<CoinOrderDTO> orders) {
+        orders.forEach(this::matchOrders);
+        return CompletableFuture.completedFuture(null);
+    }
 }
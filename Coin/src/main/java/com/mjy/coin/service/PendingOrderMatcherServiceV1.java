@@ -2,6 +2,9 @@ package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.engine.OrderBookSide;
+import com.mjy.coin.enums.OrderType;
 import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -18,20 +21,17 @@ import static com.mjy.coin.enums.OrderStatus.PENDING;
 @Component
 public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService {
     private final MasterCoinOrderRepository masterCoinOrderRepository;
-    private final OrderBookService orderBookService;
     private final OrderService orderService;
     private final RedisService redisService;
-    private final KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate;
+    private final KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate;
     private final KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate;
 
     public PendingOrderMatcherServiceV1(MasterCoinOrderRepository masterCoinOrderRepository,
                                         OrderService orderService,
-                                        OrderBookService orderBookService,
                                         RedisService redisService,
-                                        @Qualifier("matchListKafkaTemplate") KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate,
+                                        @Qualifier("matchListKafkaTemplate") KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate,
                                         @Qualifier("priceVolumeMapKafkaTemplate") KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate) {
         this.masterCoinOrderRepository = masterCoinOrderRepository;
-        this.orderBookService = orderBookService;
         this.orderService = orderService;
         this.redisService = redisService;
         this.matchListKafkaTemplate = matchListKafkaTemplate;
@@ -45,11 +45,11 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
         BigDecimal executionPrice;
 
-        PriorityQueue<CoinOrderDTO> buyOrders = orderService.getBuyOrderQueue(key);
-        PriorityQueue<CoinOrderDTO> sellOrders = orderService.getSellOrderQueue(key);
+        OrderBookSide buyOrders = orderService.getBuyOrderQueue(key);
+        OrderBookSide sellOrders = orderService.getSellOrderQueue(key);
 
         if (buyOrders != null && sellOrders != null) {
-            List<CoinOrderDTO> matchList = new ArrayList<>();
+            List<TradeDTO> matchList = new ArrayList<>();
             List<PriceVolumeDTO> priceVolumeList = new ArrayList<>();
 
             while (!buyOrders.isEmpty() && !sellOrders.isEmpty()) {
@@ -99,18 +99,13 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
                         redisService.insertOrderInRedis(key, COMPLETED, sellOrder);
                         //////////////////////////////////끝////////////////////////////////////
 
-                        // 큐에서 양쪽 주문 제거
+                        // 오더북에서 양쪽 주문 제거 (호가 잔량도 함께 차감된다)
                         buyOrders.poll();
                         sellOrders.poll();
 
-                        // 체결 되었으니 호가 리스트 제거
-                        orderBookService.updateOrderBook(key, buyOrder, true, false);
-                        orderBookService.updateOrderBook(key, sellOrder, false, false);
-
                         //체결 완료 된 데이터를 쌓아서 kafka로 전달할 list
                         priceVolumeList.add(new PriceVolumeDTO(buyOrder));
-                        matchList.add(new CoinOrderDTO(buyOrder));
-                        matchList.add(new CoinOrderDTO(sellOrder));
+                        matchList.add(createTrade(order, buyOrder, sellOrder));
                     } else if (remainingQuantity.compareTo(BigDecimal.ZERO) > 0) {
                         // 매수량이 매도량을 초과
                         // 매수는 일부 남고 매도는 모두 체결
@@ -142,9 +137,6 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
                         // 매도 주문 제거
                         sellOrders.poll();
 
-                        // 이미 미체결을 넣어줬기 때문에 체결 되었으니 호가 리스트 제거(가격만 구분하고 수량 차감은 같이 한다.)
-                        orderBookService.updateOrderBook(key, sellOrder, false, false);
-
                         // 매수 이전 idx 저장
                         Long previousIdx = buyOrder.getIdx();
 
@@ -171,12 +163,11 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
                         //체결 완료 된 데이터를 쌓아서 kafka로 전달할 list
                         priceVolumeList.add(new PriceVolumeDTO(sellOrder));
-                        matchList.add(new CoinOrderDTO(buyOrder));
-                        matchList.add(new CoinOrderDTO(sellOrder));
+                        matchList.add(createTrade(order, buyOrder, sellOrder));
                         //////////////////////////////////끝////////////////////////////////////
 
-                        // 이미 미체결을 넣어줬기 때문에 체결 되었으니 호가 리스트 제거(가격만 구분하고 수량 차감은 같이 한다.)
-                        orderBookService.updateOrderBook(key, buyOrder, true, false);
+                        // 체결된 수량만큼 매수 호가 잔량 차감 (대기 순서는 유지, 주문의 수량 랏도 함께 갱신)
+                        buyOrders.reducePeek(sellOrder.getQuantityLots());
 
                         // 매수 주문 수량 업데이트 (남은 수량)
                         // 기존의 idx를 가져와 기존 매수 update
@@ -193,10 +184,6 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
                         redisService.updateOrderInRedis(buyOrder);
                         //////////////////////////////////끝////////////////////////////////////
-
-                        // 우선순위 큐에서 매수 주문 수량도 업데이트
-                        buyOrders.poll(); // 기존 주문 제거
-                        buyOrders.offer(buyOrder); // 수정된 주문 다시 추가
                     } else {
                         // 매도량이 매수량을 초과
                         // 매도는 일부 남고 매수는 모두 체결
@@ -228,9 +215,6 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
                         // 매수 주문 제거
                         buyOrders.poll();
 
-                        // 이미 미체결을 넣어줬기 때문에 체결 되었으니 호가 리스트 제거(가격만 구분하고 수량 차감은 같이 한다.)
-                        orderBookService.updateOrderBook(key, buyOrder, true, false);
-
                         //이전 idx 저장
                         Long previousIdx = sellOrder.getIdx();
 
@@ -257,12 +241,11 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
                         //체결 완료 된 데이터를 쌓아서 kafka로 전달할 list
                         priceVolumeList.add(new PriceVolumeDTO(buyOrder));
-                        matchList.add(new CoinOrderDTO(buyOrder));
-                        matchList.add(new CoinOrderDTO(sellOrder));
+                        matchList.add(createTrade(order, buyOrder, sellOrder));
                         //////////////////////////////////끝////////////////////////////////////
 
-                        // 이미 미체결을 넣어줬기 때문에 체결 되었으니 호가 리스트 제거(가격만 구분하고 수량 차감은 같이 한다.)
-                        orderBookService.updateOrderBook(key, sellOrder, false, false);
+                        // 체결된 수량만큼 매도 호가 잔량 차감 (대기 순서는 유지, 주문의 수량 랏도 함께 갱신)
+                        sellOrders.reducePeek(buyOrder.getQuantityLots());
 
                         // 매수 주문 수량 업데이트 (남은 수량)
                         // 기존의 idx를 가져와 update 필요
@@ -279,10 +262,6 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
                         redisService.updateOrderInRedis(sellOrder);
                         //////////////////////////////////끝////////////////////////////////////
-
-                        // 우선순위 큐에서 매도 주문 수량도 업데이트
-                        sellOrders.poll(); // 기존 주문 제거
-                        sellOrders.offer(sellOrder); // 수정된 주문 다시 추가
                     }
                 } else {
                     break; // 더 이상 체결할 수 없으면 중단
@@ -298,10 +277,17 @@ public class PendingOrderMatcherServiceV1 implements PendingOrderMatcherService
 
             //반복하는 동안 쌓인 완료 주문 리스트 kafka로 전달(웹소켓을 통해 완료 리스트를 사용자에게 전달하기 위함)
             if (!matchList.isEmpty()) {
-                Map<String, List<CoinOrderDTO>> matchListeMap = new HashMap<>();
+                Map<String, List<TradeDTO>> matchListeMap = new HashMap<>();
                 matchListeMap.put(key, matchList);
                 matchListKafkaTemplate.send("Match-List", matchListeMap);
             }
         }
     }
+
+    // 체결 한 건 (들어온 주문 방향을 taker로 본다), 체결 시점에 매수 주문 수량은 체결 수량과 같다
+    private TradeDTO createTrade(CoinOrderDTO order, CoinOrderDTO buyOrder, CoinOrderDTO sellOrder) {
+        boolean buyTaker = order.getOrderType() == OrderType.BUY;
+        return new TradeDTO(buyOrder.getMatchIdx(), buyTaker ? buyOrder : sellOrder, buyTaker ? sellOrder : buyOrder,
+                buyOrder.getExecutionPrice(), buyOrder.getCoinAmount(), buyOrder.getMatchedAt());
+    }
 }
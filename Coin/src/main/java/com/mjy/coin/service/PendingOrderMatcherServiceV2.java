@@ -1,40 +1,59 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.OrderBookDepthDTO;
 import com.mjy.coin.dto.PriceVolumeDTO;
-import com.mjy.coin.enums.OrderType;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.engine.Fill;
+import com.mjy.coin.engine.FillBuffer;
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderBookRecovery;
 import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+import static com.mjy.coin.enums.OrderStatus.CANCELED;
 import static com.mjy.coin.enums.OrderStatus.COMPLETED;
-import static com.mjy.coin.enums.OrderStatus.PENDING;
-import static com.mjy.coin.enums.OrderType.BUY;
-import static com.mjy.coin.enums.OrderType.SELL;
-import static com.mjy.coin.util.CommonUtil.generateUniqueKey;
 
 @Component
 public class PendingOrderMatcherServiceV2 implements PendingOrderMatcherService {
     private final MasterCoinOrderRepository masterCoinOrderRepository;
-    private final OrderBookService orderBookService;
     private final OrderService orderService;
     private final RedisService redisService;
-    private final KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate;
+    private final JournalService journalService;
+    private final ReplicaService replicaService;
+    private final KafkaTransactionService kafkaTransactionService;
+    private final DepthStreamService depthStreamService;
+    private final MatchMetricsService matchMetricsService;
+    private final OrderIdService orderIdService;
+    private final KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate;
     private final KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate;
 
     public PendingOrderMatcherServiceV2(MasterCoinOrderRepository masterCoinOrderRepository, OrderService orderService,
-                                        OrderBookService orderBookService, RedisService redisService,
-                                        @Qualifier("matchListKafkaTemplate") KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate,
+                                        RedisService redisService, JournalService journalService, ReplicaService replicaService,
+                                        KafkaTransactionService kafkaTransactionService, DepthStreamService depthStreamService,
+                                        MatchMetricsService matchMetricsService, OrderIdService orderIdService,
+                                        @Qualifier("matchListKafkaTemplate") KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate,
                                         @Qualifier("priceVolumeMapKafkaTemplate") KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate) {
         this.masterCoinOrderRepository = masterCoinOrderRepository;
-        this.orderBookService = orderBookService;
         this.orderService = orderService;
         this.redisService = redisService;
+        this.journalService = journalService;
+        this.replicaService = replicaService;
+        this.kafkaTransactionService = kafkaTransactionService;
+        this.depthStreamService = depthStreamService;
+        this.matchMetricsService = matchMetricsService;
+        this.orderIdService = orderIdService;
         this.matchListKafkaTemplate = matchListKafkaTemplate;
         this.priceVolumeMapKafkaTemplate = priceVolumeMapKafkaTemplate;
     }
@@ -42,186 +61,282 @@ public class PendingOrderMatcherServiceV2 implements PendingOrderMatcherService
     @Override
     public void matchOrders(CoinOrderDTO order) {
         String key = order.getCoinName() + "-" + order.getMarketName();
+        matchBatch(key, List.of(order));
+    }
 
-        // 반대 주문 가져오기 : 매수 주문이면 매도 큐를, 매도 주문이면 매수 큐를 가져온다.
-        PriorityQueue<CoinOrderDTO> oppositeOrdersQueue = getOppositeOrdersQueue(order, key);
+    // 한 번의 poll로 받은 같은 마켓 주문들을 차례로 체결하고 저널 커밋, Redis 반영, Kafka 전송은 배치당 한 번만 한다
+    @Override
+    public CompletableFuture<Void> matchBatch(String key, List<CoinOrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        // 체결 처리 로직 시작
-        while (!oppositeOrdersQueue.isEmpty()) {
-            // 반대 주문의 최우선 데이터 가져오기
-            CoinOrderDTO oppositeOrder = oppositeOrdersQueue.peek();
+        OrderBook orderBook = orderService.getOrderBook(key);
+        MarketJournal journal = journalService.getJournal(key);
+        RedisOrderBatch batch = new RedisOrderBatch();
+        batch.setLeaseToken(replicaService.getLeaseToken());
+        MatchMetricsService.MarketMetrics metrics = matchMetricsService.forMarket(key);
+        long matchStartedAt = System.nanoTime();
+        long matchStartedAtMillis = System.currentTimeMillis();
 
-            // 현재 주문과 반대 주문의 가격 및 수량 정보
-            if (!canMatchOrders(order, oppositeOrder)) break;
+        for (CoinOrderDTO order : orders) {
+            metrics.recordQueueTime(order.getSourceTimestamp(), matchStartedAtMillis);
 
-            //남은 수량
-            BigDecimal remainingQuantity = calculateRemainingQuantity(order, oppositeOrder);
+            // 1. 접수 기록 : 체결 전 원래 수량으로 저널에 남긴다
+            if (journal != null) {
+                journal.appendOrder(order);
+            }
 
-            //실제 체결 되는 가격은 반대 주문 가격 설정
-            BigDecimal executionPrice = getExecutionPrice(oppositeOrder);
+            if (order.isStopOrder()) {
+                // 발동 전 스탑 주문은 호가가 아닌 스탑 목록에 두고 STOP:ORDER에 저장
+                orderBook.addStop(order);
+                batch.addStop(order);
+            } else {
+                matchOrder(orderBook, journal, order, batch, metrics);
+            }
 
-            if (isCompleteMatch(remainingQuantity)) {
-                processCompleteMatch(order, oppositeOrder, key, oppositeOrdersQueue, executionPrice);
-            } else if (isOversizeMatch(remainingQuantity)) {
-                processOversizeMatch(order, oppositeOrder, key, oppositeOrdersQueue, remainingQuantity, executionPrice);
-            } else if (isUndersizedMatch(remainingQuantity)) {
-                processUndersizedMatch(order, oppositeOrder, key, oppositeOrdersQueue, remainingQuantity, executionPrice);
-                break; // 나의 주문은 더 이상 처리할 수 없으므로 종료
+            // 마지막 체결가가 넘어선 스탑 주문만 하나씩 꺼내 같은 방식으로 체결 (발동 순서는 저널 재생과 동일)
+            CoinOrderDTO triggered;
+            while ((triggered = orderBook.pollTriggeredStop()) != null) {
+                batch.removeStop(triggered.getUuid());
+                matchOrder(orderBook, journal, triggered, batch, metrics);
             }
-        }
 
-        // 남은 주문 정보 그대로 미체결 입력
-        if (order.getOrderStatus() == PENDING && order.getOrderPrice().compareTo(BigDecimal.ZERO) > 0) {
-            redisService.insertOrderInRedis(key, PENDING, order);
+            // 반영한 오프셋 (스냅샷에 남겨 Kafka 트랜잭션 모드 복구 기준으로 사용)
+            orderBook.setSourceOffset(order.getSourceOffset());
 
-            //미체결 주문 kafka 전송
-            sendPendingOrderToKafka(order);
-
-            if (order.getOrderType() == OrderType.BUY) {
-                System.out.println("Adding buy order to queue: " + order);
-                orderService.addBuyOrder(key, order);
-                orderBookService.updateOrderBook(key, order, true, true);
-            } else if (order.getOrderType() == OrderType.SELL) {
-                System.out.println("Adding sell order to queue: " + order);
-                orderService.addSellOrder(key, order);
-                orderBookService.updateOrderBook(key, order, false, true);
-            }
+            // 복제 모드 : 일정 오프셋마다 오더북 체크섬 기록
+            replicaService.afterOrder(key, orderBook, order.getSourceOffset());
         }
-    }
 
-    public BigDecimal getExecutionPrice(CoinOrderDTO oppositeOrder) {
-        return oppositeOrder.getOrderPrice();
-    }
+        metrics.recordMatchTime(System.nanoTime() - matchStartedAt);
+        metrics.updateBook(orderBook);
 
-    public BigDecimal calculateRemainingQuantity(CoinOrderDTO order, CoinOrderDTO oppositeOrder) {
-        return order.getCoinAmount().subtract(oppositeOrder.getCoinAmount());
-    }
+        // 6. 배치 커밋 : 커밋이 끝나면 배치 전체가 확정된 것으로 보고 Redis 반영과 Kafka 전송은 저널 뒤에서 진행
+        if (journal != null) {
+            journal.commit();
+            batch.setAppliedSequence(journal.getLastSequence());
+        }
 
-    public boolean isCompleteMatch(BigDecimal remainingQuantity) {
-        return remainingQuantity.compareTo(BigDecimal.ZERO) == 0;
+        // L2 호가 증분 : 배치 동안 잔량이 바뀐 가격 레벨을 레벨당 한 번만 (체결 목록과 같이 보낸다)
+        OrderBookDepthDTO depth = depthStreamService.captureChanges(key, orderBook);
+
+        // 7. 배치의 Redis 변경을 한 번에 원자적으로 반영하고 체결 목록 전송, 모두 끝나면 완료
+        //    대기(standby) 인스턴스는 반영을 보관만 하고 바로 완료 (승격 시 커밋되지 않은 오프셋만 실행)
+        //    Kafka 트랜잭션 모드는 전송을 모아 두고 바로 완료 (리스너 스레드가 오프셋과 같은 트랜잭션으로 전송)
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        long lastOffset = orders.get(orders.size() - 1).getSourceOffset();
+        // Redis 반영이 실패하면 예외를 던져 persist 레인이 같은 배치를 다시 시도한다
+        // 임대를 잃어 거부되면 대기 인스턴스처럼 완료한다 (반영은 운영을 이어받은 인스턴스 몫, persist 레인은 버린다)
+        Runnable downstream = () -> {
+            long redisStartedAt = System.nanoTime();
+            try {
+                redisService.commitOrderBatch(key, batch);
+            } catch (LeaseLostException e) {
+                flushed.complete(null);
+                throw e;
+            }
+            metrics.recordRedisTime(System.nanoTime() - redisStartedAt);
+            if (batch.getAppliedSequence() >= 0) {
+                journalService.setAppliedSequence(key, batch.getAppliedSequence());
+            }
+            if (kafkaTransactionService.isTransactional()) {
+                kafkaTransactionService.send(key, () -> publishMatches(key, batch, depth, metrics));
+                flushed.complete(null);
+                return;
+            }
+            publishMatches(key, batch, depth, metrics).whenComplete((result, e) -> {
+                if (e != null) {
+                    flushed.completeExceptionally(e);
+                } else {
+                    flushed.complete(null);
+                }
+            });
+        };
+        boolean executed = replicaService.executeSideEffects(key, lastOffset, () -> {
+            try {
+                journalService.executeDownstream(key, downstream);
+            } catch (Exception e) {
+                // 저널 비활성화 : 다시 반영할 기록이 없으므로 실패로 끝낸다
+                flushed.completeExceptionally(e);
+            }
+        });
+        if (!executed) {
+            flushed.complete(null);
+        }
+        return flushed;
     }
 
-    public boolean isOversizeMatch(BigDecimal remainingQuantity) {
-        return remainingQuantity.compareTo(BigDecimal.ZERO) > 0;
-    }
+    private void matchOrder(OrderBook orderBook, MarketJournal journal, CoinOrderDTO order, RedisOrderBatch batch,
+                            MatchMetricsService.MarketMetrics metrics) {
+        MarketScale scale = orderBook.getScale();
 
-    public boolean isUndersizedMatch(BigDecimal remainingQuantity) {
-        return remainingQuantity.compareTo(BigDecimal.ZERO) < 0;
-    }
+        // 2. 체결 : 오더북 코어에서 틱/랏 단위로 체결하고 남은 수량은 호가에 등록 (객체 할당 없음)
+        FillBuffer fills = orderBook.match(order);
 
-    public boolean canMatchOrders(CoinOrderDTO order, CoinOrderDTO oppositeOrder) {
-        BigDecimal currentOrderPrice = order.getOrderPrice();
-        BigDecimal oppositeOrderPrice = oppositeOrder.getOrderPrice();
+        // 3. 체결 기록 : 체결 버퍼는 다음 체결에서 재사용되므로 바로 기록하고 반영한다
+        if (journal != null) {
+            for (int i = 0; i < fills.size(); i++) {
+                journal.appendFill(order, fills.get(i));
+            }
+        }
 
-        // 매수 가격이 매도 가격보다 크거나 같으면 true, 매도 가격이 매수 가격보다 작거나 같으면 true
-        boolean isPriceMatching =
-                (order.getOrderType() == BUY && currentOrderPrice.compareTo(oppositeOrderPrice) >= 0) ||
-                        (order.getOrderType() == SELL && currentOrderPrice.compareTo(oppositeOrderPrice) <= 0);
+        // 4. 체결 반영 : 체결 버퍼를 읽어 주문 상태 갱신, Redis 변경은 배치에 모은다
+        for (int i = 0; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            metrics.recordFill(fill.isTakerCompleted(), fill.isMakerCompleted());
+            applyFill(orderBook.getKey(), scale, order, fill, i, fill.getMatchedAt(), batch);
+        }
 
-        // 주문 수량이 0보다 작거나 같고 반대 주문과 가격이 맞지 않을때 벗어난다.
-        return isPriceMatching && order.getCoinAmount().compareTo(BigDecimal.ZERO) > 0;
+        // 5. 남은 주문 정보 그대로 미체결 입력
+        if (order.getQuantityLots() > 0) {
+            order.setCoinAmount(scale.toQuantity(order.getQuantityLots()));
+            if (orderBook.getOrder(order.getUuid()) == order) {
+                batch.addPending(order);
+
+                //미체결 주문 kafka 전송
+                sendPendingOrderToKafka(order);
+            } else {
+                // 시장가/IOC/FOK의 남은 수량과 거부된 POST_ONLY는 호가와 Redis에 남기지 않고 취소
+                order.setOrderStatus(CANCELED);
+            }
+        }
     }
 
-    public PriorityQueue<CoinOrderDTO> getOppositeOrdersQueue(CoinOrderDTO order, String key) {
-        return (order.getOrderType() == BUY)
-                ? orderService.getSellOrderQueue(key)
-                : orderService.getBuyOrderQueue(key);
+    // 전송 시작부터 모든 전송이 완료(ack)될 때까지를 기록
+    private CompletableFuture<Void> publishMatches(String key, RedisOrderBatch batch, OrderBookDepthDTO depth,
+                                                   MatchMetricsService.MarketMetrics metrics) {
+        long publishStartedAt = System.nanoTime();
+        CompletableFuture<Void> published = publishMatches(key, batch, depth);
+        published.whenComplete((result, e) -> metrics.recordPublishTime(System.nanoTime() - publishStartedAt));
+        return published;
     }
 
-    public void updateOrderWithMatch(CoinOrderDTO order, CoinOrderDTO oppositeOrder, BigDecimal executionPrice) {
-        order.setOrderStatus(COMPLETED);
-        order.setMatchedAt(LocalDateTime.now());
-        order.setExecutionPrice(executionPrice);
-        order.setMatchIdx(order.getUuid() + "|" + oppositeOrder.getUuid());
+    // 체결마다 가격/수량을 한 건씩 만든다
+    private CompletableFuture<Void> publishMatches(String key, RedisOrderBatch batch, OrderBookDepthDTO depth) {
+        //체결이 없어도 호가가 바뀌었으면 L2 증분은 보낸다
+        CompletableFuture<?> depthSent = depthStreamService.publish(key, depth);
+        return CompletableFuture.allOf(depthSent, publishTrades(key, batch.getTrades()));
     }
 
-    private void completeOrders(String key, CoinOrderDTO order, CoinOrderDTO oppositeOrder) {
-        redisService.insertOrderInRedis(key, COMPLETED, order);
-        redisService.insertOrderInRedis(key, COMPLETED, oppositeOrder);
-    }
+    private CompletableFuture<Void> publishTrades(String key, List<TradeDTO> trades) {
+        if (trades.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-    private void removeOppositePendingOrder(String key, String uuid, PriorityQueue<CoinOrderDTO> queue) {
-        redisService.deleteHashOps(PENDING + ":ORDER:" + key, uuid);
-        queue.poll();
+        List<PriceVolumeDTO> priceVolumeList = new ArrayList<>(trades.size());
+        for (TradeDTO trade : trades) {
+            priceVolumeList.add(new PriceVolumeDTO(trade));
+        }
+
+        //배치 동안 쌓인 가격과 볼륨 리스트 kafka로 전달(실시간 차트에서 사용)
+        CompletableFuture<?> priceVolume = priceVolumeMapKafkaTemplate.send("Price-Volume", Map.of(key, priceVolumeList));
+        //배치 동안 쌓인 체결 리스트 kafka로 전달(웹소켓 체결 목록에서 사용)
+        CompletableFuture<?> match = matchListKafkaTemplate.send("Match-List", Map.of(key, trades));
+        return CompletableFuture.allOf(priceVolume, match);
     }
 
-    public void processCompleteMatch(CoinOrderDTO order, CoinOrderDTO oppositeOrder, String key,
-                                     PriorityQueue<CoinOrderDTO> queue, BigDecimal executionPrice) {
-        System.out.println("완전체결 : " + " 주문 : " + order + " 반대 주문 : " + oppositeOrder);
+    /**
+     * 재시작 복구 중 Redis에 반영되지 않은 저널 구간(appliedSequence 이후)의 변경을 batch에 모으는 재생 리스너 (초기화 스레드).
+     * 주문 처리와 같은 규칙으로 체결/미체결/스탑 변경을 만들고, 체결 시각은 저널에 기록된 주문 접수 시각을 쓴다.
+     */
+    public OrderBookRecovery.Listener replayListener(OrderBook orderBook, long appliedSequence, RedisOrderBatch batch) {
+        String key = orderBook.getKey();
+        MarketScale scale = orderBook.getScale();
+        return new OrderBookRecovery.Listener() {
+            @Override
+            public void onMatched(long sequence, long timestamp, CoinOrderDTO order, FillBuffer fills) {
+                if (sequence <= appliedSequence) {
+                    return;
+                }
+                for (int i = 0; i < fills.size(); i++) {
+                    applyFill(key, scale, order, fills.get(i), i, timestamp, batch);
+                }
+                if (order.getQuantityLots() > 0 && orderBook.getOrder(order.getUuid()) == order) {
+                    batch.addPending(order);
+                }
+            }
 
-        // 주문과 반대주문 모두 체결로 처리
-        updateOrderWithMatch(order, oppositeOrder, executionPrice);
-        updateOrderWithMatch(oppositeOrder, order, executionPrice);
+            @Override
+            public void onStopAdded(long sequence, CoinOrderDTO order) {
+                if (sequence > appliedSequence) {
+                    batch.addStop(order);
+                }
+            }
 
-        // 두 주문 모두 체결 주문으로 변경
-        completeOrders(key, order, oppositeOrder);
+            @Override
+            public void onStopTriggered(long sequence, CoinOrderDTO order) {
+                if (sequence > appliedSequence) {
+                    batch.removeStop(order.getUuid());
+                }
+            }
 
-        // 반대 미체결 주문 제거
-        removeOppositePendingOrder(key, oppositeOrder.getUuid(), queue);
+            @Override
+            public void onCanceled(long sequence, CoinOrderDTO order) {
+                if (sequence > appliedSequence) {
+                    batch.removePending(order.getUuid());
+                    if (order.isStopOrder()) {
+                        batch.removeStop(order.getUuid());
+                    }
+                }
+            }
+        };
     }
 
-    private void processUndersizedMatch(CoinOrderDTO order, CoinOrderDTO oppositeOrder, String key,
-                                        PriorityQueue<CoinOrderDTO> queue, BigDecimal remainingQuantity,
-                                        BigDecimal executionPrice) {
-        System.out.println("부분체결 (주문이 반대 주문보다 작다) : " + " 주문 : " + order + " 반대 주문 : " + oppositeOrder);
-
-        // 나의 주문 모두 체결 처리
-        updateOrderWithMatch(order, oppositeOrder, executionPrice);
+    /**
+     * replayListener로 모은 변경을 Redis에 반영하고 체결 목록 전송 (초기화 스레드, 주문 처리 시작 전).
+     * Kafka 트랜잭션 모드에서는 커밋된 오프셋까지의 체결 목록이 이미 트랜잭션으로 나갔으므로 Redis만 반영한다.
+     */
+    public void commitReplayed(String key, RedisOrderBatch batch) {
+        redisService.commitOrderBatch(key, batch);
+        if (batch.getAppliedSequence() >= 0) {
+            journalService.setAppliedSequence(key, batch.getAppliedSequence());
+        }
+        if (!kafkaTransactionService.isTransactional()) {
+            publishTrades(key, batch.getTrades()).join();
+        }
+    }
 
-        // 반대 주문 부분 체결 처리
-        String previousUUID = oppositeOrder.getUuid();
-        oppositeOrder.setUuid(generateUniqueKey("Order"));
-        oppositeOrder.setCoinAmount(order.getCoinAmount());
+    private void applyFill(String key, MarketScale scale, CoinOrderDTO order, Fill fill, int fillIndex, long matchedAtMillis,
+                           RedisOrderBatch batch) {
+        CoinOrderDTO oppositeOrder = fill.getMakerOrder();
+        BigDecimal executionPrice = scale.toPrice(fill.getPriceTicks());
+        BigDecimal quantity = scale.toQuantity(fill.getQuantityLots());
+        LocalDateTime matchedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(matchedAtMillis), ZoneId.systemDefault());
 
-        updateOrderWithMatch(oppositeOrder, order, executionPrice);
+        // 체결 id(matchIdx)는 taker 주문의 체결 순번으로 정한다
+        String matchIdx = orderIdService.newMatchId(key, order, fillIndex + 1);
 
-        // 두 주문 모두 체결 주문으로 변경
-        completeOrders(key, order, oppositeOrder);
+        // 체결은 한 건만 기록 (부분 체결이어도 주문을 나누지 않고 원래 주문 uuid로 남긴다)
+        batch.addTrade(new TradeDTO(matchIdx, order, oppositeOrder, executionPrice, quantity, matchedAt));
 
-        // 반대 미체결 주문 제거
-        removeOppositePendingOrder(key, previousUUID, queue);
+        // 남은 수량이 없는 주문만 체결 상태로 변경
+        if (fill.isTakerCompleted()) {
+            updateOrderWithMatch(order, matchIdx, executionPrice, matchedAt);
+        }
 
-        // 남은 수량을 잔여 수량으로 설정
-        oppositeOrder.setOrderStatus(PENDING);
-        oppositeOrder.setUuid(previousUUID);
-        oppositeOrder.setCoinAmount(remainingQuantity);
-        oppositeOrder.setExecutionPrice(null);
-        oppositeOrder.setMatchIdx("");
+        if (fill.isMakerCompleted()) {
+            updateOrderWithMatch(oppositeOrder, matchIdx, executionPrice, matchedAt);
 
-        // 수정된 주문 다시 추가
-        redisService.insertOrderInRedis(key, PENDING, oppositeOrder);
-        queue.offer(oppositeOrder);
+            // 반대 미체결 주문 제거
+            batch.removePending(oppositeOrder.getUuid());
+        } else {
+            // 반대 주문 남은 수량으로 미체결 갱신
+            oppositeOrder.setCoinAmount(scale.toQuantity(fill.getMakerRemainingLots()));
+            batch.addPending(oppositeOrder);
 
-        //미체결 주문 kafka 전송
-        sendPendingOrderToKafka(oppositeOrder);
+            //미체결 주문 kafka 전송
+            sendPendingOrderToKafka(oppositeOrder);
+        }
     }
 
-    private void processOversizeMatch(CoinOrderDTO order, CoinOrderDTO oppositeOrder, String key,
-                                      PriorityQueue<CoinOrderDTO> queue, BigDecimal remainingQuantity,
-                                      BigDecimal executionPrice) {
-        System.out.println("부분체결 (주문이 반대 주문보다 크다) : " + " 주문 : " + order + " 반대 주문 : " + oppositeOrder);
-
-        // 반대 주문 모두 체결 처리
-        updateOrderWithMatch(oppositeOrder, order, executionPrice);
-
-        // 나의 주문 부분 체결 처리
-        String previousUUID = order.getUuid();
-        order.setUuid(generateUniqueKey("Order"));
-        order.setCoinAmount(oppositeOrder.getCoinAmount());
-
-        updateOrderWithMatch(order, oppositeOrder, executionPrice);
-
-        // 두 주문 모두 체결 주문으로 변경
-        completeOrders(key, order, oppositeOrder);
-
-        // 나의 주문 남은 수량을 잔여 수량으로 설정
-        order.setOrderStatus(PENDING);
-        order.setUuid(previousUUID);
-        order.setCoinAmount(remainingQuantity);
-        order.setExecutionPrice(null);
-
-        // 반대 미체결 주문 제거
-        removeOppositePendingOrder(key, oppositeOrder.getUuid(), queue);
+    // 체결 양쪽 주문은 같은 matchIdx를 가진다
+    public void updateOrderWithMatch(CoinOrderDTO order, String matchIdx,
+                                     BigDecimal executionPrice, LocalDateTime matchedAt) {
+        order.setOrderStatus(COMPLETED);
+        order.setMatchedAt(matchedAt);
+        order.setExecutionPrice(executionPrice);
+        order.setMatchIdx(matchIdx);
     }
 
     //미체결 주문 kafka 전송
@@ -1,16 +1,24 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.OrderBook;
 import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
 import com.mjy.coin.repository.coin.slave.SlaveCoinOrderRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
-import static com.mjy.coin.util.CommonUtil.generateUniqueKey;
+import static com.mjy.coin.enums.OrderStatus.CANCELED;
 
+@Slf4j
 @Component
 public class PendingOrderProcessorService {
 
@@ -20,6 +28,12 @@ public class PendingOrderProcessorService {
     private final MasterCoinOrderRepository masterCoinOrderRepository;
     private final SlaveCoinOrderRepository slaveCoinOrderRepository;
     private final RedisService redisService;
+    private final CoinInfoService coinInfoService;
+    private final JournalService journalService;
+    private final ReplicaService replicaService;
+    private final OrderDedupeService orderDedupeService;
+    private final DepthStreamService depthStreamService;
+    private final OrderIdService orderIdService;
 
     @Autowired
     public PendingOrderProcessorService(@Qualifier("pendingOrderMatcherServiceV2") PendingOrderMatcherService pendingOrderMatcherService,
@@ -27,41 +41,75 @@ public class PendingOrderProcessorService {
                                         SlaveCoinOrderRepository slaveCoinOrderRepository,
                                         OrderService orderService,
                                         OrderBookService orderBookService,
-                                        RedisService redisService) {
+                                        RedisService redisService,
+                                        CoinInfoService coinInfoService,
+                                        JournalService journalService,
+                                        ReplicaService replicaService,
+                                        OrderDedupeService orderDedupeService,
+                                        DepthStreamService depthStreamService,
+                                        OrderIdService orderIdService) {
         this.pendingOrderMatcherService = pendingOrderMatcherService;
         this.masterCoinOrderRepository = masterCoinOrderRepository;
         this.orderBookService = orderBookService;
         this.orderService = orderService;
         this.slaveCoinOrderRepository = slaveCoinOrderRepository;
         this.redisService = redisService;
+        this.coinInfoService = coinInfoService;
+        this.journalService = journalService;
+        this.replicaService = replicaService;
+        this.orderDedupeService = orderDedupeService;
+        this.depthStreamService = depthStreamService;
+        this.orderIdService = orderIdService;
     }
 
+    // 전역 락으로 모든 마켓의 주문을 하나씩 처리 (synchronized 모드)
     public synchronized void processOrder(CoinOrderDTO order) {
+        processOrderOnLane(order);
+    }
+
+    // synchronized 모드에서 주문 처리와 겹치지 않게 작업 실행 (오더북 스냅샷 등)
+    public synchronized <T> T callWithOrderLock(Callable<T> task) throws Exception {
+        return task.call();
+    }
+
+    // 마켓 레인 스레드에서 호출된다. 같은 마켓의 주문은 하나의 스레드에서만 처리되므로 락이 필요 없다.
+    public void processOrderOnLane(CoinOrderDTO order) {
         String key = order.getCoinName() + "-" + order.getMarketName();
 
-        order.setUuid(generateUniqueKey("Order"));
+        // 이미 반영한 오프셋이거나 같은 주문 요청 ID로 접수한 주문은 버린다 (Redis 조회 없음)
+        if (orderDedupeService.isDuplicate(key, orderService.getOrderBook(key), order)) {
+            log.debug("Duplicate order ignored {} at offset {}: {}", key, order.getSourceOffset(), order.getClientOrderId());
+            return;
+        }
+
+        // 취소 요청은 주문과 같은 레인에서 처리되므로 체결 중인 주문과 경합하지 않는다.
+        if (order.getOrderStatus() == CANCELED) {
+            cancelOrder(key, order);
+            orderBookService.publishDepth(key, orderService.getOrderBook(key));
+            return;
+        }
+
+        order.setUuid(orderIdService.newOrderId(key, order));
+        orderDedupeService.recordOrderId(key, order);
 
         try {
-            // Redis에서 해당 order UUID가 존재하는지 확인
-            String existingOrder = redisService.getHashOps("PENDING:ORDER:" + key, order.getUuid());
+            // 가격/수량을 마켓 자릿수 기준 long 값으로 한 번만 변환 (체결 루프는 long 연산만 사용)
+            coinInfoService.getMarketScale(key).applyTo(order);
 
-            // 주문이 존재하지 않을 경우에만 저장
-            if (existingOrder.isEmpty()) {
-//                redisService.insertOrderInRedis(key, PENDING, order);
+//            redisService.insertOrderInRedis(key, PENDING, order);
 //
-//                if (order.getOrderType() == OrderType.BUY) {
-//                    System.out.println("Adding buy order to queue: " + order);
-//                    orderService.addBuyOrder(key, order);
-//                    orderBookService.updateOrderBook(key, order, true, true);
-//                } else if (order.getOrderType() == OrderType.SELL) {
-//                    System.out.println("Adding sell order to queue: " + order);
-//                    orderService.addSellOrder(key, order);
-//                    orderBookService.updateOrderBook(key, order, false, true);
-//                }
-
-                // 주문 체결 시도
-                pendingOrderMatcherService.matchOrders(order);
-            }
+//            if (order.getOrderType() == OrderType.BUY) {
+//                System.out.println("Adding buy order to queue: " + order);
+//                orderService.addBuyOrder(key, order);
+//                orderBookService.updateOrderBook(key, order, true, true);
+//            } else if (order.getOrderType() == OrderType.SELL) {
+//                System.out.println("Adding sell order to queue: " + order);
+//                orderService.addSellOrder(key, order);
+//                orderBookService.updateOrderBook(key, order, false, true);
+//            }
+
+            // 주문 체결 시도
+            pendingOrderMatcherService.matchOrders(order);
 //
 //            CoinOrder orderEntity = CoinOrderMapper.toEntity(order);
 //
@@ -105,7 +153,135 @@ public class PendingOrderProcessorService {
 //            orderBookService.printOrderBook(key);
         } catch (Exception e) {
             // 예외 처리: 로그를 기록하거나 필요한 조치를 수행
-            System.err.println("Failed to save order: " + e.getMessage());
+            log.error("Failed to save order {}", key, e);
+        }
+        orderBookService.publishDepth(key, orderService.getOrderBook(key));
+    }
+
+    // 전역 락으로 한 번의 poll로 받은 주문을 처리 (synchronized 모드)
+    public synchronized CompletableFuture<Void> processOrders(String key, List<CoinOrderDTO> orders) {
+        return processOrdersOnLane(key, orders);
+    }
+
+    // 같은 마켓 주문 묶음을 한 번의 체결 패스로 처리 (레인 스레드에서 호출)
+    // 취소 요청을 만나면 앞서 모인 주문을 먼저 체결해 도착 순서를 지킨다. 반환된 Future는 모든 반영이 끝나면 완료된다.
+    public CompletableFuture<Void> processOrdersOnLane(String key, List<CoinOrderDTO> orders) {
+        List<CompletableFuture<Void>> flushes = new ArrayList<>();
+        List<CoinOrderDTO> pending = new ArrayList<>(orders.size());
+        OrderBook orderBook = orderService.getOrderBook(key);
+        int duplicates = 0;
+
+        for (CoinOrderDTO order : orders) {
+            // 오더북 오프셋은 체결 패스가 끝나야 올라가지만 배치 안의 오프셋은 계속 커지므로 배치 시작 시점 값과 비교해도 된다
+            if (orderDedupeService.isDuplicate(key, orderBook, order)) {
+                duplicates++;
+                continue;
+            }
+            if (order.getOrderStatus() == CANCELED) {
+                flushBatch(key, pending, flushes);
+                flushes.add(cancelOrder(key, order));
+                continue;
+            }
+
+            order.setUuid(orderIdService.newOrderId(key, order));
+            orderDedupeService.recordOrderId(key, order);
+            try {
+                coinInfoService.getMarketScale(key).applyTo(order);
+                pending.add(order);
+            } catch (Exception e) {
+                log.error("Failed to save order {}", key, e);
+            }
+        }
+        flushBatch(key, pending, flushes);
+
+        // 조회용 상위 호가는 poll 묶음당 한 번만 다시 만든다
+        orderBookService.publishDepth(key, orderBook);
+
+        if (duplicates > 0) {
+            log.debug("Ignored {} duplicate orders {} up to offset {}", duplicates, key, orders.get(orders.size() - 1).getSourceOffset());
+        }
+        return CompletableFuture.allOf(flushes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void flushBatch(String key, List<CoinOrderDTO> pending, List<CompletableFuture<Void>> flushes) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            flushes.add(pendingOrderMatcherService.matchBatch(key, new ArrayList<>(pending)));
+        } catch (Exception e) {
+            log.error("Failed to match order batch {}", key, e);
+        }
+        pending.clear();
+    }
+
+    // 취소 반영(Redis 미체결/스탑 주문 삭제)이 끝나면 완료되는 Future 반환, 취소할 주문이 없으면 바로 완료
+    private CompletableFuture<Void> cancelOrder(String key, CoinOrderDTO cancelRequest) {
+        try {
+            // uuid 없이 주문 요청 ID로 들어온 취소는 최근 접수한 본인 주문에서 찾는다
+            String uuid = cancelRequest.getUuid();
+            if ((uuid == null || uuid.isEmpty()) && cancelRequest.getClientOrderId() != null) {
+                uuid = orderDedupeService.findOrderId(key, cancelRequest.getMemberUuid(), cancelRequest.getClientOrderId());
+            }
+            CoinOrderDTO canceledOrder = uuid == null || uuid.isEmpty() ? null : orderService.cancelOrder(key, uuid, cancelRequest.getMemberUuid());
+
+            OrderBook orderBook = orderService.getOrderBook(key);
+            orderBook.setSourceOffset(cancelRequest.getSourceOffset());
+
+            if (canceledOrder == null) {
+                log.info("Cancel ignored, no pending order: {}", uuid == null ? cancelRequest.getClientOrderId() : uuid);
+                replicaService.afterOrder(key, orderBook, cancelRequest.getSourceOffset());
+                return CompletableFuture.completedFuture(null);
+            }
+
+            canceledOrder.setOrderStatus(CANCELED);
+
+            // 미체결 주문 제거 (호가 잔량은 오더북에서 함께 차감됨), 스탑 주문은 발동 전일 수 있으므로 STOP:ORDER에서도 제거
+            RedisOrderBatch batch = new RedisOrderBatch();
+            batch.setLeaseToken(replicaService.getLeaseToken());
+            batch.removePending(canceledOrder.getUuid());
+            if (canceledOrder.isStopOrder()) {
+                batch.removeStop(canceledOrder.getUuid());
+            }
+
+            MarketJournal journal = journalService.getJournal(key);
+            if (journal != null) {
+                journal.appendCancel(canceledOrder.getUuid(), cancelRequest.getSourceOffset());
+                journal.commit();
+                batch.setAppliedSequence(journal.getLastSequence());
+            }
+
+            // 체결 배치와 같이 대기 인스턴스는 보관만 하고 바로 완료, 임대를 잃어 거부되어도 완료 (persist 레인은 버린다)
+            CompletableFuture<Void> flushed = new CompletableFuture<>();
+            boolean executed = replicaService.executeSideEffects(key, cancelRequest.getSourceOffset(), () -> {
+                try {
+                    journalService.executeDownstream(key, () -> {
+                        try {
+                            redisService.commitOrderBatch(key, batch);
+                        } catch (LeaseLostException e) {
+                            flushed.complete(null);
+                            throw e;
+                        }
+                        if (batch.getAppliedSequence() >= 0) {
+                            journalService.setAppliedSequence(key, batch.getAppliedSequence());
+                        }
+                        flushed.complete(null);
+                    });
+                } catch (Exception e) {
+                    // 저널 비활성화 : 다시 반영할 기록이 없으므로 실패로 끝낸다
+                    flushed.completeExceptionally(e);
+                }
+            });
+            if (!executed) {
+                flushed.complete(null);
+            }
+            // 취소로 줄어든 호가 레벨 L2 증분 (Redis 반영 뒤 같은 persist 레인에서 전송)
+            depthStreamService.publishOnDownstream(key, cancelRequest.getSourceOffset(), depthStreamService.captureChanges(key, orderBook));
+            replicaService.afterOrder(key, orderBook, cancelRequest.getSourceOffset());
+            return flushed;
+        } catch (Exception e) {
+            log.error("Failed to cancel order {}", key, e);
+            return CompletableFuture.completedFuture(null);
         }
     }
 }
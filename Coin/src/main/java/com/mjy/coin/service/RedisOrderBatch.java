@@ -0,0 +1,105 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.TradeDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 들어온 주문을 처리하면서 생긴 Redis 변경(체결 저장, 미체결 삭제/저장, 스탑 주문 저장/삭제)을 모아 둔다.
+ * RedisService.commitOrderBatch가 Lua 스크립트 한 번으로 반영하므로 왕복은 한 번이고
+ * 다른 조회 쪽에서 체결이 절반만 반영된 상태를 볼 수 없다.
+ * 반영한 저널 sequence도 같은 호출로 남겨 재시작 시 Redis에 반영되지 않은 저널 구간부터 다시 반영한다.
+ */
+public class RedisOrderBatch {
+    private final List<TradeDTO> trades = new ArrayList<>();
+    private final List<String> removedPendingUuids = new ArrayList<>();
+    private final List<CoinOrderDTO> pendingOrders = new ArrayList<>();
+    private final List<CoinOrderDTO> stopOrders = new ArrayList<>();
+    private final List<String> removedStopUuids = new ArrayList<>();
+    private long appliedSequence = -1;
+    private boolean replaceOpenOrders;
+    private String leaseToken;
+
+    // 체결 저장 (COMPLETED:TRADE), 체결마다 한 건
+    public void addTrade(TradeDTO trade) {
+        trades.add(trade);
+    }
+
+    // 모두 체결된 주문을 미체결 목록에서 삭제 (PENDING:ORDER), 같은 배치에서 저장/갱신한 주문이면 저장도 취소한다
+    // (스크립트는 삭제를 저장보다 먼저 하므로 남겨 두면 삭제된 주문이 다시 저장된다)
+    public void removePending(String uuid) {
+        pendingOrders.removeIf(order -> order.getUuid().equals(uuid));
+        removedPendingUuids.add(uuid);
+    }
+
+    // 미체결 주문 저장/갱신 (PENDING:ORDER), 이후 체결에서 잔량이 바뀌므로 현재 상태를 복사해 둔다
+    public void addPending(CoinOrderDTO order) {
+        pendingOrders.add(new CoinOrderDTO(order));
+    }
+
+    // 발동 전 스탑 주문 저장 (STOP:ORDER)
+    public void addStop(CoinOrderDTO order) {
+        stopOrders.add(new CoinOrderDTO(order));
+    }
+
+    // 발동되거나 취소된 스탑 주문 삭제 (STOP:ORDER), 같은 배치에서 저장한 주문이면 저장을 취소한다
+    public void removeStop(String uuid) {
+        if (!stopOrders.removeIf(order -> order.getUuid().equals(uuid))) {
+            removedStopUuids.add(uuid);
+        }
+    }
+
+    // 이 배치까지 반영한 마지막 저널 sequence (APPLIED:SEQUENCE), -1이면 남기지 않는다
+    public void setAppliedSequence(long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+
+    // 기존 미체결/스탑 주문을 모두 지우고 배치의 주문으로 교체 (재시작 시 반영되지 않은 구간을 다시 만들 수 없을 때)
+    public void replaceOpenOrders() {
+        this.replaceOpenOrders = true;
+    }
+
+    // 반영하는 운영 인스턴스의 임대 값 (복제 모드), Redis의 임대가 이 값이 아니면 스크립트가 반영하지 않는다
+    public void setLeaseToken(String leaseToken) {
+        this.leaseToken = leaseToken;
+    }
+
+    public List<TradeDTO> getTrades() {
+        return trades;
+    }
+
+    public List<String> getRemovedPendingUuids() {
+        return removedPendingUuids;
+    }
+
+    public List<CoinOrderDTO> getPendingOrders() {
+        return pendingOrders;
+    }
+
+    public List<CoinOrderDTO> getStopOrders() {
+        return stopOrders;
+    }
+
+    public List<String> getRemovedStopUuids() {
+        return removedStopUuids;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public boolean isReplaceOpenOrders() {
+        return replaceOpenOrders;
+    }
+
+    public String getLeaseToken() {
+        return leaseToken;
+    }
+
+    public boolean isEmpty() {
+        return trades.isEmpty() && removedPendingUuids.isEmpty() && pendingOrders.isEmpty()
+                && stopOrders.isEmpty() && removedStopUuids.isEmpty() && !replaceOpenOrders;
+    }
+}
@@ -1,15 +1,17 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.TradeDTO;
 import com.mjy.coin.enums.OrderStatus;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import static com.mjy.coin.enums.OrderStatus.COMPLETED;
@@ -17,6 +19,81 @@ import static com.mjy.coin.enums.OrderStatus.PENDING;
 
 @Component
 public class RedisService {
+    // KEYS[1] : PENDING:ORDER:{key}, KEYS[2] : COMPLETED:TRADE:{key}, KEYS[3] : STOP:ORDER:{key}, KEYS[4] : APPLIED:SEQUENCE:{key},
+    // KEYS[5] : LAST:PRICE:{key}, KEYS[6] : ENGINE:LEASE
+    // ARGV : [체결 수, 미체결 삭제 수, 스탑 저장 수, 스탑 삭제 수, 미체결/스탑 전체 교체(1/0), 반영한 저널 sequence(없으면 빈 문자열),
+    //         마지막 체결가(체결이 없으면 빈 문자열), 임대 값(복제 모드가 아니면 빈 문자열),
+    //         (체결 id, 체결 json)..., 삭제 uuid..., (uuid, 스탑 json)..., 스탑 삭제 uuid..., (uuid, 미체결 json)...]
+    private static final RedisScript<Long> COMMIT_ORDER_BATCH_SCRIPT = new DefaultRedisScript<>("""
+            local trades = tonumber(ARGV[1])
+            local removed = tonumber(ARGV[2])
+            local stops = tonumber(ARGV[3])
+            local removedStops = tonumber(ARGV[4])
+            if ARGV[8] ~= '' and redis.call('GET', KEYS[6]) ~= ARGV[8] then
+                return -1
+            end
+            if ARGV[5] == '1' then
+                redis.call('DEL', KEYS[1], KEYS[3])
+            end
+            if ARGV[6] ~= '' then
+                redis.call('SET', KEYS[4], ARGV[6])
+            end
+            if ARGV[7] ~= '' then
+                redis.call('SET', KEYS[5], ARGV[7])
+            end
+            local i = 9
+            for _ = 1, trades do
+                redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+                i = i + 2
+            end
+            for _ = 1, removed do
+                redis.call('HDEL', KEYS[1], ARGV[i])
+                i = i + 1
+            end
+            for _ = 1, stops do
+                redis.call('HSET', KEYS[3], ARGV[i], ARGV[i + 1])
+                i = i + 2
+            end
+            for _ = 1, removedStops do
+                redis.call('HDEL', KEYS[3], ARGV[i])
+                i = i + 1
+            end
+            while i < #ARGV do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                i = i + 2
+            end
+            return trades + removed
+            """, Long.class);
+
+    // 임대 값이 내 것일 때만 만료 시간 연장 (다른 인스턴스가 이미 가져간 임대는 건드리지 않는다)
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    // 해시 필드가 ARGV[2]일 때만 ARGV[3]으로 변경 (ARGV[2]가 빈 문자열이면 필드가 없을 때, ARGV[3]이 빈 문자열이면 삭제)
+    private static final RedisScript<Long> COMPARE_AND_SET_HASH_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], ARGV[1])
+            if current == false then
+                current = ''
+            end
+            if current ~= ARGV[2] then
+                return 0
+            end
+            if ARGV[3] == '' then
+                redis.call('HDEL', KEYS[1], ARGV[1])
+            else
+                redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    private static final String APPLIED_SEQUENCE_PREFIX = "APPLIED:SEQUENCE:";
+    private static final String LAST_PRICE_PREFIX = "LAST:PRICE:";
+    private static final String ENGINE_LEASE_KEY = "ENGINE:LEASE";
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final ConvertService convertService;
 
@@ -56,6 +133,23 @@ public class RedisService {
         redisTemplate.expire(key, timeout, TimeUnit.MILLISECONDS);
     }
 
+    // 임대 획득 : 키가 없을 때만 값 설정 (SET NX PX)
+    public boolean tryAcquireLease(String key, String value, Duration duration) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, duration));
+    }
+
+    // 임대 연장 : 현재 값이 value일 때만 만료 시간 갱신
+    public boolean renewLease(String key, String value, Duration duration) {
+        Long renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(key), value, String.valueOf(duration.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+
+    // 해시 필드 compare-and-set (마켓 소유권 등), expected/value가 빈 문자열이면 필드 없음을 뜻한다
+    public boolean compareAndSetHashOps(String key, String hashKey, String expected, String value) {
+        Long updated = redisTemplate.execute(COMPARE_AND_SET_HASH_SCRIPT, List.of(key), hashKey, expected, value);
+        return updated != null && updated == 1;
+    }
+
     public void setHashOps(String key, Map<String, String> data) {
         HashOperations<String, Object, Object> values = redisTemplate.opsForHash();
         values.putAll(key, data);
@@ -69,8 +163,10 @@ public class RedisService {
     }
 
     public String getHashOps(String key, String hashKey) {
+        // HEXISTS + HGET 대신 HGET 한 번으로 조회 (없으면 null)
         HashOperations<String, Object, Object> values = redisTemplate.opsForHash();
-        return Boolean.TRUE.equals(values.hasKey(key, hashKey)) ? (String) redisTemplate.opsForHash().get(key, hashKey) : "";
+        Object value = values.get(key, hashKey);
+        return value == null ? "" : (String) value;
     }
 
     public Map<String, String> getAllHashOps(String key) {
@@ -110,6 +206,12 @@ public class RedisService {
 
             // 3. 필요한 데이터 업데이트
             orderDataMap.put("orderStatus", String.valueOf(order.getOrderStatus()));
+        if (order.getExecutionType() != null) {
+            orderDataMap.put("executionType", String.valueOf(order.getExecutionType()));
+        }
+        if (order.isStopOrder()) {
+            orderDataMap.put("triggerPrice", String.valueOf(order.getTriggerPrice()));
+        }
             orderDataMap.put("matchedAt", String.valueOf(order.getMatchedAt()));
             orderDataMap.put("coinAmount", String.valueOf(order.getCoinAmount()));
             orderDataMap.put("matchIdx", String.valueOf(order.getMatchIdx()));
@@ -128,39 +230,8 @@ public class RedisService {
 
     public void insertOrderInRedis(String key, OrderStatus orderStatus, CoinOrderDTO order) {
         try {
-            // Redis에 저장할 주문 데이터를 HashMap으로 저장
-            Map<String, String> orderDataMap = new HashMap<>();
-            // 기본 데이터 추가
-            orderDataMap.put("uuid", String.valueOf(order.getUuid()));
-            orderDataMap.put("coinName", String.valueOf(order.getCoinName()));
-            orderDataMap.put("marketName", String.valueOf(order.getMarketName()));
-            orderDataMap.put("coinAmount", String.valueOf(order.getCoinAmount()));
-            orderDataMap.put("orderPrice", String.valueOf(order.getOrderPrice()));
-            orderDataMap.put("orderType", String.valueOf(order.getOrderType()));
-            orderDataMap.put("fee", String.valueOf(order.getFee()));
-            orderDataMap.put("createdAt", String.valueOf(LocalDateTime.now()));
-            orderDataMap.put("memberIdx", String.valueOf(order.getMemberIdx()));
-            orderDataMap.put("memberUuid", String.valueOf(order.getMemberUuid()));
-            orderDataMap.put("orderStatus", String.valueOf(order.getOrderStatus()));
-
-            if (orderStatus == PENDING) {
-                if (order.getMatchedAt() != null) {
-                    orderDataMap.put("matchedAt", String.valueOf(order.getMatchedAt()));
-                }
-                if (order.getMatchedAt() != null) {
-                    orderDataMap.put("matchIdx", String.valueOf(order.getMatchIdx()));
-                }
-                if (order.getMatchedAt() != null) {
-                    orderDataMap.put("executionPrice", String.valueOf(order.getExecutionPrice()));
-                }
-            } else if (orderStatus == COMPLETED) {
-                orderDataMap.put("matchedAt", String.valueOf(order.getMatchedAt()));
-                orderDataMap.put("matchIdx", String.valueOf(order.getMatchIdx()));
-                orderDataMap.put("executionPrice", String.valueOf(order.getExecutionPrice()));
-            }
-
             // 주문 데이터를 JSON 문자열로 변환
-            String jsonOrderData = convertService.convertMapToString(orderDataMap);
+            String jsonOrderData = toOrderData(orderStatus, order);
 
             // Redis에 주문 데이터 저장 (Hash 구조 사용)
             setHashOps(orderStatus + ":ORDER:" + key, Map.of(order.getUuid(), jsonOrderData));
@@ -169,4 +240,132 @@ public class RedisService {
             System.err.println("Failed to insert order in Redis: " + e.getMessage());
         }
     }
+
+    // 배치의 체결 결과(체결 저장, 미체결/스탑 주문 삭제·저장)와 반영한 저널 sequence를 Lua 스크립트로 한 번에 원자적으로 반영
+    // 배치에 임대 값이 있으면 Redis의 임대가 그 값일 때만 반영하고, 아니면 아무것도 쓰지 않고 LeaseLostException을 던진다
+    // 실패하면 예외를 그대로 던진다 (persist 레인이 같은 배치를 다시 시도하고, 저널이 없으면 배치가 실패로 끝난다)
+    public void commitOrderBatch(String key, RedisOrderBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>();
+        args.add(String.valueOf(batch.getTrades().size()));
+        args.add(String.valueOf(batch.getRemovedPendingUuids().size()));
+        args.add(String.valueOf(batch.getStopOrders().size()));
+        args.add(String.valueOf(batch.getRemovedStopUuids().size()));
+        args.add(batch.isReplaceOpenOrders() ? "1" : "0");
+        args.add(batch.getAppliedSequence() < 0 ? "" : String.valueOf(batch.getAppliedSequence()));
+        List<TradeDTO> trades = batch.getTrades();
+        args.add(trades.isEmpty() ? "" : trades.get(trades.size() - 1).getPrice().toPlainString());
+        args.add(batch.getLeaseToken() == null ? "" : batch.getLeaseToken());
+        for (TradeDTO trade : batch.getTrades()) {
+            args.add(trade.getTradeId());
+            args.add(toTradeData(trade));
+        }
+        args.addAll(batch.getRemovedPendingUuids());
+        for (CoinOrderDTO order : batch.getStopOrders()) {
+            args.add(order.getUuid());
+            args.add(toOrderData(PENDING, order));
+        }
+        args.addAll(batch.getRemovedStopUuids());
+        for (CoinOrderDTO order : batch.getPendingOrders()) {
+            args.add(order.getUuid());
+            args.add(toOrderData(PENDING, order));
+        }
+
+        Long result = redisTemplate.execute(COMMIT_ORDER_BATCH_SCRIPT,
+                List.of(PENDING + ":ORDER:" + key, COMPLETED + ":TRADE:" + key, "STOP:ORDER:" + key, APPLIED_SEQUENCE_PREFIX + key,
+                        LAST_PRICE_PREFIX + key, ENGINE_LEASE_KEY),
+                args.toArray());
+        if (result != null && result < 0) {
+            throw new LeaseLostException("Engine lease is no longer held by " + batch.getLeaseToken() + ", rejected batch for " + key);
+        }
+    }
+
+    // 마켓의 Redis에 반영된 마지막 저널 sequence (기록이 없으면 -1)
+    public long getAppliedSequence(String key) {
+        String sequence = getValues(APPLIED_SEQUENCE_PREFIX + key);
+        return "false".equals(sequence) ? -1 : Long.parseLong(sequence);
+    }
+
+    // 마켓의 마지막 체결가 (체결 배치와 같이 기록, 체결 이력이 없으면 null)
+    public BigDecimal getLastPrice(String key) {
+        String price = getValues(LAST_PRICE_PREFIX + key);
+        return "false".equals(price) ? null : new BigDecimal(price);
+    }
+
+    // Redis가 오더북과 같은 상태일 때 반영 sequence 지정 (Redis에서 적재했거나 이전 인스턴스에서 넘겨받은 오더북)
+    public void setAppliedSequence(String key, long sequence) {
+        setValues(APPLIED_SEQUENCE_PREFIX + key, String.valueOf(sequence));
+    }
+
+    private String toOrderData(OrderStatus orderStatus, CoinOrderDTO order) {
+        // Redis에 저장할 주문 데이터를 HashMap으로 저장
+        Map<String, String> orderDataMap = new HashMap<>();
+        // 기본 데이터 추가
+        orderDataMap.put("uuid", String.valueOf(order.getUuid()));
+        orderDataMap.put("coinName", String.valueOf(order.getCoinName()));
+        orderDataMap.put("marketName", String.valueOf(order.getMarketName()));
+        orderDataMap.put("coinAmount", String.valueOf(order.getCoinAmount()));
+        orderDataMap.put("orderPrice", String.valueOf(order.getOrderPrice()));
+        orderDataMap.put("orderType", String.valueOf(order.getOrderType()));
+        orderDataMap.put("fee", String.valueOf(order.getFee()));
+        // 부분 체결로 다시 저장해도 접수 시각은 그대로 둔다 (Redis에서 적재할 때 같은 가격의 시간 우선순위 기준)
+        orderDataMap.put("createdAt", String.valueOf(order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now()));
+        orderDataMap.put("memberIdx", String.valueOf(order.getMemberIdx()));
+        orderDataMap.put("memberUuid", String.valueOf(order.getMemberUuid()));
+        orderDataMap.put("orderStatus", String.valueOf(order.getOrderStatus()));
+        if (order.getExecutionType() != null) {
+            orderDataMap.put("executionType", String.valueOf(order.getExecutionType()));
+        }
+        if (order.isStopOrder()) {
+            orderDataMap.put("triggerPrice", String.valueOf(order.getTriggerPrice()));
+        }
+
+        if (orderStatus == PENDING) {
+            if (order.getMatchedAt() != null) {
+                orderDataMap.put("matchedAt", String.valueOf(order.getMatchedAt()));
+            }
+            if (order.getMatchedAt() != null) {
+                orderDataMap.put("matchIdx", String.valueOf(order.getMatchIdx()));
+            }
+            if (order.getMatchedAt() != null) {
+                orderDataMap.put("executionPrice", String.valueOf(order.getExecutionPrice()));
+            }
+        } else if (orderStatus == COMPLETED) {
+            orderDataMap.put("matchedAt", String.valueOf(order.getMatchedAt()));
+            orderDataMap.put("matchIdx", String.valueOf(order.getMatchIdx()));
+            orderDataMap.put("executionPrice", String.valueOf(order.getExecutionPrice()));
+        }
+
+        return convertService.convertMapToString(orderDataMap);
+    }
+
+    // 체결 한 건 (회원 idx, 주문 요청 ID처럼 없을 수 있는 값은 넣지 않는다)
+    private String toTradeData(TradeDTO trade) {
+        Map<String, String> tradeDataMap = new HashMap<>();
+        tradeDataMap.put("tradeId", trade.getTradeId());
+        tradeDataMap.put("coinName", trade.getCoinName());
+        tradeDataMap.put("marketName", trade.getMarketName());
+        tradeDataMap.put("price", String.valueOf(trade.getPrice()));
+        tradeDataMap.put("quantity", String.valueOf(trade.getQuantity()));
+        tradeDataMap.put("takerOrderType", String.valueOf(trade.getTakerOrderType()));
+        tradeDataMap.put("takerOrderUuid", trade.getTakerOrderUuid());
+        tradeDataMap.put("takerMemberUuid", trade.getTakerMemberUuid());
+        tradeDataMap.put("makerOrderUuid", trade.getMakerOrderUuid());
+        tradeDataMap.put("makerMemberUuid", trade.getMakerMemberUuid());
+        tradeDataMap.put("matchedAt", String.valueOf(trade.getMatchedAt()));
+        if (trade.getTakerMemberIdx() != null) {
+            tradeDataMap.put("takerMemberIdx", String.valueOf(trade.getTakerMemberIdx()));
+        }
+        if (trade.getMakerMemberIdx() != null) {
+            tradeDataMap.put("makerMemberIdx", String.valueOf(trade.getMakerMemberIdx()));
+        }
+        if (trade.getTakerClientOrderId() != null) {
+            tradeDataMap.put("takerClientOrderId", trade.getTakerClientOrderId());
+        }
+
+        return convertService.convertMapToString(tradeDataMap);
+    }
 }
@@ -0,0 +1,315 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.engine.OrderBook;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 체결 엔진 운영(primary) / 대기(standby) 인스턴스 역할.
+ * 두 인스턴스는 같은 마켓 토픽을 각자의 컨슈머 그룹으로 읽고 같은 순서로 체결하므로 메모리 오더북이 같다.
+ * 대기 인스턴스는 Redis/Kafka 반영을 실행하지 않고 마켓별로 보관만 하다가, 운영 인스턴스의 임대(Redis)가 만료되면
+ * 임대를 가져와 운영 인스턴스 컨슈머 그룹이 커밋하지 못한 오프셋의 반영만 실행하고 바로 운영을 이어받는다.
+ * 일정 오프셋마다 오더북 체크섬을 남겨 두 인스턴스의 오더북이 같은지 확인한다.
+ * 임대 연장은 전용 스레드에서 하고, Redis 반영 스크립트는 임대 값이 자기 것일 때만 반영해 강등을 늦게 알아챈 인스턴스의 쓰기를 막는다.
+ *
+ * coin.engine.replica.enabled가 false면 항상 운영 인스턴스로 동작하고 기존과 같다.
+ */
+@Service
+public class ReplicaService {
+    private static final String LEASE_KEY = "ENGINE:LEASE";
+    private static final String CHECKSUM_KEY_PREFIX = "ENGINE:CHECKSUM:";
+    private static final String KAFKA_GROUP_ID = "coinOrderGroup";
+    private static final int CHECKSUM_RETAIN = 16;
+
+    private final RedisService redisService;
+    private final JournalService journalService;
+    private final KafkaAdmin kafkaAdmin;
+    private final boolean enabled;
+    private final String instanceId;
+    private final Duration leaseDuration;
+    private final long renewMillis;
+    private final int shadowRetain;
+    private final long checksumInterval;
+    private final Map<String, ShadowLog> shadowLogs = new ConcurrentHashMap<>();
+    // 대기 인스턴스 : 마켓별 (오프셋 -> 체크섬), 운영 인스턴스 체크섬과 비교되면 제거
+    private final Map<String, ConcurrentSkipListMap<Long, Long>> checksums = new ConcurrentHashMap<>();
+    private volatile boolean primary;
+    private volatile String primaryGroupId; // 마지막으로 확인한 운영 인스턴스의 컨슈머 그룹
+    private volatile Map<String, Long> committedOffsets; // 승격 시점 운영 인스턴스 그룹의 마켓별 커밋 오프셋
+    private ScheduledExecutorService leaseRenewer; // 임대 연장 전용 스레드 (공용 스케줄러의 배치 작업에 밀리지 않도록)
+
+    public ReplicaService(RedisService redisService, JournalService journalService, KafkaAdmin kafkaAdmin,
+                          @Value("${coin.engine.replica.enabled:false}") boolean enabled,
+                          @Value("${coin.engine.replica.instance-id:${HOSTNAME:coin}}") String instanceId,
+                          @Value("${coin.engine.replica.lease-millis:3000}") long leaseMillis,
+                          @Value("${coin.engine.replica.renew-millis:1000}") long renewMillis,
+                          @Value("${coin.engine.replica.shadow-retain:4096}") int shadowRetain,
+                          @Value("${coin.engine.replica.checksum-interval:10000}") long checksumInterval) {
+        this.redisService = redisService;
+        this.journalService = journalService;
+        this.kafkaAdmin = kafkaAdmin;
+        this.enabled = enabled;
+        this.instanceId = instanceId;
+        this.leaseDuration = Duration.ofMillis(leaseMillis);
+        this.renewMillis = renewMillis;
+        this.shadowRetain = shadowRetain;
+        this.checksumInterval = checksumInterval;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            primary = true;
+            return;
+        }
+        primary = redisService.tryAcquireLease(LEASE_KEY, leaseValue(), leaseDuration);
+        if (!primary) {
+            primaryGroupId = groupOf(redisService.getValues(LEASE_KEY));
+        }
+        System.out.println("Matching engine " + instanceId + " started as " + (primary ? "primary" : "standby")
+                + ", consumer group " + getConsumerGroupId());
+
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseRenewer.scheduleWithFixedDelay(this::maintainLease, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (leaseRenewer != null) {
+            leaseRenewer.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    // Redis 반영 배치에 실을 임대 값 (복제 모드가 아니면 null), 스크립트가 Redis의 임대와 다르면 반영을 거부한다
+    public String getLeaseToken() {
+        return enabled ? leaseValue() : null;
+    }
+
+    // 복제 모드에서는 인스턴스마다 컨슈머 그룹을 따로 써서 두 인스턴스가 같은 주문을 모두 받는다
+    public String getConsumerGroupId() {
+        return enabled ? KAFKA_GROUP_ID + "-" + instanceId : KAFKA_GROUP_ID;
+    }
+
+    /**
+     * 주문 처리 결과의 Redis/Kafka 반영 (레인 스레드에서 호출).
+     * 운영 인스턴스는 바로 실행하고 true, 대기 인스턴스는 마지막 오프셋과 함께 보관하고 false를 반환한다.
+     */
+    public boolean executeSideEffects(String key, long sourceOffset, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return true;
+        }
+
+        ShadowLog log = shadowLogs.computeIfAbsent(key, k -> new ShadowLog());
+        synchronized (log) {
+            // 승격 중이면 보관해 둔 반영을 먼저 실행해 순서를 지킨다
+            if (primary && !log.promoted) {
+                promote(key, log);
+            }
+            if (log.promoted) {
+                task.run();
+                return true;
+            }
+            log.add(sourceOffset, task, shadowRetain);
+            return false;
+        }
+    }
+
+    // 주문 하나 처리 직후 (레인 스레드), checksum-interval 배수 오프셋마다 오더북 체크섬을 남긴다
+    public void afterOrder(String key, OrderBook orderBook, long sourceOffset) {
+        if (!enabled || sourceOffset < 0 || sourceOffset % checksumInterval != 0) {
+            return;
+        }
+
+        long checksum = orderBook.checksum();
+        if (primary) {
+            String checksumKey = CHECKSUM_KEY_PREFIX + key;
+            journalService.executeDownstream(key, () -> {
+                redisService.setHashOps(checksumKey, Map.of(String.valueOf(sourceOffset), String.valueOf(checksum)));
+                redisService.deleteHashOps(checksumKey, String.valueOf(sourceOffset - CHECKSUM_RETAIN * checksumInterval));
+            });
+            return;
+        }
+
+        ConcurrentSkipListMap<Long, Long> marketChecksums = checksums.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+        marketChecksums.put(sourceOffset, checksum);
+        while (marketChecksums.size() > CHECKSUM_RETAIN) {
+            marketChecksums.pollFirstEntry();
+        }
+    }
+
+    // 운영 인스턴스는 임대 연장(놓치면 대기로 강등), 대기 인스턴스는 임대가 비면 승격하고 아니면 체크섬 비교 (임대 연장 스레드)
+    public void maintainLease() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (primary) {
+                if (!redisService.renewLease(LEASE_KEY, leaseValue(), leaseDuration)
+                        && !redisService.tryAcquireLease(LEASE_KEY, leaseValue(), leaseDuration)) {
+                    demote(redisService.getValues(LEASE_KEY));
+                }
+                return;
+            }
+
+            if (redisService.tryAcquireLease(LEASE_KEY, leaseValue(), leaseDuration)) {
+                promote();
+                return;
+            }
+            primaryGroupId = groupOf(redisService.getValues(LEASE_KEY));
+            verifyChecksums();
+        } catch (Exception e) {
+            System.err.println("Failed to maintain engine lease: " + e.getMessage());
+        }
+    }
+
+    private void promote() {
+        long startedAt = System.currentTimeMillis();
+        committedOffsets = fetchCommittedOffsets(primaryGroupId);
+        primary = true;
+        shadowLogs.forEach((key, log) -> {
+            synchronized (log) {
+                if (!log.promoted) {
+                    promote(key, log);
+                }
+            }
+        });
+        System.out.println("Matching engine " + instanceId + " promoted to primary in "
+                + (System.currentTimeMillis() - startedAt) + "ms");
+    }
+
+    // 임대를 다른 인스턴스가 가져갔으면 대기로 돌아가 이후 반영은 보관만 한다 (두 인스턴스가 같이 Redis/Kafka에 쓰지 않도록)
+    private void demote(String leaseValue) {
+        primary = false;
+        primaryGroupId = groupOf(leaseValue);
+        committedOffsets = null;
+        shadowLogs.values().forEach(log -> {
+            synchronized (log) {
+                log.promoted = false;
+                log.dropped = 0;
+            }
+        });
+        System.err.println("Matching engine " + instanceId + " lost the engine lease to " + leaseValue + ", demoted to standby");
+    }
+
+    // 운영 인스턴스 그룹이 커밋한 오프셋 이후를 포함한 반영만 실행 (커밋 오프셋을 모르면 보관분 전체 실행)
+    private void promote(String key, ShadowLog log) {
+        Map<String, Long> offsets = committedOffsets;
+        Long committed = offsets == null ? null : offsets.get(key);
+        int replayed = 0;
+        for (ShadowFlush flush : log.flushes) {
+            if (committed == null || flush.lastOffset >= committed) {
+                flush.task.run();
+                replayed++;
+            }
+        }
+        if (log.dropped > 0) {
+            System.err.println("Standby " + key + " dropped " + log.dropped + " oldest side effects over shadow-retain " + shadowRetain);
+        }
+        System.out.println("Market " + key + " promoted, replayed " + replayed + " of " + log.flushes.size()
+                + " retained side effects from offset " + committed);
+        log.flushes.clear();
+        log.promoted = true;
+    }
+
+    private Map<String, Long> fetchCommittedOffsets(String groupId) {
+        if (groupId == null) {
+            return null;
+        }
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+            Map<String, Long> result = new HashMap<>();
+            offsets.forEach((partition, offset) -> {
+                if (offset != null) {
+                    result.put(partition.topic(), offset.offset());
+                }
+            });
+            return result;
+        } catch (Exception e) {
+            System.err.println("Failed to read committed offsets of " + groupId + ", replaying all retained side effects: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void verifyChecksums() {
+        checksums.forEach((key, marketChecksums) -> {
+            for (Map.Entry<Long, Long> entry : marketChecksums.entrySet()) {
+                String primaryChecksum = redisService.getHashOps(CHECKSUM_KEY_PREFIX + key, String.valueOf(entry.getKey()));
+                if (primaryChecksum.isEmpty()) {
+                    // 운영 인스턴스가 아직 이 오프셋까지 처리하지 않았다
+                    continue;
+                }
+                if (Long.parseLong(primaryChecksum) == entry.getValue()) {
+                    System.out.println("Standby order book " + key + " matches primary at offset " + entry.getKey());
+                } else {
+                    System.err.println("Standby order book " + key + " diverged from primary at offset " + entry.getKey()
+                            + " (primary " + primaryChecksum + ", standby " + entry.getValue() + ")");
+                }
+                marketChecksums.remove(entry.getKey());
+            }
+        });
+    }
+
+    private String leaseValue() {
+        return instanceId + "|" + getConsumerGroupId();
+    }
+
+    private static String groupOf(String leaseValue) {
+        int separator = leaseValue == null ? -1 : leaseValue.indexOf('|');
+        return separator < 0 ? null : leaseValue.substring(separator + 1);
+    }
+
+    // 대기 인스턴스가 보관 중인 마켓 하나의 반영 작업 (shadow-retain개를 넘으면 오래된 것부터 버린다)
+    private static final class ShadowLog {
+        private final ArrayDeque<ShadowFlush> flushes = new ArrayDeque<>();
+        private boolean promoted;
+        private long dropped;
+
+        private void add(long lastOffset, Runnable task, int retain) {
+            if (flushes.size() >= retain) {
+                flushes.pollFirst();
+                dropped++;
+            }
+            flushes.addLast(new ShadowFlush(lastOffset, task));
+        }
+    }
+
+    private static final class ShadowFlush {
+        private final long lastOffset;
+        private final Runnable task;
+
+        private ShadowFlush(long lastOffset, Runnable task) {
+            this.lastOffset = lastOffset;
+            this.task = task;
+        }
+    }
+}
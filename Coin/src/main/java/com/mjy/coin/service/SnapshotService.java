@@ -0,0 +1,192 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.engine.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 마켓별 오더북 스냅샷 저장과 재시작 복구.
+ * 레인 스레드는 대기 주문 복사만 하고 직렬화/파일 기록은 snapshot-writer 스레드에서 한다.
+ * 스냅샷이 저장되면 그 이전 저널 세그먼트는 지운다.
+ */
+@Slf4j
+@Service
+public class SnapshotService {
+    private final JournalService journalService;
+    private final OrderService orderService;
+    private final MarketLaneService marketLaneService;
+    private final Path directory;
+    private final int retain;
+    private final Map<String, Long> snapshotSequences = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotService(JournalService journalService, OrderService orderService, MarketLaneService marketLaneService,
+                           @Value("${coin.engine.snapshot.dir:./snapshot}") String directory,
+                           @Value("${coin.engine.snapshot.retain:2}") int retain) {
+        this.journalService = journalService;
+        this.orderService = orderService;
+        this.marketLaneService = marketLaneService;
+        this.directory = Paths.get(directory);
+        this.retain = retain;
+    }
+
+    // 스냅샷 + 이후 저널 재생으로 오더북 복구, 저널을 쓰지 않거나 복구할 기록이 없으면 false (Redis에서 다시 읽어야 함)
+    public boolean restore(String key) {
+        return restore(key, Long.MAX_VALUE);
+    }
+
+    // committedOffset 이전 오프셋까지만 복구하고 이후 저널/스냅샷은 지운다 (Kafka 트랜잭션 모드, 나머지는 다시 전달된다)
+    public boolean restore(String key, long committedOffset) {
+        return restore(key, committedOffset, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * appliedSequence 이하 스냅샷부터 재생하며 변경을 listener에 알린다 (Redis에 반영되지 않은 구간 다시 반영).
+     * 그런 스냅샷이 없으면 가장 최근 스냅샷부터 재생하고, getSnapshotSequence로 어디서부터 재생했는지 알 수 있다.
+     */
+    public boolean restore(String key, long committedOffset, long appliedSequence, OrderBookRecovery.Listener listener) {
+        MarketJournal journal = journalService.getJournal(key);
+        if (journal == null) {
+            return false;
+        }
+
+        OrderBook orderBook = orderService.getOrderBook(key);
+        Path marketDirectory = directory.resolve(key);
+        OrderBookSnapshot snapshot = OrderBookSnapshot.readLatest(marketDirectory, key, orderBook.getScale(), committedOffset, appliedSequence);
+        if (snapshot == null && appliedSequence != Long.MAX_VALUE) {
+            snapshot = OrderBookSnapshot.readLatest(marketDirectory, key, orderBook.getScale(), committedOffset);
+        }
+        if (snapshot == null && journal.getLastSequence() == 0) {
+            return false;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            long sequence = OrderBookRecovery.recover(orderBook, snapshot, new JournalReader(journal.getDirectory()), committedOffset, listener);
+            if (sequence < journal.getLastSequence()) {
+                // 커밋되지 않은 오프셋의 기록은 다시 전달되면 같은 sequence로 다시 기록된다
+                log.info("Order book {} rolled back journal {}~{} to committed offset {}",
+                        key, sequence + 1, journal.getLastSequence(), committedOffset);
+                journal.truncateAfter(sequence);
+                deleteSnapshotsAfter(marketDirectory, sequence);
+            }
+            snapshotSequences.put(key, snapshot == null ? 0 : snapshot.getSequence());
+            log.info("Order book {} restored from snapshot {} and journal up to {}, {} orders in {}ms",
+                    key, snapshot == null ? "-" : snapshot.getSequence(), sequence, orderBook.getOrderCount(),
+                    System.currentTimeMillis() - startedAt);
+            return true;
+        } catch (IllegalStateException e) {
+            log.error("Cannot restore order book {} from journal", key, e);
+            return false;
+        }
+    }
+
+    // 마지막으로 복구에 쓰거나 저장한 스냅샷 sequence (없으면 0)
+    public long getSnapshotSequence(String key) {
+        return snapshotSequences.getOrDefault(key, 0L);
+    }
+
+    // 되돌린 저널 구간을 담은 스냅샷 삭제 (다시 전달된 주문은 같은 순서로 체결되므로 지우지 못해도 복구 결과는 같다)
+    private void deleteSnapshotsAfter(Path marketDirectory, long sequence) {
+        try {
+            OrderBookSnapshot.deleteAfter(marketDirectory, sequence);
+        } catch (IOException e) {
+            log.warn("Failed to delete snapshots after {} in {}", sequence, marketDirectory, e);
+        }
+    }
+
+    // Redis에서 처음 적재한 오더북의 기준 스냅샷, 주문 처리 시작 전 초기화 스레드에서만 호출
+    public void saveBaseline(String key) {
+        MarketJournal journal = journalService.getJournal(key);
+        if (journal == null) {
+            return;
+        }
+        save(key, journal, OrderBookSnapshot.capture(orderService.getOrderBook(key), journal.getLastSequence()));
+    }
+
+    // 스케줄러 스레드를 오래 잡지 않도록 snapshot-writer 스레드에 넘기고, 이전 작업이 남아 있으면 건너뛴다
+    @Scheduled(fixedDelayString = "${coin.engine.snapshot.interval-millis:60000}",
+            initialDelayString = "${coin.engine.snapshot.interval-millis:60000}")
+    public void scheduleSnapshots() {
+        if (!journalService.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                orderService.getMarketKeys().forEach(this::takeSnapshot);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    public void takeSnapshot(String key) {
+        try {
+            MarketJournal journal = journalService.getJournal(key);
+            OrderBook orderBook = orderService.getOrderBook(key);
+
+            // 레인에서는 주문 복사만 (주문 처리 사이에 실행되므로 저널 sequence와 오더북 상태가 일치)
+            OrderBookSnapshot snapshot = marketLaneService.callOnLane(key,
+                    () -> OrderBookSnapshot.capture(orderBook, journal.getLastSequence()));
+
+            // 마지막 스냅샷 이후 이벤트가 없으면 저장하지 않는다
+            long lastSequence = snapshotSequences.getOrDefault(key, -1L);
+            if (snapshot.getSequence() == lastSequence) {
+                return;
+            }
+            // Redis 반영이 마지막 스냅샷보다 뒤처져 있으면 저장하지 않는다 (재시작 시 반영 sequence 이하 스냅샷이 남아 있어야 한다)
+            if (journalService.getAppliedSequence(key) < lastSequence) {
+                log.warn("Skipping snapshot {}, Redis applied up to {} behind snapshot {}",
+                        key, journalService.getAppliedSequence(key), lastSequence);
+                return;
+            }
+            save(key, journal, snapshot);
+        } catch (Exception e) {
+            log.error("Failed to snapshot order book {}", key, e);
+        }
+    }
+
+    private void save(String key, MarketJournal journal, OrderBookSnapshot snapshot) {
+        Path marketDirectory = directory.resolve(key);
+        try {
+            snapshot.writeTo(marketDirectory);
+            snapshotSequences.put(key, snapshot.getSequence());
+
+            // 남겨 둔 가장 오래된 스냅샷 이후 구간만 저널에 있으면 된다
+            long oldestSequence = OrderBookSnapshot.prune(marketDirectory, retain);
+            journal.deleteSegmentsBefore(oldestSequence + 1);
+        } catch (IOException e) {
+            log.error("Failed to write snapshot {}", key, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Snapshot writer did not finish within 10s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mjy.coin.util;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.enums.ExecutionType;
+import com.mjy.coin.enums.OrderStatus;
+import com.mjy.coin.enums.OrderType;
+import com.mjy.wire.WireCodec;
+import com.mjy.wire.WireOrder;
+import com.mjy.wire.WirePriceVolume;
+import com.mjy.wire.WireTrade;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Kafka 바이너리 전송 형식(Wire 모듈) <-> 체결 엔진 DTO 변환 (JSON과 같은 필드만, 체결 엔진 전용 필드는 보내지 않는다)
+public class WireMapper {
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final ExecutionType[] EXECUTION_TYPES = ExecutionType.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    // 주문 토픽 (Exchange -> 체결 엔진)
+    public static CoinOrderDTO decodeOrder(byte[] data) {
+        return fromWire(WireCodec.decodeOrder(data));
+    }
+
+    // 체결 목록 토픽 (Match-List), 체결마다 한 건
+    public static byte[] encodeTradeList(Map<String, List<TradeDTO>> tradeList) {
+        Map<String, List<WireTrade>> wire = new LinkedHashMap<>();
+        tradeList.forEach((key, trades) -> {
+            List<WireTrade> wireTrades = new ArrayList<>(trades.size());
+            for (TradeDTO trade : trades) {
+                wireTrades.add(toWire(trade));
+            }
+            wire.put(key, wireTrades);
+        });
+        return WireCodec.encodeTradeList(wire);
+    }
+
+    // 가격/거래량 토픽 (Price-Volume)
+    public static byte[] encodePriceVolume(Map<String, List<PriceVolumeDTO>> priceVolumeMap) {
+        Map<String, List<WirePriceVolume>> wire = new LinkedHashMap<>();
+        priceVolumeMap.forEach((key, priceVolumes) -> {
+            List<WirePriceVolume> wirePriceVolumes = new ArrayList<>(priceVolumes.size());
+            for (PriceVolumeDTO priceVolume : priceVolumes) {
+                wirePriceVolumes.add(new WirePriceVolume(priceVolume.getPrice(), priceVolume.getVolume()));
+            }
+            wire.put(key, wirePriceVolumes);
+        });
+        return WireCodec.encodePriceVolume(wire);
+    }
+
+    public static WireOrder toWire(CoinOrderDTO order) {
+        WireOrder wire = new WireOrder();
+        wire.setIdx(order.getIdx());
+        wire.setMemberIdx(order.getMemberIdx());
+        wire.setMemberUuid(order.getMemberUuid());
+        wire.setMarketName(order.getMarketName());
+        wire.setCoinName(order.getCoinName());
+        wire.setCoinAmount(order.getCoinAmount());
+        wire.setOrderPrice(order.getOrderPrice());
+        wire.setTriggerPrice(order.getTriggerPrice());
+        wire.setExecutionPrice(order.getExecutionPrice());
+        wire.setOrderType(order.getOrderType() == null ? WireOrder.NONE : order.getOrderType().ordinal());
+        wire.setExecutionType(order.getExecutionType() == null ? WireOrder.NONE : order.getExecutionType().ordinal());
+        wire.setOrderStatus(order.getOrderStatus() == null ? WireOrder.NONE : order.getOrderStatus().ordinal());
+        wire.setFee(order.getFee());
+        wire.setCreatedAt(order.getCreatedAt());
+        wire.setMatchedAt(order.getMatchedAt());
+        wire.setMatchIdx(order.getMatchIdx());
+        wire.setUuid(order.getUuid());
+        wire.setClientOrderId(order.getClientOrderId());
+        return wire;
+    }
+
+    public static WireTrade toWire(TradeDTO trade) {
+        WireTrade wire = new WireTrade();
+        wire.setTradeId(trade.getTradeId());
+        wire.setMarketName(trade.getMarketName());
+        wire.setCoinName(trade.getCoinName());
+        wire.setPrice(trade.getPrice());
+        wire.setQuantity(trade.getQuantity());
+        wire.setTakerOrderType(trade.getTakerOrderType() == null ? WireOrder.NONE : trade.getTakerOrderType().ordinal());
+        wire.setTakerOrderUuid(trade.getTakerOrderUuid());
+        wire.setTakerMemberIdx(trade.getTakerMemberIdx());
+        wire.setTakerMemberUuid(trade.getTakerMemberUuid());
+        wire.setMakerOrderUuid(trade.getMakerOrderUuid());
+        wire.setMakerMemberIdx(trade.getMakerMemberIdx());
+        wire.setMakerMemberUuid(trade.getMakerMemberUuid());
+        wire.setMatchedAt(trade.getMatchedAt());
+        wire.setTakerClientOrderId(trade.getTakerClientOrderId());
+        return wire;
+    }
+
+    public static CoinOrderDTO fromWire(WireOrder wire) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setIdx(wire.getIdx());
+        order.setMemberIdx(wire.getMemberIdx());
+        order.setMemberUuid(wire.getMemberUuid());
+        order.setMarketName(wire.getMarketName());
+        order.setCoinName(wire.getCoinName());
+        order.setCoinAmount(wire.getCoinAmount());
+        order.setOrderPrice(wire.getOrderPrice());
+        order.setTriggerPrice(wire.getTriggerPrice());
+        order.setExecutionPrice(wire.getExecutionPrice());
+        order.setOrderType(wire.getOrderType() < 0 ? null : ORDER_TYPES[wire.getOrderType()]);
+        order.setExecutionType(wire.getExecutionType() < 0 ? null : EXECUTION_TYPES[wire.getExecutionType()]);
+        order.setOrderStatus(wire.getOrderStatus() < 0 ? null : ORDER_STATUSES[wire.getOrderStatus()]);
+        order.setFee(wire.getFee());
+        order.setCreatedAt(wire.getCreatedAt());
+        order.setMatchedAt(wire.getMatchedAt());
+        order.setMatchIdx(wire.getMatchIdx());
+        order.setUuid(wire.getUuid());
+        order.setClientOrderId(wire.getClientOrderId());
+        return order;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoinInfoInitializerTest {
+
+    @Mock
+    private CoinInfoService coinInfoService;
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ConvertService convertService;
+
+    @Mock
+    private SnapshotService snapshotService;
+
+    @Mock
+    private MarketLaneService marketLaneService;
+
+    @Mock
+    private JournalService journalService;
+
+    @Mock
+    private KafkaTransactionService kafkaTransactionService;
+
+    @Mock
+    private OrderDedupeService orderDedupeService;
+
+    @Mock
+    private OrderBookService orderBookService;
+
+    @Mock
+    private ReplicaService replicaService;
+
+    @Mock
+    private PendingOrderMatcherServiceV2 pendingOrderMatcherServiceV2;
+
+    private OrderService orderService;
+
+    private CoinInfoInitializer coinInfoInitializer;
+
+    private final String key = "BTC-KRW";
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(coinInfoService, 4096);
+        coinInfoInitializer = new CoinInfoInitializer(orderService, coinInfoService, redisService, convertService, snapshotService,
+                marketLaneService, journalService, kafkaTransactionService, orderDedupeService, orderBookService,
+                replicaService, pendingOrderMatcherServiceV2);
+        when(coinInfoService.getMarketScale(key)).thenReturn(MarketScale.DEFAULT);
+    }
+
+    private CoinOrderDTO createOrder(String uuid, LocalDateTime createdAt) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(uuid);
+        order.setMemberUuid("member-" + uuid);
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        order.setOrderType(BUY);
+        order.setOrderPrice(new BigDecimal("100"));
+        order.setCoinAmount(new BigDecimal("1"));
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    @Test
+    public void testLoadMarket_RedisOrdersKeepTimePriority() {
+        // given : 같은 가격의 매수 주문이 HGETALL에서 접수 순서와 다르게 나온다
+        LocalDateTime now = LocalDateTime.of(2024, 11, 7, 10, 0);
+        Map<String, String> redisOrders = new LinkedHashMap<>();
+        redisOrders.put("Second", "second-json");
+        redisOrders.put("Third", "third-json");
+        redisOrders.put("First", "first-json");
+        when(redisService.getAllHashOps("PENDING:ORDER:" + key)).thenReturn(redisOrders);
+        when(convertService.convertStringToObject("first-json", CoinOrderDTO.class)).thenReturn(createOrder("First", now));
+        when(convertService.convertStringToObject("second-json", CoinOrderDTO.class)).thenReturn(createOrder("Second", now.plusSeconds(1)));
+        when(convertService.convertStringToObject("third-json", CoinOrderDTO.class)).thenReturn(createOrder("Third", now.plusSeconds(2)));
+
+        // when : 스냅샷 없이 Redis에서 적재
+        coinInfoInitializer.loadMarket(key, false);
+
+        // then : 가격 레벨 안의 대기 순서는 접수 순서
+        List<String> queue = new ArrayList<>();
+        orderService.getBuyOrderQueue(key).forEachOrder(order -> queue.add(order.getUuid()));
+        assertEquals(List.of("First", "Second", "Third"), queue);
+    }
+}
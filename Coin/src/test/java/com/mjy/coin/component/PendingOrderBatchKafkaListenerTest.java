@@ -0,0 +1,61 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.service.KafkaTransactionService;
+import com.mjy.coin.service.MarketLaneService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingOrderBatchKafkaListenerTest {
+
+    @Mock
+    private MarketLaneService marketLaneService;
+
+    @Mock
+    private KafkaTransactionService kafkaTransactionService;
+
+    @Mock
+    private CoinInfoInitializer coinInfoInitializer;
+
+    private PendingOrderBatchKafkaListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new PendingOrderBatchKafkaListener(marketLaneService, kafkaTransactionService, coinInfoInitializer);
+    }
+
+    private ConsumerRecord<String, CoinOrderDTO> createRecord(long offset) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        return new ConsumerRecord<>("BTC-KRW", 0, offset, "BTC-KRW", order);
+    }
+
+    @Test
+    public void testOnMessage_FlushFailureIsRethrown() throws Exception {
+        // given : Kafka 트랜잭션 모드가 아니고 Redis 반영이 실패한 배치
+        IllegalStateException redisDown = new IllegalStateException("Redis down");
+        doThrow(new ExecutionException(redisDown)).when(marketLaneService).dispatchBatch(anyList());
+        when(kafkaTransactionService.isTransactional()).thenReturn(false);
+
+        // when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> listener.onMessage(List.of(createRecord(7), createRecord(8))));
+
+        // then : 리스너가 실패를 던져 오프셋이 커밋되지 않고, 트랜잭션 모드가 아니므로 오더북은 되돌리지 않는다
+        assertSame(redisDown, thrown.getCause());
+        verifyNoInteractions(coinInfoInitializer);
+    }
+}
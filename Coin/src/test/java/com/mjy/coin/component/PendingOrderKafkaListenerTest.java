@@ -0,0 +1,43 @@
+package com.mjy.coin.component;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.service.MarketLaneService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class PendingOrderKafkaListenerTest {
+
+    @Mock
+    private MarketLaneService marketLaneService;
+
+    @InjectMocks
+    private PendingOrderKafkaListener listener;
+
+    @Test
+    public void testOnMessage_FlushFailureIsRethrown() throws Exception {
+        // given : Redis 반영이 실패한 주문
+        IllegalStateException redisDown = new IllegalStateException("Redis down");
+        doThrow(new ExecutionException(redisDown)).when(marketLaneService).dispatch(any(CoinOrderDTO.class));
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+
+        // when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> listener.onMessage(new ConsumerRecord<>("BTC-KRW", 0, 7, "BTC-KRW", order)));
+
+        // then : 리스너가 실패를 던져 오프셋이 커밋되지 않는다
+        assertSame(redisDown, thrown.getCause());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mjy.coin.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int MARKETS = 20_000;
+
+    private Map<String, Integer> countOwners(ConsistentHashRing ring) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < MARKETS; i++) {
+            counts.merge(ring.ownerOf("COIN" + i + "-KRW"), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testMarketsAreSpreadByWeight() {
+        // given : 가중치 1, 1, 2
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("coin-a", 1);
+        weights.put("coin-b", 1);
+        weights.put("coin-c", 2);
+        ConsistentHashRing ring = new ConsistentHashRing(weights, 128);
+
+        // when
+        Map<String, Integer> counts = countOwners(ring);
+
+        // then : 가중치 비율(1/4, 1/4, 1/2) 근처로 나뉜다
+        assertEquals(MARKETS / 4.0, counts.get("coin-a"), MARKETS * 0.05);
+        assertEquals(MARKETS / 4.0, counts.get("coin-b"), MARKETS * 0.05);
+        assertEquals(MARKETS / 2.0, counts.get("coin-c"), MARKETS * 0.05);
+    }
+
+    @Test
+    public void testAddingInstanceOnlyMovesMarketsToIt() {
+        // given
+        Map<String, Integer> weights = new HashMap<>(Map.of("coin-a", 1, "coin-b", 1));
+        ConsistentHashRing before = new ConsistentHashRing(weights, 128);
+        weights.put("coin-c", 1);
+        ConsistentHashRing after = new ConsistentHashRing(weights, 128);
+
+        // when & then : 옮겨지는 마켓은 새 인스턴스로만 가고, 대략 1/3만 옮겨진다
+        int moved = 0;
+        for (int i = 0; i < MARKETS; i++) {
+            String key = "COIN" + i + "-KRW";
+            if (!before.ownerOf(key).equals(after.ownerOf(key))) {
+                assertEquals("coin-c", after.ownerOf(key));
+                moved++;
+            }
+        }
+        assertEquals(MARKETS / 3.0, moved, MARKETS * 0.05);
+    }
+
+    @Test
+    public void testSameMembersGiveSameRing() {
+        // given : 순회 순서가 다른 같은 인스턴스 목록
+        Map<String, Integer> first = new LinkedHashMap<>();
+        first.put("coin-a", 1);
+        first.put("coin-b", 3);
+        Map<String, Integer> second = new LinkedHashMap<>();
+        second.put("coin-b", 3);
+        second.put("coin-a", 1);
+
+        // then
+        assertEquals(countOwners(new ConsistentHashRing(first, 64)), countOwners(new ConsistentHashRing(second, 64)));
+        assertNull(new ConsistentHashRing(Map.of(), 64).ownerOf("BTC-KRW"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.OrderType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private CoinOrderDTO createOrder(String uuid, OrderType type, String price, String amount) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(uuid);
+        order.setMemberIdx(7L);
+        order.setMemberUuid("member-" + uuid);
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        order.setOrderType(type);
+        order.setOrderPrice(new BigDecimal(price));
+        order.setCoinAmount(new BigDecimal(amount));
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    private MarketJournal openJournal(int segmentSize) {
+        return new MarketJournal("BTC-KRW", directory, segmentSize, JournalFsyncPolicy.BATCH, 16, 5);
+    }
+
+    @Test
+    public void testAppendAndReadBack() {
+        // given : 매도 1.5 대기 중에 매수 1.0이 들어와 체결
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        CoinOrderDTO maker = createOrder("Maker", SELL, "90", "1.5");
+        CoinOrderDTO taker = createOrder("Taker", BUY, "100", "1.0");
+        orderBook.add(maker);
+
+        // when
+        try (MarketJournal journal = openJournal(1 << 16)) {
+            assertEquals(1, journal.appendOrder(taker));
+            FillBuffer fills = orderBook.match(taker);
+            assertEquals(2, journal.appendFill(taker, fills.get(0)));
+            assertEquals(3, journal.appendCancel("Maker"));
+            journal.commit();
+        }
+
+        // then
+        List<String> records = new ArrayList<>();
+        long lastSequence = new JournalReader(directory).read(1, record -> {
+            if (record.isOrder()) {
+                assertEquals(BUY, record.getOrderType());
+                assertEquals("member-Taker", record.getMemberUuid());
+                assertEquals(7L, record.getMemberIdx());
+                assertEquals(10_000_000_000L, record.getPriceTicks());
+                assertEquals(100_000_000L, record.getQuantityLots());
+            } else if (record.isFill()) {
+                assertEquals("Maker", record.getMakerUuid());
+                assertEquals(9_000_000_000L, record.getPriceTicks());
+                assertEquals(100_000_000L, record.getQuantityLots());
+                assertEquals(50_000_000L, record.getMakerRemainingLots());
+                assertEquals(0, record.getTakerRemainingLots());
+            }
+            records.add(record.getSequence() + ":" + record.getType() + ":" + record.getUuid());
+        });
+
+        assertEquals(3, lastSequence);
+        assertEquals(List.of("1:1:Taker", "2:2:Taker", "3:3:Maker"), records);
+    }
+
+    @Test
+    public void testReopenContinuesSequenceAcrossSegments() {
+        // given : 세그먼트가 자주 바뀌도록 작은 크기로 기록 후 닫는다
+        try (MarketJournal journal = openJournal(256)) {
+            for (int i = 1; i <= 20; i++) {
+                journal.appendCancel("Order-" + i);
+                journal.commit();
+            }
+        }
+
+        // when : 다시 열어서 이어서 기록
+        try (MarketJournal journal = openJournal(256)) {
+            assertEquals(20, journal.getLastSequence());
+            assertEquals(21, journal.appendCancel("Order-21"));
+        }
+
+        // then : 여러 세그먼트에 걸쳐 있어도 요청한 sequence부터 빠짐없이 읽힌다
+        assertTrue(JournalReader.listSegments(directory).size() > 1);
+        List<Long> sequences = new ArrayList<>();
+        new JournalReader(directory).read(15, record -> {
+            assertEquals("Order-" + record.getSequence(), record.getUuid());
+            sequences.add(record.getSequence());
+        });
+        assertEquals(List.of(15L, 16L, 17L, 18L, 19L, 20L, 21L), sequences);
+    }
+
+    @Test
+    public void testTornRecordIsTruncatedOnReopen() throws Exception {
+        // given : 세 번째 레코드가 쓰다 만 상태 (본문 손상)
+        try (MarketJournal journal = openJournal(1 << 16)) {
+            journal.appendCancel("Order-1");
+            journal.appendCancel("Order-2");
+            journal.appendCancel("Order-3");
+        }
+        Path segment = JournalReader.listSegments(directory).get(0);
+        int recordLength = MarketJournal.RECORD_HEADER_SIZE + MarketJournal.BODY_HEADER_SIZE + 2 + "Order-1".length();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int thirdBody = MarketJournal.SEGMENT_HEADER_SIZE + recordLength * 2 + MarketJournal.RECORD_HEADER_SIZE;
+            file.seek(thirdBody + MarketJournal.BODY_HEADER_SIZE + 2);
+            file.write('X');
+        }
+
+        // when : 다시 열면 손상된 레코드부터 버리고 이어서 기록
+        try (MarketJournal journal = openJournal(1 << 16)) {
+            assertEquals(2, journal.getLastSequence());
+            assertEquals(3, journal.appendCancel("Order-4"));
+        }
+
+        // then
+        List<String> uuids = new ArrayList<>();
+        new JournalReader(directory).read(1, record -> uuids.add(record.getUuid()));
+        assertEquals(List.of("Order-1", "Order-2", "Order-4"), uuids);
+    }
+
+    @Test
+    public void testWhenDurableWaitsForGroupCommit() {
+        // given : 레코드 2개마다 fsync, 시간 조건은 걸리지 않게 길게
+        List<String> executed = new ArrayList<>();
+        try (MarketJournal journal = new MarketJournal("BTC-KRW", directory, 1 << 16, JournalFsyncPolicy.BATCH, 2, 60_000)) {
+            // when : 첫 레코드는 그룹이 차지 않아 fsync 전이다
+            journal.appendCancel("Order-1");
+            journal.commit();
+            journal.whenDurable(() -> executed.add("Order-1"));
+
+            // then : fsync 전에는 실행하지 않는다
+            assertEquals(List.of(), executed);
+
+            // when : 두 번째 레코드로 그룹 커밋
+            journal.appendCancel("Order-2");
+            journal.commit();
+            journal.whenDurable(() -> executed.add("Order-2"));
+
+            // then : fsync 직후 등록 순서대로, 이미 동기화된 뒤 등록한 것은 바로 실행한다
+            assertEquals(List.of("Order-1", "Order-2"), executed);
+
+            // when : 남은 그룹은 flush(종료 시 close)에서 내보낸다
+            journal.appendCancel("Order-3");
+            journal.commit();
+            journal.whenDurable(() -> executed.add("Order-3"));
+            journal.flush();
+        }
+
+        // then
+        assertEquals(List.of("Order-1", "Order-2", "Order-3"), executed);
+    }
+}
@@ -0,0 +1,324 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookRecoveryTest {
+    private static final String KEY = "BTC-KRW";
+    private static final ExecutionType[] EXECUTION_TYPES = ExecutionType.values();
+
+    @TempDir
+    Path directory;
+
+    private final MarketScale scale = new MarketScale(0, 8, 10);
+    private final Random random = new Random(7);
+    private final List<String> uuids = new ArrayList<>();
+    private int orderCount;
+    private long sourceOffset; // 이벤트마다 하나씩 증가하는 마켓 토픽 오프셋
+
+    // 체결 서비스(V2)와 같은 순서로 저널 기록 : 접수 -> 체결 -> 체결 기록 -> 커밋
+    private void submitRandomEvent(OrderBook orderBook, MarketJournal journal) {
+        long offset = sourceOffset++;
+        if (!uuids.isEmpty() && random.nextInt(5) == 0) {
+            String uuid = uuids.remove(random.nextInt(uuids.size()));
+            if (orderBook.cancel(uuid) != null) {
+                journal.appendCancel(uuid, offset);
+                journal.commit();
+            }
+            orderBook.setSourceOffset(offset);
+            return;
+        }
+
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid("Order-" + (++orderCount));
+        order.setMemberUuid("member-" + random.nextInt(10));
+        order.setOrderType(random.nextBoolean() ? BUY : SELL);
+        order.setOrderPrice(BigDecimal.valueOf((1_000 + random.nextInt(40) - 20) * 10L));
+        order.setCoinAmount(BigDecimal.valueOf(1 + random.nextInt(5)));
+        // 일부는 지정가 외 체결 조건 (저널에 남은 체결 조건대로 재생되어야 한다)
+        order.setExecutionType(random.nextInt(4) == 0 ? EXECUTION_TYPES[random.nextInt(EXECUTION_TYPES.length)] : null);
+        // 일부는 스탑 주문 (발동가는 주문가 근처)
+        if (random.nextInt(8) == 0) {
+            order.setTriggerPrice(BigDecimal.valueOf((1_000 + random.nextInt(40) - 20) * 10L));
+        }
+        scale.applyTo(order);
+        order.setSourceOffset(offset);
+
+        journal.appendOrder(order);
+        if (order.isStopOrder()) {
+            orderBook.addStop(order);
+        } else {
+            match(orderBook, journal, order);
+        }
+        CoinOrderDTO triggered;
+        while ((triggered = orderBook.pollTriggeredStop()) != null) {
+            match(orderBook, journal, triggered);
+        }
+        journal.commit();
+        orderBook.setSourceOffset(offset);
+        if (orderBook.getOrder(order.getUuid()) == order) {
+            uuids.add(order.getUuid());
+        }
+    }
+
+    private void match(OrderBook orderBook, MarketJournal journal, CoinOrderDTO order) {
+        FillBuffer fills = orderBook.match(order);
+        for (int i = 0; i < fills.size(); i++) {
+            journal.appendFill(order, fills.get(i));
+        }
+    }
+
+    // 양쪽 호가를 우선순위 순서대로 (uuid:잔량), 발동 전 스탑 주문은 발동 순서대로, 마지막 체결가 나열
+    private List<String> describe(OrderBook orderBook) {
+        List<String> orders = new ArrayList<>();
+        orderBook.getBuySide().forEachOrder(order -> orders.add("B " + order.getUuid() + ":" + order.getQuantityLots()));
+        orderBook.getSellSide().forEachOrder(order -> orders.add("S " + order.getUuid() + ":" + order.getQuantityLots()));
+        orderBook.getStopOrders().forEachOrder(order -> orders.add("T " + order.getUuid() + ":" + order.getTriggerPriceTicks()
+                + ":" + order.getExecutionTypeOrLimit()));
+        orders.add("L " + orderBook.getLastPriceTicks());
+        return orders;
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndJournal() throws Exception {
+        // given : 이벤트 도중 스냅샷을 저장하고 이후 이벤트는 저널에만 남는다
+        Path journalDirectory = directory.resolve("journal");
+        Path snapshotDirectory = directory.resolve("snapshot");
+        OrderBook orderBook = new OrderBook(KEY, scale, 64);
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 4096, JournalFsyncPolicy.NONE, 256, 5)) {
+            for (int i = 0; i < 2_000; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            OrderBookSnapshot.capture(orderBook, journal.getLastSequence()).writeTo(snapshotDirectory);
+            long snapshotSequence = journal.getLastSequence();
+            assertTrue(journal.deleteSegmentsBefore(snapshotSequence + 1) > 0);
+
+            for (int i = 0; i < 500; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+        }
+
+        // when : 새 오더북에 스냅샷 + 이후 저널 재생
+        OrderBook recovered = new OrderBook(KEY, scale, 64);
+        OrderBookSnapshot snapshot = OrderBookSnapshot.readLatest(snapshotDirectory, KEY, scale);
+        long sequence = OrderBookRecovery.recover(recovered, snapshot, new JournalReader(journalDirectory));
+
+        // then
+        assertNotNull(snapshot);
+        assertTrue(sequence > snapshot.getSequence());
+        assertEquals(describe(orderBook), describe(recovered));
+        assertTrue(recovered.getOrderCount() > 0);
+        assertEquals(orderBook.getOrderCount(), recovered.getOrderCount());
+        recovered.getBuySide().forEachOrder(order -> {
+            assertEquals("BTC", order.getCoinName());
+            assertEquals("KRW", order.getMarketName());
+            assertEquals(0, scale.toQuantity(order.getQuantityLots()).compareTo(order.getCoinAmount()));
+        });
+    }
+
+    @Test
+    public void testRecoverFromJournalOnly() {
+        // given : 스냅샷 없이 저널만 존재
+        Path journalDirectory = directory.resolve("journal");
+        OrderBook orderBook = new OrderBook(KEY, scale);
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 1 << 20, JournalFsyncPolicy.BATCH, 256, 5)) {
+            for (int i = 0; i < 1_000; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+        }
+
+        // when
+        OrderBook recovered = new OrderBook(KEY, scale);
+        OrderBookRecovery.recover(recovered, null, new JournalReader(journalDirectory));
+
+        // then
+        assertEquals(describe(orderBook), describe(recovered));
+    }
+
+    @Test
+    public void testRecoverRollsBackToCommittedOffset() throws Exception {
+        // given : 커밋된 오프셋 이후 이벤트는 Kafka 트랜잭션이 중단되어 다시 전달될 구간, 그 사이에 찍힌 스냅샷도 있다
+        Path journalDirectory = directory.resolve("journal");
+        Path snapshotDirectory = directory.resolve("snapshot");
+        OrderBook orderBook = new OrderBook(KEY, scale, 64);
+        List<String> committedBook;
+        long committedOffset;
+        long committedSequence;
+        long snapshotSequence;
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 4096, JournalFsyncPolicy.NONE, 256, 5)) {
+            for (int i = 0; i < 150; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            snapshotSequence = journal.getLastSequence();
+            OrderBookSnapshot.capture(orderBook, snapshotSequence).writeTo(snapshotDirectory);
+
+            for (int i = 0; i < 150; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            committedBook = describe(orderBook);
+            committedOffset = sourceOffset;
+            committedSequence = journal.getLastSequence();
+
+            for (int i = 0; i < 200; i++) {
+                submitRandomEvent(orderBook, journal);
+                if (i == 50) {
+                    OrderBookSnapshot.capture(orderBook, journal.getLastSequence()).writeTo(snapshotDirectory);
+                }
+            }
+        }
+
+        // when : 커밋된 오프셋 이전 스냅샷 + 저널 재생
+        OrderBookSnapshot snapshot = OrderBookSnapshot.readLatest(snapshotDirectory, KEY, scale, committedOffset);
+        OrderBook recovered = new OrderBook(KEY, scale, 64);
+        long sequence = OrderBookRecovery.recover(recovered, snapshot, new JournalReader(journalDirectory), committedOffset);
+
+        // then : 커밋 시점 오더북, 커밋되지 않은 구간을 담은 스냅샷은 건너뛴다
+        assertEquals(snapshotSequence, snapshot.getSequence());
+        assertEquals(committedSequence, sequence);
+        assertEquals(committedBook, describe(recovered));
+        assertTrue(recovered.getSourceOffset() < committedOffset);
+
+        // when : 이후 저널을 잘라내고 다시 열기
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 4096, JournalFsyncPolicy.NONE, 256, 5)) {
+            journal.truncateAfter(sequence);
+            assertEquals(sequence, journal.getLastSequence());
+            assertEquals(1, OrderBookSnapshot.deleteAfter(snapshotDirectory, sequence));
+
+            // then : 다시 전달된 주문은 잘라낸 sequence 다음부터 기록된다
+            assertEquals(sequence + 1, journal.appendCancel("Order-1", committedOffset));
+        }
+        assertEquals(sequence + 1, new JournalReader(journalDirectory).read(1, record -> {
+        }));
+    }
+
+    @Test
+    public void testRecoverNotifiesListenerAfterAppliedSequence() throws Exception {
+        // given : Redis에 반영된 sequence 이전/이후로 스냅샷이 하나씩 있다
+        Path journalDirectory = directory.resolve("journal");
+        Path snapshotDirectory = directory.resolve("snapshot");
+        OrderBook orderBook = new OrderBook(KEY, scale, 64);
+        long snapshotSequence;
+        long appliedSequence;
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 4096, JournalFsyncPolicy.NONE, 256, 5)) {
+            for (int i = 0; i < 150; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            snapshotSequence = journal.getLastSequence();
+            OrderBookSnapshot.capture(orderBook, snapshotSequence).writeTo(snapshotDirectory);
+
+            for (int i = 0; i < 150; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            appliedSequence = journal.getLastSequence();
+
+            for (int i = 0; i < 300; i++) {
+                submitRandomEvent(orderBook, journal);
+                if (i == 100) {
+                    OrderBookSnapshot.capture(orderBook, journal.getLastSequence()).writeTo(snapshotDirectory);
+                }
+            }
+        }
+        List<String> journaledFills = new ArrayList<>();
+        List<String> journaledCancels = new ArrayList<>();
+        new JournalReader(journalDirectory).read(appliedSequence + 1, record -> {
+            if (record.isFill()) {
+                journaledFills.add(record.getUuid() + ":" + record.getMakerUuid() + ":" + record.getQuantityLots());
+            } else if (record.isCancel()) {
+                journaledCancels.add(record.getUuid());
+            }
+        });
+
+        // when : 반영된 sequence 이하 스냅샷부터 재생하며 이후 구간의 체결/취소를 모은다
+        OrderBookSnapshot snapshot = OrderBookSnapshot.readLatest(snapshotDirectory, KEY, scale, Long.MAX_VALUE, appliedSequence);
+        OrderBook recovered = new OrderBook(KEY, scale, 64);
+        List<String> replayedFills = new ArrayList<>();
+        List<String> replayedCancels = new ArrayList<>();
+        OrderBookRecovery.recover(recovered, snapshot, new JournalReader(journalDirectory), Long.MAX_VALUE, new OrderBookRecovery.Listener() {
+            @Override
+            public void onMatched(long sequence, long timestamp, CoinOrderDTO order, FillBuffer fills) {
+                for (int i = 0; sequence > appliedSequence && i < fills.size(); i++) {
+                    Fill fill = fills.get(i);
+                    replayedFills.add(order.getUuid() + ":" + fill.getMakerOrder().getUuid() + ":" + fill.getQuantityLots());
+                }
+            }
+
+            @Override
+            public void onStopAdded(long sequence, CoinOrderDTO order) {
+            }
+
+            @Override
+            public void onStopTriggered(long sequence, CoinOrderDTO order) {
+            }
+
+            @Override
+            public void onCanceled(long sequence, CoinOrderDTO order) {
+                if (sequence > appliedSequence) {
+                    replayedCancels.add(order.getUuid());
+                }
+            }
+        });
+
+        // then : 반영 이후 구간의 체결/취소가 저널과 같은 순서로 다시 만들어진다
+        assertEquals(snapshotSequence, snapshot.getSequence());
+        assertFalse(journaledFills.isEmpty());
+        assertEquals(journaledFills, replayedFills);
+        assertEquals(journaledCancels, replayedCancels);
+        assertEquals(describe(orderBook), describe(recovered));
+    }
+
+    @Test
+    public void testRestoreFromSnapshotBytes() throws Exception {
+        // given : 마켓 소유권 이전 시 넘겨주는 스냅샷 바이트
+        OrderBook orderBook = new OrderBook(KEY, scale, 64);
+        try (MarketJournal journal = new MarketJournal(KEY, directory.resolve("journal"), 1 << 20, JournalFsyncPolicy.NONE, 256, 5)) {
+            for (int i = 0; i < 1_000; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+        }
+        byte[] bytes = OrderBookSnapshot.capture(orderBook, 0).toBytes();
+
+        // when : 다른 인스턴스의 빈 오더북에 복원
+        OrderBook recovered = new OrderBook(KEY, scale);
+        OrderBookSnapshot.fromBytes(bytes, KEY, scale).restore(recovered);
+
+        // then
+        assertEquals(describe(orderBook), describe(recovered));
+        assertEquals(orderBook.checksum(), recovered.checksum());
+
+        // 손상된 바이트는 거부
+        bytes[bytes.length / 2] ^= 1;
+        assertThrows(IOException.class, () -> OrderBookSnapshot.fromBytes(bytes, KEY, scale));
+    }
+
+    @Test
+    public void testRecoverFailsWhenJournalGapAfterSnapshot() {
+        // given : 스냅샷 없이 앞쪽 세그먼트가 지워진 저널
+        Path journalDirectory = directory.resolve("journal");
+        OrderBook orderBook = new OrderBook(KEY, scale);
+        try (MarketJournal journal = new MarketJournal(KEY, journalDirectory, 1024, JournalFsyncPolicy.NONE, 256, 5)) {
+            for (int i = 0; i < 200; i++) {
+                submitRandomEvent(orderBook, journal);
+            }
+            journal.deleteSegmentsBefore(journal.getLastSequence());
+        }
+
+        // when & then : 오더북을 건드리지 않고 실패
+        OrderBook recovered = new OrderBook(KEY, scale);
+        assertThrows(IllegalStateException.class,
+                () -> OrderBookRecovery.recover(recovered, null, new JournalReader(journalDirectory)));
+        assertEquals(0, recovered.getOrderCount());
+    }
+}
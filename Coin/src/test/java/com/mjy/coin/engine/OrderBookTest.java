@@ -0,0 +1,575 @@
+package com.mjy.coin.engine;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.enums.ExecutionType;
+import com.mjy.coin.enums.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.mjy.coin.enums.OrderStatus.PENDING;
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+
+    private CoinOrderDTO createOrder(OrderType type, String price, String amount) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setOrderType(type);
+        order.setOrderPrice(new BigDecimal(price));
+        order.setCoinAmount(new BigDecimal(amount));
+        order.setOrderStatus(PENDING);
+        order.setUuid(type + "-" + price + "-" + amount);
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    @Test
+    public void testPriceTimePriority() {
+        // given
+        OrderBookSide buySide = new TreeOrderBookSide(true);
+        CoinOrderDTO first = createOrder(BUY, "100", "1");
+        CoinOrderDTO second = createOrder(BUY, "100", "2");
+        CoinOrderDTO higher = createOrder(BUY, "101", "1");
+
+        // when
+        buySide.add(first);
+        buySide.add(second);
+        buySide.add(higher);
+
+        // then : 높은 가격 우선, 같은 가격은 먼저 들어온 주문 우선
+        assertSame(higher, buySide.poll());
+        assertSame(first, buySide.poll());
+        assertSame(second, buySide.poll());
+        assertTrue(buySide.isEmpty());
+    }
+
+    @Test
+    public void testLevelQuantityFollowsFills() {
+        // given
+        OrderBookSide sellSide = new TreeOrderBookSide(false);
+        CoinOrderDTO first = createOrder(SELL, "100", "1.5");
+        CoinOrderDTO second = createOrder(SELL, "100", "2");
+        CoinOrderDTO worse = createOrder(SELL, "102", "3");
+        sellSide.add(first);
+        sellSide.add(second);
+        sellSide.add(worse);
+
+        // when : 최우선 주문 부분 체결
+        sellSide.reducePeek(50_000_000L);
+
+        // then : 대기 순서는 유지되고 레벨 잔량만 감소
+        assertSame(first, sellSide.peek());
+        PriceLevel best = sellSide.getLevels().iterator().next();
+        assertEquals(300_000_000L, best.getTotalQuantity());
+        assertEquals(2, best.getOrderCount());
+
+        // when : 최우선 레벨 소진
+        sellSide.poll();
+        sellSide.poll();
+
+        // then : 빈 레벨은 제거되고 다음 가격이 최우선 호가
+        Iterator<PriceLevel> levels = sellSide.getLevels().iterator();
+        PriceLevel next = levels.next();
+        assertEquals(worse.getPriceTicks(), next.getPrice());
+        assertEquals(300_000_000L, next.getTotalQuantity());
+        assertFalse(levels.hasNext());
+        assertEquals(worse.getPriceTicks(), sellSide.getBestPrice());
+    }
+
+    @Test
+    public void testCancelFromMiddleOfLevel() {
+        // given
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        CoinOrderDTO first = createOrder(BUY, "100", "1");
+        CoinOrderDTO middle = createOrder(BUY, "100", "2");
+        CoinOrderDTO last = createOrder(BUY, "100", "3");
+        orderBook.add(first);
+        orderBook.add(middle);
+        orderBook.add(last);
+
+        // when
+        CoinOrderDTO canceled = orderBook.cancel(middle.getUuid());
+
+        // then : 레벨 잔량과 대기열이 함께 갱신되고, 같은 주문은 다시 취소되지 않는다.
+        assertSame(middle, canceled);
+        PriceLevel level = orderBook.getBuySide().getLevels().iterator().next();
+        assertEquals(400_000_000L, level.getTotalQuantity());
+        assertEquals(2, level.getOrderCount());
+        assertNull(orderBook.cancel(middle.getUuid()));
+        assertSame(first, orderBook.getBuySide().poll());
+        assertSame(last, orderBook.getBuySide().poll());
+
+        // 체결로 빠진 주문도 인덱스에서 제거된다.
+        assertNull(orderBook.getOrder(first.getUuid()));
+        assertEquals(0, orderBook.getOrderCount());
+    }
+
+    @Test
+    public void testArrayLadderMatchesTreeBook() {
+        // given : 호가 단위 10, 창 크기 64 (창 밖 가격과 창 재설정이 자주 일어나도록 작게 설정)
+        MarketScale treeScale = new MarketScale(0, 8);
+        MarketScale ladderScale = new MarketScale(0, 8, 10);
+        OrderBook primaryBook = new OrderBook("BTC-KRW", treeScale);
+        OrderBook standbyBook = new OrderBook("BTC-KRW", ladderScale, 64);
+        Random random = new Random(42);
+        List<String> uuids = new ArrayList<>();
+        long center = 5_000;
+
+        // when : 같은 주문/체결/취소를 두 오더북에 적용
+        for (int i = 0; i < 5_000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long spread = random.nextInt(4) == 0 ? 3_000 : 60;
+                String price = String.valueOf(Math.max(1, center + random.nextInt((int) spread * 2) - spread) * 10);
+                String amount = String.valueOf(1 + random.nextInt(5));
+                CoinOrderDTO treeOrder = createOrder(SELL, price, amount);
+                CoinOrderDTO ladderOrder = createOrder(SELL, price, amount);
+                treeOrder.setUuid("Order-" + i);
+                ladderOrder.setUuid("Order-" + i);
+                treeScale.applyTo(treeOrder);
+                ladderScale.applyTo(ladderOrder);
+                primaryBook.add(treeOrder);
+                standbyBook.add(ladderOrder);
+                uuids.add("Order-" + i);
+            } else if (op < 7) {
+                CoinOrderDTO treeOrder = primaryBook.getSellSide().poll();
+                CoinOrderDTO ladderOrder = standbyBook.getSellSide().poll();
+                assertEquals(treeOrder == null ? null : treeOrder.getUuid(), ladderOrder == null ? null : ladderOrder.getUuid());
+            } else if (op < 9 && !uuids.isEmpty()) {
+                String uuid = uuids.get(random.nextInt(uuids.size()));
+                assertEquals(primaryBook.cancel(uuid) == null, standbyBook.cancel(uuid) == null);
+            } else {
+                center = Math.max(100, center + random.nextInt(400) - 200);
+            }
+
+            // then : 최우선 호가와 호가 레벨이 트리 오더북과 동일
+            assertEquals(primaryBook.getSellSide().getBestPrice(), standbyBook.getSellSide().getBestPrice());
+            assertEquals(primaryBook.getSellSide().getLevelCount(), standbyBook.getSellSide().getLevelCount());
+            if (i % 100 == 0) {
+                assertEquals(describe(primaryBook.getSellSide()), describe(standbyBook.getSellSide()));
+            }
+        }
+    }
+
+    @Test
+    public void testArrayLadderFollowsTrendingPrice() {
+        for (OrderType type : new OrderType[]{SELL, BUY}) {
+            // given : 호가 단위 10, 창 크기 64, 최우선 호가 뒤로 20틱의 호가가 쌓여 있다
+            MarketScale treeScale = new MarketScale(0, 8);
+            MarketScale ladderScale = new MarketScale(0, 8, 10);
+            OrderBook treeBook = new OrderBook("BTC-KRW", treeScale);
+            OrderBook ladderBook = new OrderBook("BTC-KRW", ladderScale, 64);
+            OrderBookSide treeSide = type == SELL ? treeBook.getSellSide() : treeBook.getBuySide();
+            OrderBookSide ladderSide = type == SELL ? ladderBook.getSellSide() : ladderBook.getBuySide();
+            int direction = type == SELL ? 1 : -1;
+            long start = 10_000;
+
+            // when : 최우선 호가를 하나씩 체결하고 그보다 나쁜 쪽에 새 호가를 계속 추가 (매도는 오르고 매수는 내리는 추세)
+            for (int i = 0; i < 2_000; i++) {
+                String price = String.valueOf((start + direction * i) * 10);
+                CoinOrderDTO treeOrder = createOrder(type, price, "1");
+                CoinOrderDTO ladderOrder = createOrder(type, price, "1");
+                treeScale.applyTo(treeOrder);
+                ladderScale.applyTo(ladderOrder);
+                treeSide.add(treeOrder);
+                ladderSide.add(ladderOrder);
+                if (i >= 20) {
+                    assertEquals(treeSide.poll().getUuid(), ladderSide.poll().getUuid());
+                }
+
+                // then : 창이 추세를 따라 옮겨져 새 호가가 overflow(TreeMap)에 쌓이지 않는다
+                assertEquals(treeSide.getBestPrice(), ladderSide.getBestPrice());
+                assertEquals(0, ((ArrayOrderBookSide) ladderSide).getOverflowLevelCount());
+            }
+            assertEquals(describe(treeSide), describe(ladderSide));
+
+            // when : 추세가 뒤집혀 창보다 좋은 가격에 호가가 들어오면
+            String better = String.valueOf((start + direction * 1_000) * 10);
+            CoinOrderDTO treeOrder = createOrder(type, better, "1");
+            CoinOrderDTO ladderOrder = createOrder(type, better, "1");
+            treeScale.applyTo(treeOrder);
+            ladderScale.applyTo(ladderOrder);
+            treeSide.add(treeOrder);
+            ladderSide.add(ladderOrder);
+
+            // then : 새 최우선 호가 기준으로 창을 옮기고 멀어진 레벨만 overflow로 나간다
+            assertEquals(treeSide.getBestPrice(), ladderSide.getBestPrice());
+            assertEquals(describe(treeSide), describe(ladderSide));
+            assertEquals(20, ((ArrayOrderBookSide) ladderSide).getOverflowLevelCount());
+        }
+    }
+
+    @Test
+    public void testTopLevelsAndCrossingQuantityStopEarly() {
+        for (boolean buySide : new boolean[]{true, false}) {
+            // given : 창(64틱)보다 넓게 퍼진 호가 -> 배열 오더북은 일부 레벨을 overflow에 둔다
+            OrderBookSide treeSide = new TreeOrderBookSide(buySide);
+            ArrayOrderBookSide ladderSide = new ArrayOrderBookSide(buySide, 100_000_000L, 64);
+            for (int i = 0; i < 61; i++) {
+                String price = String.valueOf(1000 + ((i * 37) % 61 - 30) * 7);
+                treeSide.add(createOrder(buySide ? BUY : SELL, price, "1"));
+                ladderSide.add(createOrder(buySide ? BUY : SELL, price, "1"));
+            }
+            assertTrue(ladderSide.getOverflowLevelCount() > 0);
+
+            for (OrderBookSide side : new OrderBookSide[]{treeSide, ladderSide}) {
+                // when : 상위 5개 레벨만 순회
+                List<String> top = new ArrayList<>();
+                side.forEachTopLevel(5, level -> top.add(level.getPrice() + ":" + level.getTotalQuantity()));
+
+                // then : 전체 호가의 앞 5개와 같다
+                assertEquals(describeDepth(treeSide).subList(0, 5), top);
+
+                // then : 원하는 수량을 채우면 더 세지 않고, 가격 제한 너머 레벨은 세지 않는다
+                assertEquals(300_000_000L, side.getCrossingQuantity(0, 250_000_000L));
+                assertEquals(61 * 100_000_000L, side.getCrossingQuantity(0, Long.MAX_VALUE));
+                assertEquals(31 * 100_000_000L, side.getCrossingQuantity(1000 * 100_000_000L, Long.MAX_VALUE));
+            }
+            assertEquals(describeDepth(treeSide), describeDepth(ladderSide));
+        }
+    }
+
+    private CoinOrderDTO createOrder(OrderType type, ExecutionType executionType, String price, String amount) {
+        CoinOrderDTO order = createOrder(type, price, amount);
+        order.setExecutionType(executionType);
+        order.setUuid(executionType + "-" + order.getUuid());
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    @Test
+    public void testImmediateExecutionTypesDoNotRest() {
+        // given : 매도 100(1), 101(1)
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        orderBook.add(createOrder(SELL, "100", "1"));
+        orderBook.add(createOrder(SELL, "101", "1"));
+
+        // when : IOC 매수 100(2) -> 100에서 1개만 체결, 남은 1개는 등록하지 않는다
+        CoinOrderDTO ioc = createOrder(BUY, ExecutionType.IOC, "100", "2");
+        assertEquals(1, orderBook.match(ioc).size());
+
+        // then
+        assertEquals(100_000_000L, ioc.getQuantityLots());
+        assertTrue(orderBook.getBuySide().isEmpty());
+        assertNull(orderBook.getOrder(ioc.getUuid()));
+
+        // when : 시장가 매수(2) -> 가격 제한 없이 101에서 1개 체결, 남은 1개는 등록하지 않는다
+        CoinOrderDTO market = createOrder(BUY, ExecutionType.MARKET, "0", "2");
+        FillBuffer fills = orderBook.match(market);
+
+        // then
+        assertEquals(0, market.getPriceTicks());
+        assertEquals(1, fills.size());
+        assertEquals(MarketScale.DEFAULT.toPriceTicks(new BigDecimal("101")), fills.get(0).getPriceTicks());
+        assertEquals(100_000_000L, market.getQuantityLots());
+        assertTrue(orderBook.getSellSide().isEmpty());
+        assertTrue(orderBook.getBuySide().isEmpty());
+    }
+
+    @Test
+    public void testFillOrKillChecksDepthBeforeMatching() {
+        // given : 매도 100(1), 101(1), 103(5)
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        orderBook.add(createOrder(SELL, "100", "1"));
+        orderBook.add(createOrder(SELL, "101", "1"));
+        CoinOrderDTO deepest = createOrder(SELL, "103", "5");
+        orderBook.add(deepest);
+        List<String> depth = describe(orderBook.getSellSide());
+
+        // when : 102까지 잔량은 2개뿐이므로 FOK 매수 102(3)은 체결되지 않는다
+        CoinOrderDTO rejected = createOrder(BUY, ExecutionType.FOK, "102", "3");
+        FillBuffer fills = orderBook.match(rejected);
+
+        // then : 오더북은 그대로
+        assertEquals(0, fills.size());
+        assertEquals(300_000_000L, rejected.getQuantityLots());
+        assertEquals(depth, describe(orderBook.getSellSide()));
+        assertTrue(orderBook.getBuySide().isEmpty());
+
+        // when : 103까지는 7개이므로 FOK 매수 103(3)은 전량 체결
+        CoinOrderDTO filled = createOrder(BUY, ExecutionType.FOK, "103", "3");
+        fills = orderBook.match(filled);
+
+        // then
+        assertEquals(3, fills.size());
+        assertEquals(0, filled.getQuantityLots());
+        assertEquals(List.of(deepest.getPriceTicks() + ":400000000:1"), describe(orderBook.getSellSide()));
+    }
+
+    @Test
+    public void testPostOnlyIsRejectedWhenItWouldCross() {
+        // given : 매도 100(1)
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        CoinOrderDTO ask = createOrder(SELL, "100", "1");
+        orderBook.add(ask);
+
+        // when : 100 매수는 바로 체결되므로 거부
+        CoinOrderDTO crossing = createOrder(BUY, ExecutionType.POST_ONLY, "100", "1");
+        assertEquals(0, orderBook.match(crossing).size());
+
+        // then
+        assertNull(orderBook.getOrder(crossing.getUuid()));
+        assertSame(ask, orderBook.getSellSide().peek());
+        assertEquals(100_000_000L, ask.getQuantityLots());
+
+        // when : 99 매수는 호가에 등록
+        CoinOrderDTO resting = createOrder(BUY, ExecutionType.POST_ONLY, "99", "1");
+        assertEquals(0, orderBook.match(resting).size());
+
+        // then
+        assertSame(resting, orderBook.getOrder(resting.getUuid()));
+        assertSame(resting, orderBook.getBuySide().peek());
+    }
+
+    @Test
+    public void testStopOrdersTriggerOnLastTradePrice() {
+        // given : 매도 100(1), 102(1), 105(1) / 매수 스탑 시장가 101, 매수 스탑 지정가 103(104), 매도 스탑 99
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        orderBook.add(createOrder(SELL, "100", "1"));
+        orderBook.add(createOrder(SELL, "102", "1"));
+        CoinOrderDTO highest = createOrder(SELL, "105", "1");
+        orderBook.add(highest);
+        CoinOrderDTO stopMarket = createStopOrder(BUY, ExecutionType.MARKET, "101", "0", "1");
+        CoinOrderDTO stopLimit = createStopOrder(BUY, ExecutionType.LIMIT, "103", "104", "1");
+        CoinOrderDTO stopSell = createStopOrder(SELL, ExecutionType.MARKET, "99", "0", "1");
+        orderBook.addStop(stopLimit);
+        orderBook.addStop(stopMarket);
+        orderBook.addStop(stopSell);
+
+        // then : 체결 이력이 없으면 발동하지 않는다
+        assertNull(orderBook.pollTriggeredStop());
+        assertSame(stopLimit, orderBook.getOrder(stopLimit.getUuid()));
+
+        // when : 100 체결 -> 어떤 스탑도 넘지 않음
+        orderBook.match(createOrder(BUY, "100", "1"));
+        assertNull(orderBook.pollTriggeredStop());
+
+        // when : 102 체결 -> 매수 스탑 101 발동, 시장가로 105에 체결되면서 매수 스탑 103도 발동
+        orderBook.match(createOrder(BUY, "102", "1"));
+        CoinOrderDTO first = orderBook.pollTriggeredStop();
+        assertSame(stopMarket, first);
+        assertEquals(1, orderBook.match(first).size());
+        assertEquals(highest.getPriceTicks(), orderBook.getLastPriceTicks());
+        CoinOrderDTO second = orderBook.pollTriggeredStop();
+        assertSame(stopLimit, second);
+        assertEquals(0, orderBook.match(second).size());
+
+        // then : 스탑 지정가는 104에 대기, 매도 스탑은 그대로 남는다
+        assertNull(orderBook.pollTriggeredStop());
+        assertSame(stopLimit, orderBook.getBuySide().peek());
+        assertEquals(1, orderBook.getStopOrders().size());
+
+        // when : 발동 전 스탑 주문 취소
+        assertSame(stopSell, orderBook.cancel(stopSell.getUuid()));
+        assertTrue(orderBook.getStopOrders().isEmpty());
+    }
+
+    @Test
+    public void testCancelStopOrderFromMiddleKeepsArrivalOrder() {
+        // given : 같은 발동가 101에 매수 스탑 세 건
+        OrderBook orderBook = new OrderBook("BTC-KRW", MarketScale.DEFAULT);
+        orderBook.add(createOrder(SELL, "101", "3"));
+        CoinOrderDTO first = createStopOrder(BUY, ExecutionType.MARKET, "101", "0", "1");
+        CoinOrderDTO middle = createStopOrder(BUY, ExecutionType.MARKET, "101", "0", "1");
+        CoinOrderDTO last = createStopOrder(BUY, ExecutionType.MARKET, "101", "0", "1");
+        first.setUuid("STOP-1");
+        middle.setUuid("STOP-2");
+        last.setUuid("STOP-3");
+        orderBook.addStop(first);
+        orderBook.addStop(middle);
+        orderBook.addStop(last);
+
+        // when : 가운데 주문 취소 후 101 체결
+        assertSame(middle, orderBook.cancel(middle.getUuid()));
+        assertNull(orderBook.cancel(middle.getUuid()));
+        orderBook.match(createOrder(BUY, "101", "1"));
+
+        // then : 남은 주문은 도착 순서대로 발동하고 대기열이 비면 발동가도 사라진다
+        assertSame(first, orderBook.pollTriggeredStop());
+        assertSame(last, orderBook.pollTriggeredStop());
+        assertNull(orderBook.pollTriggeredStop());
+        assertTrue(orderBook.getStopOrders().isEmpty());
+    }
+
+    @Test
+    public void testChecksumMatchesForSameOrderFlow() {
+        // given : 같은 주문 흐름을 배열 크기가 다른 두 오더북에 처리 (운영 인스턴스와 대기 인스턴스)
+        MarketScale scale = new MarketScale(0, 8, 10);
+        OrderBook primaryBook = new OrderBook("BTC-KRW", scale);
+        OrderBook standbyBook = new OrderBook("BTC-KRW", scale, 64);
+        Random random = new Random(11);
+        for (int i = 0; i < 2_000; i++) {
+            CoinOrderDTO order = new CoinOrderDTO();
+            order.setUuid("Order-" + i);
+            order.setOrderType(random.nextBoolean() ? BUY : SELL);
+            order.setOrderPrice(BigDecimal.valueOf((1_000 + random.nextInt(40) - 20) * 10L));
+            order.setCoinAmount(BigDecimal.valueOf(1 + random.nextInt(5)));
+            if (random.nextInt(8) == 0) {
+                order.setTriggerPrice(BigDecimal.valueOf((1_000 + random.nextInt(40) - 20) * 10L));
+            }
+            scale.applyTo(order);
+            CoinOrderDTO copy = new CoinOrderDTO(order);
+            submit(primaryBook, order);
+            submit(standbyBook, copy);
+        }
+
+        // then
+        assertEquals(primaryBook.checksum(), standbyBook.checksum());
+
+        // when : 한쪽만 주문 하나 취소
+        CoinOrderDTO resting = primaryBook.getBuySide().peek();
+        primaryBook.cancel(resting.getUuid());
+
+        // then : 체크섬이 달라진다
+        assertNotEquals(primaryBook.checksum(), standbyBook.checksum());
+    }
+
+    @Test
+    public void testDepthChangesRebuildSameBook() {
+        // given : 전체 호가를 한 번 받은 뒤 증분만 적용하는 구독자 (가격 -> 잔량)
+        MarketScale scale = new MarketScale(0, 8, 10);
+        OrderBook orderBook = new OrderBook("BTC-KRW", scale, 64);
+        orderBook.match(createOrder(BUY, "9990", "1"));
+        TreeMap<Long, Long> bids = new TreeMap<>();
+        TreeMap<Long, Long> asks = new TreeMap<>();
+        orderBook.trackDepthChanges();
+        orderBook.drainDepth((buySide, price, quantity) -> (buySide ? bids : asks).put(price, quantity));
+        assertEquals(1, bids.size());
+
+        Random random = new Random(5);
+        int uuid = 0;
+        for (int batch = 0; batch < 200; batch++) {
+            // when : 배치마다 주문/취소 여러 건을 처리하고 바뀐 레벨만 적용
+            for (int i = 0; i < 10; i++) {
+                CoinOrderDTO resting = orderBook.getSellSide().peek();
+                if (resting != null && random.nextInt(5) == 0) {
+                    orderBook.cancel(resting.getUuid());
+                    continue;
+                }
+                CoinOrderDTO order = new CoinOrderDTO();
+                order.setUuid("Order-" + uuid++);
+                order.setOrderType(random.nextBoolean() ? BUY : SELL);
+                order.setOrderPrice(BigDecimal.valueOf((1_000 + random.nextInt(20) - 10) * 10L));
+                order.setCoinAmount(BigDecimal.valueOf(1 + random.nextInt(5)));
+                scale.applyTo(order);
+                orderBook.match(order);
+            }
+            List<String> changed = new ArrayList<>();
+            orderBook.drainDepthChanges((buySide, price, quantity) -> {
+                changed.add(buySide + ":" + price);
+                if (quantity == 0) {
+                    (buySide ? bids : asks).remove(price);
+                } else {
+                    (buySide ? bids : asks).put(price, quantity);
+                }
+            });
+
+            // then : 레벨당 한 번만 전달되고, 적용한 결과가 오더북 호가와 같다
+            assertEquals(changed.size(), changed.stream().distinct().count());
+            assertEquals(describeDepth(orderBook.getBuySide()), describeDepth(bids.descendingMap()));
+            assertEquals(describeDepth(orderBook.getSellSide()), describeDepth(asks));
+        }
+
+        // when : 바뀐 것이 없으면 전달하지 않는다
+        assertFalse(orderBook.drainDepthChanges((buySide, price, quantity) -> fail()));
+    }
+
+    private List<String> describeDepth(OrderBookSide side) {
+        List<String> levels = new ArrayList<>();
+        for (PriceLevel level : side.getLevels()) {
+            levels.add(level.getPrice() + ":" + level.getTotalQuantity());
+        }
+        return levels;
+    }
+
+    private List<String> describeDepth(Map<Long, Long> levels) {
+        List<String> described = new ArrayList<>();
+        levels.forEach((price, quantity) -> described.add(price + ":" + quantity));
+        return described;
+    }
+
+    private void submit(OrderBook orderBook, CoinOrderDTO order) {
+        if (order.isStopOrder()) {
+            orderBook.addStop(order);
+        } else {
+            orderBook.match(order);
+        }
+        CoinOrderDTO triggered;
+        while ((triggered = orderBook.pollTriggeredStop()) != null) {
+            orderBook.match(triggered);
+        }
+    }
+
+    private CoinOrderDTO createStopOrder(OrderType type, ExecutionType executionType, String triggerPrice, String price, String amount) {
+        CoinOrderDTO order = createOrder(type, executionType, price, amount);
+        order.setUuid("STOP-" + order.getUuid() + "-" + triggerPrice);
+        order.setTriggerPrice(new BigDecimal(triggerPrice));
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    private List<String> describe(OrderBookSide side) {
+        List<String> levels = new ArrayList<>();
+        for (PriceLevel level : side.getLevels()) {
+            levels.add(level.getPrice() + ":" + level.getTotalQuantity() + ":" + level.getOrderCount());
+        }
+        return levels;
+    }
+
+    @Test
+    public void testMatchIsAllocationFreeAfterWarmUp() {
+        // given : 호가 단위가 있는 마켓 (배열 오더북), 매도 64건(각 2개)을 매수 128건(각 1개)이 나눠서 체결
+        MarketScale scale = new MarketScale(0, 8, 1000);
+        OrderBook orderBook = new OrderBook("BTC-KRW", scale);
+        CoinOrderDTO[] makers = new CoinOrderDTO[64];
+        CoinOrderDTO[] takers = new CoinOrderDTO[128];
+        for (int i = 0; i < makers.length; i++) {
+            makers[i] = createOrder(SELL, String.valueOf(100_000_000L + (i % 8) * 1000), "2");
+            makers[i].setUuid("Maker-" + i);
+            scale.applyTo(makers[i]);
+        }
+        for (int i = 0; i < takers.length; i++) {
+            takers[i] = createOrder(BUY, "100010000", "1");
+            takers[i].setUuid("Taker-" + i);
+            scale.applyTo(takers[i]);
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // 워밍업 : 풀/인덱스/체결 버퍼가 필요한 만큼 커지고 JIT 컴파일이 끝나도록 반복
+        for (int i = 0; i < 20_000; i++) {
+            runMatchCycle(orderBook, makers, takers);
+        }
+
+        // when
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            runMatchCycle(orderBook, makers, takers);
+        }
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+
+        // then : 주문 등록/부분 체결/완전 체결 경로 모두 힙 할당이 없어야 한다
+        assertEquals(0, allocated, "match loop allocated " + allocated + " bytes");
+        assertEquals(0, orderBook.getOrderCount());
+    }
+
+    private void runMatchCycle(OrderBook orderBook, CoinOrderDTO[] makers, CoinOrderDTO[] takers) {
+        for (CoinOrderDTO maker : makers) {
+            maker.setQuantityLots(200_000_000L);
+            orderBook.add(maker);
+        }
+        for (CoinOrderDTO taker : takers) {
+            taker.setQuantityLots(100_000_000L);
+            FillBuffer fills = orderBook.match(taker);
+            assertEquals(1, fills.size());
+        }
+    }
+}
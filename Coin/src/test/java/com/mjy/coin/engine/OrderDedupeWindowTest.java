@@ -0,0 +1,67 @@
+package com.mjy.coin.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDedupeWindowTest {
+
+    @Test
+    public void testSameIdIsRejectedInsideWindow() {
+        // given
+        OrderDedupeWindow window = new OrderDedupeWindow(1_000, 100);
+
+        // when & then
+        assertTrue(window.admit("member-1:a", 0));
+        assertTrue(window.admit("member-1:b", 10));
+        assertFalse(window.admit("member-1:a", 999));
+        assertTrue(window.admit("member-2:a", 999));
+    }
+
+    @Test
+    public void testIdExpiresAfterWindow() {
+        // given
+        OrderDedupeWindow window = new OrderDedupeWindow(1_000, 100);
+        window.admit("a", 0);
+        window.admit("b", 500);
+
+        // when : a만 창을 벗어났다
+        boolean admitted = window.admit("a", 1_000);
+
+        // then
+        assertTrue(admitted);
+        assertFalse(window.admit("b", 1_000));
+        assertEquals(2, window.size());
+    }
+
+    @Test
+    public void testOldestIdIsEvictedOverMaxEntries() {
+        // given
+        OrderDedupeWindow window = new OrderDedupeWindow(60_000, 3);
+        for (int i = 0; i < 4; i++) {
+            window.admit("id-" + i, i);
+        }
+
+        // then : 가장 오래된 id-0만 지워졌다
+        assertEquals(3, window.size());
+        assertTrue(window.admit("id-0", 10));
+        assertFalse(window.admit("id-3", 10));
+    }
+
+    @Test
+    public void testOrderIdIsKeptWhileIdIsInWindow() {
+        // given
+        OrderDedupeWindow window = new OrderDedupeWindow(1_000, 100);
+        window.admit("member-1:a", 0);
+
+        // when
+        window.bindOrderId("member-1:a", "Order-1");
+        window.bindOrderId("member-1:b", "Order-2");
+
+        // then : 접수한 ID에만 연결되고 창을 벗어나면 함께 지워진다
+        assertEquals("Order-1", window.getOrderId("member-1:a"));
+        assertNull(window.getOrderId("member-1:b"));
+        window.admit("member-1:c", 1_000);
+        assertNull(window.getOrderId("member-1:a"));
+    }
+}
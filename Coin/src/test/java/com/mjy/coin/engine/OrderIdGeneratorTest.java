@@ -0,0 +1,78 @@
+package com.mjy.coin.engine;
+
+import com.mjy.wire.WireId;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdGeneratorTest {
+
+    private final long now = WireId.EPOCH_MILLIS + 1_000_000;
+
+    @Test
+    public void testIdsIncreaseWithinAndAcrossMillis() {
+        // given
+        OrderIdGenerator generator = new OrderIdGenerator(7);
+
+        // when
+        long first = generator.nextId(now);
+        long second = generator.nextId(now);
+        long third = generator.nextId(now + 1);
+
+        // then
+        assertTrue(first < second && second < third);
+        assertEquals(now, WireId.timestampMillis(first));
+        assertEquals(7, WireId.node(first));
+        assertEquals(1, WireId.sequence(second));
+        assertEquals(0, WireId.sequence(third));
+    }
+
+    @Test
+    public void testSequenceOverflowBorrowsNextMillisAndClockGoingBackStaysMonotonic() {
+        // given
+        OrderIdGenerator generator = new OrderIdGenerator(1);
+        Set<Long> ids = new HashSet<>();
+        long last = 0;
+
+        // when : 같은 밀리초에 순번보다 많이 만들고, 시계가 뒤로 간다
+        for (int i = 0; i < 5000; i++) {
+            long id = generator.nextId(i < 4500 ? now : now - 10);
+
+            // then
+            assertTrue(id > last);
+            assertTrue(ids.add(id));
+            last = id;
+        }
+        assertEquals(now + 1, WireId.timestampMillis(last));
+
+        // when : 시계가 빌려 쓴 밀리초를 지나면 다시 현재 시각
+        long id = generator.nextId(now + 5);
+
+        // then
+        assertEquals(now + 5, WireId.timestampMillis(id));
+        assertEquals(0, WireId.sequence(id));
+    }
+
+    @Test
+    public void testRecordIdDependsOnlyOnRecordOffset() {
+        // when
+        long order = OrderIdGenerator.recordId(1025, 0);
+        long fill = OrderIdGenerator.recordId(1025, 1);
+        long lastFill = OrderIdGenerator.recordId(1025, (int) WireId.MAX_RECORD_INDEX);
+
+        // then : 같은 레코드면 항상 같은 id, 오프셋 순서대로 커진다
+        assertEquals(order, OrderIdGenerator.recordId(1025, 0));
+        assertEquals(order + 1, fill);
+        assertTrue(lastFill < OrderIdGenerator.recordId(1026, 0));
+
+        // then : 오프셋 차이가 1024의 배수여도 겹치지 않는다
+        assertNotEquals(order, OrderIdGenerator.recordId(1, 0));
+        assertNotEquals(order, OrderIdGenerator.recordId(1025 + 1024, 0));
+        assertTrue(WireId.isId(WireId.encode(OrderIdGenerator.recordId(WireId.MAX_RECORD_OFFSET, (int) WireId.MAX_RECORD_INDEX))));
+        assertThrows(IllegalArgumentException.class, () -> OrderIdGenerator.recordId(1025, (int) WireId.MAX_RECORD_INDEX + 1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(1024));
+    }
+}
@@ -49,7 +49,7 @@ public class CoinOrderServiceTest {
         Long[] expected = new Long[]{1L, 100L};
 
         // SQL 쿼리와 파라미터에 맞춘 모킹 설정
-        String sql = "SELECT MIN(idx), MAX(idx) FROM CoinOrder WHERE matchedAt BETWEEN ? AND ?";
+        String sql = "SELECT MIN(tradeId), MAX(tradeId) FROM CoinTrade WHERE matchedAt BETWEEN ? AND ?";
         LocalDateTime startOfDay = today.atStartOfDay();
         LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
 
@@ -0,0 +1,83 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketJournal;
+import com.mjy.coin.engine.MarketScale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mjy.coin.enums.OrderType.BUY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalService journalService;
+
+    private final String key = "BTC-KRW";
+
+    @AfterEach
+    void tearDown() {
+        if (journalService != null) {
+            journalService.shutdown();
+        }
+    }
+
+    private CoinOrderDTO createOrder(String uuid) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(uuid);
+        order.setMemberIdx(7L);
+        order.setMemberUuid("member-" + uuid);
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        order.setOrderType(BUY);
+        order.setOrderPrice(new BigDecimal("100"));
+        order.setCoinAmount(new BigDecimal("1"));
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    @Test
+    public void testExecuteDownstream_GroupCommitFlushedWithoutNextCommit() throws InterruptedException {
+        // given : 그룹 커밋(200ms) 대기 중인 주문 하나, 이후 주문이 끊긴다
+        journalService = new JournalService(true, directory.toString(), 1 << 16, "batch", 256, 200, 1024, 0);
+        MarketJournal journal = journalService.getJournal(key);
+        journal.appendOrder(createOrder("Order-1"));
+        journal.commit();
+
+        // when
+        CountDownLatch persisted = new CountDownLatch(1);
+        journalService.executeDownstream(key, persisted::countDown);
+
+        // then : 다음 커밋 없이도 전용 스레드의 그룹 커밋 fsync 뒤에 반영된다
+        assertTrue(persisted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteDownstream_LeaseLostIsNotRetried() throws InterruptedException {
+        // given : 저널 fsync를 기다리지 않는 정책
+        journalService = new JournalService(true, directory.toString(), 1 << 16, "none", 256, 5, 1024, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when : 임대를 잃어 Redis 반영 스크립트가 거부한 작업 뒤에 다음 작업
+        journalService.executeDownstream(key, () -> {
+            attempts.incrementAndGet();
+            throw new LeaseLostException("Engine lease is no longer held");
+        });
+        CountDownLatch next = new CountDownLatch(1);
+        journalService.executeDownstream(key, next::countDown);
+
+        // then : 거부된 작업은 다시 시도하지 않고 버려 persist 레인이 멈추지 않는다
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,87 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.enums.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.mjy.coin.enums.OrderStatus.PENDING;
+import static com.mjy.coin.enums.OrderType.BUY;
+import static com.mjy.coin.enums.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OrderBookServiceTest {
+
+    private final String key = "BTC-KRW";
+
+    private CoinOrderDTO createOrder(OrderType type, String price, String amount) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setUuid(type + "-" + price + "-" + amount);
+        order.setOrderType(type);
+        order.setOrderPrice(new BigDecimal(price));
+        order.setCoinAmount(new BigDecimal(amount));
+        order.setOrderStatus(PENDING);
+        MarketScale.DEFAULT.applyTo(order);
+        return order;
+    }
+
+    @Test
+    public void testPublishedDepthKeepsBestFirstOrderAndTopN() {
+        // given : 상위 2개 레벨만 공개
+        OrderBookService orderBookService = new OrderBookService(mock(OrderService.class), 2);
+        OrderBook orderBook = new OrderBook(key, MarketScale.DEFAULT);
+        orderBook.add(createOrder(BUY, "98", "1"));
+        orderBook.add(createOrder(BUY, "100", "2"));
+        orderBook.add(createOrder(BUY, "99", "3"));
+        orderBook.add(createOrder(SELL, "103", "1"));
+        orderBook.add(createOrder(SELL, "101", "1.5"));
+
+        // when
+        orderBookService.publishDepth(key, orderBook);
+        Map<String, Map<BigDecimal, BigDecimal>> depth = orderBookService.getDepth(key);
+
+        // then : 매수는 높은 가격부터, 매도는 낮은 가격부터
+        assertEquals(List.of("buy", "sell"), List.copyOf(depth.keySet()));
+        assertEquals(List.of(new BigDecimal("100"), new BigDecimal("99")), List.copyOf(depth.get("buy").keySet()));
+        assertEquals(List.of(new BigDecimal("101"), new BigDecimal("103")), List.copyOf(depth.get("sell").keySet()));
+        assertEquals(new BigDecimal("1.5"), depth.get("sell").get(new BigDecimal("101")));
+        assertThrows(UnsupportedOperationException.class, () -> depth.get("buy").clear());
+    }
+
+    @Test
+    public void testReadersSeeLastPublishedDepthOnly() {
+        // given
+        OrderBookService orderBookService = new OrderBookService(mock(OrderService.class), 10);
+        OrderBook orderBook = new OrderBook(key, MarketScale.DEFAULT);
+        orderBook.add(createOrder(SELL, "101", "1"));
+        orderBookService.publishDepth(key, orderBook);
+        Map<String, Map<BigDecimal, BigDecimal>> published = orderBookService.getDepth(key);
+
+        // when : 다음 공개 전까지의 오더북 변경은 조회에 보이지 않는다
+        orderBook.add(createOrder(SELL, "102", "1"));
+
+        // then
+        assertSame(published, orderBookService.getDepth(key));
+        assertEquals(1, published.get("sell").size());
+
+        // when
+        orderBookService.publishDepth(key, orderBook);
+
+        // then : 이전에 받은 호가는 그대로이고 새 호가가 공개된다
+        assertEquals(1, published.get("sell").size());
+        assertEquals(2, orderBookService.getDepth(key).get("sell").size());
+
+        // when : 맡지 않게 된 마켓은 빈 호가
+        orderBookService.removeDepth(key);
+
+        // then
+        assertTrue(orderBookService.getDepth(key).get("buy").isEmpty());
+        assertTrue(orderBookService.getDepth(key).get("sell").isEmpty());
+    }
+}
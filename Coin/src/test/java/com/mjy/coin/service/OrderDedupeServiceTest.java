@@ -0,0 +1,90 @@
+package com.mjy.coin.service;
+
+import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDedupeServiceTest {
+
+    private final String key = "BTC-KRW";
+
+    private OrderDedupeService orderDedupeService;
+
+    private OrderBook orderBook;
+
+    @BeforeEach
+    void setUp() {
+        orderDedupeService = new OrderDedupeService(true, 600000, 100000);
+        orderBook = new OrderBook(key, MarketScale.DEFAULT);
+        orderBook.setSourceOffset(10);
+    }
+
+    private CoinOrderDTO createOrder(long sourceOffset, String memberUuid, String clientOrderId) {
+        CoinOrderDTO order = new CoinOrderDTO();
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
+        order.setSourceOffset(sourceOffset);
+        order.setMemberUuid(memberUuid);
+        order.setClientOrderId(clientOrderId);
+        return order;
+    }
+
+    @Test
+    public void testIsDuplicate_OffsetAlreadyApplied() {
+        // then : 오더북이 반영한 오프셋 이하는 중복, 이후 오프셋은 처음 보는 주문
+        assertTrue(orderDedupeService.isDuplicate(key, orderBook, createOrder(9, "member-1", null)));
+        assertTrue(orderDedupeService.isDuplicate(key, orderBook, createOrder(10, "member-1", null)));
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, createOrder(11, "member-1", null)));
+    }
+
+    @Test
+    public void testIsDuplicate_SameClientOrderIdOnNewOffset() {
+        // given : 같은 주문 요청 ID로 먼저 접수된 주문
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, createOrder(11, "member-1", "client-1")));
+
+        // when & then : 다른 오프셋으로 다시 들어와도 중복
+        assertTrue(orderDedupeService.isDuplicate(key, orderBook, createOrder(12, "member-1", "client-1")));
+    }
+
+    @Test
+    public void testIsDuplicate_SameClientOrderIdOfOtherMember() {
+        // given
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, createOrder(11, "member-1", "client-1")));
+
+        // when & then : 주문 요청 ID는 회원별이므로 다른 회원의 같은 ID는 새 주문
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, createOrder(12, "member-2", "client-1")));
+    }
+
+    @Test
+    public void testIsDuplicate_CancelWithClientOrderIdFindsOrderId() {
+        // given : 주문 요청 ID로 접수하고 엔진 주문 id가 붙은 주문
+        CoinOrderDTO order = createOrder(11, "member-1", "client-1");
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, order));
+        order.setUuid("Order-1");
+        orderDedupeService.recordOrderId(key, order);
+
+        // when : 같은 주문 요청 ID를 가리키는 취소 요청
+        CoinOrderDTO cancel = createOrder(12, "member-1", "client-1");
+        cancel.setOrderStatus(OrderStatus.CANCELED);
+
+        // then : 중복으로 거르지 않고, 회원 본인의 주문 id만 찾는다
+        assertFalse(orderDedupeService.isDuplicate(key, orderBook, cancel));
+        assertEquals("Order-1", orderDedupeService.findOrderId(key, "member-1", "client-1"));
+        assertNull(orderDedupeService.findOrderId(key, "member-2", "client-1"));
+    }
+
+    @Test
+    public void testIsDuplicate_Disabled() {
+        // given : 중복 거르기 비활성화
+        OrderDedupeService disabled = new OrderDedupeService(false, 600000, 100000);
+
+        // then : 반영한 오프셋이나 같은 주문 요청 ID도 그대로 처리한다
+        assertFalse(disabled.isDuplicate(key, orderBook, createOrder(10, "member-1", "client-1")));
+        assertFalse(disabled.isDuplicate(key, orderBook, createOrder(11, "member-1", "client-1")));
+    }
+}
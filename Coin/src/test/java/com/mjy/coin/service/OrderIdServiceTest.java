@@ -0,0 +1,52 @@
+package com.mjy.coin.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    private ReplicaService replicaService;
+
+    private KafkaTransactionService kafkaTransactionService;
+
+    @BeforeEach
+    void setUp() {
+        // 복제/Kafka 트랜잭션 모드가 아니어서 노드로 id를 만든다
+        JournalService journalService = new JournalService(false, "./journal", 1 << 20, "batch", 256, 5, 1024, 0);
+        replicaService = new ReplicaService(redisService, journalService, null, false, "coin-b", 3000, 1000, 4096, 10000);
+        kafkaTransactionService = new KafkaTransactionService(null, replicaService, journalService, false);
+    }
+
+    @Test
+    public void testInit_NodeUsedByOtherInstanceFailsFast() {
+        // given : 노드 3을 다른 인스턴스가 이미 등록했다
+        when(redisService.tryAcquireLease(eq("ENGINE:NODE:3"), eq("coin-b"), any())).thenReturn(false);
+        when(redisService.renewLease(eq("ENGINE:NODE:3"), eq("coin-b"), any())).thenReturn(false);
+        when(redisService.getValues("ENGINE:NODE:3")).thenReturn("coin-a");
+        OrderIdService orderIdService = new OrderIdService(replicaService, kafkaTransactionService, redisService, 3, "coin-b");
+
+        // when & then : 같은 id가 나오지 않도록 시작하지 않는다
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, orderIdService::init);
+        assertTrue(thrown.getMessage().contains("coin-a"));
+    }
+
+    @Test
+    public void testConstructor_NodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderIdService(replicaService, kafkaTransactionService, redisService, 1024, "coin-b"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderIdService(replicaService, kafkaTransactionService, redisService, -1, "coin-b"));
+    }
+}
@@ -2,6 +2,10 @@ package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
 import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBookSide;
+import com.mjy.coin.engine.TreeOrderBookSide;
 import com.mjy.coin.enums.OrderStatus;
 import com.mjy.coin.enums.OrderType;
 import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
@@ -30,7 +34,7 @@ class PendingOrderMatcherServiceV1Test {
     private RedisService redisService;
 
     @Mock
-    private KafkaTemplate<String, Map<String, List<CoinOrderDTO>>> matchListKafkaTemplate;
+    private KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate;
 
     @Mock
     private KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate;
@@ -60,24 +64,17 @@ class PendingOrderMatcherServiceV1Test {
         buyOrder.setExecutionPrice(BigDecimal.valueOf(50000));
 
 
-        // Comparator 설정 (OrderService에서 사용한 것과 동일)
-        Comparator<CoinOrderDTO> buyOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
-
-        Comparator<CoinOrderDTO> sellOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
-
-        // PriorityQueue 초기화
-        PriorityQueue<CoinOrderDTO> buyOrders = new PriorityQueue<>(buyOrderComparator);
-        PriorityQueue<CoinOrderDTO> sellOrders = new PriorityQueue<>(sellOrderComparator);
+        // 오더북 초기화 (가격/수량을 틱/랏으로 변환)
+        MarketScale.DEFAULT.applyTo(buyOrder);
+        MarketScale.DEFAULT.applyTo(sellOrder);
+        OrderBookSide buyOrders = new TreeOrderBookSide(true);
+        OrderBookSide sellOrders = new TreeOrderBookSide(false);
 
         // 주문 추가
         buyOrders.add(buyOrder);
         sellOrders.add(sellOrder);
 
-        // Mockito에서 PriorityQueue 반환하도록 설정
+        // Mockito에서 오더북 반환하도록 설정
         when(orderService.getBuyOrderQueue(testKey)).thenReturn(buyOrders);
         when(orderService.getSellOrderQueue(testKey)).thenReturn(sellOrders);
 
@@ -117,24 +114,17 @@ class PendingOrderMatcherServiceV1Test {
         sellOrder.setMarketName("KRW");
 
 
-        // Comparator 설정 (OrderService에서 사용한 것과 동일)
-        Comparator<CoinOrderDTO> buyOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
-
-        Comparator<CoinOrderDTO> sellOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
-
-        // PriorityQueue 초기화
-        PriorityQueue<CoinOrderDTO> buyOrders = new PriorityQueue<>(buyOrderComparator);
-        PriorityQueue<CoinOrderDTO> sellOrders = new PriorityQueue<>(sellOrderComparator);
+        // 오더북 초기화 (가격/수량을 틱/랏으로 변환)
+        MarketScale.DEFAULT.applyTo(buyOrder);
+        MarketScale.DEFAULT.applyTo(sellOrder);
+        OrderBookSide buyOrders = new TreeOrderBookSide(true);
+        OrderBookSide sellOrders = new TreeOrderBookSide(false);
 
         // 주문 추가
         buyOrders.add(buyOrder);
         sellOrders.add(sellOrder);
 
-        // Mockito에서 PriorityQueue 반환하도록 설정
+        // Mockito에서 오더북 반환하도록 설정
         lenient().when(orderService.getBuyOrderQueue(buyOrder.getCoinName() + "-" + buyOrder.getMarketName())).thenReturn(buyOrders);
         lenient().when(orderService.getSellOrderQueue(sellOrder.getCoinName() + "-" + sellOrder.getMarketName())).thenReturn(sellOrders);
 
@@ -170,19 +160,17 @@ class PendingOrderMatcherServiceV1Test {
         sellOrder.setCoinName("BTC");
         sellOrder.setMarketName("KRW");
 
-        // PriorityQueue 초기화
-        PriorityQueue<CoinOrderDTO> buyOrders = new PriorityQueue<>(
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt));
-        PriorityQueue<CoinOrderDTO> sellOrders = new PriorityQueue<>(
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt));
+        // 오더북 초기화 (가격/수량을 틱/랏으로 변환)
+        MarketScale.DEFAULT.applyTo(buyOrder);
+        MarketScale.DEFAULT.applyTo(sellOrder);
+        OrderBookSide buyOrders = new TreeOrderBookSide(true);
+        OrderBookSide sellOrders = new TreeOrderBookSide(false);
 
         // 주문 추가
         buyOrders.add(buyOrder);
         sellOrders.add(sellOrder);
 
-        // Mockito에서 PriorityQueue 반환하도록 설정
+        // Mockito에서 오더북 반환하도록 설정
         lenient().when(orderService.getBuyOrderQueue(buyOrder.getCoinName() + "-" + buyOrder.getMarketName())).thenReturn(buyOrders);
         lenient().when(orderService.getSellOrderQueue(sellOrder.getCoinName() + "-" + sellOrder.getMarketName())).thenReturn(sellOrders);
 
@@ -1,16 +1,32 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.dto.OrderBookDepthDTO;
+import com.mjy.coin.dto.PriceVolumeDTO;
+import com.mjy.coin.dto.TradeDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.engine.OrderIdGenerator;
+import com.mjy.coin.enums.ExecutionType;
 import com.mjy.coin.enums.OrderType;
+import com.mjy.wire.WireId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.mjy.coin.enums.OrderStatus.*;
 import static com.mjy.coin.enums.OrderType.BUY;
@@ -18,8 +34,7 @@ import static com.mjy.coin.enums.OrderType.SELL;
 import static com.mjy.coin.util.CommonUtil.generateUniqueKey;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class PendingOrderMatcherServiceV2Test {
@@ -28,207 +43,497 @@ class PendingOrderMatcherServiceV2Test {
     private OrderService orderService;
 
     @Mock
-    private OrderBookService orderBookService;
+    private RedisService redisService;
+
+    // 저널 비활성화 : Redis 반영이 호출 스레드에서 바로 실행된다
+    @Spy
+    private JournalService journalService = new JournalService(false, "./journal", 1 << 20, "batch", 256, 5, 1024, 0);
 
     @Mock
-    private RedisService redisService;
+    private KafkaTemplate<String, Map<String, List<TradeDTO>>> matchListKafkaTemplate;
+
+    @Mock
+    private KafkaTemplate<String, Map<String, List<PriceVolumeDTO>>> priceVolumeMapKafkaTemplate;
+
+    @Mock
+    private KafkaTemplate<String, OrderBookDepthDTO> depthKafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<Map<String, List<PriceVolumeDTO>>> priceVolume;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
     private PendingOrderMatcherServiceV2 pendingOrderMatcherService;
 
+    private final String key = "BTC-KRW";
+
+    private OrderBook orderBook;
+
+    @BeforeEach
+    void setUp() {
+        orderBook = new OrderBook(key, MarketScale.DEFAULT);
+        lenient().when(orderService.getOrderBook(key)).thenReturn(orderBook);
+        lenient().when(matchListKafkaTemplate.send(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(priceVolumeMapKafkaTemplate.send(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        // KafkaTemplate 두 개가 같은 타입이라 직접 생성, 복제 모드 비활성화 (항상 운영 인스턴스)
+        pendingOrderMatcherService = createMatcherService(false);
+    }
+
+    private PendingOrderMatcherServiceV2 createMatcherService(boolean replicaEnabled) {
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, replicaEnabled, "coin", 3000, 1000, 4096, 10000);
+        return createMatcherService(replicaService, new KafkaTransactionService(null, replicaService, journalService, false), false);
+    }
+
+    private PendingOrderMatcherServiceV2 createMatcherService(ReplicaService replicaService, KafkaTransactionService kafkaTransactionService,
+                                                              boolean depthEnabled) {
+        DepthStreamService depthStreamService = new DepthStreamService(depthEnabled, "Order-Book-L2", journalService, replicaService,
+                kafkaTransactionService, depthKafkaTemplate);
+        return new PendingOrderMatcherServiceV2(null, orderService, redisService, journalService, replicaService,
+                kafkaTransactionService, depthStreamService, new MatchMetricsService(meterRegistry, true, false, 60000),
+                new OrderIdService(replicaService, kafkaTransactionService, redisService, 1, "coin"),
+                matchListKafkaTemplate, priceVolumeMapKafkaTemplate);
+    }
+
+    // 주문 하나 처리 후 Redis에 한 번에 반영된 변경
+    private RedisOrderBatch captureBatch() {
+        ArgumentCaptor<RedisOrderBatch> batch = ArgumentCaptor.forClass(RedisOrderBatch.class);
+        verify(redisService, times(1)).commitOrderBatch(eq(key), batch.capture());
+        verifyNoMoreInteractions(redisService);
+        return batch.getValue();
+    }
+
     private CoinOrderDTO createOrder(OrderType type, String price, String amount) {
         CoinOrderDTO order = new CoinOrderDTO();
         order.setUuid(generateUniqueKey("Order"));
+        order.setCoinName("BTC");
+        order.setMarketName("KRW");
         order.setOrderType(type);
         order.setOrderPrice(new BigDecimal(price));
         order.setCoinAmount(new BigDecimal(amount));
         order.setOrderStatus(PENDING);
+        MarketScale.DEFAULT.applyTo(order);
         return order;
     }
 
     @Test
-    public void testCalculateRemainingQuantity() {
+    public void testMatchOrders_CompleteMatch() {
         // given
-        CoinOrderDTO order = createOrder(BUY, "110", "1.5");
-        CoinOrderDTO oppositeOrder = createOrder(BUY, "110", "1.5");
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "100", "1.5");
 
         // when
-        BigDecimal remaining = pendingOrderMatcherService.calculateRemainingQuantity(order, oppositeOrder);
+        pendingOrderMatcherService.matchOrders(order);
 
-        // then
-        assertEquals(0, remaining.compareTo(BigDecimal.ZERO));
+        // then : 두 주문 모두 반대 주문 가격(90)으로 체결
+        assertEquals(COMPLETED, order.getOrderStatus());
+        assertEquals(COMPLETED, oppositeOrder.getOrderStatus());
+        assertEquals(0, new BigDecimal("90").compareTo(order.getExecutionPrice()));
+        assertTrue(WireId.isId(order.getMatchIdx()));
+        assertEquals(order.getMatchIdx(), oppositeOrder.getMatchIdx());
+
+        // 체결은 양쪽 주문 정보를 담은 한 건
+        RedisOrderBatch batch = captureBatch();
+        assertEquals(1, batch.getTrades().size());
+        TradeDTO trade = batch.getTrades().get(0);
+        assertEquals(order.getMatchIdx(), trade.getTradeId());
+        assertEquals(BUY, trade.getTakerOrderType());
+        assertEquals(order.getUuid(), trade.getTakerOrderUuid());
+        assertEquals(oppositeOrder.getUuid(), trade.getMakerOrderUuid());
+        assertEquals(0, new BigDecimal("90").compareTo(trade.getPrice()));
+        assertEquals(0, new BigDecimal("1.5").compareTo(trade.getQuantity()));
+        assertEquals(List.of(oppositeOrder.getUuid()), batch.getRemovedPendingUuids());
+        assertTrue(batch.getPendingOrders().isEmpty());
+
+        // 오더북은 비어 있어야 한다
+        assertTrue(orderBook.getSellSide().isEmpty());
+        assertTrue(orderBook.getBuySide().isEmpty());
     }
 
     @Test
-    public void testIsCompleteMatch() {
-        // given
-        BigDecimal zeroQuantity = BigDecimal.ZERO;
-        BigDecimal nonZeroQuantity = new BigDecimal("1.5");
+    public void testMatchOrders_OversizeMatch() {
+        // given : 주문(2.0)이 반대 주문(1.5)보다 크다
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "100", "2.0");
+        String uuid = order.getUuid();
+
+        // when
+        pendingOrderMatcherService.matchOrders(order);
+
+        // then : 체결된 1.5는 주문을 나누지 않고 원래 uuid로 체결 한 건, 남은 0.5는 원래 uuid로 미체결 등록
+        RedisOrderBatch batch = captureBatch();
+        List<TradeDTO> trades = batch.getTrades();
+        assertEquals(1, trades.size());
+        assertEquals(uuid, trades.get(0).getTakerOrderUuid());
+        assertEquals(oppositeOrder.getUuid(), trades.get(0).getMakerOrderUuid());
+        assertEquals(0, new BigDecimal("1.5").compareTo(trades.get(0).getQuantity()));
+        assertEquals(COMPLETED, oppositeOrder.getOrderStatus());
+        assertEquals(List.of(oppositeOrder.getUuid()), batch.getRemovedPendingUuids());
 
-        // when & then
-        assertTrue(pendingOrderMatcherService.isCompleteMatch(zeroQuantity), "남은 수량이 0인 경우 true 반환");
-        assertFalse(pendingOrderMatcherService.isCompleteMatch(nonZeroQuantity), "남은 수량이 양수인 경우 false 반환");
+        assertEquals(PENDING, order.getOrderStatus());
+        assertEquals(uuid, order.getUuid());
+        assertEquals(0, new BigDecimal("0.5").compareTo(order.getCoinAmount()));
+        assertEquals(1, batch.getPendingOrders().size());
+        assertEquals(uuid, batch.getPendingOrders().get(0).getUuid());
+        assertEquals(0, new BigDecimal("0.5").compareTo(batch.getPendingOrders().get(0).getCoinAmount()));
+
+        assertSame(order, orderBook.getBuySide().peek());
+        assertTrue(orderBook.getSellSide().isEmpty());
     }
 
+    @Test
+    public void testMatchOrders_UndersizedMatch() {
+        // given : 주문(1.0)이 반대 주문(1.5)보다 작다
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
+        orderBook.add(oppositeOrder);
+        String oppositeUuid = oppositeOrder.getUuid();
+        CoinOrderDTO order = createOrder(BUY, "100", "1.0");
+
+        // when
+        pendingOrderMatcherService.matchOrders(order);
+
+        // then : 주문은 모두 체결, 반대 주문은 원래 uuid로 체결 한 건이 기록되고 0.5가 남는다
+        assertEquals(COMPLETED, order.getOrderStatus());
+
+        RedisOrderBatch batch = captureBatch();
+        List<TradeDTO> trades = batch.getTrades();
+        assertEquals(1, trades.size());
+        assertEquals(order.getUuid(), trades.get(0).getTakerOrderUuid());
+        assertEquals(oppositeUuid, trades.get(0).getMakerOrderUuid());
+        assertEquals(0, new BigDecimal("1.0").compareTo(trades.get(0).getQuantity()));
+
+        assertEquals(PENDING, oppositeOrder.getOrderStatus());
+        assertEquals(oppositeUuid, oppositeOrder.getUuid());
+        assertEquals(0, new BigDecimal("0.5").compareTo(oppositeOrder.getCoinAmount()));
+        assertTrue(batch.getRemovedPendingUuids().isEmpty());
+        assertEquals(1, batch.getPendingOrders().size());
+        assertEquals(oppositeUuid, batch.getPendingOrders().get(0).getUuid());
+        assertEquals(0, new BigDecimal("0.5").compareTo(batch.getPendingOrders().get(0).getCoinAmount()));
+
+        // 반대 주문은 대기 순서를 유지한 채 잔량만 줄어든다
+        assertSame(oppositeOrder, orderBook.getSellSide().peek());
+        assertEquals(50_000_000L, orderBook.getSellSide().getPeekQuantity());
+    }
 
     @Test
-    public void testIsOversizeMatch() {
-        // given
-        BigDecimal positiveQuantity = new BigDecimal("1.5");
-        BigDecimal zeroQuantity = BigDecimal.ZERO;
-        BigDecimal negativeQuantity = new BigDecimal("-1.5");
+    public void testMatchOrders_PriceNotMatching() {
+        // given : 매수 80 < 매도 90
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "80", "1.5");
 
-        // when & then
-        assertTrue(pendingOrderMatcherService.isOversizeMatch(positiveQuantity), "남은 수량이 양수인 경우 true 반환");
-        assertFalse(pendingOrderMatcherService.isOversizeMatch(zeroQuantity), "남은 수량이 0인 경우 false 반환");
-        assertFalse(pendingOrderMatcherService.isOversizeMatch(negativeQuantity), "남은 수량이 음수인 경우 false 반환");
+        // when
+        pendingOrderMatcherService.matchOrders(order);
+
+        // then : 체결 없이 미체결로 등록
+        RedisOrderBatch batch = captureBatch();
+        assertTrue(batch.getTrades().isEmpty());
+        assertEquals(1, batch.getPendingOrders().size());
+        assertEquals(order.getUuid(), batch.getPendingOrders().get(0).getUuid());
+        assertSame(order, orderBook.getBuySide().peek());
+        assertSame(oppositeOrder, orderBook.getSellSide().peek());
     }
 
     @Test
-    public void testIsUndersizedMatch() {
-        // given
-        BigDecimal negativeQuantity = new BigDecimal("-1.5");
-        BigDecimal zeroQuantity = BigDecimal.ZERO;
-        BigDecimal positiveQuantity = new BigDecimal("1.5");
+    public void testMatchOrders_ImmediateOrCancelRemainderIsNotPending() {
+        // given : 매도 90(1.0)에 IOC 매수 100(1.5)
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.0");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "100", "1.5");
+        order.setExecutionType(ExecutionType.IOC);
 
-        // when & then
-        assertTrue(pendingOrderMatcherService.isUndersizedMatch(negativeQuantity), "남은 수량이 음수인 경우 true 반환");
-        assertFalse(pendingOrderMatcherService.isUndersizedMatch(zeroQuantity), "남은 수량이 0인 경우 false 반환");
-        assertFalse(pendingOrderMatcherService.isUndersizedMatch(positiveQuantity), "남은 수량이 양수인 경우 false 반환");
+        // when
+        pendingOrderMatcherService.matchOrders(order);
+
+        // then : 1.0은 체결, 남은 0.5는 호가/Redis 미체결에 남기지 않고 취소
+        RedisOrderBatch batch = captureBatch();
+        assertEquals(1, batch.getTrades().size());
+        assertTrue(batch.getPendingOrders().isEmpty());
+        assertEquals(CANCELED, order.getOrderStatus());
+        assertEquals(0, new BigDecimal("0.5").compareTo(order.getCoinAmount()));
+        assertTrue(orderBook.getBuySide().isEmpty());
     }
 
     @Test
-    public void testCanMatchOrders() {
-        // Case 1: BUY 타입, 가격 일치, 수량 > 0 => true 반환
-        CoinOrderDTO buyOrder = createOrder(BUY, "100", "1.5");
-        CoinOrderDTO sellOrder = createOrder(SELL, "90", "1.5");
-        assertTrue(pendingOrderMatcherService.canMatchOrders(buyOrder, sellOrder), "BUY 주문이 SELL 주문과 가격 조건을 만족해야 함");
+    public void testMatchOrders_StopOrderTriggeredByTrade() {
+        // given : 매도 90(1.0), 95(1.0)와 발동가 90의 매수 스탑 시장가(1.0)
+        CoinOrderDTO firstOpposite = createOrder(SELL, "90", "1.0");
+        CoinOrderDTO secondOpposite = createOrder(SELL, "95", "1.0");
+        orderBook.add(firstOpposite);
+        orderBook.add(secondOpposite);
+        CoinOrderDTO stopOrder = createOrder(BUY, "0", "1.0");
+        stopOrder.setExecutionType(ExecutionType.MARKET);
+        stopOrder.setTriggerPrice(new BigDecimal("90"));
+        MarketScale.DEFAULT.applyTo(stopOrder);
+
+        // when : 스탑 주문만 들어오면 STOP:ORDER에 저장
+        pendingOrderMatcherService.matchOrders(stopOrder);
 
-        // Case 2: SELL 타입, 가격 일치, 수량 > 0 => true 반환
-        CoinOrderDTO sellOrder2 = createOrder(SELL, "90", "1.5");
-        CoinOrderDTO buyOrder2 = createOrder(BUY, "100", "1.5");
-        assertTrue(pendingOrderMatcherService.canMatchOrders(sellOrder2, buyOrder2), "SELL 주문이 BUY 주문과 가격 조건을 만족해야 함");
+        // then
+        RedisOrderBatch stopBatch = captureBatch();
+        assertEquals(1, stopBatch.getStopOrders().size());
+        assertTrue(stopBatch.getTrades().isEmpty());
+        clearInvocations(redisService);
 
-        // Case 3: BUY 타입, 가격 불일치 => false 반환
-        CoinOrderDTO buyOrderFail = createOrder(BUY, "80", "1.5");
-        CoinOrderDTO sellOrderFail = createOrder(SELL, "90", "1.5");
-        assertFalse(pendingOrderMatcherService.canMatchOrders(buyOrderFail, sellOrderFail),
-                "BUY 주문이 SELL 주문의 가격 조건을 만족하지 않아야 함");
+        // when : 90에 체결되면 스탑 주문이 발동되어 95에 체결
+        CoinOrderDTO order = createOrder(BUY, "90", "1.0");
+        pendingOrderMatcherService.matchOrders(order);
 
-        // Case 4: SELL 타입, 가격 불일치 => false 반환
-        CoinOrderDTO sellOrderFail2 = createOrder(SELL, "110", "1.5");
-        CoinOrderDTO buyOrderFail2 = createOrder(BUY, "100", "1.5");
-        assertFalse(pendingOrderMatcherService.canMatchOrders(sellOrderFail2, buyOrderFail2),
-                "SELL 주문이 BUY 주문의 가격 조건을 만족하지 않아야 함");
+        // then
+        RedisOrderBatch batch = captureBatch();
+        List<TradeDTO> trades = batch.getTrades();
+        assertEquals(2, trades.size());
+        assertEquals(order.getUuid(), trades.get(0).getTakerOrderUuid());
+        assertEquals(firstOpposite.getUuid(), trades.get(0).getMakerOrderUuid());
+        assertEquals(stopOrder.getUuid(), trades.get(1).getTakerOrderUuid());
+        assertEquals(secondOpposite.getUuid(), trades.get(1).getMakerOrderUuid());
+        assertEquals(List.of(stopOrder.getUuid()), batch.getRemovedStopUuids());
+        assertEquals(0, new BigDecimal("95").compareTo(stopOrder.getExecutionPrice()));
+        assertTrue(orderBook.getStopOrders().isEmpty());
+        assertTrue(orderBook.getSellSide().isEmpty());
+    }
 
-        // Case 5: 주문 수량이 0 => false 반환
-        CoinOrderDTO zeroAmountOrder = createOrder(BUY, "100", "0");
-        CoinOrderDTO validOppositeOrder = createOrder(SELL, "90", "1.5");
-        assertFalse(pendingOrderMatcherService.canMatchOrders(zeroAmountOrder, validOppositeOrder),
-                "수량이 0인 경우 false 반환");
+    @Test
+    public void testMatchBatch_FlushesOncePerBatch() {
+        // given : 매도 90(1.0), 95(1.0)에 매수 두 건이 한 배치로 들어온다
+        CoinOrderDTO firstOpposite = createOrder(SELL, "90", "1.0");
+        CoinOrderDTO secondOpposite = createOrder(SELL, "95", "1.0");
+        orderBook.add(firstOpposite);
+        orderBook.add(secondOpposite);
+        CoinOrderDTO firstOrder = createOrder(BUY, "100", "1.0");
+        CoinOrderDTO secondOrder = createOrder(BUY, "100", "1.5");
 
-        // Case 6: 수량 < 0 => false 반환
-        CoinOrderDTO negativeAmountOrder = createOrder(BUY, "100", "-1.5");
-        assertFalse(pendingOrderMatcherService.canMatchOrders(negativeAmountOrder, validOppositeOrder),
-                "수량이 음수인 경우 false 반환");
+        // when
+        CompletableFuture<Void> flushed = pendingOrderMatcherService.matchBatch(key, List.of(firstOrder, secondOrder));
+
+        // then : Redis 반영과 Kafka 전송은 배치당 한 번
+        assertTrue(flushed.isDone());
+        RedisOrderBatch batch = captureBatch();
+        assertEquals(2, batch.getTrades().size());
+        assertEquals(List.of(firstOpposite.getUuid(), secondOpposite.getUuid()), batch.getRemovedPendingUuids());
+        assertEquals(1, batch.getPendingOrders().size());
+        assertEquals(secondOrder.getUuid(), batch.getPendingOrders().get(0).getUuid());
+
+        verify(matchListKafkaTemplate, times(1)).send("Match-List", Map.of(key, batch.getTrades()));
+        verify(priceVolumeMapKafkaTemplate, times(1)).send(eq("Price-Volume"), priceVolume.capture());
+        List<PriceVolumeDTO> priceVolumeList = priceVolume.getValue().get(key);
+        assertEquals(2, priceVolumeList.size());
+        assertEquals(0, new BigDecimal("90").compareTo(priceVolumeList.get(0).getPrice()));
+        assertEquals(0, new BigDecimal("95").compareTo(priceVolumeList.get(1).getPrice()));
+        assertEquals(0, BigDecimal.ONE.compareTo(priceVolumeList.get(1).getVolume()));
+
+        assertSame(secondOrder, orderBook.getBuySide().peek());
+        assertTrue(orderBook.getSellSide().isEmpty());
     }
 
     @Test
-    public void testGetOppositeOrdersQueue() {
-        //given
-        String key = "BTC-KRW";
+    public void testMatchBatch_MakerRestingAndFilledInSameBatchIsNotPending() {
+        // given : 한 배치에서 매도 2.0이 호가에 남고, 매수 1.0이 일부 체결한 뒤 다음 매수 1.0이 모두 체결한다
+        CoinOrderDTO maker = createOrder(SELL, "100", "2.0");
+        CoinOrderDTO firstTaker = createOrder(BUY, "100", "1.0");
+        CoinOrderDTO secondTaker = createOrder(BUY, "100", "1.0");
 
-        Comparator<CoinOrderDTO> buyOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
+        // when
+        pendingOrderMatcherService.matchBatch(key, List.of(maker, firstTaker, secondTaker));
+
+        // then : 배치 안에서 저장/갱신했던 maker 미체결은 삭제만 남는다
+        RedisOrderBatch batch = captureBatch();
+        assertEquals(2, batch.getTrades().size());
+        assertEquals(List.of(maker.getUuid()), batch.getRemovedPendingUuids());
+        assertTrue(batch.getPendingOrders().isEmpty());
+        assertTrue(orderBook.getSellSide().isEmpty());
+    }
 
-        Comparator<CoinOrderDTO> sellOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
+    @Test
+    public void testMatchBatch_EmptyBatchCompletesWithoutSideEffects() {
+        // when
+        CompletableFuture<Void> flushed = pendingOrderMatcherService.matchBatch(key, List.of());
 
-        PriorityQueue<CoinOrderDTO> buyQueue = new PriorityQueue<>(buyOrderComparator);
-        PriorityQueue<CoinOrderDTO> sellQueue = new PriorityQueue<>(sellOrderComparator);
+        // then
+        assertTrue(flushed.isDone());
+        verifyNoInteractions(redisService, matchListKafkaTemplate, priceVolumeMapKafkaTemplate);
+    }
 
-        CoinOrderDTO buyOrder = createOrder(BUY, "100", "1.5");
-        CoinOrderDTO sellOrder = createOrder(SELL, "90", "1.5");
+    @Test
+    public void testMatchBatch_StandbyRetainsSideEffectsUntilPromoted() {
+        // given : 임대를 얻지 못한 대기 인스턴스 (init 전이라 운영 인스턴스가 아니다)
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, true, "standby", 3000, 1000, 4096, 10000);
+        PendingOrderMatcherServiceV2 standby = createMatcherService(replicaService,
+                new KafkaTransactionService(null, replicaService, journalService, false), false);
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.0");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "100", "1.0");
+        order.setSourceOffset(7);
+
+        // when : 체결은 오더북에 그대로 반영되지만 Redis/Kafka 반영은 보관만 한다
+        CompletableFuture<Void> flushed = standby.matchBatch(key, List.of(order));
 
-        buyQueue.add(buyOrder);
-        sellQueue.add(sellOrder);
+        // then
+        assertTrue(flushed.isDone());
+        assertEquals(COMPLETED, order.getOrderStatus());
+        assertTrue(orderBook.getSellSide().isEmpty());
+        verify(redisService, never()).commitOrderBatch(anyString(), any());
+        verifyNoInteractions(matchListKafkaTemplate);
+
+        // when : 운영 인스턴스 임대가 만료되어 승격 (운영 인스턴스 커밋 오프셋을 모르면 보관분 전체 실행)
+        when(redisService.tryAcquireLease(anyString(), anyString(), any())).thenReturn(true);
+        replicaService.maintainLease();
+
+        // then : 승격 후 반영도 자기 임대 값을 실어 Redis의 임대가 바뀌었으면 스크립트가 거부한다
+        assertTrue(replicaService.isPrimary());
+        ArgumentCaptor<RedisOrderBatch> batch = ArgumentCaptor.forClass(RedisOrderBatch.class);
+        verify(redisService, times(1)).commitOrderBatch(eq(key), batch.capture());
+        assertEquals("standby|coinOrderGroup-standby", batch.getValue().getLeaseToken());
+        verify(matchListKafkaTemplate, times(1)).send(eq("Match-List"), any());
+    }
 
-        //when
-        when(orderService.getBuyOrderQueue(key)).thenReturn(buyQueue);
-        when(orderService.getSellOrderQueue(key)).thenReturn(sellQueue);
+    @Test
+    public void testMatchBatch_LeaseLostCompletesFlushWithoutPublishing() {
+        // given : 임대를 잃어 Redis 반영 스크립트가 배치를 거부한다
+        doThrow(new LeaseLostException("Engine lease is no longer held")).when(redisService).commitOrderBatch(eq(key), any(RedisOrderBatch.class));
+        orderBook.add(createOrder(SELL, "90", "1.0"));
+        CoinOrderDTO order = createOrder(BUY, "100", "1.0");
 
-        //then
-        PriorityQueue<CoinOrderDTO> resultForBuy = pendingOrderMatcherService.getOppositeOrdersQueue(buyOrder, key);
-        assertEquals(sellQueue, resultForBuy, "BUY 주문은 SELL 큐를 반환");
+        // when
+        CompletableFuture<Void> flushed = pendingOrderMatcherService.matchBatch(key, List.of(order));
 
-        PriorityQueue<CoinOrderDTO> resultForSell = pendingOrderMatcherService.getOppositeOrdersQueue(sellOrder, key);
-        assertEquals(buyQueue, resultForSell, "SELL 주문은 BUY 큐를 반환");
+        // then : 대기 인스턴스처럼 완료되어 리스너가 멈추지 않고, 체결 목록은 보내지 않는다
+        assertTrue(flushed.isDone());
+        assertFalse(flushed.isCompletedExceptionally());
+        verifyNoInteractions(matchListKafkaTemplate, priceVolumeMapKafkaTemplate);
     }
 
     @Test
-    public void testUpdateOrderWithMatch() {
-        //given
-        CoinOrderDTO order = createOrder(BUY, "100", "1.5");
-        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
+    public void testMatchBatch_RedisFailureFailsFlushWithoutJournal() {
+        // given : 저널이 없으면 다시 반영할 기록이 없으므로 Redis 실패는 배치 실패로 끝난다
+        doThrow(new IllegalStateException("Redis down")).when(redisService).commitOrderBatch(eq(key), any(RedisOrderBatch.class));
+        orderBook.add(createOrder(SELL, "90", "1.0"));
+        CoinOrderDTO order = createOrder(BUY, "100", "1.0");
 
-        BigDecimal executionPrice = new BigDecimal("100.0");
+        // when
+        CompletableFuture<Void> flushed = pendingOrderMatcherService.matchBatch(key, List.of(order));
+
+        // then : 체결 목록은 보내지 않고 리스너가 실패를 알 수 있다
+        assertTrue(flushed.isCompletedExceptionally());
+        verifyNoInteractions(matchListKafkaTemplate, priceVolumeMapKafkaTemplate);
+    }
+
+    @Test
+    public void testMatchBatch_TransactionalDefersKafkaSendsUntilPublished() throws Exception {
+        // given : Kafka 트랜잭션 모드 (저널 사용 여부만 확인하므로 isEnabled만 바꾼다)
+        doReturn(true).when(journalService).isEnabled();
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, false, "coin", 3000, 1000, 4096, 10000);
+        KafkaTransactionService kafkaTransactionService = new KafkaTransactionService(null, replicaService, journalService, true);
+        PendingOrderMatcherServiceV2 transactional = createMatcherService(replicaService, kafkaTransactionService, false);
+        CoinOrderDTO oppositeOrder = createOrder(SELL, "100", "1.0");
+        orderBook.add(oppositeOrder);
+        CoinOrderDTO order = createOrder(BUY, "100", "0.4");
+        order.setSourceOffset(3);
+        order.setSourceTimestamp(WireId.EPOCH_MILLIS + 5_000);
 
         // when
-        pendingOrderMatcherService.updateOrderWithMatch(order, oppositeOrder, executionPrice);
+        transactional.matchBatch(key, List.of(order)).get();
+
+        // then : Redis 반영은 끝났고, 전송은 리스너 스레드가 publish할 때까지 보내지 않는다
+        List<TradeDTO> trades = captureBatch().getTrades();
+        verifyNoInteractions(matchListKafkaTemplate, priceVolumeMapKafkaTemplate);
+        assertEquals(3, orderBook.getSourceOffset());
+
+        // 체결 id는 taker 레코드 오프셋과 체결 순번으로 정해져 다시 체결해도 같다
+        assertEquals(WireId.encode(OrderIdGenerator.recordId(3, 1)), trades.get(0).getTradeId());
+        assertEquals(oppositeOrder.getUuid(), trades.get(0).getMakerOrderUuid());
+
+        // when
+        kafkaTransactionService.publish(List.of(key));
 
         // then
-        assertEquals(COMPLETED, order.getOrderStatus(), "주문 상태가 COMPLETED여야 한다.");
-        assertNotNull(order.getMatchedAt(), "매칭 시간이 존재해야 한다.");
-        assertEquals(executionPrice, order.getExecutionPrice(), "매치 가격이 같아야 한다.");
-        assertEquals(order.getUuid() + "|" + oppositeOrder.getUuid(), order.getMatchIdx(), "매치 인덱스가 일치해야 한다.");
+        verify(matchListKafkaTemplate, times(1)).send(eq("Match-List"), any());
+        verify(priceVolumeMapKafkaTemplate, times(1)).send(eq("Price-Volume"), any());
     }
 
     @Test
-    public void testProcessCompleteMatch() {
-        //given
-        String key = "BTC-KRW";
+    public void testMatchBatch_PublishesSnapshotThenCoalescedDepthChanges() {
+        // given : L2 호가 전송 사용, 매도 호가 두 레벨
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, false, "coin", 3000, 1000, 4096, 10000);
+        PendingOrderMatcherServiceV2 depthMatcher = createMatcherService(replicaService,
+                new KafkaTransactionService(null, replicaService, journalService, false), true);
+        when(depthKafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        orderBook.add(createOrder(SELL, "100", "1.0"));
+        orderBook.add(createOrder(SELL, "101", "2.0"));
+
+        // when : 첫 배치는 전체 호가
+        depthMatcher.matchBatch(key, List.of(createOrder(BUY, "90", "1.0")));
+
+        // when : 같은 배치에서 100 레벨을 두 번 줄이고, 매수 호가를 추가 후 전부 체결
+        depthMatcher.matchBatch(key, List.of(createOrder(BUY, "100", "0.4"), createOrder(BUY, "100", "0.6"),
+                createOrder(BUY, "101", "0.5")));
 
-        Comparator<CoinOrderDTO> buyOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice).reversed()
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
+        // then
+        ArgumentCaptor<OrderBookDepthDTO> depth = ArgumentCaptor.forClass(OrderBookDepthDTO.class);
+        verify(depthKafkaTemplate, times(2)).send(eq("Order-Book-L2"), eq(key), depth.capture());
+        OrderBookDepthDTO snapshot = depth.getAllValues().get(0);
+        assertTrue(snapshot.isSnapshot());
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(1, snapshot.getBuy().size());
+        assertEquals(2, snapshot.getSell().size());
+
+        // 100 레벨은 잔량 0(삭제)으로 한 번, 101 레벨은 남은 잔량 1.5로 한 번, 매수 호가는 바뀌지 않았다
+        OrderBookDepthDTO changes = depth.getAllValues().get(1);
+        assertFalse(changes.isSnapshot());
+        assertEquals(2, changes.getSequence());
+        assertTrue(changes.getBuy().isEmpty());
+        assertEquals(2, changes.getSell().size());
+        assertEquals(0, new BigDecimal("100").compareTo(changes.getSell().get(0).getPrice()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(changes.getSell().get(0).getQuantity()));
+        assertEquals(0, new BigDecimal("101").compareTo(changes.getSell().get(1).getPrice()));
+        assertEquals(0, new BigDecimal("1.5").compareTo(changes.getSell().get(1).getQuantity()));
+    }
 
-        Comparator<CoinOrderDTO> sellOrderComparator =
-                Comparator.comparing(CoinOrderDTO::getOrderPrice)
-                        .thenComparing(CoinOrderDTO::getCreatedAt);
+    @Test
+    public void testMatchBatch_RecordsMarketMetrics() {
+        // given : 매도 1.0, 1.0, 2.0 / 매수는 1.0(양쪽 모두 체결), 1.5(주문이 남음), 0.5(상대 주문이 남음)
+        orderBook.add(createOrder(SELL, "100", "1.0"));
+        orderBook.add(createOrder(SELL, "101", "1.0"));
+        orderBook.add(createOrder(SELL, "102", "2.0"));
+        CoinOrderDTO complete = createOrder(BUY, "100", "1.0");
+        complete.setSourceTimestamp(System.currentTimeMillis() - 50);
+        CoinOrderDTO oversize = createOrder(BUY, "101", "1.5");
+        CoinOrderDTO undersized = createOrder(BUY, "102", "0.5");
 
-        PriorityQueue<CoinOrderDTO> buyQueue = new PriorityQueue<>(buyOrderComparator);
-        PriorityQueue<CoinOrderDTO> sellQueue = new PriorityQueue<>(sellOrderComparator);
+        // when
+        pendingOrderMatcherService.matchBatch(key, List.of(complete, oversize, undersized));
+
+        // then : 체결 유형별 건수, 타임스탬프가 있는 주문만 대기 시간, 배치당 한 번 체결/Redis/전송 시간
+        assertEquals(1.0, meterRegistry.get("coin.engine.fills").tag("market", key).tag("type", "complete").counter().count());
+        assertEquals(1.0, meterRegistry.get("coin.engine.fills").tag("type", "oversize").counter().count());
+        assertEquals(1.0, meterRegistry.get("coin.engine.fills").tag("type", "undersized").counter().count());
+        assertEquals(1, meterRegistry.get("coin.engine.queue.time").tag("market", key).timer().count());
+        assertTrue(meterRegistry.get("coin.engine.queue.time").timer().totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1, meterRegistry.get("coin.engine.match.time").timer().count());
+        assertEquals(1, meterRegistry.get("coin.engine.redis.time").timer().count());
+        assertEquals(1, meterRegistry.get("coin.engine.publish.time").timer().count());
+
+        // 남은 매수 0.5(101)와 매도 1.5(102)가 호가에 남는다
+        assertEquals(1.0, meterRegistry.get("coin.engine.book.levels").tag("side", "buy").gauge().value());
+        assertEquals(1.0, meterRegistry.get("coin.engine.book.levels").tag("side", "sell").gauge().value());
+        assertEquals(2.0, meterRegistry.get("coin.engine.book.orders").gauge().value());
+    }
 
+    @Test
+    public void testUpdateOrderWithMatch() {
+        //given
         CoinOrderDTO order = createOrder(BUY, "100", "1.5");
-        CoinOrderDTO oppositeOrder = createOrder(SELL, "90", "1.5");
-
-        buyQueue.add(order);
-        sellQueue.add(oppositeOrder);
 
-        BigDecimal executionPrice = pendingOrderMatcherService.getExecutionPrice(oppositeOrder);
+        BigDecimal executionPrice = new BigDecimal("100.0");
 
-        //when
-        pendingOrderMatcherService.processCompleteMatch(order, oppositeOrder, key, sellQueue, executionPrice);
+        // when
+        pendingOrderMatcherService.updateOrderWithMatch(order, "0ABCDEFGHJKMN", executionPrice, LocalDateTime.now());
 
         // then
-        // 1. Redis 삽입 확인
-        verify(redisService).insertOrderInRedis(eq(key), eq(COMPLETED), eq(order));
-        verify(redisService).insertOrderInRedis(eq(key), eq(COMPLETED), eq(oppositeOrder));
-
-        // 2. updateOrderWithMatch 결과 확인
-        assertEquals(COMPLETED, order.getOrderStatus());
-        assertEquals(COMPLETED, oppositeOrder.getOrderStatus());
-        assertNotNull(order.getMatchedAt());
-        assertNotNull(oppositeOrder.getMatchedAt());
-        assertEquals(executionPrice, order.getExecutionPrice());
-        assertEquals(executionPrice, oppositeOrder.getExecutionPrice());
-        assertEquals(order.getUuid() + "|" + oppositeOrder.getUuid(), order.getMatchIdx());
-        assertEquals(oppositeOrder.getUuid() + "|" + order.getUuid(), oppositeOrder.getMatchIdx());
-
-        // 3. redis 제거 및 poll 확인
-        verify(redisService).deleteHashOps(eq(PENDING + ":ORDER:" + key), eq(oppositeOrder.getUuid()));
-        assertTrue(sellQueue.isEmpty());
-    }
-}
\ No newline at end of file
+        assertEquals(COMPLETED, order.getOrderStatus(), "주문 상태가 COMPLETED여야 한다.");
+        assertNotNull(order.getMatchedAt(), "매칭 시간이 존재해야 한다.");
+        assertEquals(executionPrice, order.getExecutionPrice(), "매치 가격이 같아야 한다.");
+        assertEquals("0ABCDEFGHJKMN", order.getMatchIdx(), "매치 인덱스가 일치해야 한다.");
+    }
+}
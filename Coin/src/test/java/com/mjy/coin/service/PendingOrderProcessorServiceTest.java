@@ -1,111 +1,238 @@
 package com.mjy.coin.service;
 
 import com.mjy.coin.dto.CoinOrderDTO;
+import com.mjy.coin.engine.MarketScale;
+import com.mjy.coin.engine.OrderBook;
+import com.mjy.coin.enums.OrderStatus;
 import com.mjy.coin.enums.OrderType;
-import com.mjy.coin.repository.coin.master.MasterCoinOrderRepository;
-import com.mjy.coin.repository.coin.slave.SlaveCoinOrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.test.context.ActiveProfiles;
-
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-
-@SpringBootTest
-@ActiveProfiles("test") // test 프로파일을 활성화
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 class PendingOrderProcessorServiceTest {
-    @Autowired
-    private PendingOrderProcessorService pendingOrderProcessorService;
 
-    @MockBean
-    private PendingOrderMatcherServiceV1 priorityQueueManager;
+    // 프로세서가 쓰는 체결 서비스 (pendingOrderMatcherServiceV2)
+    @Mock
+    private PendingOrderMatcherService pendingOrderMatcherService;
 
-    @MockBean
+    @Mock
     private OrderBookService orderBookService;
 
-    @MockBean
-    private OrderService orderService;
+    @Mock
+    private CoinInfoService coinInfoService;
 
-    @MockBean
-    private MasterCoinOrderRepository masterCoinOrderRepository;
+    @Mock
+    private RedisService redisService;
 
-    @MockBean
-    private SlaveCoinOrderRepository slaveCoinOrderRepository;
+    private PendingOrderProcessorService pendingOrderProcessorService;
 
-    @MockBean
-    private RedisService redisService;
+    private OrderService orderService;
+
+    private final String key = "BTC-KRW";
 
     private CoinOrderDTO order;
 
     @BeforeEach
     void setUp() {
+        lenient().when(coinInfoService.getMarketScale(key)).thenReturn(MarketScale.DEFAULT);
+        orderService = new OrderService(coinInfoService, 4096);
+
+        // 저널 비활성화 : 취소의 Redis 반영이 호출 스레드에서 바로 실행된다, 복제/트랜잭션/L2 증분도 비활성화
+        JournalService journalService = new JournalService(false, "./journal", 1 << 20, "batch", 256, 5, 1024, 0);
+        ReplicaService replicaService = new ReplicaService(redisService, journalService, null, false, "coin", 3000, 1000, 4096, 10000);
+        KafkaTransactionService kafkaTransactionService = new KafkaTransactionService(null, replicaService, journalService, false);
+        DepthStreamService depthStreamService = new DepthStreamService(false, "Order-Book-L2", journalService, replicaService,
+                kafkaTransactionService, null);
+
+        pendingOrderProcessorService = new PendingOrderProcessorService(pendingOrderMatcherService, null, null, orderService,
+                orderBookService, redisService, coinInfoService, journalService, replicaService,
+                new OrderDedupeService(true, 600000, 100000), depthStreamService,
+                new OrderIdService(replicaService, kafkaTransactionService, redisService, 1, "coin"));
+
         order = new CoinOrderDTO();
         order.setCoinName("BTC");
         order.setMarketName("KRW");
         order.setOrderType(OrderType.BUY);
+        order.setOrderPrice(new BigDecimal("100"));
+        order.setCoinAmount(new BigDecimal("1"));
         order.setMemberIdx(123L);
+        order.setMemberUuid("member-1");
     }
 
-    @Test
-    void testProcessOrder_NewOrder() {
-        // Redis에 기존 주문이 없는 상황을 설정
-        Mockito.when(redisService.getHashOps(anyString(), anyString())).thenReturn("");
+    // 오더북에 대기 중인 주문
+    private CoinOrderDTO addRestingOrder(String uuid, String memberUuid) {
+        CoinOrderDTO resting = new CoinOrderDTO(order);
+        resting.setUuid(uuid);
+        resting.setMemberUuid(memberUuid);
+        resting.setOrderStatus(OrderStatus.PENDING);
+        MarketScale.DEFAULT.applyTo(resting);
+        orderService.getOrderBook(key).add(resting);
+        return resting;
+    }
 
-        // 메서드 실행
+    private CoinOrderDTO createCancelRequest(String uuid, String memberUuid) {
+        CoinOrderDTO cancel = new CoinOrderDTO(order);
+        cancel.setUuid(uuid);
+        cancel.setMemberUuid(memberUuid);
+        cancel.setOrderStatus(OrderStatus.CANCELED);
+        return cancel;
+    }
+
+    @Test
+    public void testProcessOrder_NewOrder() {
+        // when
         pendingOrderProcessorService.processOrder(order);
 
-        // Redis에 새로운 주문이 추가되었는지 검증
-        verify(redisService, times(1)).insertOrderInRedis(anyString(), any(), eq(order));
+        // then : 엔진 id를 받고 체결을 시도한다
+        assertNotNull(order.getUuid());
+        assertEquals(100_00000000L, order.getPriceTicks());
+        verify(pendingOrderMatcherService, times(1)).matchOrders(order);
+        verify(orderBookService, times(1)).publishDepth(key, orderService.getOrderBook(key));
+    }
+
+    @Test
+    public void testProcessOrder_SellOrder() {
+        // given
+        order.setOrderType(OrderType.SELL);
 
-        // 매수 주문이 추가되고 주문서가 업데이트되는지 검증
-        verify(orderService, times(1)).addBuyOrder(anyString(), eq(order));
-        verify(orderBookService, times(1)).updateOrderBook(anyString(), eq(order), eq(true), eq(true));
+        // when
+        pendingOrderProcessorService.processOrder(order);
 
-        // 체결 시도가 이루어졌는지 검증
-        verify(priorityQueueManager, times(1)).matchOrders(order);
+        // then
+        verify(pendingOrderMatcherService, times(1)).matchOrders(order);
     }
 
     @Test
-    void testProcessOrder_ExistingOrder() {
-        // Redis에 기존 주문이 있는 상황을 설정
-        Mockito.when(redisService.getHashOps(anyString(), anyString())).thenReturn("existingOrder");
+    public void testProcessOrder_RedeliveredOrder() {
+        // given : 오더북이 이미 반영한 오프셋으로 다시 전달된 주문 (리밸런스 후 재전달)
+        orderService.getOrderBook(key).setSourceOffset(10);
+        order.setSourceOffset(10);
 
-        // 메서드 실행
+        // when
         pendingOrderProcessorService.processOrder(order);
 
-        // Redis에 새로운 주문이 추가되지 않았는지 검증
-        verify(redisService, times(0)).insertOrderInRedis(anyString(), any(), eq(order));
+        // then : Redis 조회나 체결 없이 버린다
+        verify(pendingOrderMatcherService, never()).matchOrders(any());
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    public void testProcessOrder_DuplicateClientOrderId() {
+        // given : 같은 주문 요청 ID가 다른 오프셋으로 두 번 들어온 경우 (Exchange 재전송)
+        order.setClientOrderId("client-1");
+        order.setSourceOffset(11);
+        CoinOrderDTO retried = new CoinOrderDTO(order);
+        retried.setSourceOffset(12);
+
+        // when
+        pendingOrderProcessorService.processOrder(order);
+        pendingOrderProcessorService.processOrder(retried);
 
-        // 매수 주문 및 주문서 업데이트가 실행되지 않았는지 검증
-        verify(orderService, times(0)).addBuyOrder(anyString(), eq(order));
-        verify(orderBookService, times(0)).updateOrderBook(anyString(), eq(order), eq(true), eq(true));
+        // then : 첫 주문만 체결을 시도한다
+        verify(pendingOrderMatcherService, times(1)).matchOrders(order);
+        verify(pendingOrderMatcherService, never()).matchOrders(retried);
+    }
 
-        // 체결 시도도 이루어지지 않았는지 검증
-        verify(priorityQueueManager, times(0)).matchOrders(order);
+    @Test
+    public void testProcessOrder_Cancel() {
+        // given : 오더북에 대기 중인 본인 주문 취소 요청
+        addRestingOrder("Order-1", "member-1");
+        CoinOrderDTO cancel = createCancelRequest("Order-1", "member-1");
+        cancel.setSourceOffset(5);
+
+        // when
+        pendingOrderProcessorService.processOrder(cancel);
+
+        // then : 오더북과 Redis 미체결 목록에서 빠지고 체결은 시도하지 않는다
+        OrderBook orderBook = orderService.getOrderBook(key);
+        assertNull(orderBook.getOrder("Order-1"));
+        assertEquals(0, orderBook.getOrderCount());
+        assertEquals(5, orderBook.getSourceOffset());
+        verify(redisService, times(1)).commitOrderBatch(eq(key),
+                argThat(batch -> batch.getRemovedPendingUuids().equals(List.of("Order-1")) && batch.getRemovedStopUuids().isEmpty()));
+        verify(pendingOrderMatcherService, never()).matchOrders(any());
     }
 
     @Test
-    void testProcessOrder_SellOrder() {
-        // Redis에 기존 주문이 없는 상황을 설정
-        Mockito.when(redisService.getHashOps(anyString(), anyString())).thenReturn("");
-        order.setOrderType(OrderType.SELL); // 매도 주문으로 설정
+    public void testProcessOrdersOnLane_CancelWaitsForRedisRemoval() {
+        // given : 저널 없이 Redis 반영이 실패하는 취소 요청
+        addRestingOrder("Order-1", "member-1");
+        CoinOrderDTO cancel = createCancelRequest("Order-1", "member-1");
+        cancel.setSourceOffset(5);
+        doThrow(new IllegalStateException("Redis down")).when(redisService).commitOrderBatch(eq(key), any());
+
+        // when
+        CompletableFuture<Void> flushed = pendingOrderProcessorService.processOrdersOnLane(key, List.of(cancel));
+
+        // then : 취소 반영 실패가 묶음 결과에 포함되어 리스너가 오프셋을 커밋하지 않는다
+        assertTrue(flushed.isCompletedExceptionally());
+    }
 
-        // 메서드 실행
+    @Test
+    public void testProcessOrder_CancelByClientOrderId() {
+        // given : 주문 요청 ID로 접수되어 오더북에 대기 중인 주문
+        order.setClientOrderId("client-1");
+        order.setSourceOffset(1);
+        order.setOrderStatus(OrderStatus.PENDING);
+        pendingOrderProcessorService.processOrder(order);
+        orderService.getOrderBook(key).add(order);
+
+        // when : uuid 없이 같은 주문 요청 ID로 취소
+        CoinOrderDTO cancel = createCancelRequest(null, "member-1");
+        cancel.setClientOrderId("client-1");
+        cancel.setSourceOffset(2);
+        pendingOrderProcessorService.processOrder(cancel);
+
+        // then : 엔진이 붙인 uuid의 주문이 취소된다
+        assertEquals(0, orderService.getOrderBook(key).getOrderCount());
+        verify(redisService, times(1)).commitOrderBatch(eq(key),
+                argThat(batch -> batch.getRemovedPendingUuids().equals(List.of(order.getUuid()))));
+    }
+
+    @Test
+    public void testProcessOrder_CancelByClientOrderIdOfOtherMemberIgnored() {
+        // given
+        order.setClientOrderId("client-1");
+        order.setSourceOffset(1);
+        order.setOrderStatus(OrderStatus.PENDING);
         pendingOrderProcessorService.processOrder(order);
+        orderService.getOrderBook(key).add(order);
 
-        // Redis에 새로운 주문이 추가되었는지 검증
-        verify(redisService, times(1)).insertOrderInRedis(anyString(), any(), eq(order));
+        // when : 다른 회원이 같은 주문 요청 ID로 취소
+        CoinOrderDTO cancel = createCancelRequest(null, "member-2");
+        cancel.setClientOrderId("client-1");
+        cancel.setSourceOffset(2);
+        pendingOrderProcessorService.processOrder(cancel);
+
+        // then : 주문은 그대로 남는다
+        assertSame(order, orderService.getOrderBook(key).getOrder(order.getUuid()));
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    public void testProcessOrder_CancelOtherMembersOrderIgnored() {
+        // given : 다른 회원의 주문 취소 요청
+        CoinOrderDTO resting = addRestingOrder("Order-1", "member-1");
+        CoinOrderDTO cancel = createCancelRequest("Order-1", "member-2");
 
-        // 매도 주문이 추가되고 주문서가 업데이트되는지 검증
-        verify(orderService, times(1)).addSellOrder(anyString(), eq(order));
-        verify(orderBookService, times(1)).updateOrderBook(anyString(), eq(order), eq(false), eq(true));
+        // when
+        pendingOrderProcessorService.processOrder(cancel);
 
-        // 체결 시도가 이루어졌는지 검증
-        verify(priorityQueueManager, times(1)).matchOrders(order);
+        // then : 주문은 그대로 남고 Redis는 건드리지 않는다
+        assertSame(resting, orderService.getOrderBook(key).getOrder("Order-1"));
+        verifyNoInteractions(redisService);
     }
-}
\ No newline at end of file
+}
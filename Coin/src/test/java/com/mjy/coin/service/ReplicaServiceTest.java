@@ -0,0 +1,53 @@
+package com.mjy.coin.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    private ReplicaService replicaService;
+
+    private final String key = "BTC-KRW";
+
+    @BeforeEach
+    void setUp() {
+        // 복제 모드, 저널 비활성화
+        JournalService journalService = new JournalService(false, "./journal", 1 << 20, "batch", 256, 5, 1024, 0);
+        replicaService = new ReplicaService(redisService, journalService, null, true, "coin-a", 3000, 60000, 4096, 10000);
+    }
+
+    @Test
+    public void testMaintainLease_LostLeaseDemotesToStandby() {
+        // given : 임대를 얻어 운영 인스턴스로 시작하고 반영을 바로 실행한다
+        when(redisService.tryAcquireLease(eq("ENGINE:LEASE"), eq("coin-a|coinOrderGroup-coin-a"), any())).thenReturn(true);
+        replicaService.init();
+        AtomicInteger executed = new AtomicInteger();
+        assertTrue(replicaService.executeSideEffects(key, 1, executed::incrementAndGet));
+
+        // when : 연장도 재획득도 실패 (다른 인스턴스가 임대를 가져감)
+        when(redisService.renewLease(anyString(), anyString(), any())).thenReturn(false);
+        when(redisService.tryAcquireLease(anyString(), anyString(), any())).thenReturn(false);
+        when(redisService.getValues("ENGINE:LEASE")).thenReturn("coin-b|coinOrderGroup-coin-b");
+        replicaService.maintainLease();
+
+        // then : 대기로 돌아가 이후 반영은 실행하지 않고 보관만 한다
+        assertFalse(replicaService.isPrimary());
+        assertFalse(replicaService.executeSideEffects(key, 2, executed::incrementAndGet));
+        assertEquals(1, executed.get());
+    }
+}
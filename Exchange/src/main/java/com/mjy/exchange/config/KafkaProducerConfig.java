@@ -4,8 +4,11 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mjy.exchange.dto.CoinOrder;
 import com.mjy.exchange.util.CustomJsonSerializer;
+import com.mjy.exchange.util.WireMapper;
+import com.mjy.wire.WireSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -20,9 +23,12 @@ import java.util.Map;
 public class KafkaProducerConfig {
 
     private final ObjectMapper objectMapper;
+    private final String orderCodec;
 
-    public KafkaProducerConfig(ObjectMapper objectMapper) {
+    public KafkaProducerConfig(ObjectMapper objectMapper,
+                               @Value("${coin.order.codec:json}") String orderCodec) {
         this.objectMapper = objectMapper;
+        this.orderCodec = orderCodec;
     }
 
     @Bean
@@ -30,9 +36,14 @@ public class KafkaProducerConfig {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
 
+        // 주문 토픽은 마켓별(BTC-KRW) 또는 통합 토픽이므로 토픽 이름과 관계없이 형식 하나로 보낸다
+        WireSerializer<CoinOrder> valueSerializer = new WireSerializer<>(new CustomJsonSerializer<>(objectMapper, new TypeReference<>() {}));
+        if ("binary".equals(orderCodec)) {
+            valueSerializer.binaryForAllTopics(WireMapper::encodeOrder);
+        }
+
         return new DefaultKafkaProducerFactory<>(config,
-                new StringSerializer(),
-                new CustomJsonSerializer<>(objectMapper, new TypeReference<>() {}));
+                new StringSerializer(), valueSerializer);
     }
 
     @Bean(name = "coinOrderKafkaTemplate")
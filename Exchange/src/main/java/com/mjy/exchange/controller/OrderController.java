@@ -2,6 +2,7 @@ package com.mjy.exchange.controller;
 
 import com.mjy.exchange.dto.ApiResponse;
 import com.mjy.exchange.dto.MemberRequest;
+import com.mjy.exchange.dto.OrderCancelRequest;
 import com.mjy.exchange.dto.OrderRequest;
 import com.mjy.exchange.security.SecurityMember;
 import com.mjy.exchange.service.MemberService;
@@ -55,4 +56,25 @@ public class OrderController {
                 .data("data")
                 .build();
     }
+
+    @Operation(summary = "코인 주문 취소", description = "미체결 주문을 취소합니다.", security = {@SecurityRequirement(name = "csrfToken"), @SecurityRequirement(name = "bearerAuth")})
+    @PostMapping("/cancel")
+    public ApiResponse cancel(HttpServletRequest servletRequest,
+                              @RequestBody @Valid OrderCancelRequest cancelRequest) {
+        // 현재 사용자의 인증 객체 가져오기
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // 인증 객체에서 사용자 정보 가져오기
+        Object principal = authentication.getPrincipal();
+        String uuid = ((UserDetails) principal).getUsername();
+
+        orderService.cancelOrder(cancelRequest, uuid);
+
+        return ApiResponse.builder()
+                .status("success")
+                .csrfToken(((CsrfToken) servletRequest.getAttribute(CsrfToken.class.getName())).getToken())
+                .msg("코인 주문 취소 요청 완료")
+                .data("data")
+                .build();
+    }
 }
@@ -1,5 +1,6 @@
 package com.mjy.exchange.dto;
 
+import com.mjy.exchange.enums.ExecutionType;
 import com.mjy.exchange.enums.OrderStatus;
 import com.mjy.exchange.enums.OrderType;
 import lombok.Getter;
@@ -11,13 +12,17 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public class CoinOrder {
+    private String uuid; // 주문 uuid (취소 요청 시 취소할 주문)
+    private String clientOrderId; // 주문 요청 ID (재전송돼도 같은 값이라 체결 엔진이 중복 주문을 거른다)
     private Long memberIdx; // 주문 등록인, memberIdx
     private String memberUuid; // 주문 등록인, memberUuid
     private String marketName; // 예: KRW
     private String coinName; // 예: BTC
     private BigDecimal coinAmount; // 매수/매도 코인 개수
     private BigDecimal orderPrice; // 매수/매도 금액
+    private BigDecimal triggerPrice; // 스탑 주문 발동가 (없으면 일반 주문)
     private OrderType orderType; // 매수/매도 타입(enum)
+    private ExecutionType executionType; // 체결 조건 (지정가/시장가/IOC/FOK/POST_ONLY)
     private OrderStatus orderStatus; // 거래 상태 (체결/미체결/취소)
     private BigDecimal fee; //수수료
     private LocalDateTime createdAt; // 등록일자
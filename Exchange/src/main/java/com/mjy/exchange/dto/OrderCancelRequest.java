@@ -0,0 +1,23 @@
+package com.mjy.exchange.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class OrderCancelRequest {
+
+    @NotEmpty(message = "{orderRequest.NotEmpty.marketName}") // 마켓 이름은 필수 입력 사항입니다.
+    @Schema(description = "마켓", defaultValue = "KRW")
+    private String marketName; // 마켓
+
+    @NotEmpty(message = "{orderRequest.NotEmpty.coinName}") // 코인 이름은 필수 입력 사항입니다.
+    @Schema(description = "코인명", defaultValue = "BTC")
+    private String coinName; // 코인명
+
+    @NotEmpty(message = "{orderCancelRequest.NotEmpty.uuid}") // 취소할 주문 번호는 필수 입력 사항입니다.
+    @Schema(description = "취소할 주문 uuid")
+    private String uuid; // 취소할 주문 uuid
+}
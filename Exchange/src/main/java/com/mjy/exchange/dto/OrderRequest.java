@@ -1,9 +1,11 @@
 package com.mjy.exchange.dto;
 
+import com.mjy.exchange.enums.ExecutionType;
 import com.mjy.exchange.enums.OrderType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -32,4 +34,14 @@ public class OrderRequest{
     @NotNull(message = "{orderRequest.NotNull.orderType}") // 주문 타입은 필수 입력 사항입니다.
     @Schema(description = "매수/매도 타입(enum)", defaultValue = "BUY")
     private OrderType orderType; // 매수/매도 타입(enum)
+
+    @Schema(description = "체결 조건(enum), 없으면 지정가", defaultValue = "LIMIT")
+    private ExecutionType executionType; // 체결 조건(enum)
+
+    @Schema(description = "스탑 주문 발동가, 없으면 일반 주문", nullable = true)
+    private BigDecimal triggerPrice; // 스탑 주문 발동가
+
+    @Size(max = 64, message = "{orderRequest.Size.clientOrderId}") // 주문 요청 ID는 64자 이하여야 합니다.
+    @Schema(description = "주문 요청 ID, 재시도할 때 같은 값을 보내면 한 번만 접수 (없으면 서버가 생성)", nullable = true)
+    private String clientOrderId; // 주문 요청 ID
 }
@@ -0,0 +1,10 @@
+package com.mjy.exchange.enums;
+
+// 주문 체결 조건 (값이 없으면 LIMIT)
+public enum ExecutionType {
+    LIMIT, // 지정가
+    MARKET, // 시장가 (주문가 무시, 남은 수량 취소)
+    IOC, // 지정가 즉시 체결 (남은 수량 취소)
+    FOK, // 전량 즉시 체결 (전량 체결이 안 되면 취소)
+    POST_ONLY // 메이커 전용 (바로 체결될 가격이면 거부)
+}
@@ -1,27 +1,47 @@
 package com.mjy.exchange.service;
 
 import com.mjy.exchange.dto.CoinOrder;
+import com.mjy.exchange.dto.OrderCancelRequest;
 import com.mjy.exchange.dto.OrderRequest;
 import com.mjy.exchange.entity.CoinInfo;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
+import static com.mjy.exchange.enums.ExecutionType.LIMIT;
+import static com.mjy.exchange.enums.OrderStatus.CANCELED;
 import static com.mjy.exchange.enums.OrderStatus.PENDING;
 
 public class CoinOrderFactory {
 
     public static CoinOrder createCoinOrder(OrderRequest orderRequest, CoinInfo coinInfo, String memberUuid) {
         CoinOrder coinOrder = new CoinOrder();
+        // 클라이언트가 보낸 주문 요청 ID가 없으면 여기서 만든다 (Kafka 재전송 시에도 같은 값)
+        coinOrder.setClientOrderId(orderRequest.getClientOrderId() == null ? UUID.randomUUID().toString() : orderRequest.getClientOrderId());
         coinOrder.setMemberUuid(memberUuid);
         coinOrder.setMarketName(orderRequest.getMarketName());
         coinOrder.setCoinName(orderRequest.getCoinName());
         coinOrder.setCoinAmount(new BigDecimal(String.valueOf(orderRequest.getCoinAmount())));
         coinOrder.setOrderPrice(new BigDecimal(String.valueOf(orderRequest.getOrderPrice())));
+        coinOrder.setTriggerPrice(orderRequest.getTriggerPrice());
         coinOrder.setOrderType(orderRequest.getOrderType());
+        coinOrder.setExecutionType(orderRequest.getExecutionType() == null ? LIMIT : orderRequest.getExecutionType());
         coinOrder.setOrderStatus(PENDING);
         coinOrder.setFee(new BigDecimal(String.valueOf(coinInfo.getFeeRate())));
         coinOrder.setCreatedAt(LocalDateTime.now());
         return coinOrder;
     }
+
+    // 취소 요청은 주문과 같은 토픽으로 전달되어 같은 순서로 처리된다.
+    public static CoinOrder createCancelOrder(OrderCancelRequest cancelRequest, String memberUuid) {
+        CoinOrder coinOrder = new CoinOrder();
+        coinOrder.setUuid(cancelRequest.getUuid());
+        coinOrder.setMemberUuid(memberUuid);
+        coinOrder.setMarketName(cancelRequest.getMarketName());
+        coinOrder.setCoinName(cancelRequest.getCoinName());
+        coinOrder.setOrderStatus(CANCELED);
+        coinOrder.setCreatedAt(LocalDateTime.now());
+        return coinOrder;
+    }
 }
@@ -5,6 +5,7 @@ import com.mjy.exchange.entity.CoinHolding;
 import com.mjy.exchange.entity.CoinInfo;
 import com.mjy.exchange.repository.slave.SlaveCoinInfoRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -13,19 +14,28 @@ public class OrderService {
     private final SlaveCoinInfoRepository slaveCoinInfoRepository;
     private final BalanceService balanceService;
     private final KafkaTemplate<String, CoinOrder> coinOrderKafkaTemplate;
+    private final String orderTopic;
 
     public OrderService(SlaveCoinInfoRepository slaveCoinInfoRepository,
                         BalanceService balanceService,
-                        @Qualifier("coinOrderKafkaTemplate") KafkaTemplate<String, CoinOrder> coinOrderKafkaTemplate) {
+                        @Qualifier("coinOrderKafkaTemplate") KafkaTemplate<String, CoinOrder> coinOrderKafkaTemplate,
+                        @Value("${coin.order.topic:}") String orderTopic) {
         this.slaveCoinInfoRepository = slaveCoinInfoRepository;
         this.balanceService = balanceService;
         this.coinOrderKafkaTemplate = coinOrderKafkaTemplate;
+        this.orderTopic = orderTopic;
     }
 
     public void processOrder(OrderRequest orderRequest, String memberUuid) {
         CoinInfo coinInfo = slaveCoinInfoRepository.findByMarketNameAndCoinName(orderRequest.getMarketName(), orderRequest.getCoinName())
                 .orElseThrow(() -> new IllegalArgumentException("잘못된 심볼 정보입니다."));
 
+        // 호가 단위가 있는 마켓은 주문 가격이 호가 단위의 배수여야 한다.
+        if (coinInfo.getPriceTickSize() != null
+                && orderRequest.getOrderPrice().remainder(coinInfo.getPriceTickSize()).signum() != 0) {
+            throw new IllegalArgumentException("호가 단위에 맞지 않는 주문 가격입니다.");
+        }
+
         //1. 지갑 정보 조회 및 주문 검증
         balanceService.checkBalance(memberUuid, orderRequest, coinInfo);
 
@@ -33,7 +43,27 @@ public class OrderService {
         CoinOrder coinOrder = CoinOrderFactory.createCoinOrder(orderRequest, coinInfo, memberUuid);
 
         //3. kafka send
-        coinOrderKafkaTemplate.send(orderRequest.getCoinName() + "-" + orderRequest.getMarketName(), coinOrder);
+        send(orderRequest.getCoinName() + "-" + orderRequest.getMarketName(), coinOrder);
+    }
+
+    public void cancelOrder(OrderCancelRequest cancelRequest, String memberUuid) {
+        slaveCoinInfoRepository.findByMarketNameAndCoinName(cancelRequest.getMarketName(), cancelRequest.getCoinName())
+                .orElseThrow(() -> new IllegalArgumentException("잘못된 심볼 정보입니다."));
+
+        //1. 취소 주문 생성
+        CoinOrder cancelOrder = CoinOrderFactory.createCancelOrder(cancelRequest, memberUuid);
+
+        //2. kafka send (주문과 같은 토픽)
+        send(cancelRequest.getCoinName() + "-" + cancelRequest.getMarketName(), cancelOrder);
+    }
+
+    // 마켓별 토픽(BTC-KRW), 통합 주문 토픽이 설정되어 있으면 마켓 키로 보내 같은 마켓 주문이 한 파티션에 순서대로 쌓이게 한다
+    private void send(String key, CoinOrder coinOrder) {
+        if (orderTopic.isEmpty()) {
+            coinOrderKafkaTemplate.send(key, coinOrder);
+        } else {
+            coinOrderKafkaTemplate.send(orderTopic, key, coinOrder);
+        }
     }
 }
 
@@ -0,0 +1,29 @@
+package com.mjy.exchange.util;
+
+import com.mjy.exchange.dto.CoinOrder;
+import com.mjy.wire.WireCodec;
+import com.mjy.wire.WireOrder;
+
+// 주문 -> Kafka 바이너리 전송 형식(Wire 모듈) 변환, enum은 순서(ordinal)로 보낸다
+public class WireMapper {
+
+    public static byte[] encodeOrder(CoinOrder order) {
+        WireOrder wire = new WireOrder();
+        wire.setMemberIdx(order.getMemberIdx());
+        wire.setMemberUuid(order.getMemberUuid());
+        wire.setMarketName(order.getMarketName());
+        wire.setCoinName(order.getCoinName());
+        wire.setCoinAmount(order.getCoinAmount());
+        wire.setOrderPrice(order.getOrderPrice());
+        wire.setTriggerPrice(order.getTriggerPrice());
+        wire.setOrderType(order.getOrderType() == null ? WireOrder.NONE : order.getOrderType().ordinal());
+        wire.setExecutionType(order.getExecutionType() == null ? WireOrder.NONE : order.getExecutionType().ordinal());
+        wire.setOrderStatus(order.getOrderStatus() == null ? WireOrder.NONE : order.getOrderStatus().ordinal());
+        wire.setFee(order.getFee());
+        wire.setCreatedAt(order.getCreatedAt());
+        wire.setMatchedAt(order.getMatchedAt());
+        wire.setUuid(order.getUuid());
+        wire.setClientOrderId(order.getClientOrderId());
+        return WireCodec.encodeOrder(wire);
+    }
+}
@@ -1,4 +1,4 @@
-INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType) VALUES ('BTC', 'KRW', 0.01, 'MAJOR');
-INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType)  VALUES ('ETH', 'KRW', 0.02, 'MAJOR');
-INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType)  VALUES ('EGX', 'KRW', 0.03, 'MINOR');
-INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType)  VALUES ('MJY', 'KRW', 0.04, 'MINOR');
+INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType, priceScale, quantityScale, priceTickSize) VALUES ('BTC', 'KRW', 0.01, 'MAJOR', 0, 8, 1000);
+INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType, priceScale, quantityScale, priceTickSize)  VALUES ('ETH', 'KRW', 0.02, 'MAJOR', 0, 8, 1000);
+INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType, priceScale, quantityScale, priceTickSize)  VALUES ('EGX', 'KRW', 0.03, 'MINOR', 2, 4, NULL);
+INSERT IGNORE INTO CoinInfo (coinName, marketName, feeRate, coinType, priceScale, quantityScale, priceTickSize)  VALUES ('MJY', 'KRW', 0.04, 'MINOR', 2, 4, NULL);
@@ -0,0 +1,152 @@
+package com.mjy.loadgen;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mjy.wire.WireCodec;
+import com.mjy.wire.WireFormat;
+import com.mjy.wire.WireTrade;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 체결 목록(Match-List)을 읽어 주문 전송 시각부터 첫 체결이 도착할 때까지의 지연을 잰다.
+ * 체결 목록은 체결마다 한 건이므로 테이커 주문 요청 ID(takerClientOrderId)만 보고, 이번 실행이 보낸 주문의 첫 체결만 기록한다
+ * (호가에 대기했다가 메이커로 체결된 주문의 대기 시간은 지연이 아니므로 제외).
+ * JSON / Wire 바이너리 체결 목록을 모두 읽는다. 지연 값은 마이크로초.
+ */
+public class FillLatencyTracker implements AutoCloseable {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final String topic;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Long> pending = new ConcurrentHashMap<>(); // clientOrderId -> 보내기로 한 시각 (nanoTime)
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong fills = new AtomicLong(); // 첫 체결이 도착한 이번 실행 주문 수
+    private final CountDownLatch assigned = new CountDownLatch(1);
+    private Thread thread;
+    private volatile boolean running = true;
+
+    public FillLatencyTracker(LoadGenConfig config) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, "loadgen-" + config.getRunId());
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumer = new KafkaConsumer<>(properties, new StringDeserializer(), new ByteArrayDeserializer());
+        this.topic = config.getMatchListTopic();
+    }
+
+    // 파티션을 배정받은 뒤에 돌아와야 첫 주문의 체결부터 놓치지 않는다
+    public void start() throws InterruptedException {
+        consumer.subscribe(List.of(topic), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                assigned.countDown();
+            }
+        });
+        thread = new Thread(this::run, "loadgen-match-list");
+        thread.setDaemon(true);
+        thread.start();
+        if (!assigned.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("No partition assigned for " + topic);
+        }
+    }
+
+    public void expect(String clientOrderId, long scheduledNanos) {
+        pending.put(clientOrderId, scheduledNanos);
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    onMatchList(record.value(), System.nanoTime());
+                }
+            }
+        } catch (WakeupException e) {
+            // close
+        } catch (Exception e) {
+            System.err.println("Failed to read " + topic + ": " + e.getMessage());
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void onMatchList(byte[] value, long receivedNanos) throws IOException {
+        if (WireFormat.isBinary(value)) {
+            for (List<WireTrade> trades : WireCodec.decodeTradeList(value).values()) {
+                for (WireTrade trade : trades) {
+                    onTakerFill(trade.getTakerClientOrderId(), receivedNanos);
+                }
+            }
+        } else {
+            Map<String, List<Map<String, Object>>> tradeListMap = objectMapper.readValue(value, new TypeReference<>() {});
+            for (List<Map<String, Object>> trades : tradeListMap.values()) {
+                for (Map<String, Object> trade : trades) {
+                    onTakerFill((String) trade.get("takerClientOrderId"), receivedNanos);
+                }
+            }
+        }
+    }
+
+    private void onTakerFill(String clientOrderId, long receivedNanos) {
+        if (clientOrderId == null) {
+            return;
+        }
+        Long scheduledNanos = pending.remove(clientOrderId);
+        if (scheduledNanos != null) {
+            fills.incrementAndGet();
+            recorder.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(0, (receivedNanos - scheduledNanos) / 1000)));
+        }
+    }
+
+    // 직전 호출 이후 구간 지연 (전체 누적에도 더한다)
+    public synchronized Histogram intervalHistogram() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    public synchronized Histogram totalHistogram() {
+        total.add(recorder.getIntervalHistogram());
+        return total.copy();
+    }
+
+    public long getFills() {
+        return fills.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        if (thread != null) {
+            thread.join(5000);
+        }
+    }
+}
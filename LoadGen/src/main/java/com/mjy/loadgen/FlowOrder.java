@@ -0,0 +1,99 @@
+package com.mjy.loadgen;
+
+import java.math.BigDecimal;
+
+// 주문 흐름 한 건 (새 주문 또는 이전 주문의 취소)
+public class FlowOrder {
+    private final long sequence; // 흐름 안의 순번 (clientOrderId, 취소 대상 확인용)
+    private final String marketKey; // BTC-KRW
+    private final long memberIdx;
+    private final String memberUuid;
+    private final boolean buy;
+    private final boolean marketOrder; // 시장가
+    private final BigDecimal orderPrice;
+    private final BigDecimal coinAmount;
+    private final FlowOrder cancelTarget; // 취소면 취소할 주문, 아니면 null
+
+    FlowOrder(long sequence, String marketKey, long memberIdx, String memberUuid, boolean buy, boolean marketOrder,
+              BigDecimal orderPrice, BigDecimal coinAmount) {
+        this.sequence = sequence;
+        this.marketKey = marketKey;
+        this.memberIdx = memberIdx;
+        this.memberUuid = memberUuid;
+        this.buy = buy;
+        this.marketOrder = marketOrder;
+        this.orderPrice = orderPrice;
+        this.coinAmount = coinAmount;
+        this.cancelTarget = null;
+    }
+
+    // 취소는 대상 주문의 마켓/회원으로 보낸다
+    FlowOrder(long sequence, FlowOrder cancelTarget) {
+        this.sequence = sequence;
+        this.marketKey = cancelTarget.marketKey;
+        this.memberIdx = cancelTarget.memberIdx;
+        this.memberUuid = cancelTarget.memberUuid;
+        this.buy = cancelTarget.buy;
+        this.marketOrder = false;
+        this.orderPrice = null;
+        this.coinAmount = null;
+        this.cancelTarget = cancelTarget;
+    }
+
+    public boolean isCancel() {
+        return cancelTarget != null;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getMarketKey() {
+        return marketKey;
+    }
+
+    public String getCoinName() {
+        return marketKey.substring(0, marketKey.indexOf('-'));
+    }
+
+    public String getMarketName() {
+        return marketKey.substring(marketKey.indexOf('-') + 1);
+    }
+
+    public long getMemberIdx() {
+        return memberIdx;
+    }
+
+    public String getMemberUuid() {
+        return memberUuid;
+    }
+
+    public boolean isBuy() {
+        return buy;
+    }
+
+    public boolean isMarketOrder() {
+        return marketOrder;
+    }
+
+    public BigDecimal getOrderPrice() {
+        return orderPrice;
+    }
+
+    public BigDecimal getCoinAmount() {
+        return coinAmount;
+    }
+
+    public FlowOrder getCancelTarget() {
+        return cancelTarget;
+    }
+
+    @Override
+    public String toString() {
+        if (isCancel()) {
+            return sequence + " " + marketKey + " member=" + memberIdx + " CANCEL " + cancelTarget.sequence;
+        }
+        return sequence + " " + marketKey + " member=" + memberIdx + " " + (buy ? "BUY " : "SELL ")
+                + (marketOrder ? "MARKET " : "LIMIT ") + orderPrice.toPlainString() + " x " + coinAmount.toPlainString();
+    }
+}
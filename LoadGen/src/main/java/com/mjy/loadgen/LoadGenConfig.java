@@ -0,0 +1,207 @@
+package com.mjy.loadgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 부하 생성 설정. 인자 --이름=값 (또는 --config=파일.properties, 인자가 파일보다 우선)으로 바꾸고 나머지는 기본값을 쓴다.
+ * 주문 흐름(마켓, 회원, 가격, 수량, 취소)은 seed와 흐름 설정만으로 정해지고, 전송 속도/시간/토픽은 흐름에 영향을 주지 않는다.
+ */
+public class LoadGenConfig {
+    private static final Set<String> KEYS = Set.of(
+            "bootstrap-servers", "order-topic", "codec", "match-list-topic", "run-id", "rate", "duration-seconds", "drain-seconds",
+            "seed", "markets", "start-price", "tick-size", "quantity-step", "members", "walk-ticks", "spread-ticks",
+            "aggressive-ratio", "market-ratio", "size-median-lots", "size-sigma", "cancel-ratio", "cancel-window");
+
+    // 전송
+    private final String bootstrapServers;
+    private final String orderTopic; // 비우면 마켓별 토픽(BTC-KRW), 지정하면 통합 주문 토픽에 마켓 키로 보낸다 (Exchange coin.order.topic)
+    private final String codec; // json | binary (Exchange coin.order.codec)
+    private final String matchListTopic;
+    private final String runId; // clientOrderId 접두사, 같은 seed를 다시 돌려도 엔진 중복 확인에 걸리지 않도록 실행마다 다르게 둔다
+    private final int rate; // 초당 목표 전송 수 (취소 포함)
+    private final int durationSeconds;
+    private final int drainSeconds; // 전송을 마친 뒤 체결 목록을 더 기다리는 시간
+
+    // 주문 흐름
+    private final long seed;
+    private final List<String> markets; // BTC-KRW,ETH-KRW
+    private final BigDecimal startPrice; // 마켓별 시작 기준가
+    private final BigDecimal tickSize; // 호가 단위 (Coin 마켓 설정과 맞춘다)
+    private final BigDecimal quantityStep; // 수량 단위 (Coin 마켓 설정과 맞춘다)
+    private final int members;
+    private final double walkTicks; // 주문마다 기준가가 움직이는 폭 (틱, 정규분포 표준편차)
+    private final int spreadTicks; // 지정가가 기준가에서 떨어지는 최대 틱
+    private final double aggressiveRatio; // 기준가를 넘겨 바로 체결되는 지정가 비율
+    private final double marketRatio; // 시장가 비율
+    private final double sizeMedianLots; // 수량 중앙값 (quantityStep 단위, 로그정규분포)
+    private final double sizeSigma; // 로그정규분포 표준편차
+    private final double cancelRatio; // 새 주문 대신 같은 마켓의 최근 주문 취소를 보낼 비율
+    private final int cancelWindow; // 취소 대상으로 기억하는 마켓별 최근 주문 수
+
+    private LoadGenConfig(Properties properties) {
+        for (String name : properties.stringPropertyNames()) {
+            if (!KEYS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        this.bootstrapServers = properties.getProperty("bootstrap-servers", "localhost:9092");
+        this.orderTopic = properties.getProperty("order-topic", "");
+        this.codec = properties.getProperty("codec", "json");
+        this.matchListTopic = properties.getProperty("match-list-topic", "Match-List");
+        this.runId = properties.getProperty("run-id", Long.toString(System.currentTimeMillis(), 36));
+        this.rate = Integer.parseInt(properties.getProperty("rate", "1000"));
+        this.durationSeconds = Integer.parseInt(properties.getProperty("duration-seconds", "60"));
+        this.drainSeconds = Integer.parseInt(properties.getProperty("drain-seconds", "5"));
+
+        this.seed = Long.parseLong(properties.getProperty("seed", "1"));
+        this.markets = List.of(properties.getProperty("markets", "BTC-KRW").split(","));
+        this.startPrice = new BigDecimal(properties.getProperty("start-price", "5000"));
+        this.tickSize = new BigDecimal(properties.getProperty("tick-size", "1"));
+        this.quantityStep = new BigDecimal(properties.getProperty("quantity-step", "0.0001"));
+        this.members = Integer.parseInt(properties.getProperty("members", "100"));
+        this.walkTicks = Double.parseDouble(properties.getProperty("walk-ticks", "2"));
+        this.spreadTicks = Integer.parseInt(properties.getProperty("spread-ticks", "20"));
+        this.aggressiveRatio = Double.parseDouble(properties.getProperty("aggressive-ratio", "0.3"));
+        this.marketRatio = Double.parseDouble(properties.getProperty("market-ratio", "0.02"));
+        this.sizeMedianLots = Double.parseDouble(properties.getProperty("size-median-lots", "100"));
+        this.sizeSigma = Double.parseDouble(properties.getProperty("size-sigma", "1"));
+        this.cancelRatio = Double.parseDouble(properties.getProperty("cancel-ratio", "0.1"));
+        this.cancelWindow = Integer.parseInt(properties.getProperty("cancel-window", "1000"));
+
+        if (!"json".equals(codec) && !"binary".equals(codec)) {
+            throw new IllegalArgumentException("codec must be json or binary: " + codec);
+        }
+        if (rate <= 0 || members <= 0 || spreadTicks <= 0 || cancelWindow <= 0 || markets.isEmpty()) {
+            throw new IllegalArgumentException("rate, members, spread-ticks, cancel-window and markets must be positive");
+        }
+        if (startPrice.compareTo(tickSize) < 0 || startPrice.remainder(tickSize).signum() != 0) {
+            throw new IllegalArgumentException("start-price must be a positive multiple of tick-size");
+        }
+    }
+
+    public static LoadGenConfig parse(String[] args) throws IOException {
+        Properties properties = new Properties();
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if ("config".equals(name)) {
+                try (InputStream in = Files.newInputStream(Path.of(value))) {
+                    properties.load(in);
+                }
+            } else {
+                overrides.setProperty(name, value);
+            }
+        }
+        properties.putAll(overrides);
+        return new LoadGenConfig(properties);
+    }
+
+    public static LoadGenConfig of(Properties properties) {
+        return new LoadGenConfig(properties);
+    }
+
+    public String getBootstrapServers() {
+        return bootstrapServers;
+    }
+
+    public String getOrderTopic() {
+        return orderTopic;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public String getMatchListTopic() {
+        return matchListTopic;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getDrainSeconds() {
+        return drainSeconds;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public List<String> getMarkets() {
+        return markets;
+    }
+
+    public BigDecimal getStartPrice() {
+        return startPrice;
+    }
+
+    public BigDecimal getTickSize() {
+        return tickSize;
+    }
+
+    public BigDecimal getQuantityStep() {
+        return quantityStep;
+    }
+
+    public int getMembers() {
+        return members;
+    }
+
+    public double getWalkTicks() {
+        return walkTicks;
+    }
+
+    public int getSpreadTicks() {
+        return spreadTicks;
+    }
+
+    public double getAggressiveRatio() {
+        return aggressiveRatio;
+    }
+
+    public double getMarketRatio() {
+        return marketRatio;
+    }
+
+    public double getSizeMedianLots() {
+        return sizeMedianLots;
+    }
+
+    public double getSizeSigma() {
+        return sizeSigma;
+    }
+
+    public double getCancelRatio() {
+        return cancelRatio;
+    }
+
+    public int getCancelWindow() {
+        return cancelWindow;
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + seed + " markets=" + markets + " members=" + members + " rate=" + rate + "/s duration=" + durationSeconds + "s"
+                + " codec=" + codec + " topic=" + (orderTopic.isEmpty() ? "<market>" : orderTopic) + " runId=" + runId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mjy.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 체결 엔진 부하 생성기 (InitialDataController /test 대체).
+ * 시드 고정 주문 흐름(OrderFlowModel)을 rate건/초 일정 간격으로 주문 토픽에 바로 보내고,
+ * 1초마다 전송량과 체결 지연을, 끝나면 목표/실제 처리량과 전체 체결 지연 백분위를 출력한다.
+ * 같은 seed와 흐름 설정이면 어느 빌드에 보내도 같은 주문이 같은 순서로 들어간다.
+ *
+ *   ./gradlew run --args="--seed=7 --markets=BTC-KRW,ETH-KRW --rate=5000 --duration-seconds=60"
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadGenConfig config = LoadGenConfig.parse(args);
+        System.out.println("Load generator " + config);
+
+        OrderFlowModel model = new OrderFlowModel(config);
+        try (FillLatencyTracker tracker = new FillLatencyTracker(config);
+             OrderPublisher publisher = new OrderPublisher(config, tracker)) {
+            tracker.start();
+
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+            long[] lastSent = {0};
+            reporter.scheduleAtFixedRate(() -> {
+                long sent = publisher.getSent();
+                Histogram interval = tracker.intervalHistogram();
+                System.out.printf("sent=%d/s acked=%d failed=%d fills=%d latency(us) p50=%d p99=%d max=%d%n",
+                        sent - lastSent[0], publisher.getAcked(), publisher.getFailed(), tracker.getFills(),
+                        interval.getValueAtPercentile(50), interval.getValueAtPercentile(99), interval.getMaxValue());
+                lastSent[0] = sent;
+            }, 1, 1, TimeUnit.SECONDS);
+
+            // 정해진 시각에 맞춰 보낸다 (밀리면 따라잡되 지연은 원래 보낼 시각부터 잰다)
+            long total = (long) config.getRate() * config.getDurationSeconds();
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+            long start = System.nanoTime();
+            for (long i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                waitUntil(scheduled);
+                publisher.send(model.next(), scheduled);
+            }
+            long elapsed = System.nanoTime() - start;
+            publisher.flush();
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(config.getDrainSeconds()));
+            reporter.shutdownNow();
+
+            Histogram latency = tracker.totalHistogram();
+            System.out.printf("target=%d/s achieved=%.1f/s sent=%d (cancels=%d) acked=%d failed=%d%n",
+                    config.getRate(), publisher.getSent() * 1e9 / elapsed, publisher.getSent(), publisher.getCancels(),
+                    publisher.getAcked(), publisher.getFailed());
+            System.out.printf("fills=%d latency(us) p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                    tracker.getFills(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+                    latency.getValueAtPercentile(99), latency.getValueAtPercentile(99.9), latency.getMaxValue());
+        }
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mjy.loadgen;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * 시드 고정 주문 흐름. 같은 흐름 설정과 seed면 항상 같은 순서로 같은 주문(마켓, 회원, 방향, 가격, 수량, 취소 대상)을 만든다.
+ *   기준가 : 마켓마다 주문 한 건마다 정규분포(표준편차 walk-ticks) 보폭으로 움직이는 랜덤 워크
+ *   가격   : 기준가에서 1 ~ spread-ticks 떨어진 지정가, aggressive-ratio만큼은 반대쪽으로 넘겨 바로 체결되는 가격, market-ratio만큼은 시장가
+ *   수량   : 중앙값 size-median-lots, 표준편차 size-sigma인 로그정규분포 (quantity-step 단위)
+ *   취소   : cancel-ratio만큼은 새 주문 대신 같은 마켓에서 최근 cancel-window건 중 하나를 취소 (같은 주문을 두 번 취소하지 않는다)
+ * 난수는 SplittableRandom 하나만 쓰고 시각이나 전송 결과로 분기하지 않으므로 전송 속도와 관계없이 흐름이 같다.
+ */
+public class OrderFlowModel {
+    private final LoadGenConfig config;
+    private final SplittableRandom random;
+    private final String[] memberUuids;
+    private final long[] midTicks; // 마켓별 기준가 (틱)
+    private final FlowOrder[][] recentOrders; // 마켓별 취소 후보
+    private final int[] recentCounts;
+    private final long[] addedCounts;
+    private long sequence;
+
+    public OrderFlowModel(LoadGenConfig config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.getSeed());
+        this.memberUuids = new String[config.getMembers()];
+        for (int i = 0; i < memberUuids.length; i++) {
+            memberUuids[i] = UUID.nameUUIDFromBytes(("loadgen-member-" + (i + 1)).getBytes(StandardCharsets.UTF_8)).toString();
+        }
+        int markets = config.getMarkets().size();
+        this.midTicks = new long[markets];
+        this.recentOrders = new FlowOrder[markets][config.getCancelWindow()];
+        this.recentCounts = new int[markets];
+        this.addedCounts = new long[markets];
+        long startTicks = config.getStartPrice().divide(config.getTickSize()).longValueExact();
+        for (int i = 0; i < markets; i++) {
+            midTicks[i] = startTicks;
+        }
+    }
+
+    public FlowOrder next() {
+        long seq = sequence++;
+        int market = random.nextInt(midTicks.length);
+
+        if (recentCounts[market] > 0 && random.nextDouble() < config.getCancelRatio()) {
+            return new FlowOrder(seq, takeCancelTarget(market));
+        }
+
+        // 기준가 이동 (가격이 0 이하로 내려가지 않도록 spread 위에서 멈춘다)
+        midTicks[market] = Math.max(config.getSpreadTicks() + 1L,
+                midTicks[market] + Math.round(random.nextGaussian() * config.getWalkTicks()));
+
+        int member = random.nextInt(memberUuids.length);
+        boolean buy = random.nextBoolean();
+        boolean marketOrder = random.nextDouble() < config.getMarketRatio();
+        boolean aggressive = random.nextDouble() < config.getAggressiveRatio();
+        long offset = 1 + random.nextInt(config.getSpreadTicks());
+        long priceTicks = midTicks[market] + (buy == aggressive ? offset : -offset);
+        long lots = Math.max(1, Math.round(config.getSizeMedianLots() * Math.exp(config.getSizeSigma() * random.nextGaussian())));
+
+        FlowOrder order = new FlowOrder(seq, config.getMarkets().get(market), member + 1, memberUuids[member], buy, marketOrder,
+                config.getTickSize().multiply(BigDecimal.valueOf(priceTicks)),
+                config.getQuantityStep().multiply(BigDecimal.valueOf(lots)));
+        if (!marketOrder) {
+            remember(market, order);
+        }
+        return order;
+    }
+
+    // 창이 차면 순번 기준으로 돌아가며 덮어쓴다
+    private void remember(int market, FlowOrder order) {
+        FlowOrder[] recent = recentOrders[market];
+        if (recentCounts[market] < recent.length) {
+            recent[recentCounts[market]++] = order;
+        } else {
+            recent[(int) (addedCounts[market] % recent.length)] = order;
+        }
+        addedCounts[market]++;
+    }
+
+    // 고른 자리는 마지막 후보로 채워 같은 주문을 다시 고르지 않는다
+    private FlowOrder takeCancelTarget(int market) {
+        FlowOrder[] recent = recentOrders[market];
+        int index = random.nextInt(recentCounts[market]);
+        FlowOrder target = recent[index];
+        recent[index] = recent[--recentCounts[market]];
+        recent[recentCounts[market]] = null;
+        return target;
+    }
+}
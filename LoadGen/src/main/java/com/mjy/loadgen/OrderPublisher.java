@@ -0,0 +1,148 @@
+package com.mjy.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mjy.wire.WireCodec;
+import com.mjy.wire.WireOrder;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주문 흐름을 Exchange와 같은 형식(JSON 또는 Wire 바이너리)으로 주문 토픽에 바로 보낸다.
+ * 취소는 uuid 없이 대상 주문의 주문 요청 ID(clientOrderId)로 보내고 엔진이 최근 접수한 주문에서 찾는다
+ * (엔진 coin.engine.dedupe.window-millis 안에 보낸 주문만, 그보다 오래된 주문의 취소는 엔진이 무시한다).
+ */
+public class OrderPublisher implements AutoCloseable {
+    // Coin enum 순서 (OrderType, ExecutionType, OrderStatus)
+    private static final int BUY = 0;
+    private static final int SELL = 1;
+    private static final int LIMIT = 0;
+    private static final int MARKET = 1;
+    private static final int PENDING = 0;
+    private static final int CANCELED = 2;
+
+    private final LoadGenConfig config;
+    private final FillLatencyTracker tracker;
+    private final KafkaProducer<String, byte[]> producer;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long sent; // 전송 스레드만 쓰고 리포트 스레드가 읽는다
+    private volatile long cancels;
+
+    public OrderPublisher(LoadGenConfig config, FillLatencyTracker tracker) {
+        this.config = config;
+        this.tracker = tracker;
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
+        this.producer = new KafkaProducer<>(properties, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    // 보내기로 한 시각(scheduledNanos)부터 체결 지연을 잰다 (전송이 밀려도 지연에 포함되도록)
+    public void send(FlowOrder order, long scheduledNanos) {
+        if (order.isCancel()) {
+            cancels++;
+        } else {
+            tracker.expect(clientOrderId(order), scheduledNanos);
+        }
+        byte[] value = "binary".equals(config.getCodec()) ? encodeBinary(order) : encodeJson(order);
+        String topic = config.getOrderTopic().isEmpty() ? order.getMarketKey() : config.getOrderTopic();
+        producer.send(new ProducerRecord<>(topic, order.getMarketKey(), value), (metadata, e) -> {
+            if (e != null) {
+                failed.incrementAndGet();
+                System.err.println("Failed to send order " + order.getSequence() + ": " + e.getMessage());
+            } else {
+                acked.incrementAndGet();
+            }
+        });
+        sent++;
+    }
+
+    // 취소는 대상 주문의 주문 요청 ID
+    private String clientOrderId(FlowOrder order) {
+        FlowOrder target = order.isCancel() ? order.getCancelTarget() : order;
+        return "lg-" + config.getRunId() + "-" + target.getSequence();
+    }
+
+    private byte[] encodeJson(FlowOrder order) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("clientOrderId", clientOrderId(order));
+        message.put("memberIdx", order.getMemberIdx());
+        message.put("memberUuid", order.getMemberUuid());
+        message.put("marketName", order.getMarketName());
+        message.put("coinName", order.getCoinName());
+        if (order.isCancel()) {
+            message.put("orderStatus", "CANCELED");
+        } else {
+            message.put("coinAmount", order.getCoinAmount());
+            message.put("orderPrice", order.getOrderPrice());
+            message.put("orderType", order.isBuy() ? "BUY" : "SELL");
+            message.put("executionType", order.isMarketOrder() ? "MARKET" : "LIMIT");
+            message.put("orderStatus", "PENDING");
+            message.put("fee", BigDecimal.ZERO);
+        }
+        message.put("createdAt", LocalDateTime.now());
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] encodeBinary(FlowOrder order) {
+        WireOrder wire = new WireOrder();
+        wire.setClientOrderId(clientOrderId(order));
+        wire.setMemberIdx(order.getMemberIdx());
+        wire.setMemberUuid(order.getMemberUuid());
+        wire.setMarketName(order.getMarketName());
+        wire.setCoinName(order.getCoinName());
+        if (order.isCancel()) {
+            wire.setOrderStatus(CANCELED);
+        } else {
+            wire.setCoinAmount(order.getCoinAmount());
+            wire.setOrderPrice(order.getOrderPrice());
+            wire.setOrderType(order.isBuy() ? BUY : SELL);
+            wire.setExecutionType(order.isMarketOrder() ? MARKET : LIMIT);
+            wire.setOrderStatus(PENDING);
+            wire.setFee(BigDecimal.ZERO);
+        }
+        wire.setCreatedAt(LocalDateTime.now());
+        return WireCodec.encodeOrder(wire);
+    }
+
+    public void flush() {
+        producer.flush();
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getCancels() {
+        return cancels;
+    }
+
+    public long getAcked() {
+        return acked.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
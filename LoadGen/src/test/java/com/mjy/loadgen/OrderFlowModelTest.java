@@ -0,0 +1,85 @@
+package com.mjy.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderFlowModelTest {
+
+    private LoadGenConfig createConfig(long seed, int rate) {
+        Properties properties = new Properties();
+        properties.setProperty("seed", String.valueOf(seed));
+        properties.setProperty("rate", String.valueOf(rate));
+        properties.setProperty("markets", "BTC-KRW,ETH-KRW");
+        properties.setProperty("members", "10");
+        properties.setProperty("tick-size", "100");
+        properties.setProperty("start-price", "5000");
+        properties.setProperty("cancel-ratio", "0.2");
+        properties.setProperty("cancel-window", "50");
+        return LoadGenConfig.of(properties);
+    }
+
+    private List<String> generate(LoadGenConfig config, int count) {
+        OrderFlowModel model = new OrderFlowModel(config);
+        List<String> flow = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            flow.add(model.next().toString());
+        }
+        return flow;
+    }
+
+    @Test
+    public void testSameSeedReproducesSameFlow() {
+        // given : 전송 설정(rate)만 다르고 seed가 같다
+        List<String> first = generate(createConfig(7, 1000), 5000);
+        List<String> second = generate(createConfig(7, 50000), 5000);
+
+        // when
+        List<String> otherSeed = generate(createConfig(8, 1000), 5000);
+
+        // then
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+    }
+
+    @Test
+    public void testOrdersFollowMarketScaleAndCancelEachOrderOnce() {
+        // given
+        LoadGenConfig config = createConfig(3, 1000);
+        OrderFlowModel model = new OrderFlowModel(config);
+        Set<Long> issued = new HashSet<>();
+        Set<Long> canceled = new HashSet<>();
+        int cancels = 0;
+
+        // when
+        for (int i = 0; i < 20000; i++) {
+            FlowOrder order = model.next();
+
+            // then
+            assertTrue(order.getMemberIdx() >= 1 && order.getMemberIdx() <= 10);
+            if (order.isCancel()) {
+                cancels++;
+                FlowOrder target = order.getCancelTarget();
+                assertTrue(issued.contains(target.getSequence()));
+                assertTrue(canceled.add(target.getSequence()));
+                assertEquals(target.getMarketKey(), order.getMarketKey());
+                assertEquals(target.getMemberUuid(), order.getMemberUuid());
+                assertFalse(target.isMarketOrder());
+            } else {
+                issued.add(order.getSequence());
+                assertTrue(order.getOrderPrice().signum() > 0);
+                assertEquals(0, order.getOrderPrice().remainder(config.getTickSize()).signum());
+                assertEquals(0, order.getCoinAmount().remainder(config.getQuantityStep()).signum());
+                assertTrue(order.getCoinAmount().compareTo(BigDecimal.ZERO) > 0);
+            }
+        }
+        assertTrue(cancels > 2000 && cancels < 6000);
+    }
+}
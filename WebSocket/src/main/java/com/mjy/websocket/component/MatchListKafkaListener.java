@@ -1,7 +1,8 @@
 package com.mjy.websocket.component;
 
-import com.mjy.websocket.dto.CoinOrderDTO;
 import com.mjy.websocket.dto.MatchOrderDTO;
+import com.mjy.websocket.dto.TradeDTO;
+import com.mjy.websocket.enums.OrderType;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
@@ -18,27 +19,34 @@ public class MatchListKafkaListener {
         this.messagingTemplate = messagingTemplate;
     }
 
+    // 체결 한 건을 taker/maker 주문별 체결로 나눠 각 회원에게 보낸다
     @KafkaListener(topics = "Match-List", groupId = "coinOrderGroup", containerFactory = "matchListKafkaListenerContainerFactory")
-    public void listen(Map<String, List<CoinOrderDTO>> matchListMap) {
-        for (Map.Entry<String, List<CoinOrderDTO>> entry : matchListMap.entrySet()) {
+    public void listen(Map<String, List<TradeDTO>> tradeListMap) {
+        for (Map.Entry<String, List<TradeDTO>> entry : tradeListMap.entrySet()) {
 
             String key = entry.getKey();
-            List<CoinOrderDTO> matchList = entry.getValue();
+            List<TradeDTO> tradeList = entry.getValue();
 
-            for (CoinOrderDTO coinOrderDTO : matchList) {
-                MatchOrderDTO matchOrderDTO = new MatchOrderDTO();
-
-                matchOrderDTO.setMarketName(coinOrderDTO.getMarketName());
-                matchOrderDTO.setCoinName(coinOrderDTO.getCoinName());
-                matchOrderDTO.setCoinAmount(coinOrderDTO.getCoinAmount());
-                matchOrderDTO.setExecutionPrice(coinOrderDTO.getExecutionPrice());
-                matchOrderDTO.setOrderPrice(coinOrderDTO.getOrderPrice());
-                matchOrderDTO.setOrderType(coinOrderDTO.getOrderType());
-                matchOrderDTO.setCreatedAt(coinOrderDTO.getCreatedAt());
-                matchOrderDTO.setMatchedAt(coinOrderDTO.getMatchedAt());
-
-                messagingTemplate.convertAndSendToUser(coinOrderDTO.getMemberUuid(), "/topic/coin/" + key + "/order", matchOrderDTO);
+            for (TradeDTO trade : tradeList) {
+                messagingTemplate.convertAndSendToUser(trade.getTakerMemberUuid(), "/topic/coin/" + key + "/order",
+                        createMatchOrder(trade, trade.getTakerOrderUuid(), trade.getTakerOrderType()));
+                messagingTemplate.convertAndSendToUser(trade.getMakerMemberUuid(), "/topic/coin/" + key + "/order",
+                        createMatchOrder(trade, trade.getMakerOrderUuid(), trade.getMakerOrderType()));
             }
         }
     }
+
+    private MatchOrderDTO createMatchOrder(TradeDTO trade, String uuid, OrderType orderType) {
+        MatchOrderDTO matchOrderDTO = new MatchOrderDTO();
+
+        matchOrderDTO.setUuid(uuid);
+        matchOrderDTO.setMatchIdx(trade.getTradeId());
+        matchOrderDTO.setMarketName(trade.getMarketName());
+        matchOrderDTO.setCoinName(trade.getCoinName());
+        matchOrderDTO.setCoinAmount(trade.getQuantity());
+        matchOrderDTO.setExecutionPrice(trade.getPrice());
+        matchOrderDTO.setOrderType(orderType);
+        matchOrderDTO.setMatchedAt(trade.getMatchedAt());
+        return matchOrderDTO;
+    }
 }
@@ -2,9 +2,11 @@ package com.mjy.websocket.config;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mjy.websocket.dto.CoinOrderDTO;
 import com.mjy.websocket.dto.PriceVolumeDTO;
+import com.mjy.websocket.dto.TradeDTO;
 import com.mjy.websocket.util.CustomJsonDeserializer;
+import com.mjy.websocket.util.WireMapper;
+import com.mjy.wire.WireDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.context.annotation.Bean;
@@ -27,20 +29,23 @@ public class KafkaConsumerConfig {
     }
 
     @Bean
-    public ConsumerFactory<String, Map<String, List<CoinOrderDTO>>> matchListConsumerFactory() {
+    public ConsumerFactory<String, Map<String, List<TradeDTO>>> matchListConsumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "coinOrderGroup");
+        // 체결 엔진 Kafka 트랜잭션 모드에서 중단된 트랜잭션의 체결은 읽지 않는다
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
 
+        // 체결 엔진 codec 설정(coin.engine.kafka.codec)과 관계없이 JSON/바이너리를 모두 읽는다
         return new DefaultKafkaConsumerFactory<>(config,
                 new StringDeserializer(),
-                new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
-                }));
+                new WireDeserializer<>(new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
+                }), WireMapper::decodeTradeList));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Map<String, List<CoinOrderDTO>>> matchListKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, Map<String, List<CoinOrderDTO>>> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, Map<String, List<TradeDTO>>> matchListKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Map<String, List<TradeDTO>>> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(matchListConsumerFactory());
         return factory;
     }
@@ -50,11 +55,13 @@ public class KafkaConsumerConfig {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "coinOrderGroup");
+        // 체결 엔진 Kafka 트랜잭션 모드에서 중단된 트랜잭션의 체결은 읽지 않는다
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
 
         return new DefaultKafkaConsumerFactory<>(config,
                 new StringDeserializer(),
-                new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
-                }));
+                new WireDeserializer<>(new CustomJsonDeserializer<>(objectMapper, new TypeReference<>() {
+                }), WireMapper::decodePriceVolume));
     }
 
     @Bean
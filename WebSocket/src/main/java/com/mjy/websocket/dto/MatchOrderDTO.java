@@ -11,13 +11,13 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public class MatchOrderDTO {
+    private String uuid; // 체결된 주문 uuid (부분 체결이어도 원래 주문 uuid)
+    private String matchIdx; // 체결 ID (양쪽 주문이 같다)
     private String marketName; // 예: KRW
     private String coinName; // 예: BTC
-    private BigDecimal coinAmount; // 매수/매도 코인 개수
-    private BigDecimal orderPrice; // 주문가 (사용자가 입력한 가격)
+    private BigDecimal coinAmount; // 체결 수량
     private BigDecimal executionPrice; // 체결가 (실제로 거래된 가격)
     private OrderType orderType; // 매수/매도 타입(enum)
     private OrderStatus orderStatus; // 거래 상태 (체결/미체결/취소)
-    private LocalDateTime createdAt; // 등록일자
     private LocalDateTime matchedAt; // 체결일자
 }
@@ -0,0 +1,39 @@
+package com.mjy.websocket.dto;
+
+import com.mjy.websocket.enums.OrderType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 체결 한 건 (체결 목록 Match-List), 매수/매도 주문별 체결은 taker/maker 필드로 나눠 만든다
+@Getter
+@Setter
+public class TradeDTO {
+    private String tradeId; // 체결 ID (양쪽 주문의 matchIdx)
+    private String marketName; // 예: KRW
+    private String coinName; // 예: BTC
+    private BigDecimal price; // 체결가
+    private BigDecimal quantity; // 체결 수량
+    private OrderType takerOrderType; // taker 주문 매수/매도 (maker는 반대)
+    private String takerOrderUuid;
+    private Long takerMemberIdx;
+    private String takerMemberUuid;
+    private String makerOrderUuid;
+    private Long makerMemberIdx;
+    private String makerMemberUuid;
+    private LocalDateTime matchedAt; // 체결일자
+    private String takerClientOrderId; // taker 주문 요청 ID
+
+    public TradeDTO() {
+    }
+
+    // maker 주문 매수/매도 (taker 반대)
+    public OrderType getMakerOrderType() {
+        if (takerOrderType == null) {
+            return null;
+        }
+        return takerOrderType == OrderType.BUY ? OrderType.SELL : OrderType.BUY;
+    }
+}
@@ -0,0 +1,63 @@
+package com.mjy.websocket.util;
+
+import com.mjy.websocket.dto.PriceVolumeDTO;
+import com.mjy.websocket.dto.TradeDTO;
+import com.mjy.websocket.enums.OrderType;
+import com.mjy.wire.WireCodec;
+import com.mjy.wire.WirePriceVolume;
+import com.mjy.wire.WireTrade;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Kafka 바이너리 전송 형식(Wire 모듈) -> 체결 목록/가격·거래량 DTO 변환 (JSON에서 읽던 필드만)
+public class WireMapper {
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+
+    // 체결 목록 토픽 (Match-List), 체결마다 한 건
+    public static Map<String, List<TradeDTO>> decodeTradeList(byte[] data) {
+        Map<String, List<TradeDTO>> tradeList = new LinkedHashMap<>();
+        WireCodec.decodeTradeList(data).forEach((key, wireTrades) -> {
+            List<TradeDTO> trades = new ArrayList<>(wireTrades.size());
+            for (WireTrade wire : wireTrades) {
+                trades.add(fromWire(wire));
+            }
+            tradeList.put(key, trades);
+        });
+        return tradeList;
+    }
+
+    // 가격/거래량 토픽 (Price-Volume)
+    public static Map<String, List<PriceVolumeDTO>> decodePriceVolume(byte[] data) {
+        Map<String, List<PriceVolumeDTO>> priceVolumeMap = new LinkedHashMap<>();
+        WireCodec.decodePriceVolume(data).forEach((key, wirePriceVolumes) -> {
+            List<PriceVolumeDTO> priceVolumes = new ArrayList<>(wirePriceVolumes.size());
+            for (WirePriceVolume wire : wirePriceVolumes) {
+                priceVolumes.add(new PriceVolumeDTO(wire.getPrice(), wire.getVolume()));
+            }
+            priceVolumeMap.put(key, priceVolumes);
+        });
+        return priceVolumeMap;
+    }
+
+    private static TradeDTO fromWire(WireTrade wire) {
+        TradeDTO trade = new TradeDTO();
+        trade.setTradeId(wire.getTradeId());
+        trade.setMarketName(wire.getMarketName());
+        trade.setCoinName(wire.getCoinName());
+        trade.setPrice(wire.getPrice());
+        trade.setQuantity(wire.getQuantity());
+        trade.setTakerOrderType(wire.getTakerOrderType() < 0 ? null : ORDER_TYPES[wire.getTakerOrderType()]);
+        trade.setTakerOrderUuid(wire.getTakerOrderUuid());
+        trade.setTakerMemberIdx(wire.getTakerMemberIdx());
+        trade.setTakerMemberUuid(wire.getTakerMemberUuid());
+        trade.setMakerOrderUuid(wire.getMakerOrderUuid());
+        trade.setMakerMemberIdx(wire.getMakerMemberIdx());
+        trade.setMakerMemberUuid(wire.getMakerMemberUuid());
+        trade.setMatchedAt(wire.getMatchedAt());
+        trade.setTakerClientOrderId(wire.getTakerClientOrderId());
+        return trade;
+    }
+}
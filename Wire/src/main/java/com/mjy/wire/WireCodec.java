@@ -0,0 +1,250 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문 / 체결 목록 / 가격·거래량 메시지 인코딩과 디코딩 (스키마는 WireFormat 참고).
+ * JSON과 달리 필드 이름과 ISO 시각 문자열을 반복하지 않고, 값이 없는 필드는 존재 비트만 남긴다.
+ */
+public final class WireCodec {
+    private static final int ORDER_SIZE_HINT = 160;
+    private static final int TRADE_SIZE_HINT = 150;
+
+    private WireCodec() {
+    }
+
+    public static byte[] encodeOrder(WireOrder order) {
+        WireWriter writer = new WireWriter(ORDER_SIZE_HINT);
+        writer.writeHeader(WireFormat.TYPE_ORDER);
+        writeOrder(writer, order);
+        return writer.toByteArray();
+    }
+
+    public static WireOrder decodeOrder(byte[] data) {
+        WireReader reader = new WireReader(data);
+        reader.readHeader(WireFormat.TYPE_ORDER);
+        return readOrder(reader);
+    }
+
+    public static byte[] encodeTradeList(Map<String, List<WireTrade>> tradeList) {
+        WireWriter writer = new WireWriter(32 + TRADE_SIZE_HINT * countValues(tradeList));
+        writer.writeHeader(WireFormat.TYPE_TRADE_LIST);
+        writer.writeInt(tradeList.size());
+        for (Map.Entry<String, List<WireTrade>> entry : tradeList.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeInt(entry.getValue().size());
+            for (WireTrade trade : entry.getValue()) {
+                writeTrade(writer, trade);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static Map<String, List<WireTrade>> decodeTradeList(byte[] data) {
+        WireReader reader = new WireReader(data);
+        reader.readHeader(WireFormat.TYPE_TRADE_LIST);
+        int markets = reader.readInt();
+        Map<String, List<WireTrade>> tradeList = new LinkedHashMap<>();
+        for (int i = 0; i < markets; i++) {
+            String key = reader.readString();
+            int count = reader.readInt();
+            List<WireTrade> trades = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                trades.add(readTrade(reader));
+            }
+            tradeList.put(key, trades);
+        }
+        return tradeList;
+    }
+
+    public static byte[] encodePriceVolume(Map<String, List<WirePriceVolume>> priceVolumeMap) {
+        WireWriter writer = new WireWriter(32 + 20 * countValues(priceVolumeMap));
+        writer.writeHeader(WireFormat.TYPE_PRICE_VOLUME);
+        writer.writeInt(priceVolumeMap.size());
+        for (Map.Entry<String, List<WirePriceVolume>> entry : priceVolumeMap.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeInt(entry.getValue().size());
+            for (WirePriceVolume priceVolume : entry.getValue()) {
+                BigDecimal price = priceVolume.getPrice();
+                BigDecimal volume = priceVolume.getVolume();
+                writer.writeByte((price != null ? 1 : 0) | (volume != null ? 2 : 0));
+                if (price != null) {
+                    writer.writeDecimal(price);
+                }
+                if (volume != null) {
+                    writer.writeDecimal(volume);
+                }
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static Map<String, List<WirePriceVolume>> decodePriceVolume(byte[] data) {
+        WireReader reader = new WireReader(data);
+        reader.readHeader(WireFormat.TYPE_PRICE_VOLUME);
+        int markets = reader.readInt();
+        Map<String, List<WirePriceVolume>> priceVolumeMap = new LinkedHashMap<>();
+        for (int i = 0; i < markets; i++) {
+            String key = reader.readString();
+            int count = reader.readInt();
+            List<WirePriceVolume> priceVolumes = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                byte present = reader.readByte();
+                BigDecimal price = (present & 1) != 0 ? reader.readDecimal() : null;
+                BigDecimal volume = (present & 2) != 0 ? reader.readDecimal() : null;
+                priceVolumes.add(new WirePriceVolume(price, volume));
+            }
+            priceVolumeMap.put(key, priceVolumes);
+        }
+        return priceVolumeMap;
+    }
+
+    // 존재 비트 : WireOrder 필드 순서 (idx = bit 0 ... uuid = bit 16, clientOrderId = bit 17)
+    private static void writeOrder(WireWriter writer, WireOrder order) {
+        int present = bit(0, order.getIdx()) | bit(1, order.getMemberIdx()) | bit(2, order.getMemberUuid())
+                | bit(3, order.getMarketName()) | bit(4, order.getCoinName()) | bit(5, order.getCoinAmount())
+                | bit(6, order.getOrderPrice()) | bit(7, order.getTriggerPrice()) | bit(8, order.getExecutionPrice())
+                | ordinalBit(9, order.getOrderType()) | ordinalBit(10, order.getExecutionType())
+                | ordinalBit(11, order.getOrderStatus()) | bit(12, order.getFee()) | bit(13, order.getCreatedAt())
+                | bit(14, order.getMatchedAt()) | bit(15, order.getMatchIdx()) | bit(16, order.getUuid())
+                | bit(17, order.getClientOrderId());
+        writer.writeInt(present);
+
+        if (order.getIdx() != null) writer.writeLong(order.getIdx());
+        if (order.getMemberIdx() != null) writer.writeLong(order.getMemberIdx());
+        writeString(writer, order.getMemberUuid());
+        writeString(writer, order.getMarketName());
+        writeString(writer, order.getCoinName());
+        writeDecimal(writer, order.getCoinAmount());
+        writeDecimal(writer, order.getOrderPrice());
+        writeDecimal(writer, order.getTriggerPrice());
+        writeDecimal(writer, order.getExecutionPrice());
+        writeOrdinal(writer, order.getOrderType());
+        writeOrdinal(writer, order.getExecutionType());
+        writeOrdinal(writer, order.getOrderStatus());
+        writeDecimal(writer, order.getFee());
+        writeTimestamp(writer, order.getCreatedAt());
+        writeTimestamp(writer, order.getMatchedAt());
+        writeString(writer, order.getMatchIdx());
+        writeString(writer, order.getUuid());
+        writeString(writer, order.getClientOrderId());
+    }
+
+    private static WireOrder readOrder(WireReader reader) {
+        int present = reader.readInt();
+        WireOrder order = new WireOrder();
+        if (has(present, 0)) order.setIdx(reader.readLong());
+        if (has(present, 1)) order.setMemberIdx(reader.readLong());
+        if (has(present, 2)) order.setMemberUuid(reader.readString());
+        if (has(present, 3)) order.setMarketName(reader.readString());
+        if (has(present, 4)) order.setCoinName(reader.readString());
+        if (has(present, 5)) order.setCoinAmount(reader.readDecimal());
+        if (has(present, 6)) order.setOrderPrice(reader.readDecimal());
+        if (has(present, 7)) order.setTriggerPrice(reader.readDecimal());
+        if (has(present, 8)) order.setExecutionPrice(reader.readDecimal());
+        if (has(present, 9)) order.setOrderType(reader.readByte());
+        if (has(present, 10)) order.setExecutionType(reader.readByte());
+        if (has(present, 11)) order.setOrderStatus(reader.readByte());
+        if (has(present, 12)) order.setFee(reader.readDecimal());
+        if (has(present, 13)) order.setCreatedAt(reader.readTimestamp());
+        if (has(present, 14)) order.setMatchedAt(reader.readTimestamp());
+        if (has(present, 15)) order.setMatchIdx(reader.readString());
+        if (has(present, 16)) order.setUuid(reader.readString());
+        if (has(present, 17)) order.setClientOrderId(reader.readString());
+        return order;
+    }
+
+    // 존재 비트 : WireTrade 필드 순서 (tradeId = bit 0 ... takerClientOrderId = bit 13)
+    private static void writeTrade(WireWriter writer, WireTrade trade) {
+        int present = bit(0, trade.getTradeId()) | bit(1, trade.getMarketName()) | bit(2, trade.getCoinName())
+                | bit(3, trade.getPrice()) | bit(4, trade.getQuantity()) | ordinalBit(5, trade.getTakerOrderType())
+                | bit(6, trade.getTakerOrderUuid()) | bit(7, trade.getTakerMemberIdx()) | bit(8, trade.getTakerMemberUuid())
+                | bit(9, trade.getMakerOrderUuid()) | bit(10, trade.getMakerMemberIdx()) | bit(11, trade.getMakerMemberUuid())
+                | bit(12, trade.getMatchedAt()) | bit(13, trade.getTakerClientOrderId());
+        writer.writeInt(present);
+
+        writeString(writer, trade.getTradeId());
+        writeString(writer, trade.getMarketName());
+        writeString(writer, trade.getCoinName());
+        writeDecimal(writer, trade.getPrice());
+        writeDecimal(writer, trade.getQuantity());
+        writeOrdinal(writer, trade.getTakerOrderType());
+        writeString(writer, trade.getTakerOrderUuid());
+        if (trade.getTakerMemberIdx() != null) writer.writeLong(trade.getTakerMemberIdx());
+        writeString(writer, trade.getTakerMemberUuid());
+        writeString(writer, trade.getMakerOrderUuid());
+        if (trade.getMakerMemberIdx() != null) writer.writeLong(trade.getMakerMemberIdx());
+        writeString(writer, trade.getMakerMemberUuid());
+        writeTimestamp(writer, trade.getMatchedAt());
+        writeString(writer, trade.getTakerClientOrderId());
+    }
+
+    private static WireTrade readTrade(WireReader reader) {
+        int present = reader.readInt();
+        WireTrade trade = new WireTrade();
+        if (has(present, 0)) trade.setTradeId(reader.readString());
+        if (has(present, 1)) trade.setMarketName(reader.readString());
+        if (has(present, 2)) trade.setCoinName(reader.readString());
+        if (has(present, 3)) trade.setPrice(reader.readDecimal());
+        if (has(present, 4)) trade.setQuantity(reader.readDecimal());
+        if (has(present, 5)) trade.setTakerOrderType(reader.readByte());
+        if (has(present, 6)) trade.setTakerOrderUuid(reader.readString());
+        if (has(present, 7)) trade.setTakerMemberIdx(reader.readLong());
+        if (has(present, 8)) trade.setTakerMemberUuid(reader.readString());
+        if (has(present, 9)) trade.setMakerOrderUuid(reader.readString());
+        if (has(present, 10)) trade.setMakerMemberIdx(reader.readLong());
+        if (has(present, 11)) trade.setMakerMemberUuid(reader.readString());
+        if (has(present, 12)) trade.setMatchedAt(reader.readTimestamp());
+        if (has(present, 13)) trade.setTakerClientOrderId(reader.readString());
+        return trade;
+    }
+
+    private static int bit(int index, Object value) {
+        return value != null ? 1 << index : 0;
+    }
+
+    private static int ordinalBit(int index, int ordinal) {
+        return ordinal >= 0 ? 1 << index : 0;
+    }
+
+    private static boolean has(int present, int index) {
+        return (present & (1 << index)) != 0;
+    }
+
+    private static void writeString(WireWriter writer, String value) {
+        if (value != null) {
+            writer.writeString(value);
+        }
+    }
+
+    private static void writeDecimal(WireWriter writer, BigDecimal value) {
+        if (value != null) {
+            writer.writeDecimal(value);
+        }
+    }
+
+    private static void writeOrdinal(WireWriter writer, int ordinal) {
+        if (ordinal >= 0) {
+            writer.writeByte(ordinal);
+        }
+    }
+
+    private static void writeTimestamp(WireWriter writer, LocalDateTime value) {
+        if (value != null) {
+            writer.writeTimestamp(value);
+        }
+    }
+
+    private static int countValues(Map<String, ? extends List<?>> map) {
+        int count = 0;
+        for (List<?> values : map.values()) {
+            count += values.size();
+        }
+        return count;
+    }
+}
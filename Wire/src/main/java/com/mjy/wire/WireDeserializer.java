@@ -0,0 +1,39 @@
+package com.mjy.wire;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * JSON / 바이너리 자동 판별 역직렬화.
+ * 첫 바이트가 WireFormat.MAGIC이면 바이너리, 아니면 JSON으로 읽으므로 프로듀서가 토픽 형식을 바꾸는 동안에도
+ * 토픽에 두 형식이 섞여 있어도 된다.
+ */
+public class WireDeserializer<T> implements Deserializer<T> {
+    private final Deserializer<T> json;
+    private final Function<byte[], T> decoder;
+
+    public WireDeserializer(Deserializer<T> json, Function<byte[], T> decoder) {
+        this.json = json;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (WireFormat.isBinary(data)) {
+            return decoder.apply(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
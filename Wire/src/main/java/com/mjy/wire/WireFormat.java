@@ -0,0 +1,39 @@
+package com.mjy.wire;
+
+/**
+ * Kafka 토픽 바이너리 전송 형식 (Exchange -> Coin 주문, Coin -> WebSocket 체결 목록/가격·거래량).
+ * 모든 메시지는 [MAGIC][VERSION][TYPE] 3바이트 헤더로 시작한다. JSON 메시지는 '{' 또는 '['로 시작하므로
+ * 첫 바이트만 보고 JSON인지 바이너리인지 구분하고, 컨슈머는 토픽별 설정과 관계없이 두 형식을 모두 읽는다.
+ *
+ * 버전 2 스키마 (빅 엔디언, 정수/실수는 고정 길이, 버전 1은 주문 요청 ID(bit 17)가 없는 것만 다르다)
+ *   주문        : [int 필드 존재 비트] + 존재하는 필드만 WireOrder 필드 순서대로
+ *   체결 목록   : [int 마켓 수] + 마켓마다 [문자열 마켓 키][int 체결 수][체결...]
+ *   체결        : [int 필드 존재 비트] + 존재하는 필드만 WireTrade 필드 순서대로 (체결 하나에 한 번, 매수/매도 주문 쌍이 아니다)
+ *   가격·거래량 : [int 마켓 수] + 마켓마다 [문자열 마켓 키][int 개수][byte 존재 비트][가격][거래량]...
+ *   long       : 8바이트
+ *   문자열     : [unsigned short 길이] + UTF-8
+ *   BigDecimal : [byte scale][long unscaled], unscaled가 long을 넘거나 scale이 byte를 넘으면 [byte -128][int scale][short 길이][unscaled 바이트]
+ *   enum       : [byte ordinal] (각 앱의 enum 상수 순서가 같아야 하므로 순서를 바꾸지 말고 뒤에 추가)
+ *   시각       : [long epoch micros] (LocalDateTime을 UTC로 보고 변환, 마이크로초 미만은 버린다)
+ * 필드를 추가하거나 인코딩을 바꾸면 VERSION을 올리고, 디코더는 MIN_VERSION ~ VERSION 밖의 버전을 거부한다.
+ * 새 버전은 컨슈머를 먼저 배포한 뒤 프로듀서를 배포한다.
+ */
+public final class WireFormat {
+    public static final byte MAGIC = (byte) 0xB7;
+    public static final byte VERSION = 2;
+    public static final byte MIN_VERSION = 1;
+
+    public static final byte TYPE_ORDER = 1;
+    public static final byte TYPE_PRICE_VOLUME = 3;
+    public static final byte TYPE_TRADE_LIST = 4; // 2는 이전 체결 목록(주문 쌍) 형식이라 다시 쓰지 않는다
+
+    static final int HEADER_SIZE = 3;
+
+    private WireFormat() {
+    }
+
+    // 바이너리 형식 메시지인지 (아니면 JSON)
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE && data[0] == MAGIC;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mjy.wire;
+
+import java.util.Arrays;
+
+/**
+ * 64비트 주문/체결 id 형식 (Coin 엔진이 만들고 다른 앱은 문자열 그대로 쓰거나 읽기만 한다).
+ *   [부호 0][41비트 EPOCH 이후 밀리초][10비트 노드][12비트 순번]
+ * 노드는 인스턴스 id, 순번은 마켓별 같은 밀리초 안 순번이라 id는 마켓 안에서 유일하고 시간 순서대로 커진다.
+ * Kafka 트랜잭션/복제 모드처럼 같은 레코드를 다시 처리해도 같은 id가 나와야 할 때는 레코드 id를 쓴다.
+ *   [부호 0][47비트 마켓 토픽 오프셋][16비트 레코드 안 순번 (주문 자신은 0, 체결은 1부터)]
+ * 레코드 id는 마켓 안에서 유일하고 도착(오프셋) 순서대로 커진다 (프로듀서 시계인 레코드 타임스탬프는 쓰지 않는다).
+ * 두 형식 모두 마켓 안에서만 유일하므로 저장할 때는 마켓과 함께 키로 쓴다.
+ *
+ * 문자열은 고정 13자리 Crockford Base32 (0-9, A-Z에서 I L O U 제외)라 문자열 순서가 곧 숫자 순서다.
+ * Redis 해시 필드, Kafka 메시지, MySQL 컬럼에 그대로 넣고 키셋 페이지네이션(uuid > ?)에도 그대로 쓴다.
+ */
+public final class WireId {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    public static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    public static final int LENGTH = 13;
+    public static final int RECORD_INDEX_BITS = 16;
+    public static final long MAX_RECORD_INDEX = (1L << RECORD_INDEX_BITS) - 1;
+    public static final long MAX_RECORD_OFFSET = (1L << (63 - RECORD_INDEX_BITS)) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private WireId() {
+    }
+
+    // EPOCH 이전 시각은 EPOCH로 본다
+    public static long compose(long timestampMillis, long node, long sequence) {
+        return (Math.max(0, timestampMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | ((node & MAX_NODE) << SEQUENCE_BITS)
+                | (sequence & MAX_SEQUENCE);
+    }
+
+    // 레코드 id (오프셋, 레코드 안 순번), 범위를 넘으면 IllegalArgumentException
+    public static long composeRecord(long offset, long index) {
+        if (offset < 0 || offset > MAX_RECORD_OFFSET || index < 0 || index > MAX_RECORD_INDEX) {
+            throw new IllegalArgumentException("Record id out of range: offset " + offset + ", index " + index);
+        }
+        return (offset << RECORD_INDEX_BITS) | index;
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static long node(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    public static long sequence(long id) {
+        return id & MAX_SEQUENCE;
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // 형식이 맞지 않으면 IllegalArgumentException (소문자도 읽는다)
+    public static long decode(String text) {
+        if (!isId(text)) {
+            throw new IllegalArgumentException("Not an id: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            id = (id << 5) | VALUES[text.charAt(i)];
+        }
+        return id;
+    }
+
+    // 이 형식의 id인지 (이전 형식 uuid 문자열과 구분)
+    public static boolean isId(String text) {
+        if (text == null || text.length() != LENGTH) {
+            return false;
+        }
+        // 첫 자리는 상위 3비트만 쓰고 부호 비트는 0이다 (0 ~ 7)
+        char first = text.charAt(0);
+        if (first < '0' || first > '7') {
+            return false;
+        }
+        for (int i = 1; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 메시지 스키마 (버전 1). Exchange CoinOrder, Coin/WebSocket CoinOrderDTO 필드를 모두 담고
+ * 각 앱은 자기 DTO와 이 클래스 사이만 변환한다. 필드 순서가 곧 존재 비트 순서이자 인코딩 순서다.
+ */
+public class WireOrder {
+    public static final int NONE = -1; // enum 값 없음
+
+    private Long idx; // 주문 ID
+    private Long memberIdx; // 주문 등록인, member_idx
+    private String memberUuid; // 주문 등록인, member_uuid
+    private String marketName; // 예: KRW
+    private String coinName; // 예: BTC
+    private BigDecimal coinAmount; // 매수/매도 코인 개수
+    private BigDecimal orderPrice; // 주문가
+    private BigDecimal triggerPrice; // 스탑 주문 발동가
+    private BigDecimal executionPrice; // 체결가
+    private int orderType = NONE; // OrderType ordinal (없으면 NONE)
+    private int executionType = NONE; // ExecutionType ordinal (없으면 NONE)
+    private int orderStatus = NONE; // OrderStatus ordinal (없으면 NONE)
+    private BigDecimal fee; // 수수료
+    private LocalDateTime createdAt; // 등록일자
+    private LocalDateTime matchedAt; // 체결일자
+    private String matchIdx; // 매수 idx와 매도 idx를 결합한 매치 ID
+    private String uuid; // redis 전용 uuid
+    private String clientOrderId; // 주문 요청 ID (버전 2부터)
+
+    public Long getIdx() {
+        return idx;
+    }
+
+    public void setIdx(Long idx) {
+        this.idx = idx;
+    }
+
+    public Long getMemberIdx() {
+        return memberIdx;
+    }
+
+    public void setMemberIdx(Long memberIdx) {
+        this.memberIdx = memberIdx;
+    }
+
+    public String getMemberUuid() {
+        return memberUuid;
+    }
+
+    public void setMemberUuid(String memberUuid) {
+        this.memberUuid = memberUuid;
+    }
+
+    public String getMarketName() {
+        return marketName;
+    }
+
+    public void setMarketName(String marketName) {
+        this.marketName = marketName;
+    }
+
+    public String getCoinName() {
+        return coinName;
+    }
+
+    public void setCoinName(String coinName) {
+        this.coinName = coinName;
+    }
+
+    public BigDecimal getCoinAmount() {
+        return coinAmount;
+    }
+
+    public void setCoinAmount(BigDecimal coinAmount) {
+        this.coinAmount = coinAmount;
+    }
+
+    public BigDecimal getOrderPrice() {
+        return orderPrice;
+    }
+
+    public void setOrderPrice(BigDecimal orderPrice) {
+        this.orderPrice = orderPrice;
+    }
+
+    public BigDecimal getTriggerPrice() {
+        return triggerPrice;
+    }
+
+    public void setTriggerPrice(BigDecimal triggerPrice) {
+        this.triggerPrice = triggerPrice;
+    }
+
+    public BigDecimal getExecutionPrice() {
+        return executionPrice;
+    }
+
+    public void setExecutionPrice(BigDecimal executionPrice) {
+        this.executionPrice = executionPrice;
+    }
+
+    public int getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(int orderType) {
+        this.orderType = orderType;
+    }
+
+    public int getExecutionType() {
+        return executionType;
+    }
+
+    public void setExecutionType(int executionType) {
+        this.executionType = executionType;
+    }
+
+    public int getOrderStatus() {
+        return orderStatus;
+    }
+
+    public void setOrderStatus(int orderStatus) {
+        this.orderStatus = orderStatus;
+    }
+
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+    public void setFee(BigDecimal fee) {
+        this.fee = fee;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(LocalDateTime matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+
+    public String getMatchIdx() {
+        return matchIdx;
+    }
+
+    public void setMatchIdx(String matchIdx) {
+        this.matchIdx = matchIdx;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+
+    public void setClientOrderId(String clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
+}
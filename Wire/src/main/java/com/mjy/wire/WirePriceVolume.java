@@ -0,0 +1,24 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+
+/**
+ * 가격·거래량 메시지 스키마 (버전 1), 체결 하나의 체결가와 수량.
+ */
+public class WirePriceVolume {
+    private final BigDecimal price;
+    private final BigDecimal volume;
+
+    public WirePriceVolume(BigDecimal price, BigDecimal volume) {
+        this.price = price;
+        this.volume = volume;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getVolume() {
+        return volume;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 바이너리 메시지 읽기 (WireWriter의 반대).
+ * 메시지가 중간에 끊겼으면 IllegalArgumentException을 던진다.
+ */
+public class WireReader {
+    private final byte[] data;
+    private int position;
+
+    public WireReader(byte[] data) {
+        this.data = data;
+    }
+
+    // 헤더 확인 (형식/버전/메시지 종류가 다르면 IllegalArgumentException)
+    public void readHeader(byte expectedType) {
+        if (!WireFormat.isBinary(data)) {
+            throw new IllegalArgumentException("Not a wire format message");
+        }
+        position = 1;
+        byte version = readByte();
+        if (version < WireFormat.MIN_VERSION || version > WireFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported wire format version " + version);
+        }
+        byte type = readByte();
+        if (type != expectedType) {
+            throw new IllegalArgumentException("Unexpected wire message type " + type + ", expected " + expectedType);
+        }
+    }
+
+    public byte readByte() {
+        require(1);
+        return data[position++];
+    }
+
+    public int readShort() {
+        require(2);
+        return ((data[position++] & 0xFF) << 8) | (data[position++] & 0xFF);
+    }
+
+    public int readInt() {
+        require(4);
+        return ((data[position++] & 0xFF) << 24) | ((data[position++] & 0xFF) << 16)
+                | ((data[position++] & 0xFF) << 8) | (data[position++] & 0xFF);
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public byte[] readBytes(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public String readString() {
+        int length = readShort();
+        require(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() {
+        byte scale = readByte();
+        if (scale != WireWriter.BIG_DECIMAL) {
+            return BigDecimal.valueOf(readLong(), scale);
+        }
+        int bigScale = readInt();
+        return new BigDecimal(new BigInteger(readBytes(readShort())), bigScale);
+    }
+
+    public LocalDateTime readTimestamp() {
+        long micros = readLong();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    public boolean hasRemaining() {
+        return position < data.length;
+    }
+
+    private void require(int bytes) {
+        if (bytes < 0 || position + bytes > data.length) {
+            throw new IllegalArgumentException("Truncated wire message at " + position + " of " + data.length + " bytes");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mjy.wire;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 토픽별 JSON / 바이너리 선택 직렬화.
+ * binary(topic, ...)로 지정한 토픽(또는 binaryForAllTopics로 지정하면 모든 토픽)은 바이너리, 나머지는 JSON 직렬화를 그대로 쓴다.
+ * 설정은 프로듀서 팩토리를 만들 때 끝내고 이후에는 읽기만 한다.
+ */
+public class WireSerializer<T> implements Serializer<T> {
+    private final Serializer<T> json;
+    private final Map<String, Function<T, byte[]>> binaryTopics = new HashMap<>();
+    private Function<T, byte[]> binaryDefault;
+
+    public WireSerializer(Serializer<T> json) {
+        this.json = json;
+    }
+
+    public WireSerializer<T> binary(String topic, Function<T, byte[]> encoder) {
+        binaryTopics.put(topic, encoder);
+        return this;
+    }
+
+    // 마켓별 토픽처럼 토픽 이름이 정해져 있지 않을 때
+    public WireSerializer<T> binaryForAllTopics(Function<T, byte[]> encoder) {
+        this.binaryDefault = encoder;
+        return this;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        Function<T, byte[]> encoder = binaryTopics.getOrDefault(topic, binaryDefault);
+        if (data == null || encoder == null) {
+            return json.serialize(topic, data);
+        }
+        return encoder.apply(data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
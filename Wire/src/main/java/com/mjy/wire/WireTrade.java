@@ -0,0 +1,137 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 체결 메시지 스키마 (버전 2). 체결 하나를 한 번만 담고 매수/매도 쪽 정보는 받는 쪽이 taker/maker 필드로 나눠 본다.
+ * 필드 순서가 곧 존재 비트 순서이자 인코딩 순서다.
+ */
+public class WireTrade {
+    private String tradeId; // 체결 ID (WireId, 양쪽 주문의 matchIdx)
+    private String marketName; // 예: KRW
+    private String coinName; // 예: BTC
+    private BigDecimal price; // 체결가
+    private BigDecimal quantity; // 체결 수량
+    private int takerOrderType = WireOrder.NONE; // taker 주문 OrderType ordinal (없으면 NONE), maker는 반대
+    private String takerOrderUuid; // taker 주문 uuid
+    private Long takerMemberIdx;
+    private String takerMemberUuid;
+    private String makerOrderUuid; // maker 주문 uuid
+    private Long makerMemberIdx;
+    private String makerMemberUuid;
+    private LocalDateTime matchedAt; // 체결일자
+    private String takerClientOrderId; // taker 주문 요청 ID
+
+    public String getTradeId() {
+        return tradeId;
+    }
+
+    public void setTradeId(String tradeId) {
+        this.tradeId = tradeId;
+    }
+
+    public String getMarketName() {
+        return marketName;
+    }
+
+    public void setMarketName(String marketName) {
+        this.marketName = marketName;
+    }
+
+    public String getCoinName() {
+        return coinName;
+    }
+
+    public void setCoinName(String coinName) {
+        this.coinName = coinName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getTakerOrderType() {
+        return takerOrderType;
+    }
+
+    public void setTakerOrderType(int takerOrderType) {
+        this.takerOrderType = takerOrderType;
+    }
+
+    public String getTakerOrderUuid() {
+        return takerOrderUuid;
+    }
+
+    public void setTakerOrderUuid(String takerOrderUuid) {
+        this.takerOrderUuid = takerOrderUuid;
+    }
+
+    public Long getTakerMemberIdx() {
+        return takerMemberIdx;
+    }
+
+    public void setTakerMemberIdx(Long takerMemberIdx) {
+        this.takerMemberIdx = takerMemberIdx;
+    }
+
+    public String getTakerMemberUuid() {
+        return takerMemberUuid;
+    }
+
+    public void setTakerMemberUuid(String takerMemberUuid) {
+        this.takerMemberUuid = takerMemberUuid;
+    }
+
+    public String getMakerOrderUuid() {
+        return makerOrderUuid;
+    }
+
+    public void setMakerOrderUuid(String makerOrderUuid) {
+        this.makerOrderUuid = makerOrderUuid;
+    }
+
+    public Long getMakerMemberIdx() {
+        return makerMemberIdx;
+    }
+
+    public void setMakerMemberIdx(Long makerMemberIdx) {
+        this.makerMemberIdx = makerMemberIdx;
+    }
+
+    public String getMakerMemberUuid() {
+        return makerMemberUuid;
+    }
+
+    public void setMakerMemberUuid(String makerMemberUuid) {
+        this.makerMemberUuid = makerMemberUuid;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(LocalDateTime matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+
+    public String getTakerClientOrderId() {
+        return takerClientOrderId;
+    }
+
+    public void setTakerClientOrderId(String takerClientOrderId) {
+        this.takerClientOrderId = takerClientOrderId;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mjy.wire;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 바이너리 메시지 쓰기 (빅 엔디언, 필요하면 버퍼를 두 배로 늘린다).
+ * 메시지 하나마다 새로 만들어 쓰고 스레드 간에 공유하지 않는다.
+ */
+public class WireWriter {
+    static final byte BIG_DECIMAL = Byte.MIN_VALUE; // scale 자리에 오면 큰 BigDecimal
+
+    private byte[] buffer;
+    private int position;
+
+    public WireWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void writeHeader(byte type) {
+        writeByte(WireFormat.MAGIC);
+        writeByte(WireFormat.VERSION);
+        writeByte(type);
+    }
+
+    public void writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeShort(int value) {
+        ensure(2);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeInt(int value) {
+        ensure(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for wire format: " + bytes.length + " bytes");
+        }
+        writeShort(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeDecimal(BigDecimal value) {
+        int scale = value.scale();
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE && scale > BIG_DECIMAL && scale <= Byte.MAX_VALUE) {
+            writeByte(scale);
+            writeLong(unscaled.longValue());
+            return;
+        }
+        byte[] bytes = unscaled.toByteArray();
+        writeByte(BIG_DECIMAL);
+        writeInt(scale);
+        writeShort(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeTimestamp(LocalDateTime value) {
+        writeLong(value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
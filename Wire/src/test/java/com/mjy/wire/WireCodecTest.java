@@ -0,0 +1,203 @@
+package com.mjy.wire;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireCodecTest {
+
+    private WireOrder createOrder(String uuid) {
+        WireOrder order = new WireOrder();
+        order.setIdx(42L);
+        order.setMemberIdx(7L);
+        order.setMemberUuid("2b005552-ee2b-4851-8857-6e595800395d");
+        order.setMarketName("KRW");
+        order.setCoinName("BTC");
+        order.setCoinAmount(new BigDecimal("0.04000000"));
+        order.setOrderPrice(new BigDecimal("95123000"));
+        order.setExecutionPrice(new BigDecimal("95120000.5"));
+        order.setOrderType(1);
+        order.setExecutionType(3);
+        order.setOrderStatus(2);
+        order.setFee(new BigDecimal("0.0005"));
+        order.setCreatedAt(LocalDateTime.of(2024, 7, 1, 12, 30, 15, 123456789));
+        order.setMatchedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999999000));
+        order.setMatchIdx("Order_1|Order_2");
+        order.setUuid(uuid);
+        order.setClientOrderId("client-" + uuid);
+        return order;
+    }
+
+    private void assertOrderEquals(WireOrder expected, WireOrder actual) {
+        assertEquals(expected.getIdx(), actual.getIdx());
+        assertEquals(expected.getMemberIdx(), actual.getMemberIdx());
+        assertEquals(expected.getMemberUuid(), actual.getMemberUuid());
+        assertEquals(expected.getMarketName(), actual.getMarketName());
+        assertEquals(expected.getCoinName(), actual.getCoinName());
+        assertEquals(expected.getCoinAmount(), actual.getCoinAmount());
+        assertEquals(expected.getOrderPrice(), actual.getOrderPrice());
+        assertEquals(expected.getTriggerPrice(), actual.getTriggerPrice());
+        assertEquals(expected.getExecutionPrice(), actual.getExecutionPrice());
+        assertEquals(expected.getOrderType(), actual.getOrderType());
+        assertEquals(expected.getExecutionType(), actual.getExecutionType());
+        assertEquals(expected.getOrderStatus(), actual.getOrderStatus());
+        assertEquals(expected.getFee(), actual.getFee());
+        assertEquals(expected.getMatchIdx(), actual.getMatchIdx());
+        assertEquals(expected.getUuid(), actual.getUuid());
+        assertEquals(expected.getClientOrderId(), actual.getClientOrderId());
+    }
+
+    @Test
+    public void testOrderRoundTrip() {
+        // given
+        WireOrder order = createOrder("Order_BTC-KRW-1");
+
+        // when
+        WireOrder decoded = WireCodec.decodeOrder(WireCodec.encodeOrder(order));
+
+        // then : 시각은 마이크로초까지 (1970년 이전 포함)
+        assertOrderEquals(order, decoded);
+        assertEquals(LocalDateTime.of(2024, 7, 1, 12, 30, 15, 123456000), decoded.getCreatedAt());
+        assertEquals(order.getMatchedAt(), decoded.getMatchedAt());
+    }
+
+    @Test
+    public void testMissingFieldsStayMissing() {
+        // given : Exchange 신규 주문처럼 idx/체결가/체결일자/enum 일부가 없는 주문
+        WireOrder order = new WireOrder();
+        order.setCoinAmount(new BigDecimal("1"));
+        order.setOrderType(0);
+        order.setUuid("Order_1");
+
+        // when
+        byte[] data = WireCodec.encodeOrder(order);
+        WireOrder decoded = WireCodec.decodeOrder(data);
+
+        // then : 헤더 3 + 존재 비트 4 + 수량 9 + enum 1 + uuid 2+7
+        assertEquals(26, data.length);
+        assertNull(decoded.getIdx());
+        assertNull(decoded.getExecutionPrice());
+        assertNull(decoded.getCreatedAt());
+        assertEquals(0, decoded.getOrderType());
+        assertEquals(WireOrder.NONE, decoded.getExecutionType());
+        assertEquals(WireOrder.NONE, decoded.getOrderStatus());
+        assertOrderEquals(order, decoded);
+    }
+
+    @Test
+    public void testTradeListRoundTrip() {
+        // given : 회원 idx가 없는 체결(일부 필드 없음)과 빈 마켓
+        WireTrade trade = new WireTrade();
+        trade.setTradeId("0ABCDEFGHJKMN");
+        trade.setMarketName("KRW");
+        trade.setCoinName("BTC");
+        trade.setPrice(new BigDecimal("95120000.5"));
+        trade.setQuantity(new BigDecimal("0.04000000"));
+        trade.setTakerOrderType(0);
+        trade.setTakerOrderUuid("0ABCDEFGHJKMP");
+        trade.setTakerMemberIdx(7L);
+        trade.setTakerMemberUuid("2b005552-ee2b-4851-8857-6e595800395d");
+        trade.setMakerOrderUuid("0ABCDEFGHJKMQ");
+        trade.setMakerMemberUuid("9c1d2e3f-0000-4851-8857-6e595800395d");
+        trade.setMatchedAt(LocalDateTime.of(2024, 7, 1, 12, 30, 15, 123456000));
+        trade.setTakerClientOrderId("client-1");
+        Map<String, List<WireTrade>> tradeList = new LinkedHashMap<>();
+        tradeList.put("BTC-KRW", List.of(trade, new WireTrade()));
+        tradeList.put("ETH-KRW", List.of());
+
+        // when
+        Map<String, List<WireTrade>> decoded = WireCodec.decodeTradeList(WireCodec.encodeTradeList(tradeList));
+
+        // then
+        assertEquals(List.of("BTC-KRW", "ETH-KRW"), List.copyOf(decoded.keySet()));
+        WireTrade actual = decoded.get("BTC-KRW").get(0);
+        assertEquals(trade.getTradeId(), actual.getTradeId());
+        assertEquals(trade.getMarketName(), actual.getMarketName());
+        assertEquals(trade.getCoinName(), actual.getCoinName());
+        assertEquals(trade.getPrice(), actual.getPrice());
+        assertEquals(trade.getQuantity(), actual.getQuantity());
+        assertEquals(0, actual.getTakerOrderType());
+        assertEquals(trade.getTakerOrderUuid(), actual.getTakerOrderUuid());
+        assertEquals(trade.getTakerMemberIdx(), actual.getTakerMemberIdx());
+        assertEquals(trade.getTakerMemberUuid(), actual.getTakerMemberUuid());
+        assertEquals(trade.getMakerOrderUuid(), actual.getMakerOrderUuid());
+        assertNull(actual.getMakerMemberIdx());
+        assertEquals(trade.getMakerMemberUuid(), actual.getMakerMemberUuid());
+        assertEquals(trade.getMatchedAt(), actual.getMatchedAt());
+        assertEquals("client-1", actual.getTakerClientOrderId());
+        assertEquals(WireOrder.NONE, decoded.get("BTC-KRW").get(1).getTakerOrderType());
+        assertNull(decoded.get("BTC-KRW").get(1).getTradeId());
+        assertTrue(decoded.get("ETH-KRW").isEmpty());
+    }
+
+    @Test
+    public void testPriceVolumeKeepsLargeAndNegativeScaleDecimals() {
+        // given : long을 넘는 unscaled 값, 음수 scale, 값 없음
+        BigDecimal huge = new BigDecimal("123456789012345678901234567890.123456789");
+        BigDecimal negativeScale = new BigDecimal("1E+3");
+        Map<String, List<WirePriceVolume>> priceVolumeMap = Map.of("BTC-KRW", List.of(
+                new WirePriceVolume(huge, negativeScale), new WirePriceVolume(new BigDecimal("-0.5"), null)));
+
+        // when
+        List<WirePriceVolume> decoded = WireCodec.decodePriceVolume(WireCodec.encodePriceVolume(priceVolumeMap)).get("BTC-KRW");
+
+        // then : scale까지 같은 값
+        assertEquals(huge, decoded.get(0).getPrice());
+        assertEquals(negativeScale, decoded.get(0).getVolume());
+        assertEquals(new BigDecimal("-0.5"), decoded.get(1).getPrice());
+        assertNull(decoded.get(1).getVolume());
+    }
+
+    @Test
+    public void testRejectsUnknownVersionAndWrongType() {
+        // given
+        byte[] data = WireCodec.encodeOrder(createOrder("a"));
+
+        // when & then : 이전 버전은 읽고, 모르는 버전과 다른 종류의 메시지는 거부
+        assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeTradeList(data));
+        WireOrder legacy = new WireOrder();
+        legacy.setUuid("Order_1");
+        byte[] version1 = WireCodec.encodeOrder(legacy);
+        version1[1] = 1;
+        assertEquals("Order_1", WireCodec.decodeOrder(version1).getUuid());
+        data[1] = (byte) (WireFormat.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeOrder(data));
+        byte[] truncated = WireCodec.encodeOrder(createOrder("a"));
+        assertThrows(IllegalArgumentException.class,
+                () -> WireCodec.decodeOrder(Arrays.copyOf(truncated, truncated.length - 1)));
+    }
+
+    @Test
+    public void testSerializerSelectsFormatPerTopicAndDeserializerDetectsIt() {
+        // given : JSON 대신 쓰는 간단한 문자열 직렬화
+        Serializer<WireOrder> json = (topic, order) -> ("{\"uuid\":\"" + order.getUuid() + "\"}").getBytes(StandardCharsets.UTF_8);
+        Deserializer<WireOrder> jsonReader = (topic, data) -> {
+            WireOrder order = new WireOrder();
+            order.setUuid(new String(data, StandardCharsets.UTF_8).replaceAll(".*:\"|\"}", ""));
+            return order;
+        };
+        WireSerializer<WireOrder> serializer = new WireSerializer<>(json).binary("Match-List", WireCodec::encodeOrder);
+        WireDeserializer<WireOrder> deserializer = new WireDeserializer<>(jsonReader, WireCodec::decodeOrder);
+        WireOrder order = createOrder("Order_1");
+
+        // when
+        byte[] binary = serializer.serialize("Match-List", order);
+        byte[] text = serializer.serialize("Price-Volume", order);
+
+        // then
+        assertTrue(WireFormat.isBinary(binary));
+        assertFalse(WireFormat.isBinary(text));
+        assertEquals("Order_1", deserializer.deserialize("Match-List", binary).getUuid());
+        assertEquals("Order_1", deserializer.deserialize("Price-Volume", text).getUuid());
+    }
+}
@@ -0,0 +1,63 @@
+package com.mjy.wire;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireIdTest {
+
+    @Test
+    public void testComposeAndRoundTrip() {
+        // given
+        long timestamp = WireId.EPOCH_MILLIS + 123_456_789L;
+        long id = WireId.compose(timestamp, 517, 4095);
+
+        // when
+        String text = WireId.encode(id);
+
+        // then
+        assertEquals(WireId.LENGTH, text.length());
+        assertTrue(WireId.isId(text));
+        assertEquals(id, WireId.decode(text));
+        assertEquals(id, WireId.decode(text.toLowerCase()));
+        assertEquals(timestamp, WireId.timestampMillis(id));
+        assertEquals(517, WireId.node(id));
+        assertEquals(4095, WireId.sequence(id));
+        assertEquals("0000000000000", WireId.encode(0));
+        assertEquals("7ZZZZZZZZZZZZ", WireId.encode(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTextOrderMatchesNumericOrder() {
+        // given
+        SplittableRandom random = new SplittableRandom(1);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            ids.add(random.nextLong(0, Long.MAX_VALUE));
+        }
+
+        // when
+        List<String> texts = new ArrayList<>();
+        ids.forEach(id -> texts.add(WireId.encode(id)));
+        ids.sort(null);
+        texts.sort(null);
+
+        // then : 문자열 정렬 결과가 숫자 정렬 결과와 같다
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(WireId.encode(ids.get(i)), texts.get(i));
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFormats() {
+        assertFalse(WireId.isId(null));
+        assertFalse(WireId.isId("Order_BTC-KRW-1"));
+        assertFalse(WireId.isId("8000000000000")); // 부호 비트
+        assertFalse(WireId.isId("000000000000U")); // Base32에 없는 문자
+        assertThrows(IllegalArgumentException.class, () -> WireId.decode("Order_1"));
+    }
+}